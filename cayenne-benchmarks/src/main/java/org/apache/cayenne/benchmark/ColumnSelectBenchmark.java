@@ -0,0 +1,78 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.query.ColumnSelect;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ColumnSelect} queries that return scalars and object arrays, i.e. fetches
+ * that bypass object resolving completely.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ColumnSelectBenchmark {
+
+    @Benchmark
+    public List<String> selectSingleColumn(DatabaseState state) {
+        return ObjectSelect.columnQuery(Artist.class, Artist.NAME).select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Object[]> selectMultipleColumns(DatabaseState state) {
+        return ObjectSelect.columnQuery(Artist.class, Artist.NAME, Artist.DATE_OF_BIRTH)
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Object[]> selectColumnsAcrossRelationship(DatabaseState state) {
+        return ObjectSelect.columnQuery(Painting.class, Painting.TITLE, Painting.ARTIST.dot(Artist.NAME))
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Object[]> selectAggregate(DatabaseState state) {
+        return ObjectSelect.columnQuery(Painting.class, Painting.ARTIST.dot(Artist.NAME), Painting.PRICE.sum())
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public BigDecimal selectOneScalar(DatabaseState state) {
+        return ObjectSelect.columnQuery(Painting.class, Painting.PRICE.max())
+                .selectOne(state.newContext());
+    }
+}
@@ -0,0 +1,127 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SQLExec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ObjectContext#commitChanges()}, that goes through the whole flush stack:
+ * diff processing in DefaultDataDomainFlushAction, PK generation, sorting of the operations
+ * and batched SQL execution.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CommitBenchmark {
+
+    @State(Scope.Thread)
+    public static class CommitState {
+
+        @Param({"1", "100", "1000"})
+        public int objectsPerCommit;
+
+        ObjectContext context;
+        List<Artist> artists;
+        int counter;
+
+        @Setup(Level.Iteration)
+        public void setUp(DatabaseState database) {
+            context = database.newContext();
+
+            // drop rows created by the insert benchmarks during the previous iteration,
+            // so that every iteration works against a table of the same size
+            SQLExec.query("DELETE FROM PAINTING WHERE TITLE LIKE 'new_painting%'").update(context);
+            SQLExec.query("DELETE FROM ARTIST WHERE NAME LIKE 'new_artist%'").update(context);
+
+            artists = ObjectSelect.query(Artist.class)
+                    .orderBy(Artist.NAME.asc())
+                    .limit(objectsPerCommit)
+                    .select(context);
+        }
+    }
+
+    @Benchmark
+    public void insert(DatabaseState database, CommitState state) {
+        ObjectContext context = database.newContext();
+        LocalDate birthDate = LocalDate.of(2000, 1, 1);
+
+        for (int i = 0; i < state.objectsPerCommit; i++) {
+            Artist artist = context.newObject(Artist.class);
+            artist.setName("new_artist" + i);
+            artist.setDateOfBirth(birthDate);
+        }
+
+        context.commitChanges();
+    }
+
+    @Benchmark
+    public void insertWithRelationships(DatabaseState database, CommitState state) {
+        ObjectContext context = database.newContext();
+
+        for (int i = 0; i < state.objectsPerCommit; i++) {
+            Artist artist = context.newObject(Artist.class);
+            artist.setName("new_artist" + i);
+
+            Painting painting = context.newObject(Painting.class);
+            painting.setTitle("new_painting" + i);
+            painting.setPrice(BigDecimal.ONE);
+            painting.setArtist(artist);
+        }
+
+        context.commitChanges();
+    }
+
+    @Benchmark
+    public void update(CommitState state) {
+        // every invocation assigns each artist a unique name not used before, so each commit
+        // has real changes to flush
+        String suffix = "_" + state.counter++;
+        int i = 0;
+        for (Artist artist : state.artists) {
+            artist.setName("artist" + i++ + suffix);
+        }
+
+        state.context.commitChanges();
+    }
+}
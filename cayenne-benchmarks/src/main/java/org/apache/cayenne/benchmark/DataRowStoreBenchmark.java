@@ -0,0 +1,150 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DataRowStore#processSnapshotChanges(Object, Map, java.util.Collection,
+ * java.util.Collection, java.util.Collection)}, including delivery of the resulting
+ * SnapshotEvent to a parametrized number of subscribed contexts. Events are dispatched
+ * synchronously, so the listener cost is included in the result.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DataRowStoreBenchmark {
+
+    @State(Scope.Thread)
+    public static class SnapshotState {
+
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        @Param({"0", "100"})
+        public int contexts;
+
+        DefaultEventManager eventManager;
+        DataRowStore store;
+        List<DataContext> subscribers;
+        Map<ObjectId, DataRow> snapshots;
+        Map<ObjectId, DataRow> updates;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            eventManager = new DefaultEventManager(0);
+            store = new DataRowStore(
+                    "benchmark",
+                    new DefaultRuntimeProperties(Collections.<String, String>emptyMap()),
+                    eventManager);
+
+            // keep hard references, as EventManager only holds listeners weakly
+            subscribers = new ArrayList<>(contexts);
+            for (int i = 0; i < contexts; i++) {
+                subscribers.add(new DataContext(null, new ObjectStore(store, new HashMap<>())));
+            }
+
+            snapshots = new HashMap<>();
+            for (int i = 0; i < rows; i++) {
+                DataRow row = new DataRow(4);
+                row.put("ID", (long) i);
+                row.put("NAME", "artist" + i);
+                row.put("DATE_OF_BIRTH", null);
+                snapshots.put(ObjectId.of("Artist", "ID", (long) i), row);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareUpdates() {
+            store.clear();
+            store.processSnapshotChanges(
+                    this,
+                    snapshots,
+                    Collections.emptyList(),
+                    Collections.emptyList(),
+                    Collections.emptyList());
+
+            updates = new HashMap<>();
+            for (Map.Entry<ObjectId, DataRow> e : snapshots.entrySet()) {
+                DataRow row = new DataRow(e.getValue());
+                row.put("NAME", "updated_" + e.getValue().get("NAME"));
+                row.setReplacesVersion(store.getCachedSnapshot(e.getKey()).getVersion());
+                updates.put(e.getKey(), row);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            store.shutdown();
+            eventManager.shutdown();
+        }
+    }
+
+    @Benchmark
+    public DataRowStore updateSnapshots(SnapshotState state) {
+        state.store.processSnapshotChanges(
+                this,
+                state.updates,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList());
+        return state.store;
+    }
+
+    @Benchmark
+    public DataRowStore deleteSnapshots(SnapshotState state) {
+        state.store.processSnapshotChanges(
+                this,
+                Collections.emptyMap(),
+                state.snapshots.keySet(),
+                Collections.emptyList(),
+                Collections.emptyList());
+        return state.store;
+    }
+}
@@ -0,0 +1,131 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.DbGenerator;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.map.DataMap;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared benchmark state that starts a {@link ServerRuntime} on top of an embedded database,
+ * creates the schema and fills it with a dataset of a parametrized size. Each artist gets
+ * {@link #PAINTINGS_PER_ARTIST} paintings.
+ *
+ * @since 4.2
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+    public static final int PAINTINGS_PER_ARTIST = 2;
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    @Param({"hsqldb", "h2"})
+    public BenchmarkDatabase database;
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    public ServerRuntime runtime;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String name = "cayenne_bench_" + DATABASE_COUNTER.incrementAndGet();
+
+        runtime = ServerRuntime.builder()
+                .addConfig("cayenne-benchmark.xml")
+                .jdbcDriver(database.getDriver())
+                .url(database.getUrl(name))
+                .user("sa")
+                .password("")
+                .minConnections(1)
+                .maxConnections(4)
+                .build();
+
+        createSchema();
+        createData();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (runtime != null) {
+            runtime.shutdown();
+            runtime = null;
+        }
+    }
+
+    public ObjectContext newContext() {
+        return runtime.newContext();
+    }
+
+    private void createSchema() throws Exception {
+        DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+        DataMap map = runtime.getDataDomain().getDataMap("benchmark");
+
+        DbGenerator generator = new DbGenerator(
+                node.getAdapter(),
+                map,
+                runtime.getInjector().getInstance(JdbcEventLogger.class));
+        generator.setShouldCreateTables(true);
+        generator.setShouldCreateFKConstraints(true);
+        generator.setShouldCreatePKSupport(true);
+        generator.runGenerator(node.getDataSource());
+    }
+
+    private void createData() {
+        ObjectContext context = newContext();
+        LocalDate birthDate = LocalDate.of(1900, 1, 1);
+
+        for (int i = 0; i < rows; i++) {
+            Artist artist = context.newObject(Artist.class);
+            artist.setName("artist" + i);
+            artist.setDateOfBirth(birthDate.plusDays(i));
+
+            for (int j = 0; j < PAINTINGS_PER_ARTIST; j++) {
+                Painting painting = context.newObject(Painting.class);
+                painting.setTitle("painting" + i + "_" + j);
+                painting.setPrice(BigDecimal.valueOf(i * 10 + j));
+                painting.setArtist(artist);
+            }
+
+            if ((i + 1) % INSERT_CHUNK_SIZE == 0) {
+                context.commitChanges();
+                context = newContext();
+            }
+        }
+
+        context.commitChanges();
+    }
+}
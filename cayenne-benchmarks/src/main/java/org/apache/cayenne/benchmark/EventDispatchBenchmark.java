@@ -0,0 +1,137 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.apache.cayenne.util.Invocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of delivering a single SnapshotEvent to thousands of registered
+ * contexts, as it happens on every commit when contexts synchronization is on. Listener
+ * invocation through {@link Invocation} is compared with plain reflective calls.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    @State(Scope.Thread)
+    public static class ListenersState {
+
+        @Param({"100", "1000", "5000"})
+        public int contexts;
+
+        DefaultEventManager eventManager;
+        DataRowStore store;
+        List<DataContext> subscribers;
+        List<Invocation> invocations;
+        Method snapshotsChanged;
+        SnapshotEvent event;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            // synchronous dispatch, so that the full listener cost is measured
+            eventManager = new DefaultEventManager(0);
+            store = new DataRowStore(
+                    "benchmark",
+                    new DefaultRuntimeProperties(Collections.<String, String>emptyMap()),
+                    eventManager);
+
+            subscribers = new ArrayList<>(contexts);
+            invocations = new ArrayList<>(contexts);
+            for (int i = 0; i < contexts; i++) {
+                DataContext context = new DataContext(null, new ObjectStore(store, new HashMap<>()));
+                subscribers.add(context);
+                invocations.add(new Invocation(
+                        context.getObjectStore(),
+                        "snapshotsChanged",
+                        SnapshotEvent.class));
+            }
+
+            snapshotsChanged = ObjectStore.class.getMethod("snapshotsChanged", SnapshotEvent.class);
+
+            // an event for an object that is not registered in any of the contexts, so that
+            // ObjectStore processing is minimal and the dispatch overhead dominates
+            event = new SnapshotEvent(
+                    store,
+                    this,
+                    Collections.emptyMap(),
+                    Collections.emptyList(),
+                    Collections.singletonList(ObjectId.of("Artist", "ID", 1L)),
+                    Collections.emptyList());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            store.shutdown();
+            eventManager.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void postEvent(ListenersState state) {
+        state.eventManager.postEvent(state.event, state.store.getSnapshotEventSubject());
+    }
+
+    @Benchmark
+    public void invocationFire(ListenersState state) {
+        Object[] arguments = new Object[] {state.event};
+        for (Invocation invocation : state.invocations) {
+            invocation.fire(arguments);
+        }
+    }
+
+    @Benchmark
+    public void reflectiveInvoke(ListenersState state) throws Exception {
+        Object[] arguments = new Object[] {state.event};
+        for (DataContext context : state.subscribers) {
+            state.snapshotsChanged.invoke(context.getObjectStore(), arguments);
+        }
+    }
+}
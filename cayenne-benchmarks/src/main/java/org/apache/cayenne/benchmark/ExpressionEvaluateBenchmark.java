@@ -0,0 +1,134 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures in-memory evaluation of expressions against persistent objects, as done by
+ * {@link Expression#filterObjects(java.util.Collection)} and in-memory qualifiers. No database
+ * is involved.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionEvaluateBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ObjectsState {
+
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        ServerRuntime runtime;
+        List<Painting> paintings;
+
+        Expression equal;
+        Expression like;
+        Expression compound;
+        Expression relationshipPath;
+        Expression parsed;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            runtime = ServerRuntime.builder().addConfig("cayenne-benchmark.xml").build();
+            ObjectContext context = runtime.newContext();
+
+            paintings = new ArrayList<>(rows);
+            LocalDate birthDate = LocalDate.of(1900, 1, 1);
+            for (int i = 0; i < rows; i++) {
+                Artist artist = context.newObject(Artist.class);
+                artist.setName("artist" + i);
+                artist.setDateOfBirth(birthDate.plusDays(i));
+
+                Painting painting = context.newObject(Painting.class);
+                painting.setTitle("painting" + i);
+                painting.setPrice(BigDecimal.valueOf(i));
+                painting.setArtist(artist);
+                paintings.add(painting);
+            }
+
+            equal = Painting.TITLE.eq("painting" + (rows / 2));
+            like = Painting.TITLE.like("painting1%");
+            compound = Painting.PRICE.gt(BigDecimal.valueOf(rows / 4))
+                    .andExp(Painting.PRICE.lt(BigDecimal.valueOf(rows / 2)))
+                    .orExp(Painting.TITLE.likeIgnoreCase("PAINTING9%"));
+            relationshipPath = Painting.ARTIST.dot(Artist.DATE_OF_BIRTH).gt(birthDate.plusDays(rows / 2));
+            parsed = ExpressionFactory.exp("title in ('painting1', 'painting2', 'painting3') or artist.name = 'artist5'");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            runtime.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<Painting> equal(ObjectsState state) {
+        return state.equal.filterObjects(state.paintings);
+    }
+
+    @Benchmark
+    public List<Painting> like(ObjectsState state) {
+        return state.like.filterObjects(state.paintings);
+    }
+
+    @Benchmark
+    public List<Painting> compound(ObjectsState state) {
+        return state.compound.filterObjects(state.paintings);
+    }
+
+    @Benchmark
+    public List<Painting> relationshipPath(ObjectsState state) {
+        return state.relationshipPath.filterObjects(state.paintings);
+    }
+
+    @Benchmark
+    public List<Painting> parsed(ObjectsState state) {
+        return state.parsed.filterObjects(state.paintings);
+    }
+}
@@ -0,0 +1,89 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.benchmark.persistent.Painting;
+import org.apache.cayenne.query.ObjectSelect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures full fetch cycle of {@link ObjectSelect#select(org.apache.cayenne.ObjectContext)}:
+ * SQL translation, JDBC reading, DataRow creation and object resolving. Every invocation uses a
+ * fresh context, so objects are always resolved from scratch.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ObjectSelectBenchmark {
+
+    @Benchmark
+    public List<Artist> selectAll(DatabaseState state) {
+        return ObjectSelect.query(Artist.class).select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Artist> selectWithQualifierAndOrdering(DatabaseState state) {
+        return ObjectSelect.query(Artist.class)
+                .where(Artist.NAME.like("artist1%"))
+                .orderBy(Artist.NAME.asc())
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Artist> selectOneByName(DatabaseState state) {
+        // a short OLTP-style query, most of its cost is in translation and not in reading
+        return ObjectSelect.query(Artist.class)
+                .where(Artist.NAME.eq("artist" + (state.rows / 2)))
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Artist> selectWithJointPrefetch(DatabaseState state) {
+        return ObjectSelect.query(Artist.class)
+                .prefetch(Artist.PAINTINGS.joint())
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<Painting> selectWithDisjointPrefetch(DatabaseState state) {
+        return ObjectSelect.query(Painting.class)
+                .prefetch(Painting.ARTIST.disjoint())
+                .select(state.newContext());
+    }
+
+    @Benchmark
+    public List<DataRow> selectDataRows(DatabaseState state) {
+        return ObjectSelect.dataRowQuery(Artist.class).select(state.newContext());
+    }
+}
@@ -0,0 +1,116 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.benchmark.persistent.Artist;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures registration and lookup of objects in the {@link ObjectStore} of a DataContext,
+ * which happens for every object resolved from a fetch.
+ *
+ * @since 4.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ObjectStoreBenchmark {
+
+    @State(Scope.Thread)
+    public static class ObjectsState {
+
+        @Param({"100", "1000", "10000"})
+        public int rows;
+
+        ServerRuntime runtime;
+        List<ObjectId> ids;
+        List<Artist> objects;
+        ObjectStore populatedStore;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            runtime = ServerRuntime.builder().addConfig("cayenne-benchmark.xml").build();
+
+            ids = new ArrayList<>(rows);
+            objects = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                ObjectId id = ObjectId.of("Artist", Artist.ID_PK_COLUMN, (long) i);
+                Artist artist = new Artist();
+                artist.setObjectId(id);
+                artist.setPersistenceState(PersistenceState.HOLLOW);
+                ids.add(id);
+                objects.add(artist);
+            }
+
+            populatedStore = newObjectStore();
+            for (int i = 0; i < rows; i++) {
+                populatedStore.registerNode(ids.get(i), objects.get(i));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            runtime.shutdown();
+        }
+
+        ObjectStore newObjectStore() {
+            return ((DataContext) runtime.newContext()).getObjectStore();
+        }
+    }
+
+    @Benchmark
+    public ObjectStore registerNodes(ObjectsState state) {
+        ObjectStore store = state.newObjectStore();
+        for (int i = 0; i < state.rows; i++) {
+            store.registerNode(state.ids.get(i), state.objects.get(i));
+        }
+        return store;
+    }
+
+    @Benchmark
+    public void lookupNodes(ObjectsState state, Blackhole blackhole) {
+        for (ObjectId id : state.ids) {
+            blackhole.consume(state.populatedStore.getNode(id));
+        }
+    }
+}
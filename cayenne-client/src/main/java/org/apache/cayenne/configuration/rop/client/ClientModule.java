@@ -19,7 +19,10 @@
 package org.apache.cayenne.configuration.rop.client;
 
 import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.cache.CacheStatisticsListener;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
 import org.apache.cayenne.cache.MapQueryCacheProvider;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.configuration.ObjectContextFactory;
@@ -64,6 +67,8 @@ public class ClientModule implements Module {
         binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
         binder.bind(DataChannel.class).toProvider(ClientChannelProvider.class);
         binder.bind(QueryCache.class).toProvider(MapQueryCacheProvider.class);
+        binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+        binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
     }
 
 }
@@ -19,8 +19,11 @@
 
 package org.apache.cayenne.jcache;
 
+import org.apache.cayenne.cache.CacheStatistics;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.cache.QueryCacheEntryFactory;
+import org.apache.cayenne.cache.SingleFlightLoader;
 import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.query.QueryMetadata;
@@ -28,6 +31,7 @@ import org.apache.cayenne.query.QueryMetadata;
 import javax.cache.Cache;
 import javax.cache.CacheException;
 import javax.cache.CacheManager;
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -45,6 +49,20 @@ public class JCacheQueryCache implements QueryCache {
     @Inject
     protected JCacheConfigurationFactory configurationFactory;
 
+    /**
+     * @since 4.2
+     */
+    @Inject
+    protected CacheStatisticsRegistry statisticsRegistry;
+
+    /**
+     * @since 4.2
+     */
+    protected final SingleFlightLoader loader = new SingleFlightLoader();
+
+    private volatile CacheStatistics statistics;
+    private volatile boolean statisticsInitialized;
+
     private Set<String> seenCacheNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     @Override
@@ -52,7 +70,9 @@ public class JCacheQueryCache implements QueryCache {
         String key = Objects.requireNonNull(metadata.getCacheKey());
         Cache<String, List> cache = createIfAbsent(metadata);
 
-        return cache.get(key);
+        List<?> result = cache.get(key);
+        recordLookup(cache.getName(), result != null);
+        return result;
     }
 
     @Override
@@ -61,9 +81,27 @@ public class JCacheQueryCache implements QueryCache {
         Cache<String, List> cache = createIfAbsent(metadata);
 
         List<?> result = cache.get(key);
-        return result != null
-                ? result
-                : cache.invoke(key, new JCacheEntryLoader(factory));
+        recordLookup(cache.getName(), result != null);
+        if (result != null) {
+            return result;
+        }
+
+        // not all providers lock the entry for the duration of EntryProcessor invocation,
+        // so coalesce concurrent loads of the same entry locally
+        return loader.load(
+                new AbstractMap.SimpleImmutableEntry<>(cache.getName(), key),
+                () -> {
+                    CacheStatistics statistics = getStatistics();
+                    if (statistics == null) {
+                        return cache.invoke(key, new JCacheEntryLoader(factory));
+                    }
+
+                    long start = System.nanoTime();
+                    List loaded = cache.invoke(key, new JCacheEntryLoader(factory));
+                    statistics.recordLoad(cache.getName(), System.nanoTime() - start);
+                    return loaded;
+                },
+                null);
     }
 
     @Override
@@ -106,6 +144,39 @@ public class JCacheQueryCache implements QueryCache {
         }
     }
 
+    /**
+     * Returns hit, miss and load statistics of this cache, or null if statistics are
+     * disabled. Entry counts and evictions are managed by the JCache provider and are not
+     * tracked here.
+     *
+     * @since 4.2
+     */
+    public CacheStatistics getStatistics() {
+        if (!statisticsInitialized) {
+            synchronized (this) {
+                if (!statisticsInitialized) {
+                    statistics = statisticsRegistry != null
+                            ? statisticsRegistry.create(CacheStatisticsRegistry.QUERY_CACHE_NAME, null, null)
+                            : null;
+                    statisticsInitialized = true;
+                }
+            }
+        }
+
+        return statistics;
+    }
+
+    private void recordLookup(String cacheName, boolean hit) {
+        CacheStatistics statistics = getStatistics();
+        if (statistics != null) {
+            if (hit) {
+                statistics.recordHit(cacheName);
+            } else {
+                statistics.recordMiss(cacheName);
+            }
+        }
+    }
+
     protected Cache<String, List> createIfAbsent(QueryMetadata metadata) {
         return createIfAbsent(cacheName(metadata));
     }
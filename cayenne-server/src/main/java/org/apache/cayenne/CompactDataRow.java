@@ -0,0 +1,614 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.cayenne.util.Util;
+
+/**
+ * A DataRow that stores its values in an array indexed by a {@link DataRowColumnIndex}
+ * shared between rows of the same shape. Compared to a regular DataRow, there's no hash
+ * table, no entry objects and no per-row copy of the keys, which greatly reduces memory
+ * footprint of large fetches and of the snapshot cache.
+ * <p>
+ * The row is a fully functional Map. Keys that are not a part of the index can still be
+ * added, they are stored in the underlying HashMap.
+ *
+ * @since 4.2
+ */
+public class CompactDataRow extends DataRow {
+
+    private static final long serialVersionUID = 4297325436548757356L;
+
+    protected DataRowColumnIndex columnIndex;
+    protected Object[] values;
+
+    // positions of the index keys that are not present in the row, lazily created, as
+    // in most cases rows have all the index keys
+    protected BitSet absent;
+
+    /**
+     * Creates a row with all the index keys present and mapped to null values.
+     */
+    public CompactDataRow(DataRowColumnIndex columnIndex) {
+        super(0);
+        this.columnIndex = Objects.requireNonNull(columnIndex);
+        this.values = new Object[columnIndex.size()];
+    }
+
+    /**
+     * Creates a row with the same keys and values as the provided map. Index keys missing from
+     * the map will be missing from the row as well.
+     */
+    public CompactDataRow(DataRowColumnIndex columnIndex, Map<String, ?> map) {
+        this(columnIndex);
+
+        if (map.size() < values.length || !columnIndex.containsAll(map.keySet())) {
+            absent = new BitSet(values.length);
+            absent.set(0, values.length);
+        }
+
+        putAll(map);
+    }
+
+    /**
+     * Creates a compact copy of the row that keeps the version, replaced version and entity
+     * name of the original, i.e. represents the same snapshot.
+     */
+    public static CompactDataRow copyOf(DataRow row, DataRowColumnIndex columnIndex) {
+        CompactDataRow copy = new CompactDataRow(columnIndex, row);
+        copy.version = row.getVersion();
+        copy.replacesVersion = row.getReplacesVersion();
+        copy.entityName = row.getEntityName();
+        return copy;
+    }
+
+    /**
+     * Returns the index shared by this row.
+     */
+    public DataRowColumnIndex getColumnIndex() {
+        return columnIndex;
+    }
+
+    /**
+     * Returns a value stored at the index position.
+     */
+    public Object getValueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * Stores a value at the index position, bypassing key lookup.
+     */
+    public void setValueAt(int position, Object value) {
+        values[position] = value;
+        if (absent != null) {
+            absent.clear(position);
+        }
+    }
+
+    private boolean isPresent(int position) {
+        return absent == null || !absent.get(position);
+    }
+
+    private void markAbsent(int position) {
+        if (absent == null) {
+            absent = new BitSet(values.length);
+        }
+
+        absent.set(position);
+        values[position] = null;
+    }
+
+    @Override
+    public DataRow applyDiff(DataRow diff) {
+        CompactDataRow merged = new CompactDataRow(columnIndex);
+        System.arraycopy(values, 0, merged.values, 0, values.length);
+        if (absent != null) {
+            merged.absent = (BitSet) absent.clone();
+        }
+        merged.putOverflow(this);
+
+        for (Map.Entry<String, Object> entry : diff.entrySet()) {
+            merged.put(entry.getKey(), entry.getValue());
+        }
+
+        return merged;
+    }
+
+    private void putOverflow(CompactDataRow row) {
+        for (Map.Entry<String, Object> entry : row.overflowEntrySet()) {
+            super.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private Set<Map.Entry<String, Object>> overflowEntrySet() {
+        return super.entrySet();
+    }
+
+    @Override
+    public int size() {
+        int size = values.length + super.size();
+        return absent != null ? size - absent.cardinality() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = columnIndex.indexOf(key);
+        if (i >= 0) {
+            return values[i];
+        }
+
+        return super.get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int i = columnIndex.indexOf(key);
+        if (i >= 0) {
+            return isPresent(i) ? values[i] : defaultValue;
+        }
+
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int i = columnIndex.indexOf(key);
+        if (i >= 0) {
+            return isPresent(i);
+        }
+
+        return super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < values.length; i++) {
+            if (isPresent(i) && Util.nullSafeEquals(value, values[i])) {
+                return true;
+            }
+        }
+
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int i = columnIndex.indexOf(key);
+        if (i >= 0) {
+            Object oldValue = values[i];
+            setValueAt(i, value);
+            return oldValue;
+        }
+
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        for (Map.Entry<? extends String, ?> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Object oldValue = get(key);
+        if (oldValue == null) {
+            put(key, value);
+        }
+
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int i = columnIndex.indexOf(key);
+        if (i >= 0) {
+            Object oldValue = values[i];
+            markAbsent(i);
+            return oldValue;
+        }
+
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (containsKey(key) && Util.nullSafeEquals(get(key), value)) {
+            remove(key);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        if (containsKey(key) && Util.nullSafeEquals(get(key), oldValue)) {
+            put(key, newValue);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        return containsKey(key) ? put(key, value) : null;
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+        Object value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        Object oldValue = get(key);
+        if (oldValue == null) {
+            return null;
+        }
+
+        Object newValue = remappingFunction.apply(key, oldValue);
+        if (newValue != null) {
+            put(key, newValue);
+        } else {
+            remove(key);
+        }
+
+        return newValue;
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        Object oldValue = get(key);
+        Object newValue = remappingFunction.apply(key, oldValue);
+
+        if (newValue != null) {
+            put(key, newValue);
+        } else if (oldValue != null || containsKey(key)) {
+            remove(key);
+        }
+
+        return newValue;
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        Objects.requireNonNull(value);
+
+        Object oldValue = get(key);
+        Object newValue = oldValue == null ? value : remappingFunction.apply(oldValue, value);
+
+        if (newValue != null) {
+            put(key, newValue);
+        } else {
+            remove(key);
+        }
+
+        return newValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (isPresent(i)) {
+                action.accept(columnIndex.getKey(i), values[i]);
+            }
+        }
+
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        for (int i = 0; i < values.length; i++) {
+            if (isPresent(i)) {
+                values[i] = function.apply(columnIndex.getKey(i), values[i]);
+            }
+        }
+
+        super.replaceAll(function);
+    }
+
+    @Override
+    public void clear() {
+        absent = new BitSet(values.length);
+        absent.set(0, values.length);
+        Arrays.fill(values, null);
+        super.clear();
+    }
+
+    @Override
+    public Object clone() {
+        CompactDataRow clone = (CompactDataRow) super.clone();
+        clone.values = values.clone();
+        if (absent != null) {
+            clone.absent = (BitSet) absent.clone();
+        }
+
+        // HashMap.clone() copies entries using our entrySet(), so indexed values ended up
+        // in the HashMap as well, leave only the true overflow there
+        clone.resetOverflow(this);
+        return clone;
+    }
+
+    private void resetOverflow(CompactDataRow source) {
+        super.clear();
+        putOverflow(source);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<Map.Entry<String, Object>> it = new EntryIterator();
+                return new Iterator<String>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return it.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactDataRow.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (containsKey(o)) {
+                    CompactDataRow.this.remove(o);
+                    return true;
+                }
+
+                return false;
+            }
+
+            @Override
+            public void clear() {
+                CompactDataRow.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+
+            @Override
+            public Iterator<Object> iterator() {
+                Iterator<Map.Entry<String, Object>> it = new EntryIterator();
+                return new Iterator<Object>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return it.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactDataRow.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsValue(o);
+            }
+
+            @Override
+            public void clear() {
+                CompactDataRow.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactDataRow.this.size();
+            }
+
+            @Override
+            public void clear() {
+                CompactDataRow.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Iterates over index positions first, and then over the keys stored in the HashMap.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next;
+        private int current;
+        private Iterator<Map.Entry<String, Object>> overflowIterator;
+
+        EntryIterator() {
+            this.current = -1;
+            this.next = nextPresent(0);
+        }
+
+        private int nextPresent(int from) {
+            int len = values.length;
+            for (int i = from; i < len; i++) {
+                if (isPresent(i)) {
+                    return i;
+                }
+            }
+
+            return len;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+
+            if (overflowIterator == null) {
+                overflowIterator = overflowEntrySet().iterator();
+            }
+
+            return overflowIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next < values.length) {
+                current = next;
+                next = nextPresent(next + 1);
+                return new IndexedEntry(current);
+            }
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            current = -1;
+            return overflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (current >= 0) {
+                markAbsent(current);
+                current = -1;
+            } else if (overflowIterator != null) {
+                overflowIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class IndexedEntry implements Map.Entry<String, Object> {
+
+        private final int position;
+
+        IndexedEntry(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public String getKey() {
+            return columnIndex.getKey(position);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[position];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object oldValue = values[position];
+            values[position] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Util.nullSafeEquals(getKey(), e.getKey()) && Util.nullSafeEquals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable mapping of DataRow keys to positions in a values array. A single index is
+ * shared by all {@link CompactDataRow} instances of the same shape, e.g. all rows read with
+ * the same RowDescriptor, so that keys are not duplicated in every row.
+ *
+ * @since 4.2
+ */
+public final class DataRowColumnIndex implements Serializable {
+
+    private static final long serialVersionUID = -2354563459348521876L;
+
+    private final String[] keys;
+    private final Map<String, Integer> positions;
+
+    public DataRowColumnIndex(String... keys) {
+        this(Arrays.asList(keys));
+    }
+
+    public DataRowColumnIndex(Collection<String> keys) {
+        // remove duplicates, preserving the original order
+        Set<String> uniqueKeys = new LinkedHashSet<>(keys);
+
+        this.keys = uniqueKeys.toArray(new String[0]);
+        this.positions = new HashMap<>((int) Math.ceil(this.keys.length / 0.75));
+        for (int i = 0; i < this.keys.length; i++) {
+            positions.put(this.keys[i], i);
+        }
+    }
+
+    /**
+     * Returns a number of keys in this index.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a key stored at the specified position.
+     */
+    public String getKey(int position) {
+        return keys[position];
+    }
+
+    /**
+     * Returns a position of the key or -1 if the key is not a part of this index.
+     */
+    public int indexOf(Object key) {
+        // row labels are usually the same String instances as the index keys, and HashMap
+        // compares references before calling equals(), so the identity match costs nothing extra
+        Integer position = positions.get(key);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Returns true if all the keys from the collection are present in this index.
+     */
+    public boolean containsAll(Collection<?> keys) {
+        return positions.keySet().containsAll(keys);
+    }
+
+    /**
+     * Returns an index that contains all the keys of this index, followed by any extra keys
+     * from the collection. Returns this index if no new keys were added.
+     */
+    public DataRowColumnIndex withKeys(Collection<String> extraKeys) {
+        if (containsAll(extraKeys)) {
+            return this;
+        }
+
+        List<String> merged = new ArrayList<>(keys.length + extraKeys.size());
+        Collections.addAll(merged, keys);
+        merged.addAll(extraKeys);
+        return new DataRowColumnIndex(merged);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+}
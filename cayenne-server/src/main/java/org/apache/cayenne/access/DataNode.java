@@ -28,6 +28,7 @@ import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
 import org.apache.cayenne.access.translator.batch.BatchTranslator;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
+import org.apache.cayenne.access.translator.select.SelectPlanCache;
 import org.apache.cayenne.access.translator.select.SelectTranslator;
 import org.apache.cayenne.access.translator.select.SelectTranslatorFactory;
 import org.apache.cayenne.dba.DbAdapter;
@@ -76,7 +77,9 @@ public class DataNode implements QueryEngine {
 	private RowReaderFactory rowReaderFactory;
 	private BatchTranslatorFactory batchTranslatorFactory;
 	private SelectTranslatorFactory selectTranslatorFactory;
+	private SelectPlanCache selectPlanCache;
 	private SQLTemplateProcessor sqlTemplateProcessor;
+	private int maxBatchSize;
 
 	TransactionDataSource readThroughDataSource;
 
@@ -211,6 +214,31 @@ public class DataNode implements QueryEngine {
 
 	public void setAdapter(DbAdapter adapter) {
 		this.adapter = adapter;
+		clearSelectPlanCache();
+	}
+
+	/**
+	 * Returns the maximum number of rows sent to the database in a single JDBC batch. If not
+	 * set for this node, the adapter setting is used. Zero or less means no limit.
+	 *
+	 * @since 4.2
+	 */
+	public int getMaxBatchSize() {
+		if (maxBatchSize > 0 || adapter == null) {
+			return maxBatchSize;
+		}
+
+		return adapter.getMaxBatchSize();
+	}
+
+	/**
+	 * Sets the maximum number of rows sent to the database in a single JDBC batch,
+	 * overriding the adapter setting. Zero or less resets to the adapter setting.
+	 *
+	 * @since 4.2
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
 	}
 
 	/**
@@ -311,6 +339,7 @@ public class DataNode implements QueryEngine {
 	 */
 	public void setEntityResolver(EntityResolver entityResolver) {
 		this.entityResolver = entityResolver;
+		clearSelectPlanCache();
 	}
 
 	@Override
@@ -349,6 +378,10 @@ public class DataNode implements QueryEngine {
 	 * @since 4.0
 	 */
 	public SelectTranslator selectTranslator(Select<?> query) {
+		if (selectPlanCache != null) {
+			return selectPlanCache.translator(query, selectTranslatorFactory, getAdapter(), getEntityResolver());
+		}
+
 		return selectTranslatorFactory.translator(query, getAdapter(), getEntityResolver());
 	}
 
@@ -406,6 +439,32 @@ public class DataNode implements QueryEngine {
 	 */
 	public void setSelectTranslatorFactory(SelectTranslatorFactory selectTranslatorFactory) {
 		this.selectTranslatorFactory = selectTranslatorFactory;
+		clearSelectPlanCache();
+	}
+
+	/**
+	 * Returns a cache of translated select queries used by this node, or null
+	 * if select plans are not cached.
+	 *
+	 * @since 4.2
+	 */
+	public SelectPlanCache getSelectPlanCache() {
+		return selectPlanCache;
+	}
+
+	/**
+	 * Sets a cache of translated select queries. Null disables caching.
+	 *
+	 * @since 4.2
+	 */
+	public void setSelectPlanCache(SelectPlanCache selectPlanCache) {
+		this.selectPlanCache = selectPlanCache;
+	}
+
+	private void clearSelectPlanCache() {
+		if (selectPlanCache != null) {
+			selectPlanCache.clear();
+		}
 	}
 
     // a read-through DataSource that ensures returning the same connection
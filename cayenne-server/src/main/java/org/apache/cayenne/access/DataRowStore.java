@@ -20,18 +20,20 @@
 package org.apache.cayenne.access;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.CompactDataRow;
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowColumnIndex;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
 import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.cache.CacheStatistics;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.event.EventSubject;
-import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,7 +45,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 /**
  * A fixed size cache of DataRows keyed by ObjectId.
@@ -59,13 +63,39 @@ public class DataRowStore implements Serializable {
     public static final long SNAPSHOT_EXPIRATION_DEFAULT = 2 * 60 * 60; // default expiration time is 2 hours
     public static final int SNAPSHOT_CACHE_SIZE_DEFAULT = 10000;
 
+    /**
+     * @since 4.2
+     */
+    public static final int SNAPSHOT_EVENT_BATCH_SIZE_DEFAULT = 100;
+
+    // how long per-entity sizes counted in a single pass over the cache are reused
+    private static final long ENTITY_SIZES_MAX_AGE_MS = 1000;
+
     protected String name;
     private int maxSize;
     protected ConcurrentMap<ObjectId, DataRow> snapshots;
 
+    /**
+     * Column indexes shared by compact snapshots of each entity.
+     *
+     * @since 4.2
+     */
+    protected ConcurrentMap<String, DataRowColumnIndex> columnIndexes;
+
     protected transient EventManager eventManager;
+    protected transient SnapshotMapFactory snapshotMapFactory;
+    protected transient CacheStatistics statistics;
+
+    /**
+     * Coalesces snapshot events if batching is enabled, null otherwise.
+     *
+     * @since 4.2
+     */
+    transient SnapshotEventBatcher eventBatcher;
     protected transient EventBridge remoteNotificationsHandler;
 
+    private transient volatile EntitySizes entitySizes;
+
     // IMPORTANT: EventSubject must be an ivar to avoid its deallocation
     // too early, and thus disabling events.
     protected transient EventSubject eventSubject;
@@ -83,6 +113,23 @@ public class DataRowStore implements Serializable {
      * @since 1.2
      */
     public DataRowStore(String name, RuntimeProperties properties, EventManager eventManager) {
+        this(name, properties, eventManager, new DefaultSnapshotMapFactory(properties));
+    }
+
+    /**
+     * Creates new DataRowStore with a specified name, a set of properties and a factory of
+     * the map that holds snapshots.
+     *
+     * @param name               DataRowStore name. Used to identify this DataRowStore in events, etc.
+     *                           Can't be null.
+     * @param properties         Properties map used to configure DataRowStore parameters.
+     * @param eventManager       EventManager that should be used for posting and receiving
+     *                           events.
+     * @param snapshotMapFactory factory of the snapshot map that defines its eviction policy.
+     * @since 4.2
+     */
+    public DataRowStore(String name, RuntimeProperties properties, EventManager eventManager,
+                        SnapshotMapFactory snapshotMapFactory) {
         if (name == null) {
             throw new IllegalArgumentException("DataRowStore name can't be null.");
         }
@@ -90,6 +137,7 @@ public class DataRowStore implements Serializable {
         this.name = name;
         this.eventSubject = createSubject();
         this.eventManager = eventManager;
+        this.snapshotMapFactory = snapshotMapFactory;
         initWithProperties(properties);
     }
 
@@ -106,9 +154,42 @@ public class DataRowStore implements Serializable {
             logger.debug("DataRowStore property " + Constants.SNAPSHOT_CACHE_SIZE_PROPERTY + " = " + maxSize);
         }
 
-        this.snapshots = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
-                .maximumWeightedCapacity(maxSize)
-                .build();
+        this.snapshots = snapshotMapFactory.createSnapshotMap(name, maxSize, new SnapshotEvictionListener());
+        this.columnIndexes = new ConcurrentHashMap<>();
+
+        long batchWindow = properties.getLong(Constants.SNAPSHOT_EVENT_BATCH_WINDOW_PROPERTY, 0L);
+        if (batchWindow > 0) {
+            int batchSize = properties.getInt(Constants.SNAPSHOT_EVENT_BATCH_SIZE_PROPERTY, SNAPSHOT_EVENT_BATCH_SIZE_DEFAULT);
+            boolean virtualThreads = properties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false);
+            this.eventBatcher = new SnapshotEventBatcher(name, this, batchWindow, batchSize, this::postSnapshotEvent,
+                    virtualThreads);
+        }
+    }
+
+    /**
+     * Returns a compact version of the snapshot to be stored in the cache. Fetched rows are
+     * already compact, while rows built on commit are converted to share a per-entity column
+     * index. Version of the snapshot is preserved.
+     *
+     * @since 4.2
+     */
+    protected DataRow compactSnapshot(ObjectId id, DataRow snapshot) {
+        if (snapshot instanceof CompactDataRow) {
+            return snapshot;
+        }
+
+        String entityName = id.getEntityName();
+        DataRowColumnIndex index = columnIndexes.get(entityName);
+        if (index == null || !index.containsAll(snapshot.keySet())) {
+            // racing threads may create different indexes, this is harmless, as existing
+            // snapshots keep the index they were created with
+            index = index == null
+                    ? new DataRowColumnIndex(snapshot.keySet())
+                    : index.withKeys(snapshot.keySet());
+            columnIndexes.put(entityName, index);
+        }
+
+        return CompactDataRow.copyOf(snapshot, index);
     }
 
     protected void setEventBridge(EventBridge eventBridge) {
@@ -212,6 +293,10 @@ public class DataRowStore implements Serializable {
      * Shuts down any remote notification connections, and clears internal cache.
      */
     public void shutdown() {
+        if (eventBatcher != null) {
+            eventBatcher.shutdown();
+        }
+
         stopListeners();
         clear();
     }
@@ -259,7 +344,63 @@ public class DataRowStore implements Serializable {
      * ObjectId.
      */
     public DataRow getCachedSnapshot(ObjectId oid) {
-        return snapshots.get(oid);
+        DataRow snapshot = snapshots.get(oid);
+
+        if (statistics != null) {
+            if (snapshot != null) {
+                statistics.recordHit(oid.getEntityName());
+            } else {
+                statistics.recordMiss(oid.getEntityName());
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of cached snapshots of a given entity. Sizes of all entities are
+     * counted together in a single pass over the cache, and the result is reused for up to
+     * a second, so reading sizes of many entities in a row doesn't rescan the cache for
+     * each of them. Intended for monitoring.
+     *
+     * @since 4.2
+     */
+    public int size(String entityName) {
+        long now = System.currentTimeMillis();
+        EntitySizes sizes = this.entitySizes;
+
+        if (sizes == null || now - sizes.timestamp > ENTITY_SIZES_MAX_AGE_MS) {
+            sizes = new EntitySizes(now, countByEntity());
+            this.entitySizes = sizes;
+        }
+
+        Integer size = sizes.sizes.get(entityName);
+        return size != null ? size : 0;
+    }
+
+    private Map<String, Integer> countByEntity() {
+        Map<String, Integer> sizes = new HashMap<>();
+        for (ObjectId id : snapshots.keySet()) {
+            sizes.merge(id.getEntityName(), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets an object collecting hit, miss and eviction statistics of this snapshot cache,
+     * grouped by entity name.
+     *
+     * @since 4.2
+     */
+    public void setStatistics(CacheStatistics statistics) {
+        this.statistics = statistics;
     }
 
     /**
@@ -274,6 +415,7 @@ public class DataRowStore implements Serializable {
      */
     public void clear() {
         snapshots.clear();
+        entitySizes = null;
     }
 
     /**
@@ -377,7 +519,7 @@ public class DataRowStore implements Serializable {
         if (!updatedSnapshots.isEmpty()) {
             for (Map.Entry<ObjectId, DataRow> entry : updatedSnapshots.entrySet()) {
                 ObjectId key = entry.getKey();
-                DataRow newSnapshot = entry.getValue();
+                DataRow newSnapshot = compactSnapshot(key, entry.getValue());
                 DataRow oldSnapshot = snapshots.put(key, newSnapshot);
 
                 // generate diff for the updated event, if this not a new
@@ -475,12 +617,20 @@ public class DataRowStore implements Serializable {
                 logger.debug("postSnapshotsChangeEvent: " + event);
             }
 
-            // synchronously notify listeners; leaving it up to the listeners to
-            // register as "non-blocking" if needed.
-            eventManager.postEvent(event, getSnapshotEventSubject());
+            if (eventBatcher != null) {
+                eventBatcher.add(event);
+            } else {
+                postSnapshotEvent(event);
+            }
         }
     }
 
+    private void postSnapshotEvent(SnapshotEvent event) {
+        // synchronously notify listeners; leaving it up to the listeners to
+        // register as "non-blocking" if needed.
+        eventManager.postEvent(event, getSnapshotEventSubject());
+    }
+
     // deserialization support
     private void readObject(ObjectInputStream in) throws IOException,
             ClassNotFoundException {
@@ -491,6 +641,29 @@ public class DataRowStore implements Serializable {
         this.eventSubject = createSubject();
     }
 
+    static final class EntitySizes {
+
+        final long timestamp;
+        final Map<String, Integer> sizes;
+
+        EntitySizes(long timestamp, Map<String, Integer> sizes) {
+            this.timestamp = timestamp;
+            this.sizes = sizes;
+        }
+    }
+
+    class SnapshotEvictionListener implements BiConsumer<ObjectId, DataRow>, Serializable {
+
+        private static final long serialVersionUID = -2837459109382671023L;
+
+        @Override
+        public void accept(ObjectId key, DataRow value) {
+            if (statistics != null) {
+                statistics.recordEviction(key.getEntityName(), 1);
+            }
+        }
+    }
+
     void stopListeners() {
         if (eventManager != null) {
             eventManager.removeListener(this);
@@ -20,6 +20,7 @@
 package org.apache.cayenne.access;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.DIRuntimeException;
 import org.apache.cayenne.di.Inject;
@@ -41,17 +42,44 @@ public class DefaultDataRowStoreFactory implements DataRowStoreFactory {
 
     RuntimeProperties properties;
 
+    CacheStatisticsRegistry statisticsRegistry;
+
+    SnapshotMapFactory snapshotMapFactory;
+
+    /**
+     * Creates a factory that uses default snapshot maps and collects no cache statistics.
+     *
+     * @deprecated since 4.2 in favor of the injectable constructor that takes a statistics
+     * registry and a snapshot map factory.
+     */
+    @Deprecated
+    public DefaultDataRowStoreFactory(Provider<EventBridge> eventBridgeProvider,
+                                      EventManager eventManager,
+                                      RuntimeProperties properties) {
+        this(eventBridgeProvider, eventManager, properties, null, new DefaultSnapshotMapFactory(properties));
+    }
+
+    /**
+     * @since 4.2
+     */
     public DefaultDataRowStoreFactory(@Inject Provider<EventBridge> eventBridgeProvider,
                                       @Inject EventManager eventManager,
-                                      @Inject RuntimeProperties properties) {
+                                      @Inject RuntimeProperties properties,
+                                      @Inject CacheStatisticsRegistry statisticsRegistry,
+                                      @Inject SnapshotMapFactory snapshotMapFactory) {
         this.eventBridgeProvider = eventBridgeProvider;
         this.eventManager = eventManager;
         this.properties = properties;
+        this.statisticsRegistry = statisticsRegistry;
+        this.snapshotMapFactory = snapshotMapFactory;
     }
 
     @Override
     public DataRowStore createDataRowStore(String name) throws DIRuntimeException {
-        DataRowStore store = new DataRowStore(name, properties, eventManager);
+        DataRowStore store = new DataRowStore(name, properties, eventManager, snapshotMapFactory);
+        if (statisticsRegistry != null) {
+            store.setStatistics(statisticsRegistry.create(CacheStatisticsRegistry.SNAPSHOT_CACHE_NAME_PREFIX + name, store::size, store::size));
+        }
         setUpEventBridge(store);
         return store;
     }
@@ -0,0 +1,163 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.util.ConcurrentReferenceValueMap;
+import org.apache.cayenne.util.WindowTinyLfuMap;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import org.apache.cayenne.util.concurrentlinkedhashmap.EvictionListener;
+
+/**
+ * A default {@link SnapshotMapFactory} that configures snapshot maps from runtime
+ * properties: eviction policy ({@link Constants#SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY}),
+ * reference type ({@link Constants#SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY}) and per-entity
+ * size limits ({@link Constants#SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX}).
+ *
+ * @since 4.2
+ */
+public class DefaultSnapshotMapFactory implements SnapshotMapFactory {
+
+    protected RuntimeProperties properties;
+
+    public DefaultSnapshotMapFactory(@Inject RuntimeProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public ConcurrentMap<ObjectId, DataRow> createSnapshotMap(String storeName, int maxSize,
+                                                              BiConsumer<ObjectId, DataRow> evictionListener) {
+
+        SnapshotEvictionPolicy policy = getEvictionPolicy();
+        SnapshotReferenceType referenceType = getReferenceType();
+
+        ConcurrentMap<ObjectId, DataRow> shared = createBoundedMap(maxSize, policy, referenceType, evictionListener);
+        return new PerEntitySnapshotMap(shared, entityName -> {
+            String size = properties.get(Constants.SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX + entityName);
+            if (size == null) {
+                return null;
+            }
+
+            try {
+                return createBoundedMap(Integer.parseInt(size.trim()), policy, referenceType, evictionListener);
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationException("Invalid snapshot cache size for entity '%s': %s",
+                        e, entityName, size);
+            }
+        });
+    }
+
+    protected SnapshotEvictionPolicy getEvictionPolicy() {
+        String policy = properties.get(Constants.SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY);
+        try {
+            return policy != null
+                    ? SnapshotEvictionPolicy.valueOf(policy.trim().toUpperCase())
+                    : SnapshotEvictionPolicy.LRU;
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid snapshot cache eviction policy: %s", e, policy);
+        }
+    }
+
+    protected SnapshotReferenceType getReferenceType() {
+        String type = properties.get(Constants.SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY);
+        try {
+            return type != null
+                    ? SnapshotReferenceType.valueOf(type.trim().toUpperCase())
+                    : SnapshotReferenceType.STRONG;
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid snapshot cache reference type: %s", e, type);
+        }
+    }
+
+    protected ConcurrentMap<ObjectId, DataRow> createBoundedMap(int maxSize,
+                                                                SnapshotEvictionPolicy policy,
+                                                                SnapshotReferenceType referenceType,
+                                                                BiConsumer<ObjectId, DataRow> evictionListener) {
+        if (referenceType == SnapshotReferenceType.STRONG) {
+            return createBoundedMap(maxSize, policy, new ListenerAdapter<>(evictionListener));
+        }
+
+        ConcurrentMap<ObjectId, Reference<DataRow>> references = createBoundedMap(maxSize, policy,
+                new ReferenceListenerAdapter(evictionListener));
+        return new ConcurrentReferenceValueMap<>(references, referenceType == SnapshotReferenceType.WEAK);
+    }
+
+    protected <V> ConcurrentMap<ObjectId, V> createBoundedMap(int maxSize,
+                                                              SnapshotEvictionPolicy policy,
+                                                              ListenerAdapter<V> evictionListener) {
+        switch (policy) {
+            case TINY_LFU:
+                return new WindowTinyLfuMap<>(maxSize, evictionListener);
+            case LRU:
+            default:
+                return new ConcurrentLinkedHashMap.Builder<ObjectId, V>()
+                        .maximumWeightedCapacity(maxSize)
+                        .listener(evictionListener)
+                        .build();
+        }
+    }
+
+    /**
+     * Adapts snapshot eviction listener to the listener APIs of the bounded maps.
+     */
+    static class ListenerAdapter<V> implements EvictionListener<ObjectId, V>, BiConsumer<ObjectId, V>, Serializable {
+
+        private static final long serialVersionUID = -3016431528773436021L;
+
+        final BiConsumer<ObjectId, DataRow> delegate;
+
+        ListenerAdapter(BiConsumer<ObjectId, DataRow> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onEviction(ObjectId key, V value) {
+            accept(key, value);
+        }
+
+        @Override
+        public void accept(ObjectId key, V value) {
+            delegate.accept(key, (DataRow) value);
+        }
+    }
+
+    static class ReferenceListenerAdapter extends ListenerAdapter<Reference<DataRow>> {
+
+        private static final long serialVersionUID = 6049815374329318367L;
+
+        ReferenceListenerAdapter(BiConsumer<ObjectId, DataRow> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void accept(ObjectId key, Reference<DataRow> value) {
+            delegate.accept(key, value.get());
+        }
+    }
+}
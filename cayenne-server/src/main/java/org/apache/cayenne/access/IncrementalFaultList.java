@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A synchronized list that serves as a container of DataObjects. It is returned
@@ -60,6 +61,15 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 
 	protected int pageSize;
 	protected final List elements;
+
+	/**
+	 * Guards compound operations on the elements, including fetching of unresolved pages.
+	 * A lock is used instead of a monitor on the elements, so that a virtual thread waiting
+	 * on a page fetch doesn't pin its carrier thread.
+	 * 
+	 * @since 4.2
+	 */
+	protected final ReentrantLock lock = new ReentrantLock();
 	protected DataContext dataContext;
 	protected ObjEntity rootEntity;
 	protected SelectQuery<?> internalQuery;
@@ -212,7 +222,8 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 			return;
 		}
 
-		synchronized (elements) {
+		lock.lock();
+		try {
 			if (elements.size() == 0) {
 				return;
 			}
@@ -260,6 +271,8 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 
 			// replace ids in the list with objects
 			updatePageWithResults(objects, fromIndex, toIndex);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -448,8 +461,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	public void add(int index, Object element) {
 		validateListObject(element);
 
-		synchronized (elements) {
+		lock.lock();
+		try {
 			elements.add(index, element);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -459,8 +475,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	public boolean add(Object o) {
 		validateListObject(o);
 
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.add(o);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -468,8 +487,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#addAll(Collection)
 	 */
 	public boolean addAll(Collection<? extends E> c) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.addAll(c);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -477,8 +499,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.List#addAll(int, Collection)
 	 */
 	public boolean addAll(int index, Collection<? extends E> c) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.addAll(index, c);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -486,8 +511,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#clear()
 	 */
 	public void clear() {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			elements.clear();
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -495,8 +523,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#contains(Object)
 	 */
 	public boolean contains(Object o) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.contains(o);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -504,13 +535,17 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#containsAll(Collection)
 	 */
 	public boolean containsAll(Collection<?> c) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.containsAll(c);
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public E get(int index) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			Object o = elements.get(index);
 
 			if (getHelper().unresolvedSuspect(o)) {
@@ -522,6 +557,8 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 			} else {
 				return (E) o;
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -536,8 +573,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#isEmpty()
 	 */
 	public boolean isEmpty() {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.isEmpty();
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -546,29 +586,41 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	}
 
 	public E remove(int index) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			// have to resolve the page to return correct object
 			E object = get(index);
 			elements.remove(index);
 			return object;
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public boolean remove(Object o) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.remove(o);
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public boolean removeAll(Collection<?> c) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.removeAll(c);
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public boolean retainAll(Collection<?> c) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.retainAll(c);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -578,8 +630,11 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	public E set(int index, Object element) {
 		validateListObject(element);
 
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return (E) elements.set(index, element);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -587,28 +642,42 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 	 * @see java.util.Collection#size()
 	 */
 	public int size() {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			return elements.size();
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public List<E> subList(int fromIndex, int toIndex) {
-		synchronized (elements) {
+		lock.lock();
+		try {
 			resolveInterval(fromIndex, toIndex);
 			return elements.subList(fromIndex, toIndex);
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	public Object[] toArray() {
-		resolveAll();
-
-		return elements.toArray();
+		lock.lock();
+		try {
+			resolveAll();
+			return elements.toArray();
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	public <T> T[] toArray(T[] a) {
-		resolveAll();
-
-		return (T[]) elements.toArray(a);
+		lock.lock();
+		try {
+			resolveAll();
+			return (T[]) elements.toArray(a);
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -625,12 +694,15 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 				return -1;
 			}
 
-			synchronized (elements) {
+			lock.lock();
+			try {
 				for (int i = 0; i < elements.size(); i++) {
 					if (objectsAreEqual(object, elements.get(i))) {
 						return i;
 					}
 				}
+			} finally {
+				lock.unlock();
 			}
 			return -1;
 		}
@@ -640,12 +712,15 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 				return -1;
 			}
 
-			synchronized (elements) {
+			lock.lock();
+			try {
 				for (int i = elements.size() - 1; i >= 0; i--) {
 					if (objectsAreEqual(object, elements.get(i))) {
 						return i;
 					}
 				}
+			} finally {
+				lock.unlock();
 			}
 
 			return -1;
@@ -654,7 +729,8 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 		void updateWithResolvedObjectInRange(Object object, int from, int to) {
 			boolean found = false;
 
-			synchronized (elements) {
+			lock.lock();
+			try {
 
 				for (int i = from; i < to; i++) {
 					if (replacesObject(object, elements.get(i))) {
@@ -663,6 +739,8 @@ public class IncrementalFaultList<E> implements List<E>, Serializable {
 						break;
 					}
 				}
+			} finally {
+				lock.unlock();
 			}
 
 			if (!found) {
@@ -121,7 +121,8 @@ class MixedResultIncrementalFaultList<E> extends IncrementalFaultList<E> {
             return;
         }
 
-        synchronized (elements) {
+        lock.lock();
+        try {
             if (elements.size() == 0) {
                 return;
             }
@@ -169,6 +170,8 @@ class MixedResultIncrementalFaultList<E> extends IncrementalFaultList<E> {
                 // replace ids in the list with objects
                 updatePageWithResults(objects, dataIdx);
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -252,13 +255,16 @@ class MixedResultIncrementalFaultList<E> extends IncrementalFaultList<E> {
         }
 
         void updateWithResolvedObject(Persistent object, int dataIdx) {
-            synchronized (elements) {
+            lock.lock();
+            try {
                 for (Object element : elements) {
                     Object[] data = (Object[]) element;
                     if (replacesObject(object, data, dataIdx)) {
                         data[dataIdx] = object;
                     }
                 }
+            } finally {
+                lock.unlock();
             }
         }
     }
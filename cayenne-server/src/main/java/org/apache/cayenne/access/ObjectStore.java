@@ -27,6 +27,7 @@ import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
 import org.apache.cayenne.access.ObjectDiff.ArcOperation;
+import org.apache.cayenne.access.event.BatchedSnapshotEvent;
 import org.apache.cayenne.access.event.SnapshotEvent;
 import org.apache.cayenne.access.event.SnapshotEventListener;
 import org.apache.cayenne.graph.ArcId;
@@ -551,8 +552,21 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      */
     @Override
     public void snapshotsChanged(SnapshotEvent event) {
+        if (event.getSource() != this.getDataRowCache()) {
+            return;
+        }
+
+        // a batch may contain our own changes, that should be skipped; the rest is
+        // processed in one pass
+        if (event instanceof BatchedSnapshotEvent) {
+            event = ((BatchedSnapshotEvent) event).excluding(this);
+            if (event == null) {
+                return;
+            }
+        }
+
         // filter events that we should not process
-        if (event.getPostedBy() != this && event.getSource() == this.getDataRowCache()) {
+        if (event.getPostedBy() != this) {
             processSnapshotEvent(event);
         }
     }
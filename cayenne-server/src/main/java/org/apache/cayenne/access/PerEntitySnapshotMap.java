@@ -0,0 +1,203 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+
+/**
+ * A snapshot map that keeps snapshots of some entities in separate bounded maps, so that
+ * these entities have their own size limit and don't compete for space with the rest of
+ * the snapshots. Snapshots of all other entities are stored in a shared map.
+ *
+ * @since 4.2
+ */
+class PerEntitySnapshotMap extends AbstractMap<ObjectId, DataRow>
+        implements ConcurrentMap<ObjectId, DataRow>, Serializable {
+
+    private static final long serialVersionUID = -1467702542896322567L;
+
+    private final ConcurrentMap<ObjectId, DataRow> shared;
+
+    // entity name to its map, which is the shared map for the entities without own limit
+    private final ConcurrentMap<String, ConcurrentMap<ObjectId, DataRow>> partitions;
+
+    // returns a map for an entity with its own limit, or null
+    private transient Function<String, ConcurrentMap<ObjectId, DataRow>> partitionFactory;
+
+    PerEntitySnapshotMap(ConcurrentMap<ObjectId, DataRow> shared,
+                         Function<String, ConcurrentMap<ObjectId, DataRow>> partitionFactory) {
+        this.shared = shared;
+        this.partitions = new ConcurrentHashMap<>();
+        this.partitionFactory = partitionFactory;
+    }
+
+    ConcurrentMap<ObjectId, DataRow> partition(Object key) {
+        if (!(key instanceof ObjectId)) {
+            return shared;
+        }
+
+        String entityName = ((ObjectId) key).getEntityName();
+        ConcurrentMap<ObjectId, DataRow> partition = partitions.get(entityName);
+        if (partition != null) {
+            return partition;
+        }
+
+        // after deserialization new entities go to the shared map
+        if (partitionFactory == null) {
+            return shared;
+        }
+
+        return partitions.computeIfAbsent(entityName, name -> {
+            ConcurrentMap<ObjectId, DataRow> own = partitionFactory.apply(name);
+            return own != null ? own : shared;
+        });
+    }
+
+    private Iterable<ConcurrentMap<ObjectId, DataRow>> allPartitions() {
+        Set<ConcurrentMap<ObjectId, DataRow>> all = Collections.newSetFromMap(new IdentityHashMap<>());
+        all.add(shared);
+        all.addAll(partitions.values());
+        return all;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentMap<ObjectId, DataRow> partition : allPartitions()) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return partition(key).containsKey(key);
+    }
+
+    @Override
+    public DataRow get(Object key) {
+        return partition(key).get(key);
+    }
+
+    @Override
+    public DataRow put(ObjectId key, DataRow value) {
+        return partition(key).put(key, value);
+    }
+
+    @Override
+    public DataRow putIfAbsent(ObjectId key, DataRow value) {
+        return partition(key).putIfAbsent(key, value);
+    }
+
+    @Override
+    public DataRow remove(Object key) {
+        return partition(key).remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return partition(key).remove(key, value);
+    }
+
+    @Override
+    public DataRow replace(ObjectId key, DataRow value) {
+        return partition(key).replace(key, value);
+    }
+
+    @Override
+    public boolean replace(ObjectId key, DataRow oldValue, DataRow newValue) {
+        return partition(key).replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void clear() {
+        for (ConcurrentMap<ObjectId, DataRow> partition : allPartitions()) {
+            partition.clear();
+        }
+    }
+
+    @Override
+    public Set<Entry<ObjectId, DataRow>> entrySet() {
+        return new AbstractSet<Entry<ObjectId, DataRow>>() {
+
+            @Override
+            public int size() {
+                return PerEntitySnapshotMap.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<ObjectId, DataRow>> iterator() {
+                List<Iterator<Entry<ObjectId, DataRow>>> iterators = new ArrayList<>();
+                for (ConcurrentMap<ObjectId, DataRow> partition : allPartitions()) {
+                    iterators.add(partition.entrySet().iterator());
+                }
+
+                return new Iterator<Entry<ObjectId, DataRow>>() {
+
+                    int index;
+                    Iterator<Entry<ObjectId, DataRow>> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (index < iterators.size()) {
+                            if (iterators.get(index).hasNext()) {
+                                return true;
+                            }
+                            index++;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public Entry<ObjectId, DataRow> next() {
+                        hasNext();
+                        if (index >= iterators.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        last = iterators.get(index);
+                        return last.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        last.remove();
+                    }
+                };
+            }
+        };
+    }
+}
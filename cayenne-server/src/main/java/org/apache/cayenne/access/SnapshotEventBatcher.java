@@ -0,0 +1,149 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.cayenne.access.event.BatchedSnapshotEvent;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.util.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces snapshot events posted within a time window, or up to a maximum number of
+ * events, into a single {@link BatchedSnapshotEvent}. Batches are delivered in order on a
+ * single daemon thread, so committing threads never block on listeners.
+ *
+ * @since 4.2
+ */
+class SnapshotEventBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotEventBatcher.class);
+
+    private final String name;
+    private final Object source;
+    private final long windowMillis;
+    private final int maxEvents;
+    private final Consumer<SnapshotEvent> sink;
+    private final boolean virtualThreads;
+
+    // guarded by "this"
+    private List<SnapshotEvent> pending;
+    private ScheduledThreadPoolExecutor executor;
+    private boolean shutdown;
+
+    SnapshotEventBatcher(String name, Object source, long windowMillis, int maxEvents, Consumer<SnapshotEvent> sink,
+            boolean virtualThreads) {
+        this.name = name;
+        this.source = source;
+        this.windowMillis = windowMillis;
+        this.maxEvents = Math.max(1, maxEvents);
+        this.sink = sink;
+        this.virtualThreads = virtualThreads;
+    }
+
+    void add(SnapshotEvent event) {
+        synchronized (this) {
+            if (!shutdown) {
+                if (pending == null) {
+                    List<SnapshotEvent> batch = new ArrayList<>();
+                    pending = batch;
+                    executor().schedule(() -> flush(batch), windowMillis, TimeUnit.MILLISECONDS);
+                }
+
+                pending.add(event);
+                if (pending.size() >= maxEvents) {
+                    List<SnapshotEvent> batch = pending;
+                    pending = null;
+                    executor().execute(() -> deliver(batch));
+                }
+
+                return;
+            }
+        }
+
+        // batcher is stopped, deliver directly
+        sink.accept(event);
+    }
+
+    private void flush(List<SnapshotEvent> batch) {
+        synchronized (this) {
+            // already flushed on reaching max size
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+
+        deliver(batch);
+    }
+
+    private void deliver(List<SnapshotEvent> batch) {
+        try {
+            sink.accept(batch.size() == 1 ? batch.get(0) : new BatchedSnapshotEvent(source, batch));
+        } catch (RuntimeException e) {
+            logger.warn("Error delivering snapshot events", e);
+        }
+    }
+
+    private ScheduledThreadPoolExecutor executor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1,
+                    new DaemonThreadFactory("cayenne-snapshot-events-" + name + "-", virtualThreads));
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the batcher, delivering pending events in the calling thread. Events added after
+     * that are delivered immediately.
+     */
+    void shutdown() {
+        List<SnapshotEvent> batch;
+        ScheduledThreadPoolExecutor executor;
+
+        synchronized (this) {
+            shutdown = true;
+            batch = pending;
+            pending = null;
+            executor = this.executor;
+            this.executor = null;
+        }
+
+        if (executor != null) {
+            // let the batch being delivered finish, skip the scheduled ones
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (batch != null) {
+            deliver(batch);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+
+/**
+ * A factory of bounded concurrent maps used by {@link DataRowStore} to store snapshots.
+ * Allows to plug a custom eviction policy into the snapshot cache.
+ *
+ * @since 4.2
+ */
+public interface SnapshotMapFactory {
+
+    /**
+     * Creates a new snapshot map.
+     *
+     * @param storeName        name of the DataRowStore the map is created for.
+     * @param maxSize          maximum number of snapshots in the map.
+     * @param evictionListener a listener that must be notified when the map evicts a
+     *                         snapshot on its own. The listener is Serializable.
+     */
+    ConcurrentMap<ObjectId, DataRow> createSnapshotMap(String storeName, int maxSize,
+                                                       BiConsumer<ObjectId, DataRow> evictionListener);
+}
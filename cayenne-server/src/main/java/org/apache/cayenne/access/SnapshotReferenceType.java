@@ -0,0 +1,45 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+/**
+ * Defines how the {@link DataRowStore} snapshot cache references its snapshots.
+ *
+ * @see org.apache.cayenne.configuration.Constants#SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY
+ * @since 4.2
+ */
+public enum SnapshotReferenceType {
+
+    /**
+     * Snapshots are held until evicted by the cache. This is the default.
+     */
+    STRONG,
+
+    /**
+     * Snapshots are held via soft references and can be reclaimed by the garbage collector
+     * when memory is low.
+     */
+    SOFT,
+
+    /**
+     * Snapshots are held via weak references and are reclaimed as soon as no object
+     * references them.
+     */
+    WEAK
+}
@@ -0,0 +1,134 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+
+/**
+ * A SnapshotEvent that combines a number of snapshot events posted by the DataRowStore
+ * within a short period of time. The event itself reports the union of all the changes, so
+ * that listeners unaware of batching can process it as a regular SnapshotEvent. Listeners
+ * that ignore their own changes should call {@link #excluding(Object)} to get the changes
+ * posted by others.
+ *
+ * @see org.apache.cayenne.configuration.Constants#SNAPSHOT_EVENT_BATCH_WINDOW_PROPERTY
+ * @since 4.2
+ */
+public class BatchedSnapshotEvent extends SnapshotEvent {
+
+    private static final long serialVersionUID = -4417092582911823016L;
+
+    // original events are only needed locally, remote listeners get the merged changes
+    protected transient List<SnapshotEvent> events;
+
+    public BatchedSnapshotEvent(Object source, List<SnapshotEvent> events) {
+        super(source, null, null, null, null, null);
+
+        this.events = events;
+
+        Map<ObjectId, DataRow> modifiedDiffs = new LinkedHashMap<>();
+        Set<ObjectId> deletedIds = new LinkedHashSet<>();
+        Set<ObjectId> invalidatedIds = new LinkedHashSet<>();
+        Set<ObjectId> indirectlyModifiedIds = new LinkedHashSet<>();
+        merge(events, modifiedDiffs, deletedIds, invalidatedIds, indirectlyModifiedIds);
+
+        this.modifiedDiffs = modifiedDiffs;
+        this.deletedIds = deletedIds;
+        this.invalidatedIds = invalidatedIds;
+        this.indirectlyModifiedIds = indirectlyModifiedIds;
+    }
+
+    private static void merge(
+            Collection<SnapshotEvent> events,
+            Map<ObjectId, DataRow> modifiedDiffs,
+            Set<ObjectId> deletedIds,
+            Set<ObjectId> invalidatedIds,
+            Set<ObjectId> indirectlyModifiedIds) {
+
+        for (SnapshotEvent event : events) {
+            for (Map.Entry<ObjectId, DataRow> entry : event.getModifiedDiffs().entrySet()) {
+                DataRow previous = modifiedDiffs.get(entry.getKey());
+                if (previous == null) {
+                    modifiedDiffs.put(entry.getKey(), entry.getValue());
+                } else {
+                    // later diffs override earlier values of the same columns
+                    modifiedDiffs.put(entry.getKey(), previous.applyDiff(entry.getValue()));
+                }
+            }
+
+            deletedIds.addAll(event.getDeletedIds());
+            invalidatedIds.addAll(event.getInvalidatedIds());
+            indirectlyModifiedIds.addAll(event.getIndirectlyModifiedIds());
+        }
+    }
+
+    /**
+     * Returns the events combined in this batch, in the order they were posted.
+     */
+    public List<SnapshotEvent> getEvents() {
+        return events != null ? Collections.unmodifiableList(events) : Collections.<SnapshotEvent>emptyList();
+    }
+
+    /**
+     * Returns a SnapshotEvent with all the changes in this batch except for those posted by
+     * a given object, or null if all the changes were posted by this object.
+     */
+    public SnapshotEvent excluding(Object postedBy) {
+        if (events == null) {
+            return this;
+        }
+
+        List<SnapshotEvent> others = null;
+        for (int i = 0; i < events.size(); i++) {
+            SnapshotEvent event = events.get(i);
+            if (event.getPostedBy() == postedBy) {
+                if (others == null) {
+                    others = new ArrayList<>(events.subList(0, i));
+                }
+            } else if (others != null) {
+                others.add(event);
+            }
+        }
+
+        if (others == null) {
+            return this;
+        }
+
+        if (others.isEmpty()) {
+            return null;
+        }
+
+        return others.size() == 1 ? others.get(0) : new BatchedSnapshotEvent(getSource(), others);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString().replace("[SnapshotEvent]", "[BatchedSnapshotEvent] " + getEvents().size() + " event(s),");
+    }
+}
@@ -19,20 +19,26 @@
 
 package org.apache.cayenne.access.flush;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.ObjectDiff;
 import org.apache.cayenne.access.ObjectStore;
 import org.apache.cayenne.access.ObjectStoreGraphDiff;
@@ -40,12 +46,13 @@ import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.flush.operation.DbRowOpMerger;
 import org.apache.cayenne.access.flush.operation.DbRowOpSorter;
 import org.apache.cayenne.access.flush.operation.DbRowOp;
-import org.apache.cayenne.access.flush.operation.DbRowOpVisitor;
 import org.apache.cayenne.graph.CompoundDiff;
 import org.apache.cayenne.graph.GraphDiff;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.query.Query;
+import org.apache.cayenne.tx.BaseTransaction;
+import org.apache.cayenne.tx.Transaction;
 
 /**
  * Default implementation of {@link DataDomainFlushAction}.
@@ -59,11 +66,23 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
     protected final JdbcEventLogger jdbcEventLogger;
     protected final OperationObserver observer;
 
+    /**
+     * Executor running queries of different DataNodes in parallel, null if the queries
+     * are executed sequentially.
+     */
+    protected final Executor parallelExecutor;
+
     protected DefaultDataDomainFlushAction(DataDomain dataDomain, DbRowOpSorter dbRowOpSorter, JdbcEventLogger jdbcEventLogger) {
+        this(dataDomain, dbRowOpSorter, jdbcEventLogger, null);
+    }
+
+    protected DefaultDataDomainFlushAction(DataDomain dataDomain, DbRowOpSorter dbRowOpSorter,
+                                           JdbcEventLogger jdbcEventLogger, Executor parallelExecutor) {
         this.dataDomain = dataDomain;
         this.dbRowOpSorter = dbRowOpSorter;
         this.jdbcEventLogger = jdbcEventLogger;
         this.observer = new FlushObserver(jdbcEventLogger);
+        this.parallelExecutor = parallelExecutor;
     }
 
     @Override
@@ -115,8 +134,9 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
      * @param dbRowOps collection of {@link DbRowOp}
      */
     protected void updateObjectIds(Collection<DbRowOp> dbRowOps) {
-        DbRowOpVisitor<Void> permIdVisitor = new PermanentObjectIdVisitor(dataDomain);
+        PermanentObjectIdVisitor permIdVisitor = new PermanentObjectIdVisitor(dataDomain);
         dbRowOps.forEach(row -> row.accept(permIdVisitor));
+        permIdVisitor.generatePks();
     }
 
     /**
@@ -160,11 +180,94 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
      */
     protected void executeQueries(List<? extends Query> queries) {
         EntityResolver entityResolver = dataDomain.getEntityResolver();
-        queries.stream()
+        Map<DataNode, List<Query>> queriesByNode = queries.stream()
                 .collect(Collectors.groupingBy(query
-                        -> dataDomain.lookupDataNode(query.getMetaData(entityResolver).getDataMap())))
-                .forEach((node, nodeQueries)
-                        -> node.performQueries(nodeQueries, observer));
+                        -> dataDomain.lookupDataNode(query.getMetaData(entityResolver).getDataMap())));
+
+        if (parallelExecutor != null && queriesByNode.size() > 1) {
+            executeQueriesInParallel(queriesByNode);
+        } else {
+            queriesByNode.forEach((node, nodeQueries)
+                    -> node.performQueries(nodeQueries, observer));
+        }
+    }
+
+    /**
+     * Execute queries of each node concurrently, each node using its own connection.
+     * Queries of the last node are executed in the calling thread. Waits for all the
+     * nodes to finish, rethrowing the first error encountered.
+     *
+     * @param queriesByNode queries to execute grouped by node
+     */
+    protected void executeQueriesInParallel(Map<DataNode, List<Query>> queriesByNode) {
+        Transaction transaction = BaseTransaction.getThreadTransaction();
+
+        // transaction is not thread-safe, so attach connections of all the nodes to it
+        // here, leaving workers with the lookup of an existing connection
+        if (transaction != null) {
+            queriesByNode.keySet().forEach(node -> attachConnection(node, transaction));
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(queriesByNode.size() - 1);
+        RuntimeException error = null;
+
+        Iterator<Map.Entry<DataNode, List<Query>>> it = queriesByNode.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<DataNode, List<Query>> entry = it.next();
+            if (it.hasNext()) {
+                futures.add(CompletableFuture.runAsync(
+                        () -> performQueries(entry.getKey(), entry.getValue(), transaction), parallelExecutor));
+            } else {
+                try {
+                    entry.getKey().performQueries(entry.getValue(), observer);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+        }
+
+        // wait for all the nodes even after a failure, so that the transaction is not
+        // rolled back while the other nodes are still using its connections
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new CayenneRuntimeException("Error flushing changes", e.getCause());
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void attachConnection(DataNode node, Transaction transaction) {
+
+        // trigger AutoAdapter lazy initialization before opening a connection, same as DataNode does
+        node.getAdapter().getExtendedTypes();
+
+        // closing transaction connection is a noop, it stays open until commit or rollback
+        try {
+            node.getDataSource().getConnection().close();
+        } catch (SQLException e) {
+            jdbcEventLogger.logQueryError(e);
+            transaction.setRollbackOnly();
+            observer.nextGlobalException(e);
+        }
+    }
+
+    private void performQueries(DataNode node, List<Query> queries, Transaction transaction) {
+        // pooled threads may have inherited a transaction of the thread that created them
+        BaseTransaction.bindThreadTransaction(transaction);
+        try {
+            node.performQueries(queries, observer);
+        } finally {
+            BaseTransaction.bindThreadTransaction(null);
+        }
     }
 
     /**
@@ -19,13 +19,22 @@
 
 package org.apache.cayenne.access.flush;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.flush.operation.DbRowOpSorter;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.util.DaemonThreadFactory;
 
 /**
- * Factory that produces {@link DefaultDataDomainFlushAction}.
+ * Factory that produces {@link DefaultDataDomainFlushAction}. If parallel flush is
+ * enabled via {@link Constants#PARALLEL_FLUSH_PROPERTY}, flush actions share a pool of
+ * daemon threads used to execute queries of different DataNodes concurrently.
  *
  * @since 4.2
  */
@@ -37,8 +46,43 @@ public class DefaultDataDomainFlushActionFactory implements DataDomainFlushActio
     @Inject
     private JdbcEventLogger jdbcEventLogger;
 
+    @Inject
+    private RuntimeProperties runtimeProperties;
+
+    private volatile ExecutorService parallelExecutor;
+
     @Override
     public DataDomainFlushAction createFlushAction(DataDomain dataDomain) {
-        return new DefaultDataDomainFlushAction(dataDomain, operationSorter, jdbcEventLogger);
+        return new DefaultDataDomainFlushAction(dataDomain, operationSorter, jdbcEventLogger, parallelExecutor());
+    }
+
+    private ExecutorService parallelExecutor() {
+        if (!runtimeProperties.getBoolean(Constants.PARALLEL_FLUSH_PROPERTY, false)) {
+            return null;
+        }
+
+        if (parallelExecutor == null) {
+            synchronized (this) {
+                if (parallelExecutor == null) {
+                    boolean virtual = runtimeProperties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false);
+                    parallelExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("cayenne-flush-", virtual));
+                }
+            }
+        }
+
+        return parallelExecutor;
+    }
+
+    /**
+     * Stops threads used for parallel flush.
+     *
+     * @since 4.2
+     */
+    @BeforeScopeEnd
+    public void shutdown() {
+        ExecutorService executor = parallelExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 }
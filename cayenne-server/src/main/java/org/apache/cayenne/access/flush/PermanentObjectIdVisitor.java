@@ -19,7 +19,13 @@
 
 package org.apache.cayenne.access.flush;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectId;
@@ -37,7 +43,9 @@ import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.reflect.ClassDescriptor;
 
 /**
- * Visitor that fills replacement map of {@link ObjectId}s of inserted objects.
+ * Visitor that fills replacement map of {@link ObjectId}s of inserted objects. Keys
+ * generated by {@link PkGenerator} are only assigned by {@link #generatePks()}, so that
+ * the keys of all the objects of an entity are requested at once.
  *
  * @since 4.2
  */
@@ -52,6 +60,9 @@ class PermanentObjectIdVisitor implements DbRowOpVisitor<Void> {
     private DataNode lastNode;
     private String lastEntityName;
 
+    // ID maps waiting for a generated key, grouped by PK attribute
+    private final Map<DbAttribute, PendingPks> pendingPks = new LinkedHashMap<>();
+
     PermanentObjectIdVisitor(DataDomain dataDomain) {
         this.dataDomain = dataDomain;
         this.resolver = dataDomain.getEntityResolver();
@@ -86,7 +97,6 @@ class PermanentObjectIdVisitor implements DbRowOpVisitor<Void> {
     private void createPermanentId(InsertDbRowOp dbRow) {
         ObjectId id = dbRow.getChangeId();
         boolean supportsGeneratedKeys = lastNode.getAdapter().supportsGeneratedKeys();
-        PkGenerator pkGenerator = lastNode.getAdapter().getPkGenerator();
 
         // modify replacement id directly...
         Map<String, Object> idMap = id.getReplacementIdMap();
@@ -127,13 +137,47 @@ class PermanentObjectIdVisitor implements DbRowOpVisitor<Void> {
             }
 
             // finally, use database generation mechanism
+            pendingPks.computeIfAbsent(dbAttr, a -> new PendingPks(lastNode)).add(idMap);
+            autoPkDone = true;
+        }
+    }
+
+    /**
+     * Generates keys for all the visited objects that need them.
+     */
+    void generatePks() {
+        pendingPks.forEach((dbAttr, pending) -> {
+            PkGenerator pkGenerator = pending.node.getAdapter().getPkGenerator();
+            List<Object> pkValues;
             try {
-                Object pkValue = pkGenerator.generatePk(lastNode, dbAttr);
-                idMap.put(dbAttrName, pkValue);
-                autoPkDone = true;
+                pkValues = pkGenerator.generatePks(pending.node, dbAttr, pending.idMaps.size());
             } catch (Exception ex) {
                 throw new CayenneRuntimeException("Error generating PK: %s", ex,  ex.getMessage());
             }
+
+            for (int i = 0; i < pkValues.size(); i++) {
+                pending.idMaps.get(i).put(dbAttr.getName(), pkValues.get(i));
+            }
+        });
+        pendingPks.clear();
+    }
+
+    private static class PendingPks {
+
+        final DataNode node;
+        final List<Map<String, Object>> idMaps = new ArrayList<>();
+
+        // ops sharing a change id share its replacement map, that only needs one key
+        private final Set<Map<String, Object>> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        PendingPks(DataNode node) {
+            this.node = node;
+        }
+
+        void add(Map<String, Object> idMap) {
+            if (queued.add(idMap)) {
+                idMaps.add(idMap);
+            }
         }
     }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.access.jdbc;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
@@ -26,6 +27,7 @@ import java.util.List;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.SQLAction;
@@ -79,6 +81,26 @@ public abstract class BaseSQLAction implements SQLAction {
         }
     }
 
+    /**
+     * Asks the adapter to stream results of an iterated query from a database cursor, if
+     * streaming is enabled and the query doesn't set its own statement fetch size.
+     *
+     * @since 4.2
+     */
+    protected void enableStreaming(PreparedStatement statement, QueryMetadata metadata) throws SQLException {
+        enableStreaming(dataNode, statement, metadata);
+    }
+
+    // shared with the actions that don't extend this class
+    static void enableStreaming(DataNode dataNode, PreparedStatement statement, QueryMetadata metadata)
+            throws SQLException {
+        DbAdapter adapter = dataNode.getAdapter();
+        int fetchSize = adapter.getStreamingFetchSize();
+        if (fetchSize > 0 && metadata.getStatementFetchSize() == 0) {
+            adapter.enableStreaming(statement, fetchSize);
+        }
+    }
+
     /**
      * Returns a value of the offset that will be used to rewind the ResultSet
      * within the SQL action before reading the result rows. The default
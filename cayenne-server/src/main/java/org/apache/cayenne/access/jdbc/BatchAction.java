@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.access.jdbc;
 
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
@@ -26,6 +27,7 @@ import org.apache.cayenne.access.OptimisticLockException;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
 import org.apache.cayenne.access.translator.batch.BatchTranslator;
+import org.apache.cayenne.access.translator.batch.MultiRowBatchTranslator;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.TypesMapping;
 import org.apache.cayenne.log.JdbcEventLogger;
@@ -40,8 +42,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * @since 1.2
@@ -84,8 +90,12 @@ public class BatchAction extends BaseSQLAction {
 		BatchTranslator translator = createTranslator();
 		boolean generatesKeys = hasGeneratedKeys();
 
-		if (runningAsBatch && !generatesKeys) {
+		if (!generatesKeys && isMultiRow(translator)) {
+			runAsMultiRowStatements(connection, (MultiRowBatchTranslator) translator, observer);
+		} else if (runningAsBatch && !generatesKeys) {
 			runAsBatch(connection, translator, observer);
+		} else if (runningAsBatch && dataNode.getAdapter().supportsBatchGeneratedKeys()) {
+			runAsBatchWithGeneratedKeys(connection, translator, observer);
 		} else {
 			runAsIndividualQueries(connection, translator, observer, generatesKeys);
 		}
@@ -109,39 +119,242 @@ public class BatchAction extends BaseSQLAction {
 
 		DbAdapter adapter = dataNode.getAdapter();
 
+		List<BatchQueryRow> rows = query.getRows();
+		int chunkSize = chunkSize(rows.size());
+		int[] results = new int[rows.size()];
+
 		try (PreparedStatement statement = con.prepareStatement(sql)) {
-			for (BatchQueryRow row : query.getRows()) {
+			int added = 0;
+			int executed = 0;
+			for (BatchQueryRow row : rows) {
 
 				DbAttributeBinding[] bindings = translator.updateBindings(row);
 				logger.logQueryParameters("batch bind", bindings);
 				bind(adapter, statement, bindings);
 
 				statement.addBatch();
+
+				// execute a full chunk, so that the driver doesn't accumulate all the rows
+				if (++added - executed == chunkSize) {
+					executeChunk(statement, results, executed);
+					executed = added;
+				}
 			}
 
-			// execute the whole batch
-			int[] results = statement.executeBatch();
+			if (executed < added) {
+				executeChunk(statement, results, executed);
+			}
+
+			// report update counts of all the chunks together
 			delegate.nextBatchCount(query, results);
 
 			if (isLoggable) {
-				int totalUpdateCount = 0;
-				for (int result : results) {
-
-					// this means Statement.SUCCESS_NO_INFO or
-					// Statement.EXECUTE_FAILED
-					if (result < 0) {
-						totalUpdateCount = Statement.SUCCESS_NO_INFO;
-						break;
+				logger.logUpdateCount(totalUpdateCount(results));
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the translator can combine more than one row of this batch in a
+	 * single SQL statement.
+	 *
+	 * @since 4.2
+	 */
+	protected boolean isMultiRow(BatchTranslator translator) {
+		return translator instanceof MultiRowBatchTranslator
+				&& query.getRows().size() > 1
+				&& ((MultiRowBatchTranslator) translator).getRowsPerStatement() > 1;
+	}
+
+	/**
+	 * Executes batch combining multiple rows in each SQL statement. Statements with the
+	 * full number of rows share a single PreparedStatement (executed as a JDBC batch if
+	 * batch updates are supported), while the remaining rows go in a separate statement.
+	 *
+	 * @since 4.2
+	 */
+	protected void runAsMultiRowStatements(Connection con, MultiRowBatchTranslator translator,
+			OperationObserver delegate) throws SQLException, Exception {
+
+		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
+		DbAdapter adapter = dataNode.getAdapter();
+
+		List<BatchQueryRow> rows = query.getRows();
+		int rowCount = rows.size();
+		int rowsPerStatement = Math.min(translator.getRowsPerStatement(), rowCount);
+		int fullStatements = rowCount / rowsPerStatement;
+
+		int[] results = new int[rowCount];
+
+		String sql = translator.getSql(rowsPerStatement);
+		logger.log(sql);
+
+		try (PreparedStatement statement = con.prepareStatement(sql)) {
+
+			// max batch size is set in rows, so convert it to the number of statements
+			int chunkSize = Math.max(1, chunkSize(rowCount) / rowsPerStatement);
+			int[] counts = new int[fullStatements];
+			int added = 0;
+			int executed = 0;
+
+			for (int i = 0; i < fullStatements; i++) {
+
+				DbAttributeBinding[] bindings = translator
+						.updateBindings(rows.subList(i * rowsPerStatement, (i + 1) * rowsPerStatement));
+				logger.logQueryParameters("batch bind", bindings);
+				bind(adapter, statement, bindings);
+
+				if (runningAsBatch) {
+					statement.addBatch();
+
+					if (++added - executed == chunkSize) {
+						executeChunk(statement, counts, executed);
+						executed = added;
 					}
+				} else {
+					counts[i] = statement.executeUpdate();
+				}
+			}
+
+			if (executed < added) {
+				executeChunk(statement, counts, executed);
+			}
+
+			for (int i = 0; i < fullStatements; i++) {
+				spreadUpdateCount(counts[i], results, i * rowsPerStatement, rowsPerStatement);
+			}
+		}
+
+		int tailOffset = fullStatements * rowsPerStatement;
+		if (tailOffset < rowCount) {
+
+			String tailSql = translator.getSql(rowCount - tailOffset);
+			logger.log(tailSql);
+
+			try (PreparedStatement statement = con.prepareStatement(tailSql)) {
+				DbAttributeBinding[] bindings = translator.updateBindings(rows.subList(tailOffset, rowCount));
+				logger.logQueryParameters("batch bind", bindings);
+				bind(adapter, statement, bindings);
+
+				spreadUpdateCount(statement.executeUpdate(), results, tailOffset, rowCount - tailOffset);
+			}
+		}
+
+		delegate.nextBatchCount(query, results);
+
+		if (logger.isLoggable()) {
+			logger.logUpdateCount(totalUpdateCount(results));
+		}
+	}
+
+	private static int totalUpdateCount(int[] results) {
+		int totalUpdateCount = 0;
+		for (int result : results) {
+
+			// this means Statement.SUCCESS_NO_INFO or
+			// Statement.EXECUTE_FAILED
+			if (result < 0) {
+				return Statement.SUCCESS_NO_INFO;
+			}
+
+			totalUpdateCount += result;
+		}
+
+		return totalUpdateCount;
+	}
+
+	/**
+	 * Converts an update count of a multi-row statement to per-row counts.
+	 */
+	private static void spreadUpdateCount(int count, int[] results, int offset, int rowCount) {
+		int rowResult;
+		if (count == rowCount) {
+			rowResult = 1;
+		} else if (count < 0) {
+			rowResult = count;
+		} else {
+			// can't tell which of the rows were affected
+			rowResult = Statement.SUCCESS_NO_INFO;
+		}
+
+		Arrays.fill(results, offset, offset + rowCount, rowResult);
+	}
+
+	/**
+	 * Executes batch as a single JDBC batch and reads keys generated for all the rows
+	 * at once. Requires a driver that returns generated keys for every row of the batch,
+	 * in the order the rows were added.
+	 *
+	 * @since 4.2
+	 */
+	protected void runAsBatchWithGeneratedKeys(Connection con, BatchTranslator translator, OperationObserver delegate)
+			throws SQLException, Exception {
+
+		String sql = translator.getSql();
+		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
+
+		// log batch SQL execution
+		logger.log(sql);
+
+		DbAdapter adapter = dataNode.getAdapter();
+		List<BatchQueryRow> rows = query.getRows();
+
+		int chunkSize = chunkSize(rows.size());
+		int[] results = new int[rows.size()];
+
+		try (PreparedStatement statement = prepareStatement(con, sql, adapter, true)) {
+			int added = 0;
+			int executed = 0;
+			for (BatchQueryRow row : rows) {
 
-					totalUpdateCount += result;
+				DbAttributeBinding[] bindings = translator.updateBindings(row);
+				logger.logQueryParameters("batch bind", bindings);
+				bind(adapter, statement, bindings);
+
+				statement.addBatch();
+
+				if (++added - executed == chunkSize) {
+					executeChunk(statement, results, executed);
+					processBatchGeneratedKeys(statement, delegate, rows.subList(executed, added));
+					executed = added;
 				}
+			}
 
-				logger.logUpdateCount(totalUpdateCount);
+			if (executed < added) {
+				executeChunk(statement, results, executed);
+				processBatchGeneratedKeys(statement, delegate, rows.subList(executed, added));
+			}
+
+			delegate.nextBatchCount(query, results);
+
+			if (logger.isLoggable()) {
+				logger.logUpdateCount(totalUpdateCount(results));
 			}
 		}
 	}
 
+	/**
+	 * Returns the number of rows to execute in a single JDBC batch.
+	 *
+	 * @since 4.2
+	 */
+	protected int chunkSize(int rowCount) {
+		int maxBatchSize = dataNode.getMaxBatchSize();
+		return maxBatchSize > 0 && maxBatchSize < rowCount ? maxBatchSize : rowCount;
+	}
+
+	/**
+	 * Executes rows accumulated in the statement batch, copying update counts to the
+	 * results array starting at a given offset.
+	 *
+	 * @since 4.2
+	 */
+	protected void executeChunk(PreparedStatement statement, int[] results, int offset) throws SQLException {
+		// per JDBC spec the statement batch is reset once executed, so it can be refilled
+		int[] chunkResults = statement.executeBatch();
+		System.arraycopy(chunkResults, 0, results, offset, Math.min(chunkResults.length, results.length - offset));
+	}
+
 	/**
 	 * Executes batch as individual queries over the same prepared statement.
 	 */
@@ -235,6 +448,41 @@ public class BatchAction extends BaseSQLAction {
 		// this works
 		// with most common drivers)
 
+		RowReader<?> rowReader = keyRowReader(keysRS);
+		ResultIterator iterator = new JDBCResultIterator(null, keysRS, rowReader);
+
+		observer.nextGeneratedRows(query, iterator, row.getObjectId());
+	}
+
+	/**
+	 * Reads keys generated for a whole batch and passes them to the observer one row at a
+	 * time, matching keys to the batch rows by position.
+	 *
+	 * @since 4.2
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected void processBatchGeneratedKeys(Statement statement, OperationObserver observer, List<BatchQueryRow> rows)
+			throws SQLException {
+
+		List keys;
+		try (ResultSet keysRS = statement.getGeneratedKeys()) {
+			keys = new JDBCResultIterator(null, keysRS, keyRowReader(keysRS)).allRows();
+		}
+
+		if (keys.size() != rows.size()) {
+			throw new CayenneRuntimeException("Expected %d generated keys for a batch insert into '%s', got %d. "
+					+ "Batch generated keys are likely not supported by the driver.",
+					rows.size(), query.getDbEntity().getName(), keys.size());
+		}
+
+		for (int i = 0; i < rows.size(); i++) {
+			ResultIterator iterator = new GeneratedKeyIterator(keys.get(i));
+			observer.nextGeneratedRows(query, iterator, rows.get(i).getObjectId());
+		}
+	}
+
+	private RowReader<?> keyRowReader(ResultSet keysRS) throws SQLException {
+
 		RowDescriptorBuilder builder = new RowDescriptorBuilder();
 
 		if (this.keyRowDescriptor == null) {
@@ -259,10 +507,62 @@ public class BatchAction extends BaseSQLAction {
 			this.keyRowDescriptor = builder.getDescriptor(dataNode.getAdapter().getExtendedTypes());
 		}
 
-		RowReader<?> rowReader = dataNode.rowReader(keyRowDescriptor, query.getMetaData(dataNode.getEntityResolver()),
+		return dataNode.rowReader(keyRowDescriptor, query.getMetaData(dataNode.getEntityResolver()),
 				Collections.<ObjAttribute, ColumnDescriptor> emptyMap());
-		ResultIterator iterator = new JDBCResultIterator(null, keysRS, rowReader);
+	}
 
-		observer.nextGeneratedRows(query, iterator, row.getObjectId());
+	/**
+	 * A single row of keys generated for a batch, passed to the observer as a ResultIterator.
+	 */
+	private static class GeneratedKeyIterator<T> implements ResultIterator<T> {
+
+		private Iterator<T> iterator;
+
+		GeneratedKeyIterator(T key) {
+			this.iterator = Collections.singletonList(key).iterator();
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			checkIterator();
+			return iterator;
+		}
+
+		@Override
+		public List<T> allRows() {
+			List<T> list = new ArrayList<>();
+			for (T t : this) {
+				list.add(t);
+			}
+			return list;
+		}
+
+		@Override
+		public boolean hasNextRow() {
+			checkIterator();
+			return iterator.hasNext();
+		}
+
+		@Override
+		public T nextRow() {
+			checkIterator();
+			return iterator.next();
+		}
+
+		@Override
+		public void skipRow() {
+			nextRow();
+		}
+
+		@Override
+		public void close() {
+			iterator = null;
+		}
+
+		private void checkIterator() {
+			if (iterator == null) {
+				throw new IllegalStateException("Iterator is closed");
+			}
+		}
 	}
 }
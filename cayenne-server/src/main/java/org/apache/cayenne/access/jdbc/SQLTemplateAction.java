@@ -191,6 +191,10 @@ public class SQLTemplateAction implements SQLAction {
 		try {
 			bind(statement, compiled.getBindings());
 
+			if (iteratedResult) {
+				BaseSQLAction.enableStreaming(dataNode, statement, queryMetadata);
+			}
+
 			// process a mix of results
 			boolean isResultSet = statement.execute();
 
@@ -95,6 +95,8 @@ public class SelectAction extends BaseSQLAction {
 		int fetchSize = queryMetadata.getStatementFetchSize();
 		if (fetchSize != 0) {
 			statement.setFetchSize(fetchSize);
+		} else if (observer.isIteratedResult()) {
+			enableStreaming(statement, queryMetadata);
 		}
 
 		ResultSet rs;
@@ -107,8 +109,7 @@ public class SelectAction extends BaseSQLAction {
 			statement.close();
 			throw ex;
 		}
-		RowDescriptor descriptor = new RowDescriptorBuilder().setColumns(translator.getResultColumns()).getDescriptor(
-				dataNode.getAdapter().getExtendedTypes());
+		RowDescriptor descriptor = translator.getRowDescriptor(dataNode.getAdapter().getExtendedTypes());
 
 		RowReader<?> rowReader = dataNode.rowReader(descriptor, queryMetadata, translator.getAttributeOverrides());
 
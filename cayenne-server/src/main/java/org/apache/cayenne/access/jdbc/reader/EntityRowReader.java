@@ -21,7 +21,9 @@ package org.apache.cayenne.access.jdbc.reader;
 import java.sql.ResultSet;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.CompactDataRow;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowColumnIndex;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.access.types.ExtendedType;
@@ -39,7 +41,8 @@ class EntityRowReader implements RowReader<DataRow> {
     private int[] types;
 
     String entityName;
-    private int mapCapacity;
+    private DataRowColumnIndex columnIndex;
+    private int[] positions;
     private int startIndex;
 
     DataRowPostProcessor postProcessor;
@@ -77,21 +80,27 @@ class EntityRowReader implements RowReader<DataRow> {
                 labels[i] = segmentMetadata.getColumnPath(columns[startIndex + i].getDataRowKey());
             }
         }
-        this.mapCapacity = (int) Math.ceil(segmentWidth / 0.75);
+
+        // shared by all the rows read by this reader
+        this.columnIndex = new DataRowColumnIndex(labels);
+        this.positions = new int[segmentWidth];
+        for (int i = 0; i < segmentWidth; i++) {
+            positions[i] = columnIndex.indexOf(labels[i]);
+        }
     }
 
     @Override
     public DataRow readRow(ResultSet resultSet) {
 
         try {
-            DataRow row = new DataRow(mapCapacity);
+            CompactDataRow row = new CompactDataRow(columnIndex);
             int len = converters.length;
 
             for (int i = 0; i < len; i++) {
 
                 // note: jdbc column indexes start from 1, not 0 as in arrays
                 Object val = converters[i].materializeObject(resultSet, startIndex + i + 1, types[i]);
-                row.put(labels[i], val);
+                row.setValueAt(positions[i], val);
             }
 
             postprocessRow(resultSet, row);
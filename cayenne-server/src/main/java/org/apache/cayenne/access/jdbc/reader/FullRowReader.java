@@ -21,7 +21,9 @@ package org.apache.cayenne.access.jdbc.reader;
 import java.sql.ResultSet;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.CompactDataRow;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.DataRowColumnIndex;
 import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.util.Util;
@@ -31,17 +33,24 @@ import org.apache.cayenne.util.Util;
  */
 class FullRowReader extends BaseRowReader<DataRow> {
 
-    int mapCapacity;
+    DataRowColumnIndex columnIndex;
+    int[] positions;
 
     FullRowReader(RowDescriptor descriptor, QueryMetadata queryMetadata, DataRowPostProcessor postProcessor) {
         super(descriptor, queryMetadata, postProcessor);
-        this.mapCapacity = (int) Math.ceil((descriptor.getWidth()) / 0.75);
+
+        // shared by all the rows read by this reader
+        this.columnIndex = new DataRowColumnIndex(labels);
+        this.positions = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            positions[i] = columnIndex.indexOf(labels[i]);
+        }
     }
 
     @Override
     public DataRow readRow(ResultSet resultSet) {
         try {
-            DataRow dataRow = new DataRow(mapCapacity);
+            CompactDataRow dataRow = new CompactDataRow(columnIndex);
 
             int resultWidth = labels.length;
 
@@ -50,7 +59,7 @@ class FullRowReader extends BaseRowReader<DataRow> {
                 // note: jdbc column indexes start from 1, not 0 unlike
                 // everywhere else
                 Object val = converters[i].materializeObject(resultSet, i + 1, types[i]);
-                dataRow.put(labels[i], val);
+                dataRow.setValueAt(positions[i], val);
             }
 
             postprocessRow(resultSet, dataRow);
@@ -27,10 +27,19 @@ import org.apache.cayenne.access.sqlbuilder.QuotingAppendable;
 public class InNode extends Node {
 
     private final boolean not;
+    private final boolean array;
 
     public InNode(boolean not) {
+        this(not, false);
+    }
+
+    /**
+     * @param array whether the list is a single array parameter, matched with "= ANY(..)"
+     */
+    public InNode(boolean not, boolean array) {
         super(NodeType.IN);
         this.not = not;
+        this.array = array;
     }
 
     @Override
@@ -41,6 +50,10 @@ public class InNode extends Node {
     @Override
     public void appendChildrenSeparator(QuotingAppendable buffer, int childInd) {
         if (childInd == 0) {
+            if (array) {
+                buffer.append(not ? " <> ALL(" : " = ANY(");
+                return;
+            }
             if (not) {
                 buffer.append(" NOT");
             }
@@ -55,11 +68,15 @@ public class InNode extends Node {
 
     @Override
     public Node copy() {
-        return new InNode(not);
+        return new InNode(not, array);
     }
 
     public boolean isNot() {
         return not;
     }
 
+    public boolean isArray() {
+        return array;
+    }
+
 }
@@ -50,6 +50,11 @@ public class DefaultBatchTranslatorFactory implements BatchTranslatorFactory {
     }
 
     protected BatchTranslator insertTranslator(InsertBatchQuery query, DbAdapter adapter) {
+        int rowsPerStatement = adapter.getMultiRowInsertSize();
+        if (rowsPerStatement > 1) {
+            return new MultiRowInsertBatchTranslator(query, adapter, rowsPerStatement);
+        }
+
         return new InsertBatchTranslator(query, adapter);
     }
 
@@ -42,6 +42,15 @@ public class InsertBatchTranslator extends DefaultBatchTranslator {
 
     @Override
     protected String createSql() {
+        return createSql(1);
+    }
+
+    /**
+     * Creates INSERT SQL with a given number of VALUES rows.
+     *
+     * @since 4.2
+     */
+    protected String createSql(int rowCount) {
 
         List<DbAttribute> dbAttributes = query.getDbAttributes();
         QuotingStrategy strategy = adapter.getQuotingStrategy();
@@ -69,16 +78,24 @@ public class InsertBatchTranslator extends DefaultBatchTranslator {
             }
         }
 
-        buffer.append(") VALUES (");
+        buffer.append(") VALUES ");
 
-        for (int i = 0; i < columnCount; i++) {
-            if (i > 0) {
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) {
                 buffer.append(", ");
             }
 
-            buffer.append('?');
+            buffer.append('(');
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    buffer.append(", ");
+                }
+
+                buffer.append('?');
+            }
+            buffer.append(')');
         }
-        buffer.append(')');
+
         return buffer.toString();
     }
 
@@ -0,0 +1,51 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.batch;
+
+import java.util.List;
+
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.query.BatchQueryRow;
+
+/**
+ * A batch translator that can render a single SQL statement for multiple rows of a
+ * batch query.
+ *
+ * @since 4.2
+ */
+public interface MultiRowBatchTranslator extends BatchTranslator {
+
+    /**
+     * Returns the maximum number of batch rows that can be combined in a single SQL
+     * statement. A value of 1 or less means that rows can't be combined.
+     */
+    int getRowsPerStatement();
+
+    /**
+     * Returns SQL String for a statement that processes a given number of rows.
+     */
+    String getSql(int rowCount);
+
+    /**
+     * Updates bindings to be used with a statement for a given list of rows, returning
+     * bindings of all the rows in the order they appear in the statement. The number of
+     * rows must not exceed {@link #getRowsPerStatement()}.
+     */
+    DbAttributeBinding[] updateBindings(List<BatchQueryRow> rows);
+}
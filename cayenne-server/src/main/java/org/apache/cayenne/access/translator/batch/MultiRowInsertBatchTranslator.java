@@ -0,0 +1,154 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.batch;
+
+import java.util.List;
+
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.InsertBatchQuery;
+
+/**
+ * Translator of InsertBatchQueries that renders multiple rows in a single INSERT
+ * statement, i.e. "INSERT INTO T (A, B) VALUES (?, ?), (?, ?), ...". Still works as a
+ * regular single row translator via {@link #getSql()} and
+ * {@link #updateBindings(BatchQueryRow)}.
+ *
+ * @since 4.2
+ */
+public class MultiRowInsertBatchTranslator extends InsertBatchTranslator implements MultiRowBatchTranslator {
+
+    /**
+     * Max number of parameters in a single statement. Matches the lowest common limit of
+     * the supported databases (PostgreSQL).
+     */
+    static final int MAX_PARAMETERS = Short.MAX_VALUE;
+
+    protected int rowsPerStatement;
+
+    protected String multiRowSql;
+    protected DbAttributeBinding[] multiRowBindings;
+
+    public MultiRowInsertBatchTranslator(InsertBatchQuery query, DbAdapter adapter, int rowsPerStatement) {
+        super(query, adapter);
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    @Override
+    public int getRowsPerStatement() {
+        ensureTranslated();
+
+        int columnCount = 0;
+        for (DbAttributeBinding b : bindings) {
+            if (!b.isExcluded()) {
+                columnCount++;
+            }
+        }
+
+        // empty VALUES rows can't be combined
+        if (columnCount == 0) {
+            return 1;
+        }
+
+        return Math.max(1, Math.min(rowsPerStatement, MAX_PARAMETERS / columnCount));
+    }
+
+    @Override
+    public String getSql(int rowCount) {
+        ensureTranslated();
+
+        if (rowCount == 1) {
+            return sql;
+        }
+
+        if (rowCount == getRowsPerStatement()) {
+            if (multiRowSql == null) {
+                multiRowSql = createSql(rowCount);
+            }
+
+            return multiRowSql;
+        }
+
+        return createSql(rowCount);
+    }
+
+    @Override
+    public DbAttributeBinding[] updateBindings(List<BatchQueryRow> rows) {
+        ensureTranslated();
+
+        int rowCount = rows.size();
+        DbAttributeBinding[] multiBindings;
+
+        // full statements are the common case, so reuse their bindings
+        if (rowCount == getRowsPerStatement()) {
+            if (multiRowBindings == null) {
+                multiRowBindings = createMultiRowBindings(rowCount);
+            }
+
+            multiBindings = multiRowBindings;
+        } else {
+            multiBindings = createMultiRowBindings(rowCount);
+        }
+
+        int width = bindings.length;
+        for (int r = 0, j = 1; r < rowCount; r++) {
+
+            BatchQueryRow row = rows.get(r);
+            for (int i = 0; i < width; i++) {
+
+                DbAttributeBinding b = multiBindings[r * width + i];
+
+                // exclusions are permanent
+                if (!b.isExcluded()) {
+                    Object value = row.getValue(i);
+                    ExtendedType<?> extendedType = value != null
+                            ? adapter.getExtendedTypes().getRegisteredType(value.getClass())
+                            : adapter.getExtendedTypes().getDefaultType();
+
+                    b.include(j++, value, extendedType);
+                }
+            }
+        }
+
+        return multiBindings;
+    }
+
+    protected DbAttributeBinding[] createMultiRowBindings(int rowCount) {
+        int width = bindings.length;
+        DbAttributeBinding[] multiBindings = new DbAttributeBinding[width * rowCount];
+
+        for (int r = 0; r < rowCount; r++) {
+            for (int i = 0; i < width; i++) {
+                DbAttributeBinding b = new DbAttributeBinding(bindings[i].getAttribute());
+
+                if (bindings[i].isExcluded()) {
+                    b.exclude();
+                } else {
+                    b.include(1, null, null);
+                }
+
+                multiBindings[r * width + i] = b;
+            }
+        }
+
+        return multiBindings;
+    }
+}
@@ -0,0 +1,64 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.lang.reflect.Array;
+
+/**
+ * Helper that pads IN lists to a bounded set of sizes.
+ *
+ * @see org.apache.cayenne.dba.InListStrategy#PADDED
+ * @since 4.2
+ */
+final class InListValues {
+
+    private InListValues() {
+    }
+
+    /**
+     * Returns the next power of two that is greater or equal to the size.
+     */
+    static int paddedSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Pads IN list values by repeating the last value. Primitive arrays are boxed.
+     */
+    static Object pad(Object values) {
+        if (values == null || !values.getClass().isArray() || values instanceof byte[]) {
+            return values;
+        }
+
+        int length = Array.getLength(values);
+        int paddedLength = paddedSize(length);
+        if (paddedLength == length && values instanceof Object[]) {
+            return values;
+        }
+
+        Object[] padded = new Object[paddedLength];
+        for (int i = 0; i < length; i++) {
+            padded[i] = Array.get(values, i);
+        }
+        for (int i = length; i < paddedLength; i++) {
+            padded[i] = padded[length - 1];
+        }
+        return padded;
+    }
+}
@@ -43,11 +43,14 @@ import org.apache.cayenne.access.sqlbuilder.sqltree.NotEqualNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.NotNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.OpExpressionNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.TextNode;
+import org.apache.cayenne.access.types.ArrayParameter;
+import org.apache.cayenne.dba.InListStrategy;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.TraversalHandler;
 import org.apache.cayenne.exp.parser.ASTDbPath;
 import org.apache.cayenne.exp.parser.ASTFullObject;
 import org.apache.cayenne.exp.parser.ASTFunctionCall;
+import org.apache.cayenne.exp.parser.ASTList;
 import org.apache.cayenne.exp.parser.ASTObjPath;
 import org.apache.cayenne.exp.parser.ASTSubquery;
 import org.apache.cayenne.exp.parser.PatternMatchNode;
@@ -72,6 +75,7 @@ class QualifierTranslator implements TraversalHandler {
     private final PathTranslator pathTranslator;
     private final Set<Object> expressionsToSkip;
     private final Deque<Node> nodeStack;
+    private final InListStrategy inListStrategy;
 
     private Node currentNode;
 
@@ -80,6 +84,8 @@ class QualifierTranslator implements TraversalHandler {
         this.pathTranslator = context.getPathTranslator();
         this.expressionsToSkip = new HashSet<>();
         this.nodeStack = new ArrayDeque<>();
+        InListStrategy strategy = context.getAdapter().getInListStrategy();
+        this.inListStrategy = strategy != null ? strategy : InListStrategy.EXPANDED;
     }
 
     Node translate(BaseProperty<?> property) {
@@ -141,9 +147,9 @@ class QualifierTranslator implements TraversalHandler {
     private Node expressionNodeToSqlNode(Expression node, Expression parentNode) {
         switch (node.getType()) {
             case NOT_IN:
-                return new InNode(true);
+                return new InNode(true, isArrayInList(node));
             case IN:
-                return new InNode(false);
+                return new InNode(false, isArrayInList(node));
             case NOT_BETWEEN:
             case BETWEEN:
                 return new BetweenNode(node.getType() == NOT_BETWEEN);
@@ -353,16 +359,40 @@ class QualifierTranslator implements TraversalHandler {
             return;
         }
 
-        ValueNodeBuilder valueNodeBuilder = value(leaf).attribute(findDbAttribute(parentNode));
-        if(parentNode.getType() == Expression.LIST) {
-            valueNodeBuilder.array(true);
+        ValueNodeBuilder valueNodeBuilder;
+        if(parentNode.getType() != Expression.LIST) {
+            valueNodeBuilder = value(leaf);
+        } else if(currentNode instanceof InNode && ((InNode) currentNode).isArray()) {
+            valueNodeBuilder = value(ArrayParameter.of(leaf));
+        } else if(currentNode instanceof InNode && inListStrategy != InListStrategy.EXPANDED) {
+            valueNodeBuilder = value(InListValues.pad(leaf)).array(true);
+        } else {
+            valueNodeBuilder = value(leaf).array(true);
         }
+        valueNodeBuilder.attribute(findDbAttribute(parentNode));
         Node nextNode = valueNodeBuilder.build();
 
         currentNode.addChild(nextNode);
         nextNode.setParent(currentNode);
     }
 
+    /**
+     * Checks whether IN list should be bound as a single array parameter.
+     */
+    private boolean isArrayInList(Expression node) {
+        if(inListStrategy != InListStrategy.ARRAY || node.getOperandCount() != 2) {
+            return false;
+        }
+
+        Object list = node.getOperand(1);
+        if(!(list instanceof ASTList)) {
+            return false;
+        }
+
+        // attribute is required to bind an array via ExtendedType
+        return findDbAttribute(node) != null && ArrayParameter.of(((ASTList) list).getOperand(0)) != null;
+    }
+
     protected DbAttribute findDbAttribute(Expression node) {
         if(node.getType() == Expression.LIST) {
             if (node instanceof SimpleNode) {
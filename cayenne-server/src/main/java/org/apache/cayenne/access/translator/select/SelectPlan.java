@@ -0,0 +1,157 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptorBuilder;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.ObjAttribute;
+
+/**
+ * Result of a select query translation that can be reused for queries with the same {@link SelectPlanKey}.
+ *
+ * @since 4.2
+ */
+final class SelectPlan {
+
+    /**
+     * A marker of query shapes that can't be reused and should always be translated in full.
+     */
+    static final SelectPlan NOT_REUSABLE = new SelectPlan();
+
+    private final String sql;
+    private final DbAttribute[] bindingAttributes;
+    private final ExtendedType<?>[] bindingTypes;
+    private final ColumnDescriptor[] resultColumns;
+    private final Map<ObjAttribute, ColumnDescriptor> attributeOverrides;
+    private final boolean suppressingDistinct;
+    private final boolean hasJoins;
+    private final List<Object> resultSetMapping;
+
+    private volatile RowDescriptor rowDescriptor;
+
+    private SelectPlan() {
+        this.sql = null;
+        this.bindingAttributes = null;
+        this.bindingTypes = null;
+        this.resultColumns = null;
+        this.attributeOverrides = null;
+        this.suppressingDistinct = false;
+        this.hasJoins = false;
+        this.resultSetMapping = null;
+    }
+
+    SelectPlan(String sql, SelectTranslator translator, List<Object> resultSetMapping) {
+        DbAttributeBinding[] bindings = translator.getBindings();
+        this.sql = sql;
+        this.bindingAttributes = new DbAttribute[bindings.length];
+        this.bindingTypes = new ExtendedType<?>[bindings.length];
+        for (int i = 0; i < bindings.length; i++) {
+            bindingAttributes[i] = bindings[i].getAttribute();
+            bindingTypes[i] = bindings[i].getExtendedType();
+        }
+
+        this.resultColumns = translator.getResultColumns();
+        this.attributeOverrides = translator.getAttributeOverrides();
+        this.suppressingDistinct = translator.isSuppressingDistinct();
+        this.hasJoins = translator.hasJoins();
+        this.resultSetMapping = resultSetMapping;
+    }
+
+    boolean isReusable() {
+        return this != NOT_REUSABLE;
+    }
+
+    List<Object> getResultSetMapping() {
+        return resultSetMapping;
+    }
+
+    SelectTranslator translator(List<Object> values) {
+        return new PlanTranslator(values);
+    }
+
+    private RowDescriptor rowDescriptor(ExtendedTypeMap types) throws SQLException {
+        RowDescriptor descriptor = this.rowDescriptor;
+        if (descriptor == null) {
+            // benign race, the descriptor is the same regardless of the thread that builds it
+            descriptor = this.rowDescriptor = new RowDescriptorBuilder().setColumns(resultColumns).getDescriptor(types);
+        }
+        return descriptor;
+    }
+
+    private class PlanTranslator implements SelectTranslator {
+
+        private final List<Object> values;
+
+        PlanTranslator(List<Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+
+        @Override
+        public DbAttributeBinding[] getBindings() {
+            DbAttributeBinding[] bindings = new DbAttributeBinding[bindingAttributes.length];
+            for (int i = 0; i < bindings.length; i++) {
+                DbAttributeBinding binding = new DbAttributeBinding(bindingAttributes[i]);
+                binding.setStatementPosition(i + 1);
+                binding.setExtendedType(bindingTypes[i]);
+                binding.setValue(values.get(i));
+                bindings[i] = binding;
+            }
+            return bindings;
+        }
+
+        @Override
+        public Map<ObjAttribute, ColumnDescriptor> getAttributeOverrides() {
+            return attributeOverrides;
+        }
+
+        @Override
+        public ColumnDescriptor[] getResultColumns() {
+            return resultColumns;
+        }
+
+        @Override
+        public RowDescriptor getRowDescriptor(ExtendedTypeMap types) throws SQLException {
+            return rowDescriptor(types);
+        }
+
+        @Override
+        public boolean isSuppressingDistinct() {
+            return suppressingDistinct;
+        }
+
+        @Override
+        public boolean hasJoins() {
+            return hasJoins;
+        }
+    }
+}
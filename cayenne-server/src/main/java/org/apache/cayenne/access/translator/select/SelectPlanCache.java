@@ -0,0 +1,203 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptor;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.exp.property.BaseProperty;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.query.FluentSelect;
+import org.apache.cayenne.query.Select;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * An LRU cache of translated {@link FluentSelect} queries (i.e. ObjectSelect and ColumnSelect), normally
+ * owned by a DataNode. Cached plans are keyed by a structural fingerprint of the query with the parameter
+ * values abstracted away. A query matching a cached plan skips the translation altogether, reusing SQL,
+ * result columns and row descriptor of the plan with its own values bound to the statement.
+ * <p>
+ * Whether a query shape is reusable is verified on its first translation, by matching produced bindings
+ * with the values collected from the query. Shapes that fail this check (e.g. because of subqueries,
+ * compound ids or entity qualifiers with values) are remembered and are always translated in full.
+ *
+ * @since 4.2
+ */
+public class SelectPlanCache {
+
+    private final ConcurrentMap<String, SelectPlan> plans;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public SelectPlanCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+
+        this.plans = new ConcurrentLinkedHashMap.Builder<String, SelectPlan>()
+                .maximumWeightedCapacity(maxSize)
+                .build();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Returns a translator for the query, reusing a cached plan if possible and delegating to the factory
+     * otherwise.
+     */
+    public SelectTranslator translator(Select<?> query, SelectTranslatorFactory factory, DbAdapter adapter,
+                                       EntityResolver resolver) {
+        if (!(query instanceof FluentSelect)) {
+            return factory.translator(query, adapter, resolver);
+        }
+
+        FluentSelect<?> select = (FluentSelect<?>) query;
+        SelectPlanKey key = SelectPlanKey.build(select, resolver, adapter);
+        if (key == null) {
+            return factory.translator(query, adapter, resolver);
+        }
+
+        SelectPlan plan = plans.get(key.getKey());
+        if (plan == null) {
+            misses.increment();
+            return new PlanRecordingTranslator(factory.translator(query, adapter, resolver), select, resolver, key);
+        }
+
+        if (!plan.isReusable()) {
+            return factory.translator(query, adapter, resolver);
+        }
+
+        hits.increment();
+        if (plan.getResultSetMapping() != null) {
+            // normally set by the translator, see SQLResultStage
+            select.getMetaData(resolver).setResultSetMapping(plan.getResultSetMapping());
+        }
+        return plan.translator(key.getValues());
+    }
+
+    /**
+     * Removes all cached plans. Should be called when the mapping changes.
+     */
+    public void clear() {
+        plans.clear();
+    }
+
+    /**
+     * Returns the number of cached query shapes, including those that can't be reused.
+     */
+    public int size() {
+        return plans.size();
+    }
+
+    /**
+     * Returns the number of queries that reused a cached plan.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries with a shape not seen before, that had to be translated and cached.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static boolean needsResultSetMapping(FluentSelect<?> select) {
+        Collection<BaseProperty<?>> columns = select.getColumns();
+        return columns != null && !columns.isEmpty();
+    }
+
+    /**
+     * Full translator wrapper that stores the translation result in the cache.
+     */
+    private class PlanRecordingTranslator implements SelectTranslator {
+
+        private final SelectTranslator delegate;
+        private final FluentSelect<?> select;
+        private final EntityResolver resolver;
+        private final SelectPlanKey key;
+
+        PlanRecordingTranslator(SelectTranslator delegate, FluentSelect<?> select, EntityResolver resolver,
+                                SelectPlanKey key) {
+            this.delegate = delegate;
+            this.select = select;
+            this.resolver = resolver;
+            this.key = key;
+        }
+
+        @Override
+        public String getSql() throws Exception {
+            String sql = delegate.getSql();
+
+            SelectPlan plan;
+            if (key.matches(delegate.getBindings())) {
+                List<Object> resultSetMapping = needsResultSetMapping(select)
+                        ? select.getMetaData(resolver).getResultSetMapping()
+                        : null;
+                plan = new SelectPlan(sql, delegate, resultSetMapping);
+            } else {
+                plan = SelectPlan.NOT_REUSABLE;
+            }
+
+            plans.putIfAbsent(key.getKey(), plan);
+            return sql;
+        }
+
+        @Override
+        public DbAttributeBinding[] getBindings() {
+            return delegate.getBindings();
+        }
+
+        @Override
+        public Map<ObjAttribute, ColumnDescriptor> getAttributeOverrides() {
+            return delegate.getAttributeOverrides();
+        }
+
+        @Override
+        public ColumnDescriptor[] getResultColumns() {
+            return delegate.getResultColumns();
+        }
+
+        @Override
+        public RowDescriptor getRowDescriptor(ExtendedTypeMap types) throws SQLException {
+            return delegate.getRowDescriptor(types);
+        }
+
+        @Override
+        public boolean isSuppressingDistinct() {
+            return delegate.isSuppressingDistinct();
+        }
+
+        @Override
+        public boolean hasJoins() {
+            return delegate.hasJoins();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ArrayParameter;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.InListStrategy;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.TraversalHandler;
+import org.apache.cayenne.exp.parser.ASTFunctionCall;
+import org.apache.cayenne.exp.parser.ASTPath;
+import org.apache.cayenne.exp.parser.PatternMatchNode;
+import org.apache.cayenne.exp.parser.SimpleNode;
+import org.apache.cayenne.exp.property.BaseProperty;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.FluentSelect;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.QueryMetadata;
+
+/**
+ * A structural fingerprint of a {@link FluentSelect} query, used as a key of the {@link SelectPlanCache}.
+ * Parameter values are abstracted away from the fingerprint and are collected in the order they are
+ * expected to be bound to the translated SQL. Value properties that can change the generated SQL
+ * (nullness, class, length of IN lists and, for some adapters, length of strings) are still the part of the key.
+ *
+ * @since 4.2
+ */
+final class SelectPlanKey implements TraversalHandler {
+
+    private final StringBuilder key;
+    private final List<Object> values;
+    // values that are boxed by the SQL generator and should be compared by equality, not identity
+    private final BitSet boxedValues;
+    private final InListStrategy inListStrategy;
+    private final boolean stringLengthInSql;
+    private boolean cacheable;
+
+    /**
+     * Builds a fingerprint of a query, returning null if the query shape is not supported by the plan cache.
+     */
+    static SelectPlanKey build(FluentSelect<?> query, EntityResolver resolver, DbAdapter adapter) {
+        SelectPlanKey key = new SelectPlanKey(adapter.getInListStrategy(), adapter.usesStringLengthInSql());
+        key.appendQuery(query, query.getMetaData(resolver));
+        return key.cacheable ? key : null;
+    }
+
+    private SelectPlanKey(InListStrategy inListStrategy, boolean stringLengthInSql) {
+        this.key = new StringBuilder(128);
+        this.values = new ArrayList<>();
+        this.boxedValues = new BitSet();
+        this.inListStrategy = inListStrategy != null ? inListStrategy : InListStrategy.EXPANDED;
+        this.stringLengthInSql = stringLengthInSql;
+        this.cacheable = true;
+    }
+
+    String getKey() {
+        return key.toString();
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Checks that the bindings produced by the full translation are exactly the values collected by this
+     * fingerprint in the same order, so that the translated SQL can be safely reused with other values.
+     */
+    boolean matches(DbAttributeBinding[] bindings) {
+        if (bindings.length != values.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < bindings.length; i++) {
+            DbAttributeBinding binding = bindings[i];
+            if (binding.isExcluded() || binding.getStatementPosition() != i + 1) {
+                return false;
+            }
+
+            Object value = values.get(i);
+            if (boxedValues.get(i) ? !value.equals(binding.getValue()) : value != binding.getValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void appendQuery(FluentSelect<?> query, QueryMetadata metadata) {
+        key.append(query.getClass().getName())
+                .append('|').append(metadata.getObjEntity() != null ? metadata.getObjEntity().getName() : null)
+                .append('|').append(metadata.getDbEntity() != null ? metadata.getDbEntity().getName() : null)
+                .append('|').append(metadata.isFetchingDataRows())
+                .append('|').append(query.isDistinct())
+                .append('|').append(metadata.isSuppressingDistinct())
+                .append('|').append(metadata.getPageSize() > 0)
+                .append('|').append(metadata.getFetchLimit())
+                .append('|').append(metadata.getFetchOffset());
+
+        key.append("|P:");
+        appendPrefetch(metadata.getPrefetchTree());
+
+        key.append("|C:");
+        Collection<BaseProperty<?>> columns = query.getColumns();
+        if (columns != null) {
+            for (BaseProperty<?> column : columns) {
+                key.append(column.getClass().getName())
+                        .append(':').append(column.getType() != null ? column.getType().getName() : null)
+                        .append(':').append(column.getAlias());
+                appendExpression(column.getExpression());
+                key.append(',');
+            }
+        }
+
+        key.append("|W:");
+        appendExpression(query.getWhere());
+
+        key.append("|H:");
+        appendExpression(query.getHaving());
+
+        key.append("|O:");
+        Collection<Ordering> orderings = query.getOrderings();
+        if (orderings != null) {
+            for (Ordering ordering : orderings) {
+                key.append(ordering.getSortOrder()).append(':').append(ordering.isNullSortedFirst());
+                appendExpression(ordering.getSortSpec());
+                key.append(',');
+            }
+        }
+    }
+
+    private void appendPrefetch(PrefetchTreeNode node) {
+        if (node == null) {
+            return;
+        }
+
+        key.append(node.getName()).append(':').append(node.getSemantics()).append(':').append(node.isPhantom()).append('(');
+        for (PrefetchTreeNode child : node.getChildren()) {
+            appendPrefetch(child);
+        }
+        key.append(')');
+    }
+
+    private void appendExpression(Expression expression) {
+        if (expression != null) {
+            expression.traverse(this);
+        }
+    }
+
+    @Override
+    public void startNode(Expression node, Expression parentNode) {
+        int type = node.getType();
+        if (type == Expression.SUBQUERY || type == Expression.ENCLOSING_OBJECT) {
+            // nested queries are not fingerprinted
+            cacheable = false;
+        }
+
+        key.append(type);
+        if (node instanceof ASTPath) {
+            Map<String, String> aliases = ((ASTPath) node).getPathAliases();
+            if (!aliases.isEmpty()) {
+                key.append(aliases);
+            }
+        } else if (node instanceof ASTFunctionCall) {
+            key.append(((ASTFunctionCall) node).getFunctionName());
+        } else if (node instanceof PatternMatchNode) {
+            key.append(((PatternMatchNode) node).getEscapeChar());
+        }
+        key.append('(');
+    }
+
+    @Override
+    public void endNode(Expression node, Expression parentNode) {
+        key.append(')');
+    }
+
+    @Override
+    public void finishedChild(Expression node, int childIndex, boolean hasMoreChildren) {
+        key.append(',');
+    }
+
+    @Override
+    public void objectNode(Object leaf, Expression parentNode) {
+        int type = parentNode.getType();
+        if (type == Expression.OBJ_PATH || type == Expression.DB_PATH) {
+            key.append(leaf);
+        } else if (type == Expression.LIST && isInList(parentNode)) {
+            appendInList(leaf);
+        } else {
+            // same rules as in ValueNode, arrays are only expanded inside the IN lists
+            appendValue(leaf, type == Expression.LIST, false);
+        }
+    }
+
+    private static boolean isInList(Expression list) {
+        if (!(list instanceof SimpleNode)) {
+            return false;
+        }
+
+        Object parent = ((SimpleNode) list).jjtGetParent();
+        return parent instanceof Expression
+                && (((Expression) parent).getType() == Expression.IN || ((Expression) parent).getType() == Expression.NOT_IN);
+    }
+
+    // must be in sync with QualifierTranslator IN list processing
+    private void appendInList(Object list) {
+        if (inListStrategy == InListStrategy.ARRAY) {
+            ArrayParameter parameter = ArrayParameter.of(list);
+            if (parameter != null) {
+                key.append("?array");
+                boxedValues.set(values.size());
+                values.add(parameter);
+                return;
+            }
+        }
+
+        if (inListStrategy == InListStrategy.EXPANDED) {
+            appendValue(list, true, false);
+        } else {
+            // primitive values are boxed when the list is padded
+            boolean boxed = list != null && !(list instanceof Object[]);
+            appendValue(InListValues.pad(list), true, boxed);
+        }
+    }
+
+    private void appendValue(Object value, boolean isArray, boolean boxed) {
+        if (value == null) {
+            key.append("null");
+        } else if (isArray && value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            key.append('[').append(array.length);
+            for (Object element : array) {
+                key.append(',');
+                appendValue(element, true, boxed);
+            }
+            key.append(']');
+        } else if (isArray && value.getClass().isArray() && !(value instanceof byte[])) {
+            // primitive array, each element is boxed by the SQL generator
+            int length = Array.getLength(value);
+            key.append('[').append(value.getClass().getName()).append(length).append(']');
+            for (int i = 0; i < length; i++) {
+                boxedValues.set(values.size());
+                values.add(Array.get(value, i));
+            }
+        } else if (value instanceof Persistent) {
+            appendValue(((Persistent) value).getObjectId());
+        } else if (value instanceof ObjectId) {
+            appendValue((ObjectId) value);
+        } else {
+            key.append('?').append(value.getClass().getName());
+            // some adapters use the length of the string value in the generated SQL
+            if (stringLengthInSql && value instanceof CharSequence) {
+                key.append(':').append(((CharSequence) value).length());
+            }
+            boxedValues.set(values.size(), boxed);
+            values.add(value);
+        }
+    }
+
+    private void appendValue(ObjectId id) {
+        Collection<Object> idValues = id.getIdSnapshot().values();
+        if (idValues.size() > 1) {
+            // order of the compound id values in SQL depends on mapping, not on the snapshot
+            cacheable = false;
+        }
+
+        key.append("id").append(idValues.size());
+        for (Object idValue : idValues) {
+            appendValue(idValue, false, false);
+        }
+    }
+}
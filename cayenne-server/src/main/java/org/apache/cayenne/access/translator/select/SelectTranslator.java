@@ -19,10 +19,14 @@
 
 package org.apache.cayenne.access.translator.select;
 
+import java.sql.SQLException;
 import java.util.Map;
 
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptorBuilder;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.types.ExtendedTypeMap;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.query.SelectQuery;
 
@@ -41,6 +45,17 @@ public interface SelectTranslator {
 
 	ColumnDescriptor[] getResultColumns();
 
+	/**
+	 * Returns a descriptor of the result rows, built from the result columns.
+	 * Translators that reuse previously translated queries may return a cached
+	 * descriptor.
+	 * 
+	 * @since 4.2
+	 */
+	default RowDescriptor getRowDescriptor(ExtendedTypeMap types) throws SQLException {
+		return new RowDescriptorBuilder().setColumns(getResultColumns()).getDescriptor(types);
+	}
+
 	boolean isSuppressingDistinct();
 
 	/**
@@ -0,0 +1,81 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.types;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * A list of values bound to a statement as a single JDBC array parameter, e.g. in "= ANY(?)" clause that
+ * replaces IN list of individual parameters. Bound via {@link ArrayParameterType}.
+ *
+ * @see org.apache.cayenne.dba.InListStrategy#ARRAY
+ * @since 4.2
+ */
+public final class ArrayParameter {
+
+    private final Object[] elements;
+
+    /**
+     * Creates a parameter if all values can be passed to JDBC driver in an array as is, returns null
+     * otherwise. Primitive arrays are boxed.
+     */
+    public static ArrayParameter of(Object values) {
+        if (values == null || !values.getClass().isArray() || values instanceof byte[]) {
+            return null;
+        }
+
+        int length = Array.getLength(values);
+        Object[] elements = new Object[length];
+        for (int i = 0; i < length; i++) {
+            Object element = Array.get(values, i);
+            if (element instanceof CharSequence) {
+                element = element.toString();
+            } else if (element != null && !(element instanceof Number) && !(element instanceof Boolean)) {
+                return null;
+            }
+            elements[i] = element;
+        }
+
+        return new ArrayParameter(elements);
+    }
+
+    private ArrayParameter(Object[] elements) {
+        this.elements = elements;
+    }
+
+    public Object[] getElements() {
+        return elements;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof ArrayParameter && Arrays.equals(elements, ((ArrayParameter) o).elements);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(elements);
+    }
+}
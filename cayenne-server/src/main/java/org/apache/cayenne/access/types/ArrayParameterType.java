@@ -0,0 +1,92 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.types;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import org.apache.cayenne.dba.TypesMapping;
+
+/**
+ * Binds {@link ArrayParameter} values as JDBC arrays. Element type of the array is derived from the JDBC
+ * type of the parameter. Only supports binding, array parameters are never read from the results.
+ *
+ * @since 4.2
+ */
+public class ArrayParameterType implements ExtendedType<ArrayParameter> {
+
+    @Override
+    public String getClassName() {
+        return ArrayParameter.class.getName();
+    }
+
+    @Override
+    public void setJdbcObject(PreparedStatement statement, ArrayParameter value, int pos, int type, int scale)
+            throws Exception {
+        Array array = statement.getConnection().createArrayOf(elementTypeName(type), value.getElements());
+        statement.setArray(pos, array);
+    }
+
+    /**
+     * Returns a database type name of array elements, used to create JDBC array.
+     */
+    protected String elementTypeName(int type) {
+        switch (type) {
+            case Types.CHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return "varchar";
+            case Types.TINYINT:
+                return "smallint";
+            case Types.DOUBLE:
+                return "float";
+            case Types.BIT:
+                return "boolean";
+            default:
+                String name = TypesMapping.getSqlNameByType(type);
+                return name != null ? name.toLowerCase() : "varchar";
+        }
+    }
+
+    @Override
+    public ArrayParameter materializeObject(ResultSet rs, int index, int type) throws Exception {
+        throw new UnsupportedOperationException("Array parameters can't be read from the ResultSet");
+    }
+
+    @Override
+    public ArrayParameter materializeObject(CallableStatement rs, int index, int type) throws Exception {
+        throw new UnsupportedOperationException("Array parameters can't be read from the CallableStatement");
+    }
+
+    @Override
+    public String toString(ArrayParameter value) {
+        if (value == null) {
+            return "NULL";
+        }
+
+        return value.toString();
+    }
+}
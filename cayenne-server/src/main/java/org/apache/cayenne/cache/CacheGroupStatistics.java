@@ -0,0 +1,105 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+/**
+ * An immutable snapshot of the statistics of a single cache group.
+ *
+ * @since 4.2
+ */
+public class CacheGroupStatistics {
+
+    private final String group;
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final int size;
+
+    public CacheGroupStatistics(String group, long hitCount, long missCount, long loadCount, long totalLoadTime,
+                                long evictionCount, int size) {
+        this.group = group;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns a ratio of hits to all lookups, or zero if there were no lookups.
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups > 0 ? (double) hitCount / lookups : 0.;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Returns total time spent loading missing entries, in nanoseconds.
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * Returns average time of loading a missing entry, in nanoseconds.
+     */
+    public long getAverageLoadTime() {
+        return loadCount > 0 ? totalLoadTime / loadCount : 0;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries in the group, or -1 if the cache can't tell it.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheGroupStatistics{group=" + group
+                + ", hits=" + hitCount
+                + ", misses=" + missCount
+                + ", loads=" + loadCount
+                + ", evictions=" + evictionCount
+                + ", size=" + size + "}";
+    }
+}
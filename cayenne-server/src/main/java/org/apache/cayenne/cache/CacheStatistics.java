@@ -0,0 +1,201 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collects per-group hit, miss, load and eviction counts of a single cache, forwarding each
+ * event to a {@link CacheStatisticsListener}. Instances are created by
+ * {@link CacheStatisticsRegistry} and can be exposed via JMX.
+ *
+ * @since 4.2
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+    private final String name;
+    private final CacheStatisticsListener listener;
+    private final ToIntFunction<String> groupSize;
+    private final IntSupplier size;
+    private final ConcurrentMap<String, Counters> groups;
+
+    /**
+     * @param name      cache name used in listener notifications and JMX.
+     * @param listener  a listener notified of every recorded event.
+     * @param groupSize a function returning the number of entries in a group, or null if
+     *                  the cache can't tell it.
+     * @param size      a function returning the total number of entries in the cache, or
+     *                  null if the cache can't tell it.
+     */
+    public CacheStatistics(String name, CacheStatisticsListener listener, ToIntFunction<String> groupSize,
+                           IntSupplier size) {
+        this.name = name;
+        this.listener = listener;
+        this.groupSize = groupSize;
+        this.size = size;
+        this.groups = new ConcurrentHashMap<>();
+    }
+
+    public void recordHit(String group) {
+        counters(group).hits.increment();
+        listener.onHit(name, group);
+    }
+
+    public void recordMiss(String group) {
+        counters(group).misses.increment();
+        listener.onMiss(name, group);
+    }
+
+    public void recordLoad(String group, long loadTimeNanos) {
+        Counters counters = counters(group);
+        counters.loads.increment();
+        counters.loadTime.add(loadTimeNanos);
+        listener.onLoad(name, group, loadTimeNanos);
+    }
+
+    public void recordEviction(String group, int count) {
+        counters(group).evictions.add(count);
+        listener.onEviction(name, group, count);
+    }
+
+    private Counters counters(String group) {
+        Counters counters = groups.get(group);
+        return counters != null ? counters : groups.computeIfAbsent(group, g -> new Counters());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of a given group.
+     */
+    public CacheGroupStatistics getGroupStatistics(String group) {
+        Counters counters = groups.get(group);
+        return counters != null ? counters.snapshot(group, sizeOf(group)) : new CacheGroupStatistics(group, 0, 0, 0, 0, 0, sizeOf(group));
+    }
+
+    @Override
+    public List<CacheGroupStatistics> getGroupStatistics() {
+        List<CacheGroupStatistics> statistics = new ArrayList<>(groups.size());
+        for (Map.Entry<String, Counters> e : groups.entrySet()) {
+            statistics.add(e.getValue().snapshot(e.getKey(), sizeOf(e.getKey())));
+        }
+        return statistics;
+    }
+
+    @Override
+    public long getHitCount() {
+        long count = 0;
+        for (Counters counters : groups.values()) {
+            count += counters.hits.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getMissCount() {
+        long count = 0;
+        for (Counters counters : groups.values()) {
+            count += counters.misses.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long lookups = hits + getMissCount();
+        return lookups > 0 ? (double) hits / lookups : 0.;
+    }
+
+    @Override
+    public long getLoadCount() {
+        long count = 0;
+        for (Counters counters : groups.values()) {
+            count += counters.loads.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getAverageLoadTime() {
+        long count = 0;
+        long time = 0;
+        for (Counters counters : groups.values()) {
+            count += counters.loads.sum();
+            time += counters.loadTime.sum();
+        }
+        return count > 0 ? time / count : 0;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        long count = 0;
+        for (Counters counters : groups.values()) {
+            count += counters.evictions.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total number of entries in the cache, or -1 if the cache can't tell it.
+     */
+    @Override
+    public int getSize() {
+        return size != null ? size.getAsInt() : -1;
+    }
+
+    @Override
+    public void reset() {
+        groups.clear();
+    }
+
+    private int sizeOf(String group) {
+        return groupSize != null ? groupSize.applyAsInt(group) : -1;
+    }
+
+    static class Counters {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder loads = new LongAdder();
+        final LongAdder loadTime = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        CacheGroupStatistics snapshot(String group, int size) {
+            return new CacheGroupStatistics(
+                    group,
+                    hits.sum(),
+                    misses.sum(),
+                    loads.sum(),
+                    loadTime.sum(),
+                    evictions.sum(),
+                    size);
+        }
+    }
+}
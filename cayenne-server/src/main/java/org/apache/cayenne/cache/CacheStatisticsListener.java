@@ -0,0 +1,57 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+/**
+ * A listener notified of the activity of Cayenne caches, such as the query cache and the
+ * shared snapshot cache, when cache statistics are enabled. Can be bound in DI to feed
+ * cache activity to an external metrics system. Callbacks are invoked synchronously on the
+ * thread accessing the cache, so implementations should be fast and thread-safe.
+ *
+ * @see CacheStatisticsRegistry
+ * @since 4.2
+ */
+public interface CacheStatisticsListener {
+
+    /**
+     * Called when a cache lookup finds an entry.
+     */
+    default void onHit(String cacheName, String group) {
+    }
+
+    /**
+     * Called when a cache lookup finds no entry.
+     */
+    default void onMiss(String cacheName, String group) {
+    }
+
+    /**
+     * Called when a missing entry is loaded into the cache.
+     *
+     * @param loadTimeNanos time it took to load the entry, in nanoseconds.
+     */
+    default void onLoad(String cacheName, String group, long loadTimeNanos) {
+    }
+
+    /**
+     * Called when entries are evicted from the cache because of size limits or expiration.
+     */
+    default void onEviction(String cacheName, String group, int count) {
+    }
+}
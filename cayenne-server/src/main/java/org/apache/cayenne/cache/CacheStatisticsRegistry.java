@@ -0,0 +1,178 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registry of {@link CacheStatistics} of the caches of a single Cayenne runtime.
+ * Statistics are collected if enabled via {@link Constants#CACHE_STATISTICS_PROPERTY} or
+ * if a custom {@link CacheStatisticsListener} is bound in DI. If
+ * {@link Constants#CACHE_STATISTICS_JMX_PROPERTY} is set, each cache statistics object is
+ * also registered as an MXBean named
+ * "org.apache.cayenne:type=CacheStatistics,registry=N,name=...", where N is unique per
+ * registry instance, so that several runtimes in one JVM don't clash.
+ *
+ * @since 4.2
+ */
+public class CacheStatisticsRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheStatisticsRegistry.class);
+
+    public static final String JMX_DOMAIN = "org.apache.cayenne";
+
+    /**
+     * Name of the statistics of the query cache.
+     */
+    public static final String QUERY_CACHE_NAME = "QueryCache";
+
+    /**
+     * Name prefix of the statistics of snapshot caches, followed by DataRowStore name.
+     */
+    public static final String SNAPSHOT_CACHE_NAME_PREFIX = "DataRowStore.";
+
+    private static final AtomicInteger REGISTRY_COUNTER = new AtomicInteger();
+
+    protected CacheStatisticsListener listener;
+    protected boolean enabled;
+    protected boolean jmxEnabled;
+
+    private final Map<String, CacheStatistics> statistics;
+    private final List<ObjectName> registeredMBeans;
+    private final int registryId;
+
+    public CacheStatisticsRegistry(@Inject RuntimeProperties properties, @Inject CacheStatisticsListener listener) {
+        this.listener = listener;
+        this.jmxEnabled = properties.getBoolean(Constants.CACHE_STATISTICS_JMX_PROPERTY, false);
+        this.enabled = jmxEnabled
+                || properties.getBoolean(Constants.CACHE_STATISTICS_PROPERTY, false)
+                || !(listener instanceof NoopCacheStatisticsListener);
+        this.statistics = new ConcurrentHashMap<>();
+        this.registeredMBeans = new ArrayList<>();
+        this.registryId = REGISTRY_COUNTER.incrementAndGet();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates statistics for a named cache, returning null if statistics are disabled, so
+     * that the cache can skip collecting them.
+     *
+     * @param name      a unique cache name.
+     * @param groupSize a function returning the number of entries in a group, or null if
+     *                  the cache can't tell it.
+     * @param size      a function returning the total number of entries in the cache, or
+     *                  null if the cache can't tell it.
+     */
+    public CacheStatistics create(String name, ToIntFunction<String> groupSize, IntSupplier size) {
+        if (!enabled) {
+            return null;
+        }
+
+        CacheStatistics cacheStatistics = new CacheStatistics(name, listener, groupSize, size);
+        statistics.put(name, cacheStatistics);
+
+        if (jmxEnabled) {
+            registerMBean(cacheStatistics);
+        }
+
+        return cacheStatistics;
+    }
+
+    /**
+     * Returns statistics of a named cache, or null if it is not known.
+     */
+    public CacheStatistics getStatistics(String name) {
+        return statistics.get(name);
+    }
+
+    public Collection<CacheStatistics> getStatistics() {
+        return statistics.values();
+    }
+
+    protected void registerMBean(CacheStatistics cacheStatistics) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(cacheStatistics.getName());
+
+            synchronized (registeredMBeans) {
+                // a cache recreated under the same name replaces the old one registered by
+                // this registry, MBeans registered by anyone else are never touched
+                if (registeredMBeans.remove(name) && server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+
+                server.registerMBean(cacheStatistics, name);
+                registeredMBeans.add(name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.warn("Cache statistics MBean for '" + cacheStatistics.getName() + "' is already registered, skipping");
+        } catch (JMException e) {
+            LOGGER.warn("Failed to register cache statistics MBean for '" + cacheStatistics.getName() + "'", e);
+        }
+    }
+
+    /**
+     * Returns a JMX name of the named cache statistics, unique to this registry.
+     */
+    ObjectName objectName(String cacheName) throws MalformedObjectNameException {
+        return new ObjectName(JMX_DOMAIN + ":type=CacheStatistics,registry=" + registryId
+                + ",name=" + ObjectName.quote(cacheName));
+    }
+
+    @BeforeScopeEnd
+    public void shutdown() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        synchronized (registeredMBeans) {
+            for (ObjectName name : registeredMBeans) {
+                try {
+                    if (server.isRegistered(name)) {
+                        server.unregisterMBean(name);
+                    }
+                } catch (JMException e) {
+                    LOGGER.warn("Failed to unregister cache statistics MBean " + name, e);
+                }
+            }
+            registeredMBeans.clear();
+        }
+        statistics.clear();
+    }
+}
@@ -19,17 +19,39 @@
 package org.apache.cayenne.cache;
 
 import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import org.apache.cayenne.util.concurrentlinkedhashmap.EvictionListener;
+import org.apache.cayenne.util.concurrentlinkedhashmap.Weigher;
 
 /**
- * A default implementation of the {@link QueryCache} interface that stores data in a
- * non-expiring LRUMap.
+ * A default implementation of the {@link QueryCache} interface that stores data in
+ * per-group LRU maps.
+ * <p>
+ * Each cache group is a {@link ConcurrentLinkedHashMap}, so no lock is taken on access:
+ * reads are lock-free, writes are striped across the segments of the underlying hash
+ * table, and LRU reordering is applied in amortized batches.
+ * <p>
+ * Concurrent misses of the same entry in {@link #get(QueryMetadata, QueryCacheEntryFactory)}
+ * are coalesced, so that only one thread runs the query. If "serve stale" mode is on,
+ * entries removed via {@link #remove(String)} or {@link #removeGroup(String)} are kept
+ * aside and returned to the threads that would otherwise wait for the refresh. Such stale
+ * entries of all groups share a single LRU map, bounded the same way as one cache group.
+ * <p>
+ * By default each group is bounded by the number of entries. With
+ * {@link #setWeighBySize(boolean)} the bound applies to the total number of objects in
+ * the cached results instead, and {@link #setMaxWeight(int)} adds a budget shared by all
+ * groups. The total weight is tracked as entries come and go, so the budget is checked in
+ * constant time on each write. Entries may also expire after a per-group time-to-live.
  * 
  * @since 3.0
  */
@@ -39,17 +61,186 @@ public class MapQueryCache implements QueryCache, Serializable {
 
     static final String DEFAULT_CACHE_NAME = "cayenne.default.cache";
 
+    // estimated number of threads concurrently updating a single cache group
+    static final int CONCURRENCY_LEVEL = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    // number of LRU entries examined at a time when enforcing the global budget
+    private static final int EVICTION_BATCH_SIZE = 16;
+
+    // marks a group resolved to have no explicit time-to-live
+    private static final Long DEFAULT_TIME_TO_LIVE = Long.MIN_VALUE;
+
     protected final Map<String, Map<String, List<?>>> cacheGroups;
 
+    // invalidated entries of all groups keyed by group name and cache key, kept until
+    // refreshed or pushed out by the newer ones if serving stale entries is enabled
+    final ConcurrentLinkedHashMap<Map.Entry<String, String>, List<?>> staleEntries;
+
+    // combined weight of the live and stale entries
+    private final AtomicLong weight;
+
+    /**
+     * @since 4.2
+     */
+    protected final SingleFlightLoader loader;
+
     private int maxSize;
+    private boolean serveStale;
+    private boolean weighBySize;
+    private int maxWeight;
+    private long timeToLive;
+    private final Map<String, Long> groupTimeToLive;
+    private transient Function<String, Long> timeToLiveResolver;
+    private transient CacheStatistics statistics;
 
     public MapQueryCache() {
         this(DEFAULT_CACHE_SIZE);
     }
 
     public MapQueryCache(int maxSize) {
+        this(maxSize, false);
+    }
+
+    /**
+     * Creates a cache with a given maximum size of each cache group.
+     * 
+     * @param serveStale if true, while an invalidated entry is being refreshed by one
+     *            thread, other threads requesting it get the invalidated value instead of
+     *            waiting.
+     * @since 4.2
+     */
+    public MapQueryCache(int maxSize, boolean serveStale) {
         this.cacheGroups = new ConcurrentHashMap<>();
+        this.groupTimeToLive = new ConcurrentHashMap<>();
+        this.loader = new SingleFlightLoader();
         this.maxSize = maxSize;
+        this.serveStale = serveStale;
+        this.weight = new AtomicLong();
+        this.staleEntries = new ConcurrentLinkedHashMap.Builder<Map.Entry<String, String>, List<?>>()
+                .maximumWeightedCapacity(maxSize)
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .weigher(new StaleEntryWeigher())
+                .listener(new StaleEvictionListener())
+                .build();
+    }
+
+    /**
+     * @since 4.2
+     */
+    public boolean isServeStale() {
+        return serveStale;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public boolean isWeighBySize() {
+        return weighBySize;
+    }
+
+    /**
+     * If set to true, each entry is weighed by the number of objects in the cached result
+     * (plus one for the entry itself), and the size passed to the constructor bounds the
+     * total weight of each group instead of the number of entries. A result heavier than
+     * the group size (or than {@link #getMaxWeight()} if it is set) is not cached at all,
+     * instead of flushing the whole group to make room for it. Only affects the groups
+     * created after the call, so it should be set before the cache is used.
+     * 
+     * @since 4.2
+     */
+    public void setWeighBySize(boolean weighBySize) {
+        this.weighBySize = weighBySize;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Sets the maximum total weight of all cache groups combined. When exceeded, the least
+     * recently used entries of the heaviest groups are evicted, starting with stale
+     * entries. Zero or less (the default) means there's no global limit. A single result
+     * heavier than this budget is never cached.
+     * 
+     * @since 4.2
+     */
+    public void setMaxWeight(int maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets a default time-to-live in milliseconds for the entries of all cache groups.
+     * Zero or less (the default) means the entries do not expire.
+     * 
+     * @since 4.2
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns time-to-live in milliseconds for the entries of a given cache group.
+     * 
+     * @since 4.2
+     */
+    public long getTimeToLive(String cacheName) {
+        Long groupTtl = groupTimeToLive.get(cacheName);
+
+        if (groupTtl == null && timeToLiveResolver != null) {
+            groupTtl = timeToLiveResolver.apply(cacheName);
+            groupTimeToLive.putIfAbsent(cacheName, groupTtl != null ? groupTtl : DEFAULT_TIME_TO_LIVE);
+        }
+
+        return groupTtl != null && !DEFAULT_TIME_TO_LIVE.equals(groupTtl) ? groupTtl : timeToLive;
+    }
+
+    /**
+     * Sets time-to-live in milliseconds for the entries of a given cache group, overriding
+     * the default. Zero or less means the entries of the group do not expire. Applies to
+     * the entries stored after the call.
+     * 
+     * @since 4.2
+     */
+    public void setTimeToLive(String cacheName, long timeToLive) {
+        groupTimeToLive.put(cacheName, timeToLive);
+    }
+
+    /**
+     * Sets a function that looks up time-to-live of the groups that have no explicitly
+     * set value, returning null for the groups that should use the default. Each group
+     * is resolved once, on the first write.
+     * 
+     * @since 4.2
+     */
+    public void setTimeToLiveResolver(Function<String, Long> timeToLiveResolver) {
+        this.timeToLiveResolver = timeToLiveResolver;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets an object collecting hit, miss, load and eviction statistics of this cache. It
+     * should be set before the cache is used.
+     * 
+     * @since 4.2
+     */
+    public void setStatistics(CacheStatistics statistics) {
+        this.statistics = statistics;
     }
 
     public List get(QueryMetadata metadata) {
@@ -57,32 +248,96 @@ public class MapQueryCache implements QueryCache, Serializable {
         if (key == null) {
             return null;
         }
-        Map<String, List<?>> map = createIfAbsent(metadata);
-        synchronized (map) {
-            return map.get(key);
+
+        return lookup(cacheName(metadata), key, true);
+    }
+
+    private List<?> lookup(String cacheName, String key, boolean recordStatistics) {
+        Map<String, List<?>> map = createIfAbsent(cacheName);
+        List<?> entry = map.get(key);
+
+        if (entry instanceof CacheEntry && ((CacheEntry) entry).isExpired()) {
+            if (map.remove(key, entry)) {
+                removed(entry);
+                recordEviction(cacheName, 1);
+                if (serveStale) {
+                    putStale(cacheName, key, entry);
+                }
+            }
+            entry = null;
+        }
+
+        if (recordStatistics && statistics != null) {
+            if (entry != null) {
+                statistics.recordHit(cacheName);
+            } else {
+                statistics.recordMiss(cacheName);
+            }
+        }
+
+        return valueOf(entry);
+    }
+
+    // entries are normally wrapped in CacheEntry, but subclasses may store plain lists
+    private static List<?> valueOf(List<?> entry) {
+        return entry instanceof CacheEntry ? ((CacheEntry) entry).value : entry;
+    }
+
+    private void recordEviction(String cacheName, int count) {
+        if (statistics != null) {
+            statistics.recordEviction(cacheName, count);
         }
     }
 
     /**
      * Returns a non-null cached value. If it is not present in the cache, it is obtained
-     * by calling {@link QueryCacheEntryFactory#createObject()} without blocking the cache. As
-     * a result there is a potential of multiple threads to be updating cache in parallel -
-     * this wouldn't lead to corruption of the cache, but can be suboptimal.
+     * by calling {@link QueryCacheEntryFactory#createObject()} without blocking the cache.
+     * Only one thread runs the factory for a given entry; other threads requesting the
+     * same entry wait for its result, or get a stale value if "serve stale" mode is on and
+     * such a value exists.
      */
     @SuppressWarnings("rawtypes")
     public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
         List result = get(metadata);
-        if (result == null) {
-            List newObject = factory.createObject();
-            if (newObject == null) {
-                throw new CayenneRuntimeException("Null on cache rebuilding: %s", metadata.getCacheKey());
+        if (result != null) {
+            return result;
+        }
+
+        String key = metadata.getCacheKey();
+        if (key == null) {
+            return createObject(metadata, factory);
+        }
+
+        String cacheName = cacheName(metadata);
+        List stale = serveStale ? getStale(cacheName, key) : null;
+
+        return loader.load(new AbstractMap.SimpleImmutableEntry<>(cacheName, key), () -> {
+
+            // the entry may have been loaded by another thread after our miss
+            List cached = lookup(cacheName, key, false);
+            if (cached != null) {
+                return cached;
+            }
+
+            long start = statistics != null ? System.nanoTime() : 0;
+            List newObject = createObject(metadata, factory);
+            if (statistics != null) {
+                statistics.recordLoad(cacheName, System.nanoTime() - start);
             }
 
-            result = newObject;
-            put(metadata, result);
+            put(metadata, newObject);
+            return newObject;
+        }, stale);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private List createObject(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+        List newObject = factory.createObject();
+        if (newObject == null) {
+            throw new CayenneRuntimeException("Null on cache rebuilding: %s", metadata.getCacheKey());
         }
 
-        return result;
+        return newObject;
     }
 
     public void put(QueryMetadata metadata, List results) {
@@ -91,9 +346,51 @@ public class MapQueryCache implements QueryCache, Serializable {
             return;
         }
 
-        Map<String, List<?>> map = createIfAbsent(metadata);
-        synchronized (map) {
-            map.put(key, results);
+        String cacheName = cacheName(metadata);
+        long ttl = getTimeToLive(cacheName);
+        long expiresAt = ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE;
+        CacheEntry entry = new CacheEntry(results, expiresAt);
+        Map<String, List<?>> map = createIfAbsent(cacheName);
+
+        if (isOverweight(entry)) {
+            // can't be retained without flushing everything else, so just drop the previous value
+            removed(map.remove(key));
+        } else {
+            added(entry);
+            removed(map.put(key, entry));
+
+            // the group may have been removed or cleared concurrently after we got it, in
+            // which case the entry would stay counted without being reachable
+            if (getCache(cacheName) != map && map.remove(key, entry)) {
+                removed(entry);
+            }
+        }
+
+        if (serveStale && !staleEntries.isEmpty()) {
+            removed(staleEntries.remove(new AbstractMap.SimpleImmutableEntry<>(cacheName, key)));
+        }
+
+        if (maxWeight > 0 && weight.get() > maxWeight) {
+            evictOverBudget();
+        }
+    }
+
+    private boolean isOverweight(CacheEntry entry) {
+        if (!weighBySize) {
+            return false;
+        }
+
+        int entryWeight = weightOf(entry);
+        return entryWeight > maxSize || (maxWeight > 0 && entryWeight > maxWeight);
+    }
+
+    private void added(List<?> entry) {
+        weight.addAndGet(weightOf(entry));
+    }
+
+    private void removed(List<?> entry) {
+        if (entry != null) {
+            weight.addAndGet(-weightOf(entry));
         }
     }
 
@@ -102,16 +399,31 @@ public class MapQueryCache implements QueryCache, Serializable {
             return;
         }
 
-        for(Map<String, List<?>> map : cacheGroups.values()) {
-            synchronized (map) {
-                map.remove(key);
+        for(Map.Entry<String, Map<String, List<?>>> group : cacheGroups.entrySet()) {
+            List<?> removed = group.getValue().remove(key);
+            if (removed != null) {
+                removed(removed);
+                if (serveStale) {
+                    putStale(group.getKey(), key, removed);
+                }
             }
         }
     }
 
     public void removeGroup(String groupKey) {
         if (groupKey != null) {
-            cacheGroups.remove(groupKey);
+            Map<String, List<?>> removed = cacheGroups.remove(groupKey);
+            if (removed != null) {
+                for (String key : removed.keySet()) {
+                    List<?> entry = removed.remove(key);
+                    if (entry != null) {
+                        removed(entry);
+                        if (serveStale) {
+                            putStale(groupKey, key, entry);
+                        }
+                    }
+                }
+            }
         }
     }
 
@@ -120,19 +432,109 @@ public class MapQueryCache implements QueryCache, Serializable {
     }
 
     public void clear() {
-        cacheGroups.clear();
+        // entries are drained one by one instead of resetting the weight, so that the
+        // writers racing with this call account for their entries exactly once
+        for (String cacheName : cacheGroups.keySet()) {
+            Map<String, List<?>> removed = cacheGroups.remove(cacheName);
+            if (removed != null) {
+                drain(removed);
+            }
+        }
+
+        drain(staleEntries);
+    }
+
+    private <K> void drain(Map<K, List<?>> map) {
+        for (K key : map.keySet()) {
+            removed(map.remove(key));
+        }
     }
 
     public int size() {
         int size = 0;
         for(Map<String, List<?>> map : cacheGroups.values()) {
-            synchronized (map) {
-                size += map.size();
-            }
+            size += map.size();
         }
         return size;
     }
 
+    /**
+     * Returns the total weight of all cache groups, including stale entries. Unless
+     * weighing by size is enabled, this is the number of entries.
+     * 
+     * @since 4.2
+     */
+    public long weightedSize() {
+        return weight.get();
+    }
+
+    /**
+     * Evicts least recently used entries until the total weight fits in the global budget.
+     * Stale entries go first, then entries of the heaviest live groups, a small batch at a
+     * time, taken from the LRU end of each group.
+     */
+    private void evictOverBudget() {
+        while (weight.get() > maxWeight && !staleEntries.isEmpty()) {
+            for (Map.Entry<String, String> key : staleEntries.ascendingKeySetWithLimit(EVICTION_BATCH_SIZE)) {
+                List<?> removed = staleEntries.remove(key);
+                if (removed != null) {
+                    removed(removed);
+                    recordEviction(key.getKey(), 1);
+                    if (weight.get() <= maxWeight) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        while (weight.get() > maxWeight) {
+            Map.Entry<String, ConcurrentLinkedHashMap<String, List<?>>> group = heaviestGroup();
+            if (group == null) {
+                break;
+            }
+
+            ConcurrentLinkedHashMap<String, List<?>> map = group.getValue();
+            int evicted = 0;
+            for (String key : map.ascendingKeySetWithLimit(EVICTION_BATCH_SIZE)) {
+                List<?> removed = map.remove(key);
+                if (removed != null) {
+                    removed(removed);
+                    evicted++;
+                    if (weight.get() <= maxWeight) {
+                        break;
+                    }
+                }
+            }
+
+            if (evicted > 0) {
+                recordEviction(group.getKey(), evicted);
+            }
+        }
+    }
+
+    // linear scan instead of sorting, as only the top group is needed for each batch
+    @SuppressWarnings("unchecked")
+    private Map.Entry<String, ConcurrentLinkedHashMap<String, List<?>>> heaviestGroup() {
+        String heaviestName = null;
+        ConcurrentLinkedHashMap<String, List<?>> heaviest = null;
+
+        for (Map.Entry<String, Map<String, List<?>>> group : cacheGroups.entrySet()) {
+            if (group.getValue() instanceof ConcurrentLinkedHashMap) {
+                ConcurrentLinkedHashMap<String, List<?>> map = (ConcurrentLinkedHashMap<String, List<?>>) group.getValue();
+                if (!map.isEmpty() && (heaviest == null || map.weightedSize() > heaviest.weightedSize())) {
+                    heaviestName = group.getKey();
+                    heaviest = map;
+                }
+            }
+        }
+
+        return heaviest != null ? new AbstractMap.SimpleImmutableEntry<>(heaviestName, heaviest) : null;
+    }
+
+    private int weightOf(List<?> entry) {
+        return weighBySize ? ResultSizeWeigher.INSTANCE.weightOf(entry) : 1;
+    }
+
     protected Map<String, List<?>> createIfAbsent(QueryMetadata metadata) {
         return createIfAbsent(cacheName(metadata));
     }
@@ -146,22 +548,52 @@ public class MapQueryCache implements QueryCache, Serializable {
         return cache;
     }
 
-    @SuppressWarnings("unchecked")
-    protected synchronized Map<String, List<?>> createCache(String cacheName) {
-        Map<String, List<?>> map = getCache(cacheName);
-        if(map != null) {
-            return map;
+    protected Map<String, List<?>> createCache(String cacheName) {
+        return cacheGroups.computeIfAbsent(cacheName, this::newGroup);
+    }
+
+    /**
+     * Creates an empty map for the entries of a single cache group. Values stored in the
+     * map are {@link CacheEntry} instances wrapping the query results.
+     * 
+     * @since 4.2
+     */
+    protected Map<String, List<?>> newGroup(String cacheName) {
+        ConcurrentLinkedHashMap.Builder<String, List<?>> builder = new ConcurrentLinkedHashMap.Builder<String, List<?>>()
+                .maximumWeightedCapacity(maxSize)
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .listener(new GroupEvictionListener(cacheName));
+
+        if (weighBySize) {
+            builder.weigher(ResultSizeWeigher.INSTANCE);
         }
 
-        map = new ConcurrentLinkedHashMap.Builder<String, List<?>>().maximumWeightedCapacity(maxSize).build();
-        cacheGroups.put(cacheName, map);
-        return map;
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of entries in a given cache group.
+     * 
+     * @since 4.2
+     */
+    public int size(String cacheName) {
+        Map<String, List<?>> map = cacheGroups.get(cacheName);
+        return map != null ? map.size() : 0;
     }
 
     protected Map<String, List<?>> getCache(String name) {
         return cacheGroups.get(name);
     }
 
+    List<?> getStale(String cacheName, String key) {
+        return valueOf(staleEntries.get(new AbstractMap.SimpleImmutableEntry<>(cacheName, key)));
+    }
+
+    private void putStale(String cacheName, String key, List<?> entry) {
+        added(entry);
+        removed(staleEntries.put(new AbstractMap.SimpleImmutableEntry<>(cacheName, key), entry));
+    }
+
     protected String cacheName(QueryMetadata metadata) {
 
         String cacheGroup = metadata.getCacheGroup();
@@ -172,4 +604,104 @@ public class MapQueryCache implements QueryCache, Serializable {
         // no explicit cache group
         return DEFAULT_CACHE_NAME;
     }
+
+    /**
+     * A cached query result with its expiration time. Acts as a read-only view of the
+     * result, so that it can be stored in the cache group maps keeping their original type.
+     * 
+     * @since 4.2
+     */
+    protected static class CacheEntry extends AbstractList<Object> implements Serializable {
+
+        private static final long serialVersionUID = 4297403497374335311L;
+
+        final List<?> value;
+        final long expiresAt;
+
+        CacheEntry(List<?> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public Object get(int index) {
+            return value.get(index);
+        }
+
+        @Override
+        public int size() {
+            return value.size();
+        }
+
+        public List<?> getValue() {
+            return value;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        boolean isExpired() {
+            return expiresAt != Long.MAX_VALUE && expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    class GroupEvictionListener implements EvictionListener<String, List<?>>, Serializable {
+
+        private static final long serialVersionUID = 2378734564812302765L;
+
+        private final String cacheName;
+
+        GroupEvictionListener(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        @Override
+        public void onEviction(String key, List<?> value) {
+            removed(value);
+            recordEviction(cacheName, 1);
+        }
+    }
+
+    class StaleEvictionListener implements EvictionListener<Map.Entry<String, String>, List<?>>, Serializable {
+
+        private static final long serialVersionUID = -3064751329427640893L;
+
+        @Override
+        public void onEviction(Map.Entry<String, String> key, List<?> value) {
+            removed(value);
+            recordEviction(key.getKey(), 1);
+        }
+    }
+
+    // stale map is created upfront, so it follows the current weighing mode on every write
+    class StaleEntryWeigher implements Weigher<List<?>>, Serializable {
+
+        private static final long serialVersionUID = 5581834930185376502L;
+
+        @Override
+        public int weightOf(List<?> entry) {
+            return MapQueryCache.this.weightOf(entry);
+        }
+    }
+
+    /**
+     * Weighs cache entries by the number of objects in the cached result.
+     */
+    static class ResultSizeWeigher implements Weigher<List<?>>, Serializable {
+
+        static final ResultSizeWeigher INSTANCE = new ResultSizeWeigher();
+
+        private static final long serialVersionUID = -6254870284468736523L;
+
+        @Override
+        public int weightOf(List<?> entry) {
+            int size = entry.size();
+            return size < Integer.MAX_VALUE ? size + 1 : size;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
 }
@@ -30,9 +30,26 @@ import org.apache.cayenne.di.Provider;
 public class MapQueryCacheProvider implements Provider<QueryCache> {
 
     protected RuntimeProperties properties;
+    protected CacheStatisticsRegistry statisticsRegistry;
 
-    public MapQueryCacheProvider(@Inject RuntimeProperties properties) {
+    /**
+     * Creates a provider of caches that collect no statistics.
+     *
+     * @deprecated since 4.2 in favor of the injectable constructor that takes a statistics
+     * registry.
+     */
+    @Deprecated
+    public MapQueryCacheProvider(RuntimeProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * @since 4.2
+     */
+    public MapQueryCacheProvider(@Inject RuntimeProperties properties,
+                                 @Inject CacheStatisticsRegistry statisticsRegistry) {
         this.properties = properties;
+        this.statisticsRegistry = statisticsRegistry;
     }
 
     public QueryCache get() throws ConfigurationException {
@@ -40,6 +57,29 @@ public class MapQueryCacheProvider implements Provider<QueryCache> {
         int size = properties.getInt(
                 Constants.QUERY_CACHE_SIZE_PROPERTY,
                 MapQueryCache.DEFAULT_CACHE_SIZE);
-        return new MapQueryCache(size);
+        boolean serveStale = properties.getBoolean(Constants.QUERY_CACHE_SERVE_STALE_PROPERTY, false);
+
+        MapQueryCache cache = new MapQueryCache(size, serveStale);
+        cache.setWeighBySize(properties.getBoolean(Constants.QUERY_CACHE_WEIGH_BY_SIZE_PROPERTY, false));
+        cache.setMaxWeight(properties.getInt(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY, 0));
+        cache.setTimeToLive(properties.getLong(Constants.QUERY_CACHE_TTL_PROPERTY, 0));
+        cache.setTimeToLiveResolver(this::groupTimeToLive);
+        if (statisticsRegistry != null) {
+            cache.setStatistics(statisticsRegistry.create(CacheStatisticsRegistry.QUERY_CACHE_NAME, cache::size, cache::size));
+        }
+        return cache;
+    }
+
+    protected Long groupTimeToLive(String cacheName) {
+        String ttl = properties.get(Constants.QUERY_CACHE_TTL_PROPERTY + "." + cacheName);
+        if (ttl == null) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(ttl);
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid query cache time-to-live for group '%s': %s", cacheName, ttl);
+        }
     }
 }
@@ -75,6 +75,10 @@ public class NestedQueryCache implements QueryCache {
         delegate.clear();
     }
 
+    /**
+     * Delegates to the shared cache using a namespaced key, so concurrent misses of the
+     * same entry within this namespace are coalesced by the delegate.
+     */
     @Override
     @SuppressWarnings("rawtypes")
     public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
@@ -44,7 +44,11 @@ public interface QueryCache {
      * Compared to {@link #get(QueryMetadata)}, this method allows the cache to do
      * appropriate synchronization when refreshing the entry, preventing multiple threads
      * from running the same query when a missing entry is requested by multiple threads
-     * simultaneously.
+     * simultaneously. Implementations are expected to run the factory in at most one
+     * thread per cache key at a time, with the other threads either waiting for its
+     * result or, if the implementation supports it, receiving a stale value.
+     *
+     * @see SingleFlightLoader
      */
     @SuppressWarnings("rawtypes")
     List get(QueryMetadata metadata, QueryCacheEntryFactory factory);
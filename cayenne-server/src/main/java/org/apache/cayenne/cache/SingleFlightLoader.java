@@ -0,0 +1,131 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * Coordinates concurrent cache misses, so that only one thread at a time runs a
+ * {@link QueryCacheEntryFactory} for a given key. Other threads requesting the same key
+ * while the load is in progress wait for its result, or, if the caller can provide one,
+ * receive a stale value instead. {@link QueryCache} implementations use it to implement
+ * {@link QueryCache#get(org.apache.cayenne.query.QueryMetadata, QueryCacheEntryFactory)}.
+ *
+ * @since 4.2
+ */
+public class SingleFlightLoader implements Serializable {
+
+    private static final long serialVersionUID = -3263487423744254427L;
+
+    private final transient ConcurrentMap<Object, Flight> flights;
+
+    public SingleFlightLoader() {
+        this.flights = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Runs the loader for the key, unless another thread is already loading it, in which
+     * case either returns the provided stale value or, if it is null, waits for the other
+     * thread to finish and returns its result. An exception thrown by the loader is
+     * rethrown in all threads waiting for it.
+     *
+     * @param key       a key identifying the cache entry being loaded.
+     * @param loader    a factory that loads and caches the entry.
+     * @param staleValue an outdated value that can be returned instead of waiting for
+     *                  an in-progress load, or null if waiting is required.
+     */
+    @SuppressWarnings("rawtypes")
+    public List load(Object key, QueryCacheEntryFactory loader, List staleValue) {
+
+        Flight flight = new Flight();
+        Flight existing = flights.putIfAbsent(key, flight);
+
+        if (existing != null) {
+
+            // a reentrant call from the loading thread can't wait for itself
+            if (existing.owner == Thread.currentThread()) {
+                return loader.createObject();
+            }
+
+            return staleValue != null ? staleValue : existing.await(key);
+        }
+
+        try {
+            List result = loader.createObject();
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of loads currently in progress.
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    private Object readResolve() {
+        // in-progress loads are not carried over
+        return new SingleFlightLoader();
+    }
+
+    static class Flight {
+
+        final Thread owner;
+
+        @SuppressWarnings("rawtypes")
+        final CompletableFuture<List> result;
+
+        Flight() {
+            this.owner = Thread.currentThread();
+            this.result = new CompletableFuture<>();
+        }
+
+        @SuppressWarnings("rawtypes")
+        List await(Object key) {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CayenneRuntimeException("Interrupted while waiting for cache entry: %s", e, key);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new CayenneRuntimeException("Error loading cache entry: %s", cause, key);
+            }
+        }
+    }
+}
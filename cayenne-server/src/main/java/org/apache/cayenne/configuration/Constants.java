@@ -133,6 +133,57 @@ public interface Constants {
      */
     String JDBC_VALIDATION_QUERY_PROPERTY = "cayenne.jdbc.validation_query";
 
+    /**
+     * A boolean property that exposes connection pool statistics of each DataNode via JMX,
+     * registered under the "domain_name.node_name" name. Default is "false".
+     *
+     * @see org.apache.cayenne.datasource.PoolingDataSourceStatisticsMXBean
+     * @since 4.2
+     */
+    String JDBC_POOL_JMX_PROPERTY = "cayenne.jdbc.pool_jmx";
+
+    /**
+     * Time in milliseconds, within which a pooled connection returned to the pool or
+     * validated is handed out again without running the validation query. Default is 0,
+     * i.e. connections are validated on every checkout.
+     *
+     * @since 4.2
+     */
+    String JDBC_VALIDATION_INTERVAL_PROPERTY = "cayenne.jdbc.validation_interval";
+
+    /**
+     * Time in milliseconds after which idle pooled connections are checked with the
+     * validation query in the background. Default is 0, i.e. no background validation.
+     *
+     * @since 4.2
+     */
+    String JDBC_KEEP_ALIVE_INTERVAL_PROPERTY = "cayenne.jdbc.keep_alive_interval";
+
+    /**
+     * Maximum time in milliseconds a pooled connection stays open before it is retired.
+     * Default is 0, i.e. connections are not retired because of their age.
+     *
+     * @since 4.2
+     */
+    String JDBC_MAX_CONNECTION_LIFETIME_PROPERTY = "cayenne.jdbc.max_lifetime";
+
+    /**
+     * Time in milliseconds after which a pooled connection that was checked out and not
+     * returned is logged as a possible leak together with the stack trace of the checkout
+     * call. Default is 0, i.e. no leak detection.
+     *
+     * @since 4.2
+     */
+    String JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY = "cayenne.jdbc.leak_detection_threshold";
+
+    /**
+     * Maximum number of idle prepared statements cached per pooled connection. Default is
+     * 0, i.e. statements are closed after each use.
+     *
+     * @since 4.2
+     */
+    String JDBC_STATEMENT_CACHE_SIZE_PROPERTY = "cayenne.jdbc.statement_cache_size";
+
     /**
      * An integer property defining the maximum number of entries in the query
      * cache. Note that not all QueryCache providers may respect this property.
@@ -141,6 +192,68 @@ public interface Constants {
      */
     String QUERY_CACHE_SIZE_PROPERTY = "cayenne.querycache.size";
 
+    /**
+     * A boolean property that enables serving invalidated query cache entries to the
+     * callers that request them while another thread is refreshing the entry. Default is
+     * "false", meaning that such callers wait for the refresh. Note that not all
+     * QueryCache providers may respect this property.
+     *
+     * @since 4.2
+     */
+    String QUERY_CACHE_SERVE_STALE_PROPERTY = "cayenne.querycache.serve_stale";
+
+    /**
+     * A boolean property that makes the query cache weigh entries by the number of objects
+     * in the cached result, so that {@link #QUERY_CACHE_SIZE_PROPERTY} limits the number
+     * of cached objects per cache group rather than the number of cached results. Default
+     * is "false". Note that not all QueryCache providers may respect this property.
+     *
+     * @since 4.2
+     */
+    String QUERY_CACHE_WEIGH_BY_SIZE_PROPERTY = "cayenne.querycache.weigh_by_size";
+
+    /**
+     * An integer property defining the maximum total weight of all query cache groups
+     * combined, measured in the same units as {@link #QUERY_CACHE_SIZE_PROPERTY}. Zero or
+     * less (the default) means no global limit. Note that not all QueryCache providers may
+     * respect this property.
+     *
+     * @since 4.2
+     */
+    String QUERY_CACHE_MAX_WEIGHT_PROPERTY = "cayenne.querycache.max_weight";
+
+    /**
+     * A long property defining the default time-to-live of query cache entries in
+     * milliseconds. Zero or less (the default) means the entries do not expire. A value
+     * for an individual cache group can be set with a property named
+     * "cayenne.querycache.ttl.&lt;group name&gt;". Note that not all QueryCache providers
+     * may respect this property.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setQueryCacheTimeToLive(Binder, String, long)
+     * @since 4.2
+     */
+    String QUERY_CACHE_TTL_PROPERTY = "cayenne.querycache.ttl";
+
+    /**
+     * A boolean property that turns on collection of hit, miss, load and eviction
+     * statistics of the query cache and snapshot cache. Default is "false". Statistics are
+     * also collected when a custom {@link org.apache.cayenne.cache.CacheStatisticsListener}
+     * is bound.
+     *
+     * @see org.apache.cayenne.cache.CacheStatisticsRegistry
+     * @since 4.2
+     */
+    String CACHE_STATISTICS_PROPERTY = "cayenne.server.cache_statistics";
+
+    /**
+     * A boolean property that turns on cache statistics and exposes them via JMX. Default
+     * is "false".
+     *
+     * @see org.apache.cayenne.cache.CacheStatisticsMXBean
+     * @since 4.2
+     */
+    String CACHE_STATISTICS_JMX_PROPERTY = "cayenne.server.cache_statistics_jmx";
+
     /**
      * An optional name of the runtime DataDomain. If not specified (which is
      * normally the case), the name is inferred from the configuration name.
@@ -211,6 +324,80 @@ public interface Constants {
      */
     String QUERY_EXECUTION_TIME_LOGGING_THRESHOLD_PROPERTY = "cayenne.server.query_execution_time_logging_threshold";
 
+    /**
+     * Maximum number of rows sent to the database in a single JDBC batch. Larger batch
+     * queries are executed in chunks of this size. Zero or less (the default) means that
+     * the whole batch query is executed at once. The value can be overridden for a single
+     * DataNode with a property named "cayenne.server.max_batch_size.&lt;node name&gt;".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setMaxBatchSize(Binder, int)
+     * @since 4.2
+     */
+    String MAX_BATCH_SIZE_PROPERTY = "cayenne.server.max_batch_size";
+
+    /**
+     * Max number of rows combined in a single multi-row INSERT statement on databases
+     * whose adapters support it (PostgreSQL, MySQL/MariaDB, H2). A value of 1 or less
+     * (the default) means one row per INSERT statement.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setMultiRowInsertSize(Binder, int)
+     * @since 4.2
+     */
+    String MULTI_ROW_INSERT_SIZE_PROPERTY = "cayenne.server.multi_row_insert_size";
+
+    /**
+     * Max number of translated ObjectSelect and ColumnSelect queries cached per DataNode. Queries that
+     * only differ by parameter values reuse cached SQL instead of being translated again. Zero or less
+     * (the default) disables the cache. The value can be overridden for a single DataNode with a property
+     * named "cayenne.server.select_plan_cache_size.&lt;node name&gt;".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSelectPlanCacheSize(Binder, int)
+     * @since 4.2
+     */
+    String SELECT_PLAN_CACHE_SIZE_PROPERTY = "cayenne.server.select_plan_cache_size";
+
+    /**
+     * Defines how IN list qualifiers are translated to SQL. Possible values are names of
+     * {@link org.apache.cayenne.dba.InListStrategy} constants. Default is "EXPANDED", i.e. one parameter per
+     * list value.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setInListStrategy(Binder, org.apache.cayenne.dba.InListStrategy)
+     * @since 4.2
+     */
+    String IN_LIST_STRATEGY_PROPERTY = "cayenne.server.in_list_strategy";
+
+    /**
+     * Number of rows fetched per database round trip when streaming results of iterated
+     * queries (e.g. ObjectContext.iterator(..)) that don't set their own statement fetch size.
+     * Default is 0, i.e. results are read with the JDBC driver defaults, which on some
+     * databases (e.g. PostgreSQL and MySQL) means reading the whole result into memory.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setStreamingFetchSize(Binder, int)
+     * @since 4.2
+     */
+    String STREAMING_FETCH_SIZE_PROPERTY = "cayenne.server.streaming_fetch_size";
+
+    /**
+     * Defines whether a commit that touches several DataNodes should execute queries of
+     * each node concurrently, on its own connection. Nodes must not depend on each other,
+     * i.e. should be backed by separate databases. Default is "false".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setParallelFlush(Binder, boolean)
+     * @since 4.2
+     */
+    String PARALLEL_FLUSH_PROPERTY = "cayenne.server.parallel_flush";
+
+    /**
+     * Defines whether Cayenne background threads, i.e. event dispatch threads, the connection
+     * pool manager and parallel flush threads, should be Java virtual threads. Only has effect
+     * on Java 21 or newer. Default is "false".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setVirtualThreads(Binder, boolean)
+     * @see org.apache.cayenne.util.DaemonThreadFactory
+     * @since 4.2
+     */
+    String VIRTUAL_THREADS_PROPERTY = "cayenne.server.virtual_threads";
+
     /**
      * Snapshot cache max size
      *
@@ -219,4 +406,72 @@ public interface Constants {
      */
     String SNAPSHOT_CACHE_SIZE_PROPERTY = "cayenne.DataRowStore.snapshot.size";
 
+    /**
+     * Prefix of the properties that set a separate snapshot cache limit for an entity, e.g.
+     * "cayenne.DataRowStore.snapshot.size.Artist". Snapshots of such entities are stored apart
+     * from the rest and do not compete with them for space.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotCacheSize(Binder, String, int)
+     * @since 4.2
+     */
+    String SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX = SNAPSHOT_CACHE_SIZE_PROPERTY + ".";
+
+    /**
+     * Eviction policy of the snapshot cache. Possible values are names of
+     * {@link org.apache.cayenne.access.SnapshotEvictionPolicy} constants. Default is "LRU".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotCacheEvictionPolicy(Binder, org.apache.cayenne.access.SnapshotEvictionPolicy)
+     * @since 4.2
+     */
+    String SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY = "cayenne.DataRowStore.snapshot.eviction_policy";
+
+    /**
+     * Defines whether the snapshot cache holds snapshots via strong, soft or weak references.
+     * Possible values are names of {@link org.apache.cayenne.access.SnapshotReferenceType}
+     * constants. Default is "STRONG".
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotCacheReferenceType(Binder, org.apache.cayenne.access.SnapshotReferenceType)
+     * @since 4.2
+     */
+    String SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY = "cayenne.DataRowStore.snapshot.reference_type";
+
+    /**
+     * Time window in milliseconds, within which snapshot change events are coalesced into a
+     * single {@link org.apache.cayenne.access.event.BatchedSnapshotEvent}. When enabled,
+     * events are delivered to the listeners asynchronously. Zero or less (the default)
+     * disables batching and events are delivered synchronously on commit.
+     *
+     * @see #SNAPSHOT_EVENT_BATCH_SIZE_PROPERTY
+     * @since 4.2
+     */
+    String SNAPSHOT_EVENT_BATCH_WINDOW_PROPERTY = "cayenne.DataRowStore.event_batch.window";
+
+    /**
+     * Maximum number of snapshot change events coalesced into one batch, after which the
+     * batch is delivered without waiting for the end of the time window. Default is 100.
+     *
+     * @see #SNAPSHOT_EVENT_BATCH_WINDOW_PROPERTY
+     * @since 4.2
+     */
+    String SNAPSHOT_EVENT_BATCH_SIZE_PROPERTY = "cayenne.DataRowStore.event_batch.size";
+
+    /**
+     * Maximum number of non-blocking events waiting for dispatch in the
+     * {@link org.apache.cayenne.event.DefaultEventManager} queue. Zero or less (the default)
+     * means the queue is unbounded.
+     *
+     * @see #EVENT_QUEUE_OVERFLOW_POLICY_PROPERTY
+     * @since 4.2
+     */
+    String EVENT_QUEUE_CAPACITY_PROPERTY = "cayenne.server.event_queue_capacity";
+
+    /**
+     * Defines what happens to non-blocking events posted when the bounded event queue is full.
+     * Possible values are names of {@link org.apache.cayenne.event.EventQueueOverflowPolicy}
+     * constants. Default is "BLOCK".
+     *
+     * @since 4.2
+     */
+    String EVENT_QUEUE_OVERFLOW_POLICY_PROPERTY = "cayenne.server.event_queue_overflow_policy";
+
 }
@@ -23,8 +23,11 @@ import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
+import org.apache.cayenne.access.translator.select.SelectPlanCache;
 import org.apache.cayenne.access.translator.select.SelectTranslatorFactory;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.log.JdbcEventLogger;
@@ -63,6 +66,12 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
     @Inject
     protected SQLTemplateProcessor sqlTemplateProcessor;
 
+    /**
+     * @since 4.2
+     */
+    @Inject
+    protected RuntimeProperties runtimeProperties;
+
     @Override
     public DataNode createDataNode(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -83,6 +92,16 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
 
         dataNode.setAdapter(adapterFactory.createAdapter(nodeDescriptor, dataSource));
 
+        dataNode.setMaxBatchSize(runtimeProperties.getInt(
+                Constants.MAX_BATCH_SIZE_PROPERTY + "." + nodeDescriptor.getName(), 0));
+
+        int selectPlanCacheSize = runtimeProperties.getInt(
+                Constants.SELECT_PLAN_CACHE_SIZE_PROPERTY + "." + nodeDescriptor.getName(),
+                runtimeProperties.getInt(Constants.SELECT_PLAN_CACHE_SIZE_PROPERTY, 0));
+        if (selectPlanCacheSize > 0) {
+            dataNode.setSelectPlanCache(new SelectPlanCache(selectPlanCacheSize));
+        }
+
         return dataNode;
     }
 
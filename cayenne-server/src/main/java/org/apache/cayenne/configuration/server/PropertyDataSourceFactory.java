@@ -70,11 +70,22 @@ public class PropertyDataSourceFactory implements DataSourceFactory {
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
 		String validationQuery = properties.get(Constants.JDBC_VALIDATION_QUERY_PROPERTY);
+		long validationInterval = properties.getLong(Constants.JDBC_VALIDATION_INTERVAL_PROPERTY, 0);
+		long keepAliveInterval = properties.getLong(Constants.JDBC_KEEP_ALIVE_INTERVAL_PROPERTY, 0);
+		long maxConnectionLifetime = properties.getLong(Constants.JDBC_MAX_CONNECTION_LIFETIME_PROPERTY, 0);
+		long leakDetectionThreshold = properties.getLong(Constants.JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY, 0);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
+		String jmxName = properties.getBoolean(Constants.JDBC_POOL_JMX_PROPERTY, false)
+				? nodeDescriptor.getDataChannelDescriptor().getName() + "." + nodeDescriptor.getName()
+				: null;
 
 		Driver driver = (Driver)objectFactory.getJavaClass(driverClass).newInstance();
 		return DataSourceBuilder.url(url).driver(driver).userName(username).password(password)
 				.pool(minConnections, maxConnections).maxQueueWaitTime(maxQueueWaitTime)
-				.validationQuery(validationQuery).build();
+				.validationQuery(validationQuery).validationInterval(validationInterval)
+				.keepAliveInterval(keepAliveInterval).maxConnectionLifetime(maxConnectionLifetime)
+				.leakDetectionThreshold(leakDetectionThreshold).statementCacheSize(statementCacheSize).jmxName(jmxName)
+				.virtualThreads(properties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false)).build();
 	}
 
 	protected int getIntProperty(String propertyName, String suffix, int defaultValue) {
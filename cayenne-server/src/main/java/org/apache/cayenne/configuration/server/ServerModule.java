@@ -29,7 +29,11 @@ import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataRowStoreFactory;
 import org.apache.cayenne.access.DefaultDataRowStoreFactory;
 import org.apache.cayenne.access.DefaultObjectMapRetainStrategy;
+import org.apache.cayenne.access.DefaultSnapshotMapFactory;
 import org.apache.cayenne.access.ObjectMapRetainStrategy;
+import org.apache.cayenne.access.SnapshotEvictionPolicy;
+import org.apache.cayenne.access.SnapshotMapFactory;
+import org.apache.cayenne.access.SnapshotReferenceType;
 import org.apache.cayenne.access.dbsync.DefaultSchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.flush.DataDomainFlushActionFactory;
@@ -71,7 +75,10 @@ import org.apache.cayenne.access.types.ValueObjectType;
 import org.apache.cayenne.access.types.ValueObjectTypeRegistry;
 import org.apache.cayenne.access.types.VoidType;
 import org.apache.cayenne.ashwood.AshwoodEntitySorter;
+import org.apache.cayenne.cache.CacheStatisticsListener;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
 import org.apache.cayenne.cache.MapQueryCacheProvider;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.ConfigurationNameMapper;
 import org.apache.cayenne.configuration.Constants;
@@ -92,6 +99,7 @@ import org.apache.cayenne.configuration.xml.NoopDataChannelMetaData;
 import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
 import org.apache.cayenne.configuration.xml.XMLDataMapLoader;
 import org.apache.cayenne.configuration.xml.XMLReaderProvider;
+import org.apache.cayenne.dba.InListStrategy;
 import org.apache.cayenne.dba.JdbcPkGenerator;
 import org.apache.cayenne.dba.PkGenerator;
 import org.apache.cayenne.dba.db2.DB2Adapter;
@@ -190,6 +198,192 @@ public class ServerModule implements Module {
         contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, Integer.toString(size));
     }
 
+    /**
+     * Sets max size of snapshot cache for a given entity. Snapshots of this entity will be
+     * stored separately and will not compete for space with snapshots of other entities.
+     *
+     * @param binder     DI binder passed to the module during injector startup.
+     * @param entityName name of the entity.
+     * @param size       max number of cached snapshots of the entity.
+     * @since 4.2
+     */
+    public static void setSnapshotCacheSize(Binder binder, String entityName, int size) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX + entityName, Integer.toString(size));
+    }
+
+    /**
+     * Sets eviction policy of the snapshot cache.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param policy snapshot cache eviction policy.
+     * @since 4.2
+     */
+    public static void setSnapshotCacheEvictionPolicy(Binder binder, SnapshotEvictionPolicy policy) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY, policy.name());
+    }
+
+    /**
+     * Sets the kind of references the snapshot cache uses to hold snapshots.
+     *
+     * @param binder        DI binder passed to the module during injector startup.
+     * @param referenceType snapshot reference type.
+     * @since 4.2
+     */
+    public static void setSnapshotCacheReferenceType(Binder binder, SnapshotReferenceType referenceType) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY, referenceType.name());
+    }
+
+    /**
+     * Turns on coalescing of snapshot change events. Events posted within a time window, or
+     * up to a maximum number of events, are delivered to the listeners asynchronously as a
+     * single event.
+     *
+     * @param binder       DI binder passed to the module during injector startup.
+     * @param windowMillis batching time window in milliseconds, zero or less to disable batching.
+     * @param maxEvents    maximum number of events in one batch.
+     * @since 4.2
+     */
+    public static void setSnapshotEventBatching(Binder binder, long windowMillis, int maxEvents) {
+        contributeProperties(binder).put(Constants.SNAPSHOT_EVENT_BATCH_WINDOW_PROPERTY, Long.toString(windowMillis));
+        contributeProperties(binder).put(Constants.SNAPSHOT_EVENT_BATCH_SIZE_PROPERTY, Integer.toString(maxEvents));
+    }
+
+    /**
+     * Sets the maximum number of rows sent to the database in a single JDBC batch. Larger
+     * batches are executed in chunks.
+     *
+     * @param binder       DI binder passed to the module during injector startup.
+     * @param maxBatchSize max number of rows in a JDBC batch, zero or less for no limit.
+     * @since 4.2
+     */
+    public static void setMaxBatchSize(Binder binder, int maxBatchSize) {
+        contributeProperties(binder).put(Constants.MAX_BATCH_SIZE_PROPERTY, Integer.toString(maxBatchSize));
+    }
+
+    /**
+     * Sets the maximum number of rows sent in a single JDBC batch to a given DataNode,
+     * overriding the global setting.
+     *
+     * @param binder       DI binder passed to the module during injector startup.
+     * @param nodeName     name of the DataNode.
+     * @param maxBatchSize max number of rows in a JDBC batch, zero or less for no limit.
+     * @since 4.2
+     */
+    public static void setMaxBatchSize(Binder binder, String nodeName, int maxBatchSize) {
+        contributeProperties(binder).put(Constants.MAX_BATCH_SIZE_PROPERTY + "." + nodeName, Integer.toString(maxBatchSize));
+    }
+
+    /**
+     * Sets the max number of translated select queries cached per DataNode. Queries that only differ by
+     * parameter values are not translated again.
+     *
+     * @param binder    DI binder passed to the module during injector startup.
+     * @param cacheSize max number of cached query shapes, zero or less to disable the cache.
+     * @since 4.2
+     */
+    public static void setSelectPlanCacheSize(Binder binder, int cacheSize) {
+        contributeProperties(binder).put(Constants.SELECT_PLAN_CACHE_SIZE_PROPERTY, Integer.toString(cacheSize));
+    }
+
+    /**
+     * Sets a strategy of IN list translation. Non-default strategies make SQL of queries with IN lists
+     * independent of the exact list size, improving reuse of prepared statements and query plans.
+     *
+     * @param binder   DI binder passed to the module during injector startup.
+     * @param strategy IN list translation strategy.
+     * @since 4.2
+     */
+    public static void setInListStrategy(Binder binder, InListStrategy strategy) {
+        contributeProperties(binder).put(Constants.IN_LIST_STRATEGY_PROPERTY, strategy.name());
+    }
+
+    /**
+     * Enables streaming of iterated query results from database cursors, so that iterating
+     * over large results uses constant memory. The exact setup of the statement is done by
+     * the DbAdapter.
+     *
+     * @param binder    DI binder passed to the module during injector startup.
+     * @param fetchSize number of rows fetched per database round trip.
+     * @since 4.2
+     */
+    public static void setStreamingFetchSize(Binder binder, int fetchSize) {
+        contributeProperties(binder).put(Constants.STREAMING_FETCH_SIZE_PROPERTY, String.valueOf(fetchSize));
+    }
+
+    /**
+     * Sets the max number of rows combined in a single multi-row INSERT statement. Only
+     * has effect with adapters that support multi-row inserts.
+     *
+     * @param binder             DI binder passed to the module during injector startup.
+     * @param multiRowInsertSize max number of rows per INSERT statement, 1 or less to
+     *                           insert one row per statement.
+     * @since 4.2
+     */
+    public static void setMultiRowInsertSize(Binder binder, int multiRowInsertSize) {
+        contributeProperties(binder).put(Constants.MULTI_ROW_INSERT_SIZE_PROPERTY, Integer.toString(multiRowInsertSize));
+    }
+
+    /**
+     * Enables or disables concurrent execution of commit queries of different DataNodes.
+     *
+     * @param binder        DI binder passed to the module during injector startup.
+     * @param parallelFlush whether to flush independent DataNodes in parallel.
+     * @since 4.2
+     */
+    public static void setParallelFlush(Binder binder, boolean parallelFlush) {
+        contributeProperties(binder).put(Constants.PARALLEL_FLUSH_PROPERTY, Boolean.toString(parallelFlush));
+    }
+
+    /**
+     * Enables or disables running Cayenne background threads as Java virtual threads.
+     *
+     * @param binder         DI binder passed to the module during injector startup.
+     * @param virtualThreads whether to use virtual threads when the JVM supports them.
+     * @since 4.2
+     */
+    public static void setVirtualThreads(Binder binder, boolean virtualThreads) {
+        contributeProperties(binder).put(Constants.VIRTUAL_THREADS_PROPERTY, Boolean.toString(virtualThreads));
+    }
+
+    /**
+     * Sets the default time-to-live of query cache entries. Only applies to the default
+     * local query cache.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param millis time-to-live in milliseconds, zero or less for non-expiring entries.
+     * @since 4.2
+     */
+    public static void setQueryCacheTimeToLive(Binder binder, long millis) {
+        contributeProperties(binder).put(Constants.QUERY_CACHE_TTL_PROPERTY, Long.toString(millis));
+    }
+
+    /**
+     * Sets time-to-live of the query cache entries in a given cache group. Only applies to
+     * the default local query cache.
+     *
+     * @param binder     DI binder passed to the module during injector startup.
+     * @param cacheGroup name of the cache group.
+     * @param millis     time-to-live in milliseconds, zero or less for non-expiring entries.
+     * @since 4.2
+     */
+    public static void setQueryCacheTimeToLive(Binder binder, String cacheGroup, long millis) {
+        contributeProperties(binder).put(Constants.QUERY_CACHE_TTL_PROPERTY + "." + cacheGroup, Long.toString(millis));
+    }
+
+    /**
+     * Sets the maximum total number of objects in the results stored in the default local
+     * query cache, across all cache groups. Also turns on weighing of the cache entries by
+     * result size.
+     *
+     * @param binder    DI binder passed to the module during injector startup.
+     * @param maxWeight maximum number of cached objects, zero or less for no global limit.
+     * @since 4.2
+     */
+    public static void setQueryCacheMaxWeight(Binder binder, int maxWeight) {
+        contributeProperties(binder).put(Constants.QUERY_CACHE_WEIGH_BY_SIZE_PROPERTY, Boolean.TRUE.toString());
+        contributeProperties(binder).put(Constants.QUERY_CACHE_MAX_WEIGHT_PROPERTY, Integer.toString(maxWeight));
+    }
+
     /**
      * Provides access to a DI collection builder for String locations that allows downstream modules to
      * "contribute" their own Cayenne project locations.
@@ -442,9 +636,14 @@ public class ServerModule implements Module {
 
         binder.bind(QueryCache.class).toProvider(MapQueryCacheProvider.class);
 
+        // cache statistics are off unless enabled via properties or a custom listener is bound
+        binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+        binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+
         binder.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
 
         binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+        binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
 
         // a service to provide the main stack DataDomain
         binder.bind(DataDomain.class).toProvider(DataDomainProvider.class);
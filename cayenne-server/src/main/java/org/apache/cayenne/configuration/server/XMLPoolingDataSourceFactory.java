@@ -66,13 +66,24 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 
 		long maxQueueWaitTime = properties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
 				UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
+		long validationInterval = properties.getLong(Constants.JDBC_VALIDATION_INTERVAL_PROPERTY, 0);
+		long keepAliveInterval = properties.getLong(Constants.JDBC_KEEP_ALIVE_INTERVAL_PROPERTY, 0);
+		long maxConnectionLifetime = properties.getLong(Constants.JDBC_MAX_CONNECTION_LIFETIME_PROPERTY, 0);
+		long leakDetectionThreshold = properties.getLong(Constants.JDBC_LEAK_DETECTION_THRESHOLD_PROPERTY, 0);
+		int statementCacheSize = properties.getInt(Constants.JDBC_STATEMENT_CACHE_SIZE_PROPERTY, 0);
+		String jmxName = properties.getBoolean(Constants.JDBC_POOL_JMX_PROPERTY, false)
+				? nodeDescriptor.getDataChannelDescriptor().getName() + "." + nodeDescriptor.getName()
+				: null;
 
 		Driver driver = (Driver)objectFactory.getJavaClass(descriptor.getJdbcDriver()).newInstance();
 
 		return DataSourceBuilder.url(descriptor.getDataSourceUrl()).driver(driver).userName(descriptor.getUserName())
 				.password(descriptor.getPassword())
 				.pool(descriptor.getMinConnections(), descriptor.getMaxConnections())
-				.maxQueueWaitTime(maxQueueWaitTime).build();
+				.maxQueueWaitTime(maxQueueWaitTime).validationInterval(validationInterval)
+				.keepAliveInterval(keepAliveInterval).maxConnectionLifetime(maxConnectionLifetime)
+				.leakDetectionThreshold(leakDetectionThreshold).statementCacheSize(statementCacheSize).jmxName(jmxName)
+				.virtualThreads(properties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false)).build();
 	}
 
 }
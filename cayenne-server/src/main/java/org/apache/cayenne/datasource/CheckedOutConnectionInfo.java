@@ -0,0 +1,79 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * An immutable snapshot of a connection currently checked out of an
+ * {@link UnmanagedPoolingDataSource}.
+ *
+ * @see UnmanagedPoolingDataSource#getCheckedOutConnections()
+ * @since 4.2
+ */
+public class CheckedOutConnectionInfo {
+
+	private final String threadName;
+	private final long checkoutTime;
+	private final long holdTime;
+	private final String checkoutStack;
+	private final boolean leakSuspected;
+
+	public CheckedOutConnectionInfo(String threadName, long checkoutTime, long holdTime, String checkoutStack,
+			boolean leakSuspected) {
+		this.threadName = threadName;
+		this.checkoutTime = checkoutTime;
+		this.holdTime = holdTime;
+		this.checkoutStack = checkoutStack;
+		this.leakSuspected = leakSuspected;
+	}
+
+	/**
+	 * Returns the name of the thread that checked out the connection.
+	 */
+	public String getThreadName() {
+		return threadName;
+	}
+
+	/**
+	 * Returns the time when the connection was checked out, in milliseconds since the epoch.
+	 */
+	public long getCheckoutTime() {
+		return checkoutTime;
+	}
+
+	/**
+	 * Returns how long the connection has been held, in milliseconds.
+	 */
+	public long getHoldTime() {
+		return holdTime;
+	}
+
+	/**
+	 * Returns the stack trace of the checkout call, or null if it was not captured.
+	 */
+	public String getCheckoutStack() {
+		return checkoutStack;
+	}
+
+	/**
+	 * Returns true if the connection has been held longer than the leak detection threshold.
+	 */
+	public boolean isLeakSuspected() {
+		return leakSuspected;
+	}
+}
@@ -22,6 +22,7 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -40,8 +41,7 @@ public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventLi
 	private DataSource dataSource;
 
 	public ManagedPoolingDataSource(UnmanagedPoolingDataSource dataSource) {
-		// wake every 2 minutes...
-		this(dataSource, 120000);
+		this(dataSource, managerWakeTime(dataSource));
 	}
 
 	public ManagedPoolingDataSource(UnmanagedPoolingDataSource dataSource, long managerWakeTime) {
@@ -51,10 +51,54 @@ public class ManagedPoolingDataSource implements PoolingDataSource, ScopeEventLi
 		dataSourceManager.start();
 	}
 
+	/**
+	 * Returns how often the pool manager thread should wake up. By default it wakes every 2
+	 * minutes, and more often if the pool needs to validate idle connections, retire old
+	 * ones or report leaked ones in time.
+	 */
+	static long managerWakeTime(UnmanagedPoolingDataSource dataSource) {
+
+		// wake every 2 minutes...
+		long wakeTime = 120000;
+
+		if (dataSource.getKeepAliveInterval() > 0) {
+			wakeTime = Math.min(wakeTime, dataSource.getKeepAliveInterval());
+		}
+
+		// lifetime of each connection is shortened by up to 10%, so check at least as often
+		if (dataSource.getMaxConnectionLifetime() > 0) {
+			wakeTime = Math.min(wakeTime, Math.max(1, dataSource.getMaxConnectionLifetime() / 10));
+		}
+
+		if (dataSource.getLeakDetectionThreshold() > 0) {
+			wakeTime = Math.min(wakeTime, Math.max(1, dataSource.getLeakDetectionThreshold() / 2));
+		}
+
+		return wakeTime;
+	}
+
 	PoolingDataSourceManager getDataSourceManager() {
 		return dataSourceManager;
 	}
 
+	/**
+	 * Returns statistics of the underlying connection pool.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceStatistics getStatistics() {
+		return dataSourceManager.getDataSource().getStatistics();
+	}
+
+	/**
+	 * Returns a snapshot of connections currently checked out of the underlying pool.
+	 * 
+	 * @since 4.2
+	 */
+	public List<CheckedOutConnectionInfo> getCheckedOutConnections() {
+		return dataSourceManager.getDataSource().getCheckedOutConnections();
+	}
+
 	int poolSize() {
 		return dataSourceManager.getDataSource().poolSize();
 	}
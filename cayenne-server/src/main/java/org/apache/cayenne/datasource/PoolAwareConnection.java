@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -37,6 +39,7 @@ import java.sql.Struct;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link Connection} wrapper that interacts with the
@@ -50,17 +53,190 @@ public class PoolAwareConnection implements Connection {
 	private UnmanagedPoolingDataSource parent;
 	private Connection connection;
 	private String validationQuery;
+	private volatile boolean checkedOut;
+	private volatile long checkoutTime;
+	private volatile long checkoutWallTime;
+	private volatile String checkoutThread;
+	private volatile Throwable checkoutStack;
+	private volatile boolean leakReported;
+	private volatile long createTime;
+	private volatile long lastUsedTime;
+	private volatile long maxLifetime;
+	private volatile StatementCache statementCache;
 
 	public PoolAwareConnection(UnmanagedPoolingDataSource parent, Connection connection, String validationQuery) {
 		this.parent = parent;
 		this.connection = connection;
 		this.validationQuery = validationQuery;
+		this.createTime = System.nanoTime();
+		this.lastUsedTime = createTime;
 	}
 
 	Connection getConnection() {
 		return connection;
 	}
 
+	/**
+	 * Marks the connection as checked out of the pool at a given {@link System#nanoTime()}.
+	 * 
+	 * @param checkoutStack an exception capturing the stack of the checkout call, or null.
+	 */
+	void checkout(long nanoTime, Throwable checkoutStack) {
+		this.checkoutTime = nanoTime;
+		this.checkoutWallTime = System.currentTimeMillis();
+		this.checkoutThread = Thread.currentThread().getName();
+		this.checkoutStack = checkoutStack;
+		this.leakReported = false;
+		this.checkedOut = true;
+	}
+
+	/**
+	 * Marks the connection as no longer checked out, returning the time in nanoseconds
+	 * it was held by the caller, or -1 if it was not checked out.
+	 */
+	long checkin() {
+		if (!checkedOut) {
+			return -1;
+		}
+
+		checkedOut = false;
+		checkoutStack = null;
+		return System.nanoTime() - checkoutTime;
+	}
+
+	boolean isCheckedOut() {
+		return checkedOut;
+	}
+
+	/**
+	 * Returns time in nanoseconds the connection has been checked out.
+	 */
+	long getHoldTime(long nanoTime) {
+		return nanoTime - checkoutTime;
+	}
+
+	Throwable getCheckoutStack() {
+		return checkoutStack;
+	}
+
+	/**
+	 * Flags the current checkout as a possible leak, returning false if it was already
+	 * flagged.
+	 */
+	boolean markLeakReported() {
+		if (leakReported) {
+			return false;
+		}
+
+		leakReported = true;
+		return true;
+	}
+
+	boolean isLeakReported() {
+		return leakReported;
+	}
+
+	/**
+	 * Returns a snapshot of the current checkout for diagnostics.
+	 */
+	CheckedOutConnectionInfo checkoutInfo(long nanoTime) {
+
+		String stack = null;
+		Throwable checkoutStack = this.checkoutStack;
+		if (checkoutStack != null) {
+			StringWriter out = new StringWriter();
+			checkoutStack.printStackTrace(new PrintWriter(out));
+			stack = out.toString();
+		}
+
+		return new CheckedOutConnectionInfo(checkoutThread, checkoutWallTime,
+				TimeUnit.NANOSECONDS.toMillis(getHoldTime(nanoTime)), stack, leakReported);
+	}
+
+	/**
+	 * Sets the maximum time in nanoseconds this connection can stay open, counting from its
+	 * creation. Zero means the connection is never retired because of its age.
+	 */
+	void setMaxLifetime(long maxLifetimeNanos) {
+		this.maxLifetime = maxLifetimeNanos;
+	}
+
+	/**
+	 * Enables caching of prepared statements on this connection.
+	 */
+	void setStatementCache(StatementCache statementCache) {
+		this.statementCache = statementCache;
+	}
+
+	StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Closes all cached statements of this connection.
+	 */
+	void clearStatementCache() {
+		StatementCache statementCache = this.statementCache;
+		if (statementCache != null) {
+			statementCache.clear();
+		}
+	}
+
+	/**
+	 * Returns a statement from the statement cache, or prepares a new one if there is no
+	 * cached statement for the key.
+	 */
+	private PreparedStatement prepareCached(StatementCache statementCache, StatementCache.Key key)
+			throws SQLException {
+
+		PreparedStatement statement = statementCache.checkout(key);
+		if (statement == null) {
+			try {
+				statement = key.prepare(connection);
+			} catch (SQLException sqlEx) {
+				recover(sqlEx);
+				statement = key.prepare(connection);
+			}
+		}
+
+		return new PoolAwarePreparedStatement(this, key, statement, connection);
+	}
+
+	/**
+	 * Called when a statement obtained from the statement cache is closed by the caller,
+	 * returning it to the cache if it can be reused.
+	 */
+	void release(PoolAwarePreparedStatement statement) {
+		StatementCache statementCache = this.statementCache;
+
+		// statements of a connection that was replaced in "recover" are no longer valid
+		if (statementCache != null && statement.getOwner() == connection && statement.reset()) {
+			statementCache.checkin(statement.getKey(), statement.getStatement());
+		} else {
+			StatementCache.close(statement.getStatement());
+		}
+	}
+
+	boolean isExpired(long nanoTime) {
+		return maxLifetime > 0 && nanoTime - createTime >= maxLifetime;
+	}
+
+	/**
+	 * Returns time in nanoseconds since the connection was last returned to the pool or
+	 * successfully validated.
+	 */
+	long getIdleTime(long nanoTime) {
+		return nanoTime - lastUsedTime;
+	}
+
+	/**
+	 * Records that the connection was just returned to the pool or validated, so it is
+	 * known to be alive.
+	 */
+	void touch() {
+		this.lastUsedTime = System.nanoTime();
+	}
+
 	boolean validate() {
 
 		if (validationQuery == null) {
@@ -82,11 +258,14 @@ public class PoolAwareConnection implements Connection {
 			return false;
 		}
 
+		touch();
 		return true;
 	}
 
 	void recover(SQLException reconnectCause) throws SQLException {
 
+		clearStatementCache();
+
 		try {
 			connection.close();
 		} catch (SQLException e) {
@@ -98,6 +277,7 @@ public class PoolAwareConnection implements Connection {
 		// change when resetting connection and need to be restored...
 		try {
 			connection = parent.createUnwrapped();
+			createTime = System.nanoTime();
 		} catch (SQLException e) {
 			parent.retire(this);
 			throw reconnectCause;
@@ -253,6 +433,12 @@ public class PoolAwareConnection implements Connection {
 
 	@Override
 	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		StatementCache statementCache = this.statementCache;
+		if (statementCache != null) {
+			return prepareCached(statementCache, new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS));
+		}
+
 		try {
 			return connection.prepareStatement(sql);
 		} catch (SQLException sqlEx) {
@@ -264,6 +450,12 @@ public class PoolAwareConnection implements Connection {
 	@Override
 	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
 			throws SQLException {
+		StatementCache statementCache = this.statementCache;
+		if (statementCache != null) {
+			return prepareCached(statementCache,
+					new StatementCache.Key(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS));
+		}
+
 		try {
 			return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
 		} catch (SQLException sqlEx) {
@@ -404,6 +596,11 @@ public class PoolAwareConnection implements Connection {
 
 	@Override
 	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		StatementCache statementCache = this.statementCache;
+		if (statementCache != null) {
+			return prepareCached(statementCache, new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys));
+		}
 
 		try {
 			return connection.prepareStatement(sql, autoGeneratedKeys);
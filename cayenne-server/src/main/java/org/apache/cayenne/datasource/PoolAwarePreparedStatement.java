@@ -0,0 +1,757 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A {@link PreparedStatement} wrapper handed out by a {@link PoolAwareConnection} with
+ * enabled statement cache. Closing the wrapper resets the underlying statement and
+ * returns it to the connection {@link StatementCache} instead of closing it, unless
+ * the statement was reconfigured in a way that can't be undone.
+ * 
+ * @since 4.2
+ */
+public class PoolAwarePreparedStatement implements PreparedStatement {
+
+	private final PoolAwareConnection parent;
+	private final StatementCache.Key key;
+	private final PreparedStatement statement;
+	private final Connection owner;
+
+	private boolean closed;
+	private boolean batched;
+	private boolean reusable;
+	private ResultSet resultSet;
+	private ResultSet generatedKeys;
+
+	// values of the statement properties before they were first changed, or -1
+	private int defaultFetchSize;
+	private int defaultMaxRows;
+	private int defaultQueryTimeout;
+	private int defaultFetchDirection;
+	private int defaultMaxFieldSize;
+
+	PoolAwarePreparedStatement(PoolAwareConnection parent, StatementCache.Key key, PreparedStatement statement,
+			Connection owner) {
+		this.parent = parent;
+		this.key = key;
+		this.statement = statement;
+		this.owner = owner;
+		this.reusable = true;
+		this.defaultFetchSize = -1;
+		this.defaultMaxRows = -1;
+		this.defaultQueryTimeout = -1;
+		this.defaultFetchDirection = -1;
+		this.defaultMaxFieldSize = -1;
+	}
+
+	StatementCache.Key getKey() {
+		return key;
+	}
+
+	PreparedStatement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * Returns the physical connection that created the statement.
+	 */
+	Connection getOwner() {
+		return owner;
+	}
+
+	/**
+	 * Brings the underlying statement to the state it had when it was prepared, closing
+	 * any open result sets. Returns false if this is not possible and the statement
+	 * should be closed instead of reused.
+	 */
+	boolean reset() {
+
+		if (!reusable) {
+			return false;
+		}
+
+		try {
+			if (resultSet != null) {
+				resultSet.close();
+				resultSet = null;
+			}
+
+			if (generatedKeys != null) {
+				generatedKeys.close();
+				generatedKeys = null;
+			}
+
+			if (batched) {
+				statement.clearBatch();
+			}
+
+			statement.clearParameters();
+			statement.clearWarnings();
+
+			if (defaultFetchSize >= 0) {
+				statement.setFetchSize(defaultFetchSize);
+			}
+
+			if (defaultMaxRows >= 0) {
+				statement.setMaxRows(defaultMaxRows);
+			}
+
+			if (defaultQueryTimeout >= 0) {
+				statement.setQueryTimeout(defaultQueryTimeout);
+			}
+
+			if (defaultFetchDirection >= 0) {
+				statement.setFetchDirection(defaultFetchDirection);
+			}
+
+			if (defaultMaxFieldSize >= 0) {
+				statement.setMaxFieldSize(defaultMaxFieldSize);
+			}
+		} catch (SQLException e) {
+			return false;
+		}
+
+		return true;
+	}
+
+	private PreparedStatement statement() throws SQLException {
+		if (closed) {
+			throw new SQLException("Statement is closed");
+		}
+
+		return statement;
+	}
+
+	@Override
+	public void addBatch() throws SQLException {
+		statement().addBatch();
+		batched = true;
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		statement().clearParameters();
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		return statement().execute();
+	}
+
+	@Override
+	public long executeLargeUpdate() throws SQLException {
+		return statement().executeLargeUpdate();
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		resultSet = statement().executeQuery();
+		return resultSet;
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		return statement().executeUpdate();
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return statement().getMetaData();
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		return statement().getParameterMetaData();
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		statement().setArray(parameterIndex, x);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement().setAsciiStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement().setAsciiStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+		statement().setAsciiStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+		statement().setBigDecimal(parameterIndex, x);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement().setBinaryStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement().setBinaryStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+		statement().setBinaryStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+		statement().setBlob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+		statement().setBlob(parameterIndex, x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, Blob x) throws SQLException {
+		statement().setBlob(parameterIndex, x);
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		statement().setBoolean(parameterIndex, x);
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		statement().setByte(parameterIndex, x);
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		statement().setBytes(parameterIndex, x);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+		statement().setCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+		statement().setCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+		statement().setCharacterStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+		statement().setClob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader x) throws SQLException {
+		statement().setClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Clob x) throws SQLException {
+		statement().setClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+		statement().setDate(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		statement().setDate(parameterIndex, x);
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		statement().setDouble(parameterIndex, x);
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		statement().setFloat(parameterIndex, x);
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		statement().setInt(parameterIndex, x);
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		statement().setLong(parameterIndex, x);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+		statement().setNCharacterStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+		statement().setNCharacterStream(parameterIndex, x);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+		statement().setNClob(parameterIndex, x, length);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader x) throws SQLException {
+		statement().setNClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, NClob x) throws SQLException {
+		statement().setNClob(parameterIndex, x);
+	}
+
+	@Override
+	public void setNString(int parameterIndex, String x) throws SQLException {
+		statement().setNString(parameterIndex, x);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		statement().setNull(parameterIndex, sqlType, typeName);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		statement().setNull(parameterIndex, sqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+		statement().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+		statement().setObject(parameterIndex, x, targetSqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+		statement().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+		statement().setObject(parameterIndex, x, targetSqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		statement().setObject(parameterIndex, x);
+	}
+
+	@Override
+	public void setRef(int parameterIndex, Ref x) throws SQLException {
+		statement().setRef(parameterIndex, x);
+	}
+
+	@Override
+	public void setRowId(int parameterIndex, RowId x) throws SQLException {
+		statement().setRowId(parameterIndex, x);
+	}
+
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+		statement().setSQLXML(parameterIndex, x);
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		statement().setShort(parameterIndex, x);
+	}
+
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		statement().setString(parameterIndex, x);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+		statement().setTime(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		statement().setTime(parameterIndex, x);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+		statement().setTimestamp(parameterIndex, x, cal);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+		statement().setTimestamp(parameterIndex, x);
+	}
+
+	@Override
+	public void setURL(int parameterIndex, URL x) throws SQLException {
+		statement().setURL(parameterIndex, x);
+	}
+
+	@Deprecated
+	@Override
+	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		statement().setUnicodeStream(parameterIndex, x, length);
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		statement().addBatch(sql);
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		statement().cancel();
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		statement().clearBatch();
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		statement().clearWarnings();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		parent.release(this);
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		statement().closeOnCompletion();
+		reusable = false;
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		return statement().execute(sql, columnIndexes);
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		return statement().execute(sql, columnNames);
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		return statement().execute(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		return statement().execute(sql);
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		return statement().executeBatch();
+	}
+
+	@Override
+	public long[] executeLargeBatch() throws SQLException {
+		return statement().executeLargeBatch();
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		return statement().executeLargeUpdate(sql, columnIndexes);
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+		return statement().executeLargeUpdate(sql, columnNames);
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		return statement().executeLargeUpdate(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql) throws SQLException {
+		return statement().executeLargeUpdate(sql);
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		return statement().executeQuery(sql);
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		return statement().executeUpdate(sql, columnIndexes);
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		return statement().executeUpdate(sql, columnNames);
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		return statement().executeUpdate(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		return statement().executeUpdate(sql);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		statement();
+		return parent;
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return statement().getFetchDirection();
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return statement().getFetchSize();
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		generatedKeys = statement().getGeneratedKeys();
+		return generatedKeys;
+	}
+
+	@Override
+	public long getLargeMaxRows() throws SQLException {
+		return statement().getLargeMaxRows();
+	}
+
+	@Override
+	public long getLargeUpdateCount() throws SQLException {
+		return statement().getLargeUpdateCount();
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		return statement().getMaxFieldSize();
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		return statement().getMaxRows();
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		return statement().getMoreResults();
+	}
+
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		return statement().getMoreResults(current);
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return statement().getQueryTimeout();
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		resultSet = statement().getResultSet();
+		return resultSet;
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return statement().getResultSetConcurrency();
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		return statement().getResultSetHoldability();
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		return statement().getResultSetType();
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return statement().getUpdateCount();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return statement().getWarnings();
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return statement().isCloseOnCompletion();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return statement().isPoolable();
+	}
+
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		statement().setCursorName(name);
+		reusable = false;
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean escapeProcessing) throws SQLException {
+		statement().setEscapeProcessing(escapeProcessing);
+		reusable = false;
+	}
+
+	@Override
+	public void setFetchDirection(int fetchDirection) throws SQLException {
+		PreparedStatement statement = statement();
+		if (defaultFetchDirection < 0) {
+			defaultFetchDirection = statement.getFetchDirection();
+		}
+
+		statement.setFetchDirection(fetchDirection);
+	}
+
+	@Override
+	public void setFetchSize(int fetchSize) throws SQLException {
+		PreparedStatement statement = statement();
+		if (defaultFetchSize < 0) {
+			defaultFetchSize = statement.getFetchSize();
+		}
+
+		statement.setFetchSize(fetchSize);
+	}
+
+	@Override
+	public void setLargeMaxRows(long largeMaxRows) throws SQLException {
+		statement().setLargeMaxRows(largeMaxRows);
+		reusable = false;
+	}
+
+	@Override
+	public void setMaxFieldSize(int maxFieldSize) throws SQLException {
+		PreparedStatement statement = statement();
+		if (defaultMaxFieldSize < 0) {
+			defaultMaxFieldSize = statement.getMaxFieldSize();
+		}
+
+		statement.setMaxFieldSize(maxFieldSize);
+	}
+
+	@Override
+	public void setMaxRows(int maxRows) throws SQLException {
+		PreparedStatement statement = statement();
+		if (defaultMaxRows < 0) {
+			defaultMaxRows = statement.getMaxRows();
+		}
+
+		statement.setMaxRows(maxRows);
+	}
+
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		statement().setPoolable(poolable);
+		reusable = false;
+	}
+
+	@Override
+	public void setQueryTimeout(int queryTimeout) throws SQLException {
+		PreparedStatement statement = statement();
+		if (defaultQueryTimeout < 0) {
+			defaultQueryTimeout = statement.getQueryTimeout();
+		}
+
+		statement.setQueryTimeout(queryTimeout);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return PoolAwarePreparedStatement.class.equals(iface) ? true : statement().isWrapperFor(iface);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return PoolAwarePreparedStatement.class.equals(iface) ? (T) this : statement().unwrap(iface);
+	}
+
+}
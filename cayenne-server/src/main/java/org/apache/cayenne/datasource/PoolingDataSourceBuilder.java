@@ -63,6 +63,119 @@ public class PoolingDataSourceBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets time in milliseconds, within which a connection returned to the pool or
+	 * validated is handed out again without running the validation query. Saves a
+	 * database round trip on checkouts under load. Zero (the default) validates
+	 * connections on every checkout.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder validationInterval(long validationInterval) {
+		poolParameters.setValidationInterval(validationInterval);
+		return this;
+	}
+
+	/**
+	 * Sets time in milliseconds after which idle connections are checked with the
+	 * validation query by a background thread, so that broken connections are
+	 * discarded before they are checked out. Zero (the default) disables background
+	 * validation.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder keepAliveInterval(long keepAliveInterval) {
+		poolParameters.setKeepAliveInterval(keepAliveInterval);
+		return this;
+	}
+
+	/**
+	 * Sets maximum time in milliseconds a pooled connection stays open. Each connection
+	 * gets a lifetime randomly shortened by up to 10% of this value, so that connections
+	 * opened together are not all retired at once. Zero (the default) means connections
+	 * are not retired because of their age.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder maxConnectionLifetime(long maxConnectionLifetime) {
+		poolParameters.setMaxConnectionLifetime(maxConnectionLifetime);
+		return this;
+	}
+
+	/**
+	 * Enables reporting of connections that were checked out and not returned to the
+	 * pool for longer than a given time in milliseconds. Such connections are logged
+	 * with the stack trace of the checkout call, if captured, and passed to the
+	 * {@link PoolingDataSourceListener}. Zero (the default) disables leak detection.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder leakDetectionThreshold(long leakDetectionThreshold) {
+		poolParameters.setLeakDetectionThreshold(leakDetectionThreshold);
+		return this;
+	}
+
+	/**
+	 * Sets a fraction of checkouts, between 0 and 1, that capture the stack trace of the
+	 * caller when leak detection is enabled. Capturing a stack trace on every checkout
+	 * (the default) is the most useful for finding leaks, but adds overhead under load.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder leakDetectionSampleRate(double leakDetectionSampleRate) {
+		poolParameters.setLeakDetectionSampleRate(leakDetectionSampleRate);
+		return this;
+	}
+
+	/**
+	 * Enables caching of prepared statements on each pooled connection, so that
+	 * executing the same SQL again on a connection reuses the statement instead of
+	 * preparing it anew. Useful with drivers that have no statement cache of their own.
+	 * Zero (the default) disables the cache.
+	 * 
+	 * @param statementCacheSize maximum number of idle statements cached per connection.
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder statementCacheSize(int statementCacheSize) {
+		poolParameters.setStatementCacheSize(statementCacheSize);
+		return this;
+	}
+
+	/**
+	 * Runs the pool manager thread as a virtual thread if the JVM supports them (Java 21
+	 * or newer).
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder virtualThreads(boolean virtualThreads) {
+		poolParameters.setVirtualThreads(virtualThreads);
+		return this;
+	}
+
+	/**
+	 * Sets a listener notified of connection checkouts, returns, validations and
+	 * evictions of the pool.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder listener(PoolingDataSourceListener listener) {
+		poolParameters.setListener(listener);
+		return this;
+	}
+
+	/**
+	 * Exposes pool statistics via JMX as a {@link PoolingDataSourceStatisticsMXBean}
+	 * registered under a given name, as
+	 * "org.apache.cayenne:type=PoolingDataSource,name=...,id=N", where N is unique per
+	 * pool. The MBean is unregistered when the DataSource is closed.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceBuilder jmxName(String jmxName) {
+		poolParameters.setJmxName(jmxName);
+		return this;
+	}
+
 	/**
 	 * Builds a pooling DataSource that needs to be explicitly closed by the
 	 * caller when no longer in use.
@@ -84,6 +197,26 @@ public class PoolingDataSourceBuilder {
 			throw new CayenneRuntimeException("Minimum number of connections can not be bigger then maximum.");
 		}
 
+		if (poolParameters.getValidationInterval() < 0 || poolParameters.getKeepAliveInterval() < 0
+				|| poolParameters.getMaxConnectionLifetime() < 0) {
+			throw new CayenneRuntimeException("Validation interval, keep-alive interval and maximum connection lifetime can not be negative.");
+		}
+
+		if (poolParameters.getLeakDetectionThreshold() < 0) {
+			throw new CayenneRuntimeException("Leak detection threshold can not be negative (%d)."
+					, poolParameters.getLeakDetectionThreshold());
+		}
+
+		if (poolParameters.getLeakDetectionSampleRate() < 0 || poolParameters.getLeakDetectionSampleRate() > 1) {
+			throw new CayenneRuntimeException("Leak detection sample rate must be between 0 and 1 (%s)."
+					, poolParameters.getLeakDetectionSampleRate());
+		}
+
+		if (poolParameters.getStatementCacheSize() < 0) {
+			throw new CayenneRuntimeException("Statement cache size can not be negative (%d)."
+					, poolParameters.getStatementCacheSize());
+		}
+
 		DataSource nonPooling = nonPoolingBuilder.build();
 		return buildManaged(buildPooling(nonPooling));
 	}
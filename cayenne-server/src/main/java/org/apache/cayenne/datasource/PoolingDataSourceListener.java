@@ -0,0 +1,91 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+/**
+ * A listener notified of the activity of an {@link UnmanagedPoolingDataSource}. Can be
+ * passed to {@link PoolingDataSourceBuilder#listener(PoolingDataSourceListener)} to feed pool
+ * activity to an external metrics system. Callbacks are invoked synchronously on the thread
+ * interacting with the pool, so implementations should be fast and thread-safe.
+ *
+ * @see PoolingDataSourceStatistics
+ * @since 4.2
+ */
+public interface PoolingDataSourceListener {
+
+	/**
+	 * Called when a connection is checked out of the pool.
+	 *
+	 * @param waitNanos time the caller waited for the connection, in nanoseconds.
+	 */
+	default void onAcquire(long waitNanos) {
+	}
+
+	/**
+	 * Called when a connection request times out and
+	 * {@link UnmanagedPoolingDataSource.ConnectionUnavailableException} is thrown.
+	 *
+	 * @param waitNanos time the caller waited before giving up, in nanoseconds.
+	 */
+	default void onAcquireTimeout(long waitNanos) {
+	}
+
+	/**
+	 * Called when a checked out connection is returned to the pool or closed.
+	 *
+	 * @param holdNanos time the connection was held by the caller, in nanoseconds.
+	 */
+	default void onRelease(long holdNanos) {
+	}
+
+	/**
+	 * Called when a checked out connection was not returned to the pool for longer than the
+	 * leak detection threshold. Called at most once per checkout.
+	 *
+	 * @param holdNanos     time the connection has been held by the caller, in nanoseconds.
+	 * @param checkoutStack an exception capturing the stack of the checkout call, or null if
+	 *                      the stack was not sampled.
+	 */
+	default void onLeak(long holdNanos, Throwable checkoutStack) {
+	}
+
+	/**
+	 * Called after a pooled connection was checked with the validation query.
+	 */
+	default void onValidation(boolean valid) {
+	}
+
+	/**
+	 * Called when a new physical connection is opened by the pool.
+	 */
+	default void onCreate() {
+	}
+
+	/**
+	 * Called when a physical connection is closed by the pool.
+	 */
+	default void onClose() {
+	}
+
+	/**
+	 * Called when an idle connection is closed to shrink the pool.
+	 */
+	default void onEviction() {
+	}
+}
@@ -18,32 +18,43 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import org.apache.cayenne.util.DaemonThreadFactory;
+
 /**
- * A thread that manages the state of a {@link UnmanagedPoolingDataSource} instance,
+ * A background task that manages the state of a {@link UnmanagedPoolingDataSource} instance,
  * performing periodic expansion/contraction of pooled connections, and
  * orchestrating shutdown.
  * 
  * @since 4.0
  */
-class PoolingDataSourceManager extends Thread {
+class PoolingDataSourceManager implements Runnable {
 
 	private volatile boolean shouldStop;
 	private UnmanagedPoolingDataSource dataSource;
 	private long managerWakeTime;
+	private Thread thread;
 
 	PoolingDataSourceManager(UnmanagedPoolingDataSource dataSource, long managerWakeTime) {
-		setName("PoolingDataSourceManager-" + dataSource.hashCode());
-		setDaemon(true);
-
 		this.dataSource = dataSource;
 		this.shouldStop = false;
 		this.managerWakeTime = managerWakeTime;
+
+		this.thread = DaemonThreadFactory.newThread("PoolingDataSourceManager-" + dataSource.hashCode(),
+				dataSource.isVirtualThreads(), this);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	boolean isAlive() {
+		return thread.isAlive();
 	}
 
 	void shutdown() {
 		shouldStop = true;
 		dataSource.close();
-		interrupt();
+		thread.interrupt();
 	}
 
 	UnmanagedPoolingDataSource getDataSource() {
@@ -29,6 +29,15 @@ public class PoolingDataSourceParameters {
 	private int minConnections;
 	private int maxConnections;
 	private long maxQueueWaitTime;
+	private PoolingDataSourceListener listener;
+	private String jmxName;
+	private long validationInterval;
+	private long keepAliveInterval;
+	private long maxConnectionLifetime;
+	private long leakDetectionThreshold;
+	private double leakDetectionSampleRate = 1.0;
+	private boolean virtualThreads;
+	private int statementCacheSize;
 
 	public int getMinConnections() {
 		return minConnections;
@@ -61,4 +70,155 @@ public class PoolingDataSourceParameters {
 	public void setValidationQuery(String validationQuery) {
 		this.validationQuery = validationQuery;
 	}
+
+	/**
+	 * @since 4.2
+	 */
+	public PoolingDataSourceListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setListener(PoolingDataSourceListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns a name under which pool statistics are registered in JMX, or null if
+	 * statistics should not be exposed via JMX.
+	 * 
+	 * @since 4.2
+	 */
+	public String getJmxName() {
+		return jmxName;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setJmxName(String jmxName) {
+		this.jmxName = jmxName;
+	}
+
+	/**
+	 * Returns time in milliseconds, within which a connection returned to the pool or
+	 * validated is handed out again without running the validation query. Zero means
+	 * connections are validated on every checkout.
+	 * 
+	 * @since 4.2
+	 */
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+
+	/**
+	 * Returns time in milliseconds after which idle connections are validated in the
+	 * background by the pool manager thread. Zero disables background validation.
+	 * 
+	 * @since 4.2
+	 */
+	public long getKeepAliveInterval() {
+		return keepAliveInterval;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setKeepAliveInterval(long keepAliveInterval) {
+		this.keepAliveInterval = keepAliveInterval;
+	}
+
+	/**
+	 * Returns maximum time in milliseconds a pooled connection stays open. Zero means
+	 * connections are not retired because of their age.
+	 * 
+	 * @since 4.2
+	 */
+	public long getMaxConnectionLifetime() {
+		return maxConnectionLifetime;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setMaxConnectionLifetime(long maxConnectionLifetime) {
+		this.maxConnectionLifetime = maxConnectionLifetime;
+	}
+
+	/**
+	 * Returns time in milliseconds after which a connection that was not returned to the
+	 * pool is reported as a possible leak. Zero disables leak detection.
+	 * 
+	 * @since 4.2
+	 */
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * Returns a fraction of checkouts, between 0 and 1, that capture the stack trace of
+	 * the caller when leak detection is enabled. Default is 1.
+	 * 
+	 * @since 4.2
+	 */
+	public double getLeakDetectionSampleRate() {
+		return leakDetectionSampleRate;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setLeakDetectionSampleRate(double leakDetectionSampleRate) {
+		this.leakDetectionSampleRate = leakDetectionSampleRate;
+	}
+
+	/**
+	 * Returns whether the pool manager thread should be a virtual thread, if the JVM
+	 * supports them.
+	 * 
+	 * @since 4.2
+	 */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Returns the maximum number of idle prepared statements cached per pooled
+	 * connection. Zero means statements are not cached.
+	 * 
+	 * @since 4.2
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
 }
@@ -0,0 +1,346 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects checkout, hold time, validation, eviction and leak statistics of a single
+ * {@link UnmanagedPoolingDataSource}, forwarding each event to a
+ * {@link PoolingDataSourceListener}, as well as hit counts of the per-connection
+ * statement caches. Acquire and hold times are kept in coarse histograms
+ * that help sizing "maxConnections" and "maxQueueWaitTime" of the pool. Can be exposed via JMX.
+ *
+ * @since 4.2
+ */
+public class PoolingDataSourceStatistics implements PoolingDataSourceStatisticsMXBean {
+
+	private final String name;
+	private final UnmanagedPoolingDataSource dataSource;
+	private final PoolingDataSourceListener listener;
+
+	private final TimeHistogram acquireTime;
+	private final TimeHistogram holdTime;
+	private final LongAdder acquireTimeouts;
+	private final LongAdder validations;
+	private final LongAdder validationFailures;
+	private final LongAdder creates;
+	private final LongAdder closes;
+	private final LongAdder evictions;
+	private final LongAdder leaks;
+	private final LongAdder statementCacheHits;
+	private final LongAdder statementCacheMisses;
+	private final LongAdder statementCacheEvictions;
+
+	public PoolingDataSourceStatistics(String name, UnmanagedPoolingDataSource dataSource,
+			PoolingDataSourceListener listener) {
+		this.name = name;
+		this.dataSource = dataSource;
+		this.listener = listener;
+
+		this.acquireTime = new TimeHistogram();
+		this.holdTime = new TimeHistogram();
+		this.acquireTimeouts = new LongAdder();
+		this.validations = new LongAdder();
+		this.validationFailures = new LongAdder();
+		this.creates = new LongAdder();
+		this.closes = new LongAdder();
+		this.evictions = new LongAdder();
+		this.leaks = new LongAdder();
+		this.statementCacheHits = new LongAdder();
+		this.statementCacheMisses = new LongAdder();
+		this.statementCacheEvictions = new LongAdder();
+	}
+
+	public void recordAcquire(long waitNanos) {
+		acquireTime.record(waitNanos);
+		listener.onAcquire(waitNanos);
+	}
+
+	public void recordAcquireTimeout(long waitNanos) {
+		acquireTimeouts.increment();
+		listener.onAcquireTimeout(waitNanos);
+	}
+
+	public void recordRelease(long holdNanos) {
+		holdTime.record(holdNanos);
+		listener.onRelease(holdNanos);
+	}
+
+	public void recordValidation(boolean valid) {
+		validations.increment();
+		if (!valid) {
+			validationFailures.increment();
+		}
+		listener.onValidation(valid);
+	}
+
+	public void recordCreate() {
+		creates.increment();
+		listener.onCreate();
+	}
+
+	public void recordClose() {
+		closes.increment();
+		listener.onClose();
+	}
+
+	public void recordEviction() {
+		evictions.increment();
+		listener.onEviction();
+	}
+
+	public void recordLeak(long holdNanos, Throwable checkoutStack) {
+		leaks.increment();
+		listener.onLeak(holdNanos, checkoutStack);
+	}
+
+	public void recordStatementCacheHit() {
+		statementCacheHits.increment();
+	}
+
+	public void recordStatementCacheMiss() {
+		statementCacheMisses.increment();
+	}
+
+	public void recordStatementCacheEviction() {
+		statementCacheEvictions.increment();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int getPoolSize() {
+		return dataSource.poolSize();
+	}
+
+	@Override
+	public int getActiveConnections() {
+		// the two sizes are read at slightly different times, so don't report negative values
+		return Math.max(0, dataSource.poolSize() - dataSource.availableSize());
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return dataSource.availableSize();
+	}
+
+	@Override
+	public int getMaxConnections() {
+		return dataSource.getMaxConnections();
+	}
+
+	@Override
+	public long getAcquireCount() {
+		return acquireTime.getCount();
+	}
+
+	@Override
+	public long getAcquireTimeoutCount() {
+		return acquireTimeouts.sum();
+	}
+
+	@Override
+	public double getAverageAcquireTime() {
+		return acquireTime.getAverageMillis();
+	}
+
+	@Override
+	public long getMaxAcquireTime() {
+		return acquireTime.getMaxMillis();
+	}
+
+	@Override
+	public Map<String, Long> getAcquireTimeHistogram() {
+		return acquireTime.getHistogram();
+	}
+
+	@Override
+	public long getReleaseCount() {
+		return holdTime.getCount();
+	}
+
+	@Override
+	public double getAverageHoldTime() {
+		return holdTime.getAverageMillis();
+	}
+
+	@Override
+	public long getMaxHoldTime() {
+		return holdTime.getMaxMillis();
+	}
+
+	@Override
+	public Map<String, Long> getHoldTimeHistogram() {
+		return holdTime.getHistogram();
+	}
+
+	@Override
+	public long getValidationCount() {
+		return validations.sum();
+	}
+
+	@Override
+	public long getValidationFailureCount() {
+		return validationFailures.sum();
+	}
+
+	@Override
+	public long getCreateCount() {
+		return creates.sum();
+	}
+
+	@Override
+	public long getCloseCount() {
+		return closes.sum();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public long getLeakCount() {
+		return leaks.sum();
+	}
+
+	@Override
+	public long getStatementCacheHitCount() {
+		return statementCacheHits.sum();
+	}
+
+	@Override
+	public long getStatementCacheMissCount() {
+		return statementCacheMisses.sum();
+	}
+
+	@Override
+	public double getStatementCacheHitRatio() {
+		long hits = statementCacheHits.sum();
+		long total = hits + statementCacheMisses.sum();
+		return total > 0 ? hits / (double) total : 0d;
+	}
+
+	@Override
+	public long getStatementCacheEvictionCount() {
+		return statementCacheEvictions.sum();
+	}
+
+	@Override
+	public List<CheckedOutConnectionInfo> getCheckedOutConnections() {
+		return dataSource.getCheckedOutConnections();
+	}
+
+	@Override
+	public void reset() {
+		acquireTime.reset();
+		holdTime.reset();
+		acquireTimeouts.reset();
+		validations.reset();
+		validationFailures.reset();
+		creates.reset();
+		closes.reset();
+		evictions.reset();
+		leaks.reset();
+		statementCacheHits.reset();
+		statementCacheMisses.reset();
+		statementCacheEvictions.reset();
+	}
+
+	/**
+	 * A lock-free histogram of durations with fixed millisecond buckets.
+	 */
+	static class TimeHistogram {
+
+		static final long[] BUCKET_BOUNDS_MS = { 1, 5, 10, 50, 100, 500, 1000, 5000, 10000 };
+
+		private final AtomicLongArray buckets;
+		private final LongAdder count;
+		private final LongAdder totalNanos;
+		private final LongAccumulator maxNanos;
+
+		TimeHistogram() {
+			this.buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+			this.count = new LongAdder();
+			this.totalNanos = new LongAdder();
+			this.maxNanos = new LongAccumulator(Math::max, 0);
+		}
+
+		void record(long nanos) {
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+
+			int i = 0;
+			while (i < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[i]) {
+				i++;
+			}
+
+			buckets.incrementAndGet(i);
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+		}
+
+		long getCount() {
+			return count.sum();
+		}
+
+		double getAverageMillis() {
+			long count = this.count.sum();
+			return count > 0 ? totalNanos.sum() / (count * 1_000_000d) : 0d;
+		}
+
+		long getMaxMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+		}
+
+		/**
+		 * Returns the number of recorded durations per bucket, keyed by bucket upper bound.
+		 */
+		Map<String, Long> getHistogram() {
+			Map<String, Long> histogram = new LinkedHashMap<>();
+			for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+				histogram.put("<=" + BUCKET_BOUNDS_MS[i] + "ms", buckets.get(i));
+			}
+
+			histogram.put(">" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms",
+					buckets.get(BUCKET_BOUNDS_MS.length));
+			return histogram;
+		}
+
+		void reset() {
+			for (int i = 0; i < buckets.length(); i++) {
+				buckets.set(i, 0);
+			}
+
+			count.reset();
+			totalNanos.reset();
+			maxNanos.reset();
+		}
+	}
+}
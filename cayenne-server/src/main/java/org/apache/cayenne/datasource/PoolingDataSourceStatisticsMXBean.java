@@ -0,0 +1,83 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX management interface of {@link PoolingDataSourceStatistics}. Times are reported in
+ * milliseconds.
+ *
+ * @since 4.2
+ */
+public interface PoolingDataSourceStatisticsMXBean {
+
+	String getName();
+
+	int getPoolSize();
+
+	int getActiveConnections();
+
+	int getIdleConnections();
+
+	int getMaxConnections();
+
+	long getAcquireCount();
+
+	long getAcquireTimeoutCount();
+
+	double getAverageAcquireTime();
+
+	long getMaxAcquireTime();
+
+	Map<String, Long> getAcquireTimeHistogram();
+
+	long getReleaseCount();
+
+	double getAverageHoldTime();
+
+	long getMaxHoldTime();
+
+	Map<String, Long> getHoldTimeHistogram();
+
+	long getValidationCount();
+
+	long getValidationFailureCount();
+
+	long getCreateCount();
+
+	long getCloseCount();
+
+	long getEvictionCount();
+
+	long getLeakCount();
+
+	long getStatementCacheHitCount();
+
+	long getStatementCacheMissCount();
+
+	double getStatementCacheHitRatio();
+
+	long getStatementCacheEvictionCount();
+
+	List<CheckedOutConnectionInfo> getCheckedOutConnections();
+
+	void reset();
+}
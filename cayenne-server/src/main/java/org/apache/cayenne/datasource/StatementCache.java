@@ -0,0 +1,182 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A bounded LRU cache of idle prepared statements of a single pooled connection. A
+ * statement is removed from the cache while in use, so the same SQL prepared twice
+ * before the first statement is closed results in two statements.
+ * 
+ * @since 4.2
+ */
+class StatementCache {
+
+	private final int maxSize;
+	private final PoolingDataSourceStatistics statistics;
+	private final LinkedHashMap<Key, PreparedStatement> statements;
+
+	StatementCache(int maxSize, PoolingDataSourceStatistics statistics) {
+		this.maxSize = maxSize;
+		this.statistics = statistics;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Takes a cached statement out of the cache, returning null if there is none for the
+	 * key.
+	 */
+	PreparedStatement checkout(Key key) {
+
+		PreparedStatement statement;
+		synchronized (this) {
+			statement = statements.remove(key);
+		}
+
+		if (statement != null) {
+			statistics.recordStatementCacheHit();
+		} else {
+			statistics.recordStatementCacheMiss();
+		}
+
+		return statement;
+	}
+
+	/**
+	 * Puts an idle statement in the cache, closing the least recently used statement if
+	 * the cache is full.
+	 */
+	void checkin(Key key, PreparedStatement statement) {
+
+		PreparedStatement evicted = null;
+		boolean duplicate = false;
+
+		synchronized (this) {
+			if (statements.containsKey(key)) {
+				duplicate = true;
+			} else {
+				statements.put(key, statement);
+
+				if (statements.size() > maxSize) {
+					Iterator<PreparedStatement> it = statements.values().iterator();
+					evicted = it.next();
+					it.remove();
+				}
+			}
+		}
+
+		if (duplicate) {
+			close(statement);
+		} else if (evicted != null) {
+			statistics.recordStatementCacheEviction();
+			close(evicted);
+		}
+	}
+
+	/**
+	 * Closes and removes all cached statements.
+	 */
+	void clear() {
+
+		List<PreparedStatement> closing;
+		synchronized (this) {
+			closing = new ArrayList<>(statements.values());
+			statements.clear();
+		}
+
+		for (PreparedStatement statement : closing) {
+			close(statement);
+		}
+	}
+
+	synchronized int size() {
+		return statements.size();
+	}
+
+	static void close(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// ignore, the statement is discarded anyways
+		}
+	}
+
+	/**
+	 * Identifies a cached statement by its SQL and the options it was prepared with.
+	 */
+	static class Key {
+
+		private final String sql;
+		private final int resultSetType;
+		private final int resultSetConcurrency;
+		private final int autoGeneratedKeys;
+
+		Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.resultSetType = resultSetType;
+			this.resultSetConcurrency = resultSetConcurrency;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+		}
+
+		PreparedStatement prepare(Connection connection) throws SQLException {
+			if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+				return connection.prepareStatement(sql, autoGeneratedKeys);
+			}
+
+			if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY) {
+				return connection.prepareStatement(sql);
+			}
+
+			return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof Key)) {
+				return false;
+			}
+
+			Key key = (Key) o;
+			return resultSetType == key.resultSetType && resultSetConcurrency == key.resultSetConcurrency
+					&& autoGeneratedKeys == key.autoGeneratedKeys && sql.equals(key.sql);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = sql.hashCode();
+			result = 31 * result + resultSetType;
+			result = 31 * result + resultSetConcurrency;
+			result = 31 * result + autoGeneratedKeys;
+			return result;
+		}
+	}
+}
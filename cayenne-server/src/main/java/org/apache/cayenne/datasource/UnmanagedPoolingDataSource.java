@@ -19,17 +19,26 @@
 package org.apache.cayenne.datasource;
 
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.management.JMException;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import org.apache.cayenne.CayenneRuntimeException;
@@ -90,6 +99,9 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(UnmanagedPoolingDataSource.class);
 
+	// makes MBean names unique, as several pools may be created under the same name
+	private static final AtomicInteger MBEAN_COUNTER = new AtomicInteger();
+
 	private DataSource nonPoolingDataSource;
 	private long maxQueueWaitTime;
 
@@ -101,6 +113,16 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	private int minConnections;
 	private int maxConnections;
 	private String validationQuery;
+	private long validationInterval;
+	private long keepAliveInterval;
+	private long maxConnectionLifetime;
+	private long leakDetectionThreshold;
+	private double leakDetectionSampleRate;
+	private boolean virtualThreads;
+	private int statementCacheSize;
+
+	private PoolingDataSourceStatistics statistics;
+	private ObjectName mBeanName;
 
 	static int maxIdleConnections(int min, int max) {
 		return min == max ? min : min + (int) Math.ceil((max - min) / 2d);
@@ -128,6 +150,13 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		this.nonPoolingDataSource = nonPoolingDataSource;
 		this.maxQueueWaitTime = parameters.getMaxQueueWaitTime();
 		this.validationQuery = parameters.getValidationQuery();
+		this.validationInterval = parameters.getValidationInterval();
+		this.keepAliveInterval = parameters.getKeepAliveInterval();
+		this.maxConnectionLifetime = parameters.getMaxConnectionLifetime();
+		this.leakDetectionThreshold = parameters.getLeakDetectionThreshold();
+		this.leakDetectionSampleRate = parameters.getLeakDetectionSampleRate();
+		this.virtualThreads = parameters.isVirtualThreads();
+		this.statementCacheSize = parameters.getStatementCacheSize();
 		this.minConnections = minConnections;
 		this.maxConnections = maxConnections;
 		this.pool = new ConcurrentHashMap<PoolAwareConnection, Object>((int) (maxConnections / 0.75));
@@ -135,6 +164,13 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		this.poolCap = new Semaphore(maxConnections);
 		this.maxIdleConnections = maxIdleConnections(minConnections, maxConnections);
 
+		PoolingDataSourceListener listener = parameters.getListener() != null ? parameters.getListener()
+				: new PoolingDataSourceListener() {
+				};
+		String name = parameters.getJmxName() != null ? parameters.getJmxName()
+				: "PoolingDataSource-" + hashCode();
+		this.statistics = new PoolingDataSourceStatistics(name, this, listener);
+
 		// grow pool to min connections
 		try {
 			for (int i = 0; i < minConnections; i++) {
@@ -146,6 +182,10 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		} catch (SQLException e) {
 			LOGGER.info("Error creating new connection when starting connection pool, ignoring", e);
 		}
+
+		if (parameters.getJmxName() != null) {
+			registerMBean();
+		}
 	}
 
 	int poolSize() {
@@ -160,6 +200,71 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return poolCap.availablePermits();
 	}
 
+	/**
+	 * Returns checkout, hold time, validation and eviction statistics of this pool.
+	 * 
+	 * @since 4.2
+	 */
+	public PoolingDataSourceStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns a snapshot of connections currently checked out of the pool, including their
+	 * hold time and, if leak detection is enabled and the checkout was sampled, the stack
+	 * trace of the checkout call.
+	 * 
+	 * @since 4.2
+	 */
+	public List<CheckedOutConnectionInfo> getCheckedOutConnections() {
+		long now = System.nanoTime();
+		List<CheckedOutConnectionInfo> connections = new ArrayList<>();
+		for (PoolAwareConnection c : pool.keySet()) {
+			if (c.isCheckedOut()) {
+				connections.add(c.checkoutInfo(now));
+			}
+		}
+
+		return connections;
+	}
+
+	void registerMBean() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName name = new ObjectName("org.apache.cayenne:type=PoolingDataSource,name="
+					+ ObjectName.quote(statistics.getName()) + ",id=" + MBEAN_COUNTER.incrementAndGet());
+
+			server.registerMBean(statistics, name);
+			this.mBeanName = name;
+		} catch (InstanceAlreadyExistsException e) {
+			LOGGER.warn("Connection pool MBean for '" + statistics.getName() + "' is already registered, skipping");
+		} catch (JMException e) {
+			LOGGER.warn("Failed to register connection pool MBean for '" + statistics.getName() + "'", e);
+		}
+	}
+
+	ObjectName getMBeanName() {
+		return mBeanName;
+	}
+
+	// only unregisters the MBean registered by this pool, never someone else's
+	void unregisterMBean() {
+		if (mBeanName == null) {
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(mBeanName)) {
+				server.unregisterMBean(mBeanName);
+			}
+		} catch (JMException e) {
+			LOGGER.warn("Failed to unregister connection pool MBean " + mBeanName, e);
+		}
+
+		mBeanName = null;
+	}
+
 	@Override
 	public void close() {
 
@@ -174,10 +279,15 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		available.clear();
 		pool = Collections.emptyMap();
+
+		unregisterMBean();
 	}
 
 	void managePool() {
 
+		detectLeaks();
+		keepAlive();
+
 		// do not grow or shrink abruptly ... open or close 1 connection on
 		// each call
 
@@ -196,20 +306,93 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 			PoolAwareConnection c = uncheckNonBlocking(false);
 			if (c != null) {
+				statistics.recordEviction();
 				retire(c);
 			}
 		}
 
 	}
 
+	/**
+	 * Reports connections checked out for longer than the leak detection threshold. Each
+	 * checkout is reported once.
+	 */
+	void detectLeaks() {
+
+		if (leakDetectionThreshold <= 0) {
+			return;
+		}
+
+		long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakDetectionThreshold);
+		long now = System.nanoTime();
+
+		for (PoolAwareConnection c : pool.keySet()) {
+
+			if (!c.isCheckedOut()) {
+				continue;
+			}
+
+			long holdTime = c.getHoldTime(now);
+			if (holdTime >= thresholdNanos && c.markLeakReported()) {
+
+				Throwable checkoutStack = c.getCheckoutStack();
+				String message = "Connection has been checked out for " + TimeUnit.NANOSECONDS.toMillis(holdTime)
+						+ " ms without being returned to the pool, possible leak";
+
+				if (checkoutStack != null) {
+					LOGGER.warn(message + ". Checked out at:", checkoutStack);
+				} else {
+					LOGGER.warn(message + ". Checkout stack was not sampled.");
+				}
+
+				statistics.recordLeak(holdTime, checkoutStack);
+			}
+		}
+	}
+
+	/**
+	 * Retires idle connections that exceeded their lifetime and validates the ones that
+	 * were not used for longer than the keep-alive interval, retiring the broken ones.
+	 */
+	void keepAlive() {
+
+		if (keepAliveInterval <= 0 && maxConnectionLifetime <= 0) {
+			return;
+		}
+
+		long keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAliveInterval);
+
+		// check each connection idle at the start of the call, taking them from the
+		// queue one at a time, so that the rest stay available to the callers
+		for (int i = available.size(); i > 0; i--) {
+
+			PoolAwareConnection c = available.poll();
+			if (c == null) {
+				break;
+			}
+
+			long now = System.nanoTime();
+			if (c.isExpired(now)) {
+				retire(c);
+			} else if (keepAliveNanos > 0 && c.getIdleTime(now) >= keepAliveNanos && !validate(c)) {
+				retire(c);
+			} else if (!available.offer(c)) {
+				retire(c);
+			}
+		}
+	}
+
 	/**
 	 * Closes the connection and removes it from the pool. The connection must
 	 * be an unchecked connection.
 	 */
 	void retire(PoolAwareConnection connection) {
+		checkin(connection);
 		pool.remove(connection);
 
 		poolCap.release();
+		statistics.recordClose();
+		connection.clearStatementCache();
 
 		try {
 			connection.getConnection().close();
@@ -226,6 +409,15 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		// TODO: rollback any in-process tx?
 
+		checkin(connection);
+
+		if (connection.isExpired(System.nanoTime())) {
+			retire(connection);
+			return;
+		}
+
+		connection.touch();
+
 		// the queue may overflow potentially and we won't be able to add the
 		// object
 		if (!available.offer(connection)) {
@@ -233,6 +425,19 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		}
 	}
 
+	private void checkin(PoolAwareConnection connection) {
+		boolean leakReported = connection.isLeakReported();
+		long holdTime = connection.checkin();
+		if (holdTime >= 0) {
+			statistics.recordRelease(holdTime);
+
+			if (leakReported) {
+				LOGGER.info("Connection previously reported as a possible leak was returned to the pool after "
+						+ TimeUnit.NANOSECONDS.toMillis(holdTime) + " ms");
+			}
+		}
+	}
+
 	PoolAwareConnection uncheckNonBlocking(boolean validate) {
 		PoolAwareConnection c = available.poll();
 		return validate ? validateUnchecked(c) : c;
@@ -251,8 +456,22 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 	PoolAwareConnection validateUnchecked(PoolAwareConnection c) {
 
-		if (c == null || c.validate()) {
-			return c;
+		if (c == null) {
+			return null;
+		}
+
+		long now = System.nanoTime();
+		if (!c.isExpired(now)) {
+
+			// fast path: a connection used very recently is very likely alive
+			if (validationInterval > 0
+					&& c.getIdleTime(now) < TimeUnit.MILLISECONDS.toNanos(validationInterval)) {
+				return c;
+			}
+
+			if (validate(c)) {
+				return c;
+			}
 		}
 
 		// this will recursively validate all connections that exist in the pool
@@ -277,10 +496,20 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 
 		pool.put(c, 1);
 
+		if (maxConnectionLifetime > 0) {
+			c.setMaxLifetime(jitterLifetime(TimeUnit.MILLISECONDS.toNanos(maxConnectionLifetime)));
+		}
+
+		if (statementCacheSize > 0) {
+			c.setStatementCache(new StatementCache(statementCacheSize, statistics));
+		}
+
 		// even though we got a fresh connection, let's still validate it...
 		// This will provide consistent behavior between cached and uncached
 		// connections in respect to invalid validation queries
-		if (!c.validate()) {
+		statistics.recordCreate();
+
+		if (!validate(c)) {
 			throw new BadValidationQueryException(
 					"Can't validate a fresh connection. Likely validation query is wrong: " + validationQuery);
 		}
@@ -288,6 +517,23 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return c;
 	}
 
+	/**
+	 * Shortens the lifetime by a random amount of up to 10%, so that connections created
+	 * at the same time are not retired all at once.
+	 */
+	static long jitterLifetime(long lifetime) {
+		return lifetime - ThreadLocalRandom.current().nextLong(lifetime / 10 + 1);
+	}
+
+	private boolean validate(PoolAwareConnection c) {
+		boolean valid = c.validate();
+		if (validationQuery != null) {
+			statistics.recordValidation(valid);
+		}
+
+		return valid;
+	}
+
 	PoolAwareConnection createWrapped() throws SQLException {
 		return new PoolAwareConnection(this, createUnwrapped(), validationQuery);
 	}
@@ -327,30 +573,55 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		// 2. create new one
 		// 3. wait for a user to return connection
 
+		long start = System.nanoTime();
 		PoolAwareConnection c;
 
 		c = uncheckNonBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			return checkout(c, start);
 		}
 
 		c = createUnchecked();
 		if (c != null) {
-			return resetState(c);
+			return checkout(c, start);
 		}
 
 		c = uncheckBlocking(true);
 		if (c != null) {
-			return resetState(c);
+			return checkout(c, start);
 		}
 
 		int poolSize = poolSize();
 		int canGrow = poolCap.availablePermits();
 
+		statistics.recordAcquireTimeout(System.nanoTime() - start);
+
 		throw new ConnectionUnavailableException("Can't obtain connection. Request to pool timed out. Total pool size: "
 				+ poolSize + ", can expand by: " + canGrow);
 	}
 
+	private Connection checkout(PoolAwareConnection c, long start) throws SQLException {
+		resetState(c);
+
+		long now = System.nanoTime();
+		c.checkout(now, sampleCheckoutStack());
+		statistics.recordAcquire(now - start);
+		return c;
+	}
+
+	private Throwable sampleCheckoutStack() {
+
+		if (leakDetectionThreshold <= 0 || leakDetectionSampleRate <= 0) {
+			return null;
+		}
+
+		if (leakDetectionSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= leakDetectionSampleRate) {
+			return null;
+		}
+
+		return new Exception("Connection checkout");
+	}
+
 	@Override
 	public Connection getConnection(String userName, String password) throws SQLException {
 		throw new UnsupportedOperationException(
@@ -397,6 +668,26 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		return validationQuery;
 	}
 
+	long getValidationInterval() {
+		return validationInterval;
+	}
+
+	long getKeepAliveInterval() {
+		return keepAliveInterval;
+	}
+
+	long getMaxConnectionLifetime() {
+		return maxConnectionLifetime;
+	}
+
+	boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
 	long getMaxQueueWaitTime() {
 		return maxQueueWaitTime;
 	}
@@ -144,6 +144,62 @@ public class AutoAdapter implements DbAdapter {
 		return getAdapter().supportsGeneratedKeys();
 	}
 
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public boolean supportsBatchGeneratedKeys() {
+		return getAdapter().supportsBatchGeneratedKeys();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public int getMaxBatchSize() {
+		return getAdapter().getMaxBatchSize();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public int getMultiRowInsertSize() {
+		return getAdapter().getMultiRowInsertSize();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public InListStrategy getInListStrategy() {
+		return getAdapter().getInListStrategy();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public boolean usesStringLengthInSql() {
+		return getAdapter().usesStringLengthInSql();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public int getStreamingFetchSize() {
+		return getAdapter().getStreamingFetchSize();
+	}
+
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	public void enableStreaming(PreparedStatement statement, int fetchSize) throws SQLException {
+		getAdapter().enableStreaming(statement, fetchSize);
+	}
+
 	@Override
 	public boolean supportsBatchUpdates() {
 		return getAdapter().supportsBatchUpdates();
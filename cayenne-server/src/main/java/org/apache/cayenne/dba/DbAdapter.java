@@ -102,6 +102,82 @@ public interface DbAdapter {
 	 */
 	boolean supportsGeneratedKeys();
 
+	/**
+	 * Returns true if the JDBC driver returns keys generated for every row of a batch insert,
+	 * so that inserts with generated keys can be executed as a JDBC batch instead of one
+	 * statement per row.
+	 *
+	 * @since 4.2
+	 */
+	default boolean supportsBatchGeneratedKeys() {
+		return false;
+	}
+
+	/**
+	 * Returns the maximum number of rows to send to the database in a single JDBC batch,
+	 * or zero or less if there's no limit.
+	 *
+	 * @since 4.2
+	 */
+	default int getMaxBatchSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns the max number of rows to combine in a single multi-row INSERT statement
+	 * (i.e. "INSERT ... VALUES (..), (..), ..."), or a value of 1 or less if inserts
+	 * should be executed one row per statement.
+	 *
+	 * @since 4.2
+	 */
+	default int getMultiRowInsertSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns a strategy of translating IN lists to SQL.
+	 *
+	 * @since 4.2
+	 */
+	default InListStrategy getInListStrategy() {
+		return InListStrategy.EXPANDED;
+	}
+
+	/**
+	 * Returns true if SQL generated for a string parameter depends on the length of its
+	 * value (e.g. "CAST(? AS VARCHAR(n))"), so that queries that only differ in string
+	 * lengths can't share the same translated SQL.
+	 *
+	 * @since 4.2
+	 */
+	default boolean usesStringLengthInSql() {
+		return false;
+	}
+
+	/**
+	 * Returns the number of rows fetched per database round trip when streaming results
+	 * of iterated queries that don't set their own statement fetch size. Zero means such
+	 * results are read with the driver defaults, which for some drivers means reading
+	 * the whole result into memory.
+	 *
+	 * @since 4.2
+	 */
+	default int getStreamingFetchSize() {
+		return 0;
+	}
+
+	/**
+	 * Configures a statement of an iterated query to read rows from a database cursor
+	 * instead of loading the whole result into memory. The default implementation sets
+	 * the statement fetch size, which is sufficient for most drivers.
+	 *
+	 * @param fetchSize the number of rows to fetch per database round trip.
+	 * @since 4.2
+	 */
+	default void enableStreaming(PreparedStatement statement, int fetchSize) throws SQLException {
+		statement.setFetchSize(fetchSize);
+	}
+
 	/**
 	 * Returns <code>true</code> if the target database supports batch updates.
 	 */
@@ -0,0 +1,49 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba;
+
+/**
+ * Defines how IN list qualifiers are translated to SQL.
+ *
+ * @see org.apache.cayenne.configuration.Constants#IN_LIST_STRATEGY_PROPERTY
+ * @since 4.2
+ */
+public enum InListStrategy {
+
+    /**
+     * Each list value is bound as a separate parameter, i.e. the SQL text changes with the size of the
+     * list. This is the default.
+     */
+    EXPANDED,
+
+    /**
+     * Lists are padded to the next power of two size by repeating the last value, so that a bounded number
+     * of statement shapes covers all list sizes. Results are not affected, as duplicate values in an IN list
+     * are ignored by the database.
+     */
+    PADDED,
+
+    /**
+     * A list is bound as a single array parameter (i.e. "= ANY(?)" on PostgreSQL, a TABLE(..) subquery on H2),
+     * so the statement doesn't depend on the list size at all. Only supported by some adapters (PostgreSQL,
+     * H2), others use {@link #PADDED} lists instead. Lists of values that can't be passed in a JDBC array (e.g. objects with compound ids) are
+     * padded as well.
+     */
+    ARRAY
+}
@@ -20,6 +20,7 @@
 package org.apache.cayenne.dba;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.Node;
 import org.apache.cayenne.access.translator.ParameterBinding;
@@ -28,6 +29,7 @@ import org.apache.cayenne.access.translator.ejbql.EJBQLTranslatorFactory;
 import org.apache.cayenne.access.translator.ejbql.JdbcEJBQLTranslatorFactory;
 import org.apache.cayenne.access.translator.select.SelectTranslator;
 import org.apache.cayenne.access.translator.select.DefaultSelectTranslator;
+import org.apache.cayenne.access.types.ArrayParameterType;
 import org.apache.cayenne.access.types.ExtendedType;
 import org.apache.cayenne.access.types.ExtendedTypeFactory;
 import org.apache.cayenne.access.types.ExtendedTypeMap;
@@ -58,6 +60,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
@@ -74,6 +77,41 @@ public class JdbcAdapter implements DbAdapter {
     protected boolean supportsBatchUpdates;
     protected boolean supportsUniqueConstraints;
     protected boolean supportsGeneratedKeys;
+
+    /**
+     * @since 4.2
+     */
+    protected boolean supportsBatchGeneratedKeys;
+
+    /**
+     * @since 4.2
+     */
+    protected int maxBatchSize;
+
+    /**
+     * @since 4.2
+     */
+    protected boolean supportsMultiRowInsert;
+
+    /**
+     * @since 4.2
+     */
+    protected int multiRowInsertSize;
+
+    /**
+     * @since 4.2
+     */
+    protected boolean supportsArrayInList;
+
+    /**
+     * @since 4.2
+     */
+    protected InListStrategy inListStrategy;
+
+    /**
+     * @since 4.2
+     */
+    protected int streamingFetchSize;
     protected EJBQLTranslatorFactory ejbqlTranslatorFactory;
 
     protected ResourceLocator resourceLocator;
@@ -103,6 +141,10 @@ public class JdbcAdapter implements DbAdapter {
         this.setSupportsBatchUpdates(false);
         this.setSupportsUniqueConstraints(true);
         this.caseInsensitiveCollations = runtimeProperties.getBoolean(Constants.CI_PROPERTY, false);
+        this.maxBatchSize = runtimeProperties.getInt(Constants.MAX_BATCH_SIZE_PROPERTY, 0);
+        this.multiRowInsertSize = runtimeProperties.getInt(Constants.MULTI_ROW_INSERT_SIZE_PROPERTY, 0);
+        this.inListStrategy = inListStrategy(runtimeProperties.get(Constants.IN_LIST_STRATEGY_PROPERTY));
+        this.streamingFetchSize = runtimeProperties.getInt(Constants.STREAMING_FETCH_SIZE_PROPERTY, 0);
         this.resourceLocator = resourceLocator;
 
         this.pkGenerator = createPkGenerator();
@@ -180,6 +222,7 @@ public class JdbcAdapter implements DbAdapter {
         for (ExtendedType type : defaultExtendedTypes) {
             extendedTypes.registerType(type);
         }
+        extendedTypes.registerType(new ArrayParameterType());
 
         // loading adapter specific extended types
         configureExtendedTypes(extendedTypes);
@@ -587,6 +630,129 @@ public class JdbcAdapter implements DbAdapter {
         this.supportsGeneratedKeys = flag;
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    public boolean supportsBatchGeneratedKeys() {
+        return supportsGeneratedKeys && supportsBatchGeneratedKeys;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setSupportsBatchGeneratedKeys(boolean flag) {
+        this.supportsBatchGeneratedKeys = flag;
+    }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns true if the database understands INSERT statements with multiple VALUES
+     * rows.
+     *
+     * @since 4.2
+     */
+    public boolean supportsMultiRowInsert() {
+        return supportsMultiRowInsert;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setSupportsMultiRowInsert(boolean flag) {
+        this.supportsMultiRowInsert = flag;
+    }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    public int getMultiRowInsertSize() {
+        return supportsMultiRowInsert ? multiRowInsertSize : 0;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setMultiRowInsertSize(int multiRowInsertSize) {
+        this.multiRowInsertSize = multiRowInsertSize;
+    }
+
+    private static InListStrategy inListStrategy(String name) {
+        try {
+            return name != null ? InListStrategy.valueOf(name.trim().toUpperCase()) : InListStrategy.EXPANDED;
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid IN list strategy: %s", e, name);
+        }
+    }
+
+    /**
+     * Returns true if the database can match a value against a JDBC array parameter, i.e. supports
+     * {@link InListStrategy#ARRAY}.
+     *
+     * @since 4.2
+     */
+    public boolean supportsArrayInList() {
+        return supportsArrayInList;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setSupportsArrayInList(boolean flag) {
+        this.supportsArrayInList = flag;
+    }
+
+    /**
+     * Returns configured IN list strategy. {@link InListStrategy#ARRAY} is replaced with
+     * {@link InListStrategy#PADDED} if the database doesn't support array parameters.
+     *
+     * @since 4.2
+     */
+    @Override
+    public InListStrategy getInListStrategy() {
+        if (inListStrategy == InListStrategy.ARRAY && !supportsArrayInList) {
+            return InListStrategy.PADDED;
+        }
+        return inListStrategy;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setInListStrategy(InListStrategy inListStrategy) {
+        this.inListStrategy = Objects.requireNonNull(inListStrategy);
+    }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    public int getStreamingFetchSize() {
+        return streamingFetchSize;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setStreamingFetchSize(int streamingFetchSize) {
+        this.streamingFetchSize = streamingFetchSize;
+    }
+
     /**
      * Returns a translator factory for EJBQL to SQL translation. The factory is
      * normally initialized in constructor by calling
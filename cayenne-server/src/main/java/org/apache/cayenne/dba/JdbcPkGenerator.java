@@ -25,11 +25,17 @@ import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.DbKeyGenerator;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.tx.BaseTransaction;
+import org.apache.cayenne.util.DaemonThreadFactory;
 import org.apache.cayenne.util.IDUtil;
 
 import java.sql.Connection;
@@ -44,6 +50,11 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Default primary key generator implementation. Uses a lookup table named
@@ -59,6 +70,24 @@ public class JdbcPkGenerator implements PkGenerator {
     protected int pkCacheSize = DEFAULT_PK_CACHE_SIZE;
     protected long pkStartValue = DEFAULT_PK_START_VALUE;
 
+    /**
+     * @since 4.2
+     */
+    protected int maxPkCacheSize;
+
+    /**
+     * @since 4.2
+     */
+    protected boolean pkCachePrefetch;
+
+    // not set if the generator is created outside of DI
+    @Inject
+    private RuntimeProperties runtimeProperties;
+
+    private final ConcurrentMap<String, PkBlockState> pkBlockStates = new ConcurrentHashMap<>();
+    private volatile ExecutorService prefetchExecutor;
+    private volatile boolean shutdown;
+
     /**
      * @since 4.1
      */
@@ -149,7 +178,16 @@ public class JdbcPkGenerator implements PkGenerator {
     }
 
     protected String pkUpdateString(String entName) {
-        return "UPDATE AUTO_PK_SUPPORT SET NEXT_ID = NEXT_ID + " + pkCacheSize + " WHERE TABLE_NAME = '" + entName + '\'';
+        return pkUpdateString(entName, pkCacheSize);
+    }
+
+    /**
+     * Returns SQL that reserves a block of keys of a given size.
+     *
+     * @since 4.2
+     */
+    protected String pkUpdateString(String entName, long blockSize) {
+        return "UPDATE AUTO_PK_SUPPORT SET NEXT_ID = NEXT_ID + " + blockSize + " WHERE TABLE_NAME = '" + entName + '\'';
     }
 
     protected String dropAutoPkString() {
@@ -205,31 +243,26 @@ public class JdbcPkGenerator implements PkGenerator {
                 return IDUtil.pseudoUniqueSecureByteSequence(pk.getMaxLength());
         }
 
-        DbKeyGenerator pkGenerator = entity.getPrimaryKeyGenerator();
-        long cacheSize;
-        if (pkGenerator != null && pkGenerator.getKeyCacheSize() != null) {
-            cacheSize = pkGenerator.getKeyCacheSize();
-        } else {
-            cacheSize = getPkCacheSize();
-        }
+        long cacheSize = cacheSize(entity);
 
         Long value;
 
         // if no caching, always generate fresh
         if (cacheSize <= 1) {
             value = longPkFromDatabase(node, entity);
-        } else {
-            Queue<Long> pks = pkCache.get(entity.getName());
-
-            if (pks == null) {
-                // created exhausted LongPkRange
-                pks = new ConcurrentLinkedQueue<>();
-                Queue<Long> previousPks = pkCache.putIfAbsent(entity.getName(), pks);
-                if (previousPks != null) {
-                    pks = previousPks;
-                }
+        } else if (supportsPkBlocks()) {
+            Queue<Long> pks = pkQueue(entity);
+            value = pks.poll();
+            if (value == null) {
+                long blockSize = nextBlockSize(entity, cacheSize);
+                value = longPkBlockFromDatabase(node, entity, blockSize);
+                addBlock(entity, pks, value + 1, blockSize - 1);
             }
 
+            prefetchIfNeeded(node, entity, pks, value);
+        } else {
+            Queue<Long> pks = pkQueue(entity);
+
             value = pks.poll();
             if (value == null) {
                 value = longPkFromDatabase(node, entity);
@@ -239,11 +272,205 @@ public class JdbcPkGenerator implements PkGenerator {
             }
         }
 
+        return pkValue(pk, value);
+    }
+
+    /**
+     * Generates a given number of keys for specified PK attribute. Keys not available in
+     * cache are allocated from the database as a single block if the generator
+     * {@link #supportsPkBlocks() supports it}, or otherwise as a number of cache-sized
+     * blocks fetched via {@link #longPksFromDatabase(DataNode, DbEntity, int)}.
+     *
+     * @since 4.2
+     */
+    @Override
+    public List<Object> generatePks(DataNode node, DbAttribute pk, int count) throws Exception {
+
+        DbEntity entity = pk.getEntity();
+        long cacheSize = cacheSize(entity);
+        if (count <= 1 || !TypesMapping.isNumeric(pk.getType()) || cacheSize <= 1) {
+            return PkGenerator.super.generatePks(node, pk, count);
+        }
+
+        List<Object> values = new ArrayList<>(count);
+        Queue<Long> pks = pkQueue(entity);
+
+        Long value = null;
+        while (values.size() < count && (value = pks.poll()) != null) {
+            values.add(pkValue(pk, value));
+        }
+
+        int missing = count - values.size();
+        if (missing > 0 && !supportsPkBlocks()) {
+
+            // each value fetched from the database starts a block of "cacheSize" keys
+            int blocks = (int) ((missing + cacheSize - 1) / cacheSize);
+            for (long first : longPksFromDatabase(node, entity, blocks)) {
+                for (long i = first; i < first + cacheSize; i++) {
+                    if (values.size() < count) {
+                        values.add(pkValue(pk, i));
+                    } else {
+                        pks.add(i);
+                    }
+                }
+            }
+
+            return values;
+        }
+
+        if (missing > 0) {
+            long blockSize = Math.max(missing, nextBlockSize(entity, cacheSize(entity)));
+            long first = longPkBlockFromDatabase(node, entity, blockSize);
+            for (long i = first; i < first + missing; i++) {
+                values.add(pkValue(pk, i));
+            }
+
+            value = first + missing - 1;
+            addBlock(entity, pks, first + missing, blockSize - missing);
+        }
+
+        prefetchIfNeeded(node, entity, pks, value);
+        return values;
+    }
+
+    /**
+     * Returns the number of keys cached per database round trip for the entity.
+     *
+     * @since 4.2
+     */
+    protected long cacheSize(DbEntity entity) {
+        DbKeyGenerator pkGenerator = entity.getPrimaryKeyGenerator();
+        return pkGenerator != null && pkGenerator.getKeyCacheSize() != null
+                ? pkGenerator.getKeyCacheSize()
+                : getPkCacheSize();
+    }
+
+    private Queue<Long> pkQueue(DbEntity entity) {
+        Queue<Long> pks = pkCache.get(entity.getName());
+
+        if (pks == null) {
+            // created exhausted LongPkRange
+            pks = new ConcurrentLinkedQueue<>();
+            Queue<Long> previousPks = pkCache.putIfAbsent(entity.getName(), pks);
+            if (previousPks != null) {
+                pks = previousPks;
+            }
+        }
+
+        return pks;
+    }
+
+    private Object pkValue(DbAttribute pk, long value) {
         if (pk.getType() == Types.BIGINT) {
             return value;
         } else {
             // leaving it up to the user to ensure that PK does not exceed max int...
-            return value.intValue();
+            return (int) value;
+        }
+    }
+
+    private PkBlockState blockState(DbEntity entity) {
+        return pkBlockStates.computeIfAbsent(entity.getName(), n -> new PkBlockState());
+    }
+
+    /**
+     * Returns the size of the next block of keys to allocate for the entity, growing it
+     * up to "maxPkCacheSize" when blocks are consumed fast.
+     */
+    private long nextBlockSize(DbEntity entity, long cacheSize) {
+        return maxPkCacheSize > cacheSize
+                ? blockState(entity).nextBlockSize(cacheSize, maxPkCacheSize)
+                : cacheSize;
+    }
+
+    private void addBlock(DbEntity entity, Queue<Long> pks, long first, long size) {
+        for (long i = first; i < first + size; i++) {
+            pks.add(i);
+        }
+
+        // start prefetching the next block when a quarter of this one is left
+        if (pkCachePrefetch && size > 0) {
+            blockState(entity).prefetchMark = first + size - Math.max(1, size / 4);
+        }
+    }
+
+    private void prefetchIfNeeded(DataNode node, DbEntity entity, Queue<Long> pks, Long lastValue) {
+        if (!pkCachePrefetch || lastValue == null || shutdown) {
+            return;
+        }
+
+        PkBlockState state = blockState(entity);
+        if (lastValue < state.prefetchMark || !state.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+
+        ExecutorService executor = prefetchExecutor();
+        if (executor == null) {
+            state.prefetching.set(false);
+            return;
+        }
+
+        state.prefetchMark = Long.MAX_VALUE;
+        Runnable prefetch = () -> {
+
+            // allocate keys outside of the transaction of the thread that triggered prefetch
+            BaseTransaction.bindThreadTransaction(null);
+            try {
+                long blockSize = nextBlockSize(entity, cacheSize(entity));
+                long first = longPkBlockFromDatabase(node, entity, blockSize);
+                addBlock(entity, pks, first, blockSize);
+            } catch (Exception e) {
+                // the next generatePk call will allocate keys synchronously
+                adapter.getJdbcEventLogger().logQueryError(e);
+            } finally {
+                state.prefetching.set(false);
+            }
+        };
+
+        try {
+            executor.execute(prefetch);
+        } catch (RejectedExecutionException e) {
+            // shut down concurrently, keys will be allocated synchronously
+            state.prefetching.set(false);
+        }
+    }
+
+    // returns null once the generator is shut down
+    private ExecutorService prefetchExecutor() {
+        if (prefetchExecutor == null) {
+            synchronized (this) {
+                if (prefetchExecutor == null) {
+                    if (shutdown) {
+                        return null;
+                    }
+
+                    boolean virtual = runtimeProperties != null
+                            && runtimeProperties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false);
+                    prefetchExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("cayenne-pk-prefetch-", virtual));
+                }
+            }
+        }
+
+        return prefetchExecutor;
+    }
+
+    /**
+     * Stops the thread pool used to prefetch key blocks in the background. Called by DI
+     * when the runtime is shut down; prefetching is disabled afterwards.
+     *
+     * @since 4.2
+     */
+    @BeforeScopeEnd
+    public void shutdown() {
+        ExecutorService executor;
+        synchronized (this) {
+            shutdown = true;
+            executor = prefetchExecutor;
+            prefetchExecutor = null;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
         }
     }
 
@@ -265,13 +492,39 @@ public class JdbcPkGenerator implements PkGenerator {
      * @since 3.0
      */
     protected long longPkFromDatabase(DataNode node, DbEntity entity) throws Exception {
+        return longPkBlockFromDatabase(node, entity, pkCacheSize);
+    }
+
+    /**
+     * Performs primary key generation a given number of times, returning the first key of
+     * each generated range. Default implementation calls
+     * {@link #longPkFromDatabase(DataNode, DbEntity)} for each range, subclasses may
+     * override it to fetch all the ranges in a single query.
+     *
+     * @since 4.2
+     */
+    protected List<Long> longPksFromDatabase(DataNode node, DbEntity entity, int count) throws Exception {
+        List<Long> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(longPkFromDatabase(node, entity));
+        }
+        return values;
+    }
+
+    /**
+     * Reserves a block of keys of a given size in the database, returning the first key of
+     * the block. Only called if {@link #supportsPkBlocks()} returns true.
+     *
+     * @since 4.2
+     */
+    protected long longPkBlockFromDatabase(DataNode node, DbEntity entity, long blockSize) throws Exception {
         String select = "SELECT #result('NEXT_ID' 'long' 'NEXT_ID') FROM AUTO_PK_SUPPORT "
                 + "WHERE TABLE_NAME = '" + entity.getName() + '\'';
 
         // run queries via DataNode to utilize its transactional behavior
         List<Query> queries = new ArrayList<>(2);
         queries.add(new SQLTemplate(entity, select));
-        queries.add(new SQLTemplate(entity, pkUpdateString(entity.getName())));
+        queries.add(new SQLTemplate(entity, pkUpdateString(entity.getName(), blockSize)));
 
         PkRetrieveProcessor observer = new PkRetrieveProcessor(entity.getName());
         node.performQueries(queries, observer);
@@ -303,6 +556,53 @@ public class JdbcPkGenerator implements PkGenerator {
         this.pkCacheSize = (pkCacheSize < 1) ? 1 : pkCacheSize;
     }
 
+    /**
+     * Returns true if this generator can reserve blocks of keys of arbitrary size, which
+     * is the case for generators based on the "AUTO_PK_SUPPORT" table. Generators relying
+     * on database sequences with a fixed increment should return false.
+     *
+     * @since 4.2
+     */
+    protected boolean supportsPkBlocks() {
+        return true;
+    }
+
+    /**
+     * Returns the max size of the entity primary key cache. If it is greater than
+     * "pkCacheSize", the size of blocks of keys allocated from the database adapts to
+     * the rate of key generation, doubling every time a block is consumed within a
+     * second, up to this value. Default is 0, i.e. the block size is fixed.
+     *
+     * @since 4.2
+     */
+    public int getMaxPkCacheSize() {
+        return maxPkCacheSize;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setMaxPkCacheSize(int maxPkCacheSize) {
+        this.maxPkCacheSize = maxPkCacheSize;
+    }
+
+    /**
+     * Returns whether the next block of keys is allocated in background when the cached
+     * block of an entity is running low. Default is false.
+     *
+     * @since 4.2
+     */
+    public boolean isPkCachePrefetch() {
+        return pkCachePrefetch;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public void setPkCachePrefetch(boolean pkCachePrefetch) {
+        this.pkCachePrefetch = pkCachePrefetch;
+    }
+
     long getPkStartValue() {
         return pkStartValue;
     }
@@ -313,6 +613,37 @@ public class JdbcPkGenerator implements PkGenerator {
 
     public void reset() {
         pkCache.clear();
+        pkBlockStates.clear();
+    }
+
+    /**
+     * Tracks the block size and background prefetch of a single entity.
+     */
+    static final class PkBlockState {
+
+        static final long FAST_REFILL_NANOS = TimeUnit.SECONDS.toNanos(1);
+        static final long SLOW_REFILL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        final AtomicBoolean prefetching = new AtomicBoolean();
+        volatile long prefetchMark = Long.MAX_VALUE;
+
+        private long blockSize;
+        private long lastRefill;
+
+        synchronized long nextBlockSize(long minSize, long maxSize) {
+            long now = System.nanoTime();
+
+            if (blockSize < minSize) {
+                blockSize = minSize;
+            } else if (now - lastRefill < FAST_REFILL_NANOS) {
+                blockSize = Math.min(blockSize * 2, maxSize);
+            } else if (now - lastRefill > SLOW_REFILL_NANOS) {
+                blockSize = Math.max(blockSize / 2, minSize);
+            }
+
+            lastRefill = now;
+            return blockSize;
+        }
     }
 
     /**
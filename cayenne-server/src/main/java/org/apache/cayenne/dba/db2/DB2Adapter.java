@@ -152,6 +152,15 @@ public class DB2Adapter extends JdbcAdapter {
         return new DB2SQLTreeProcessor();
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    public boolean usesStringLengthInSql() {
+        // string values are cast to VARCHAR of the value length, see DerbyValueNode
+        return true;
+    }
+
     /**
      * @since 4.0
      */
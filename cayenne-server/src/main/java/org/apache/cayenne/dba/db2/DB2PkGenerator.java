@@ -56,6 +56,15 @@ public class DB2PkGenerator extends OraclePkGenerator {
         return "SELECT NEXTVAL FOR " + pkGeneratingSequenceName + " FROM SYSIBM.SYSDUMMY1";
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected String selectNextValsQuery(String pkGeneratingSequenceName, int count) {
+        return "WITH ROWNUMS (N) AS (SELECT 1 FROM SYSIBM.SYSDUMMY1 UNION ALL SELECT N + 1 FROM ROWNUMS WHERE N < "
+                + count + ") SELECT NEXTVAL FOR " + pkGeneratingSequenceName + " FROM ROWNUMS";
+    }
+
     @Override
     protected String selectAllSequencesQuery() {
         return "SELECT SEQNAME FROM SYSCAT.SEQUENCES WHERE SEQNAME LIKE '" + _SEQUENCE_PREFIX + "%'";
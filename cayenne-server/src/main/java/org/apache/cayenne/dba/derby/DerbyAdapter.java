@@ -177,6 +177,15 @@ public class DerbyAdapter extends JdbcAdapter {
         return new DerbySQLTreeProcessor();
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    public boolean usesStringLengthInSql() {
+        // string values are cast to VARCHAR of the value length, see DerbyValueNode
+        return true;
+    }
+
     /**
      * @since 3.1
      */
@@ -52,6 +52,14 @@ public class DerbyPkGenerator extends OraclePkGenerator {
         return "VALUES (NEXT VALUE FOR " + pkGeneratingSequenceName + ")";
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected String selectNextValsQuery(String sequenceName, int count) {
+        return null;
+    }
+
     @Override
     protected String selectAllSequencesQuery() {
         return "SELECT SEQUENCENAME FROM SYS.SYSSEQUENCES";
@@ -117,6 +117,15 @@ public class FirebirdAdapter extends JdbcAdapter {
         return new FirebirdSQLTreeProcessor();
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    public boolean usesStringLengthInSql() {
+        // string values are cast to VARCHAR of the value length
+        return true;
+    }
+
     @Override
     public EJBQLTranslatorFactory getEjbqlTranslatorFactory() {
         return new FirebirdEJBQLTranslatorFactory();
@@ -143,4 +143,12 @@ public class FrontBasePkGenerator extends JdbcPkGenerator {
         node.performQueries(Collections.singleton((Query) query), observer);
         return pkHolder[0];
     }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected boolean supportsPkBlocks() {
+        return false;
+    }
 }
@@ -60,6 +60,8 @@ public class H2Adapter extends JdbcAdapter {
             @Inject ValueObjectTypeRegistry valueObjectTypeRegistry) {
         super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator, valueObjectTypeRegistry);
         setSupportsGeneratedKeys(true);
+        setSupportsMultiRowInsert(true);
+        setSupportsArrayInList(true);
     }
 
     @Override
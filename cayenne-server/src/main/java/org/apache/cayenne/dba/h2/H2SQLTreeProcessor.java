@@ -19,10 +19,18 @@
 
 package org.apache.cayenne.dba.h2;
 
+import java.sql.Types;
+
+import org.apache.cayenne.access.sqlbuilder.sqltree.InNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.LimitOffsetNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.Node;
 import org.apache.cayenne.access.sqlbuilder.sqltree.OffsetFetchNextNode;
+import org.apache.cayenne.access.sqlbuilder.sqltree.ValueNode;
 import org.apache.cayenne.access.translator.select.BaseSQLTreeProcessor;
+import org.apache.cayenne.access.types.ArrayParameter;
+import org.apache.cayenne.dba.TypesMapping;
+import org.apache.cayenne.dba.h2.sqltree.H2ArrayInNode;
+import org.apache.cayenne.map.DbAttribute;
 
 /**
  * @since 4.2
@@ -34,4 +42,47 @@ public class H2SQLTreeProcessor extends BaseSQLTreeProcessor {
         replaceChild(parent, index, new OffsetFetchNextNode(child), false);
     }
 
+    @Override
+    protected void onInNode(Node parent, InNode child, int index) {
+        if (!child.isArray()) {
+            return;
+        }
+
+        ValueNode values = (ValueNode) child.getChild(1);
+        String elementType = arrayElementType(values.getAttribute());
+        if (elementType != null) {
+            replaceChild(parent, index, new H2ArrayInNode(child.isNot(), elementType));
+            return;
+        }
+
+        // can't declare the array type, falling back to a regular IN list
+        InNode replacement = new InNode(child.isNot());
+        replacement.addChild(child.getChild(0));
+        replacement.addChild(new ValueNode(((ArrayParameter) values.getValue()).getElements(), true, values.getAttribute()));
+        replaceChild(parent, index, replacement, false);
+    }
+
+    /**
+     * Returns SQL type of the array elements matched against the column, or null if it can't be declared
+     * without changing the values.
+     */
+    private static String arrayElementType(DbAttribute attribute) {
+        int type = attribute.getType();
+
+        // no length, so that longer values are not truncated to match
+        if (TypesMapping.isCharacter(type)) {
+            return "VARCHAR";
+        }
+
+        if (type == Types.DECIMAL || type == Types.NUMERIC) {
+            // scale must be the same as the column's
+            if (attribute.getMaxLength() <= 0 || attribute.getScale() < 0) {
+                return null;
+            }
+            return "DECIMAL(" + attribute.getMaxLength() + ", " + attribute.getScale() + ")";
+        }
+
+        return TypesMapping.getSqlNameByType(type);
+    }
+
 }
@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.dba.h2.sqltree;
+
+import org.apache.cayenne.access.sqlbuilder.QuotingAppendable;
+import org.apache.cayenne.access.sqlbuilder.sqltree.InNode;
+import org.apache.cayenne.access.sqlbuilder.sqltree.Node;
+
+/**
+ * IN clause matched against a single array parameter. H2 doesn't support "= ANY(?)" with an array, so
+ * the array is unpacked into a subquery with the TABLE() function, i.e.
+ * "IN (SELECT CAST(X AS type) FROM TABLE(X type = ?))".
+ *
+ * @since 4.2
+ */
+public class H2ArrayInNode extends InNode {
+
+    private final String elementType;
+
+    /**
+     * @param elementType SQL type of the array elements, should match the type of the column
+     */
+    public H2ArrayInNode(boolean not, String elementType) {
+        super(not, true);
+        this.elementType = elementType;
+    }
+
+    @Override
+    public void appendChildrenSeparator(QuotingAppendable buffer, int childInd) {
+        if (childInd == 0) {
+            if (isNot()) {
+                buffer.append(" NOT");
+            }
+            // the cast is needed as H2 compares DECIMAL values of a different scale as not equal
+            buffer.append(" IN (SELECT CAST(X AS ").append(elementType)
+                    .append(") FROM TABLE(X ").append(elementType).append(" =");
+        }
+    }
+
+    @Override
+    public void appendChildrenEnd(QuotingAppendable buffer) {
+        buffer.append("))");
+    }
+
+    @Override
+    public Node copy() {
+        return new H2ArrayInNode(isNot(), elementType);
+    }
+
+    public String getElementType() {
+        return elementType;
+    }
+}
@@ -46,6 +46,14 @@ public class IngresPkGenerator extends OraclePkGenerator {
         return "SELECT " + sequenceName + ".nextval";
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected String selectNextValsQuery(String sequenceName, int count) {
+        return null;
+    }
+
     @Override
     protected String selectAllSequencesQuery() {
         return "SELECT seq_name FROM iisequences WHERE seq_owner != 'DBA'";
@@ -99,6 +99,8 @@ public class MySQLAdapter extends JdbcAdapter {
 		setSupportsBatchUpdates(true);
 		setSupportsUniqueConstraints(true);
 		setSupportsGeneratedKeys(true);
+		setSupportsBatchGeneratedKeys(true);
+		setSupportsMultiRowInsert(true);
 	}
 
 	@Override
@@ -106,6 +108,19 @@ public class MySQLAdapter extends JdbcAdapter {
 		return new DefaultQuotingStrategy("`", "`");
 	}
 
+	/**
+	 * Switches the statement to the row-by-row streaming mode of MySQL Connector/J, the
+	 * only mode that doesn't read the whole result into memory unless "useCursorFetch=true"
+	 * is set on the connection URL. Requested fetch size is ignored. Note that while the
+	 * result is streamed, no other statements can be executed on the same connection.
+	 *
+	 * @since 4.2
+	 */
+	@Override
+	public void enableStreaming(PreparedStatement statement, int fetchSize) throws SQLException {
+		statement.setFetchSize(Integer.MIN_VALUE);
+	}
+
     /**
      * @since 4.2
      */
@@ -60,6 +60,16 @@ public class MySQLPkGenerator extends JdbcPkGenerator {
      */
     @Override
     protected long longPkFromDatabase(DataNode node, DbEntity entity) throws Exception {
+        return longPkBlockFromDatabase(node, entity, pkCacheSize);
+    }
+
+    /**
+     * Reserves a block of keys of a given size, locking the primary key lookup table.
+     *
+     * @since 4.2
+     */
+    @Override
+    protected long longPkBlockFromDatabase(DataNode node, DbEntity entity, long blockSize) throws Exception {
 
         // must work directly with JDBC connection, since we
         // must unlock the AUTO_PK_SUPPORT table in case of
@@ -86,7 +96,7 @@ public class MySQLPkGenerator extends JdbcPkGenerator {
 
             try (Statement st = con.createStatement()) {
                 try {
-                    pk = getLongPrimaryKey(st, entity.getName());
+                    pk = getLongPrimaryKey(st, entity.getName(), blockSize);
                     con.commit();
                 } catch (SQLException pkEx) {
                     try {
@@ -151,6 +161,13 @@ public class MySQLPkGenerator extends JdbcPkGenerator {
      * @since 3.0
      */
     protected long getLongPrimaryKey(Statement statement, String entityName) throws SQLException {
+        return getLongPrimaryKey(statement, entityName, pkCacheSize);
+    }
+
+    /**
+     * @since 4.2
+     */
+    protected long getLongPrimaryKey(Statement statement, String entityName, long blockSize) throws SQLException {
         // lock
         String lockString = "LOCK TABLES AUTO_PK_SUPPORT WRITE";
         adapter.getJdbcEventLogger().log(lockString);
@@ -172,7 +189,7 @@ public class MySQLPkGenerator extends JdbcPkGenerator {
         }
 
         // update
-        String updateString = super.pkUpdateString(entityName) + " AND NEXT_ID = " + pk;
+        String updateString = super.pkUpdateString(entityName, blockSize) + " AND NEXT_ID = " + pk;
         adapter.getJdbcEventLogger().log(updateString);
         int updated = statement.executeUpdate(updateString);
         // optimistic lock failure...
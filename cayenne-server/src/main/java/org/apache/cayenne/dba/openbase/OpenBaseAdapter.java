@@ -84,6 +84,15 @@ public class OpenBaseAdapter extends JdbcAdapter {
         return new OpenBaseSQLTreeProcessor();
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    public boolean usesStringLengthInSql() {
+        // case-sensitive LIKE patterns are rewritten per character
+        return true;
+    }
+
     @Override
     protected void configureExtendedTypes(ExtendedTypeMap map) {
         super.configureExtendedTypes(map);
@@ -286,4 +286,25 @@ public class OpenBasePkGenerator extends JdbcPkGenerator {
         // noop, no PK caching
     }
 
+    /**
+     * Generates keys one by one, as OpenBase does no PK caching.
+     *
+     * @since 4.2
+     */
+    @Override
+    public List<Object> generatePks(DataNode node, DbAttribute pk, int count) throws Exception {
+        List<Object> pks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pks.add(generatePk(node, pk));
+        }
+        return pks;
+    }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected boolean supportsPkBlocks() {
+        return false;
+    }
 }
@@ -145,6 +145,21 @@ public class OraclePkGenerator extends JdbcPkGenerator {
         return "SELECT " + pkGeneratingSequenceName + ".nextval FROM DUAL";
     }
 
+    /**
+     * Returns a query that selects the next value of a sequence a given number of times
+     * in a single statement, or null if such query is not supported. Executed SQL looks
+     * like this:
+     *
+     * <pre>
+     *   SELECT pk_table_name.nextval FROM DUAL CONNECT BY LEVEL &lt;= count
+     * </pre>
+     *
+     * @since 4.2
+     */
+    protected String selectNextValsQuery(String pkGeneratingSequenceName, int count) {
+        return "SELECT " + pkGeneratingSequenceName + ".nextval FROM DUAL CONNECT BY LEVEL <= " + count;
+    }
+
     protected String selectAllSequencesQuery() {
         return "SELECT LOWER(SEQUENCE_NAME) FROM ALL_SEQUENCES";
     }
@@ -162,14 +177,7 @@ public class OraclePkGenerator extends JdbcPkGenerator {
     @Override
     protected long longPkFromDatabase(DataNode node, DbEntity entity) throws Exception {
 
-        DbKeyGenerator pkGenerator = entity.getPrimaryKeyGenerator();
-        String pkGeneratingSequenceName;
-        if (pkGenerator != null && DbKeyGenerator.ORACLE_TYPE.equals(pkGenerator.getGeneratorType())
-                && pkGenerator.getGeneratorName() != null) {
-            pkGeneratingSequenceName = pkGenerator.getGeneratorName();
-        } else {
-            pkGeneratingSequenceName = sequenceName(entity);
-        }
+        String pkGeneratingSequenceName = pkGeneratingSequenceName(entity);
 
         try (Connection con = node.getDataSource().getConnection()) {
             try (Statement st = con.createStatement()) {
@@ -186,6 +194,50 @@ public class OraclePkGenerator extends JdbcPkGenerator {
         }
     }
 
+    /**
+     * Fetches a given number of sequence values with a single query if the database
+     * supports it.
+     *
+     * @since 4.2
+     */
+    @Override
+    protected List<Long> longPksFromDatabase(DataNode node, DbEntity entity, int count) throws Exception {
+
+        String sql = count > 1 ? selectNextValsQuery(pkGeneratingSequenceName(entity), count) : null;
+        if (sql == null) {
+            return super.longPksFromDatabase(node, entity, count);
+        }
+
+        try (Connection con = node.getDataSource().getConnection()) {
+            try (Statement st = con.createStatement()) {
+                adapter.getJdbcEventLogger().log(sql);
+
+                try (ResultSet rs = st.executeQuery(sql)) {
+                    List<Long> values = new ArrayList<>(count);
+                    while (rs.next()) {
+                        values.add(rs.getLong(1));
+                    }
+
+                    if (values.size() != count) {
+                        throw new CayenneRuntimeException("Expected %d sequence values for DbEntity %s, got %d",
+                                count, entity.getName(), values.size());
+                    }
+                    return values;
+                }
+            }
+        }
+    }
+
+    private String pkGeneratingSequenceName(DbEntity entity) {
+        DbKeyGenerator pkGenerator = entity.getPrimaryKeyGenerator();
+        if (pkGenerator != null && DbKeyGenerator.ORACLE_TYPE.equals(pkGenerator.getGeneratorType())
+                && pkGenerator.getGeneratorName() != null) {
+            return pkGenerator.getGeneratorName();
+        } else {
+            return sequenceName(entity);
+        }
+    }
+
     protected int pkCacheSize(DbEntity entity) {
         // use custom generator if possible
         DbKeyGenerator keyGenerator = entity.getPrimaryKeyGenerator();
@@ -250,4 +302,12 @@ public class OraclePkGenerator extends JdbcPkGenerator {
             }
         }
     }
+
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected boolean supportsPkBlocks() {
+        return false;
+    }
 }
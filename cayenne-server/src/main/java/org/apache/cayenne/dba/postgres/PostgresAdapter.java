@@ -75,6 +75,9 @@ public class PostgresAdapter extends JdbcAdapter {
 		super(runtimeProperties, defaultExtendedTypes, userExtendedTypes, extendedTypeFactories, resourceLocator, valueObjectTypeRegistry);
 		setSupportsBatchUpdates(true);
 		setSupportsGeneratedKeys(true);
+		setSupportsBatchGeneratedKeys(true);
+		setSupportsMultiRowInsert(true);
+		setSupportsArrayInList(true);
 	}
 
     /**
@@ -267,4 +270,21 @@ public class PostgresAdapter extends JdbcAdapter {
 		return false;
 	}
 
+	/**
+	 * Sets the fetch size of the statement. Note that PostgreSQL driver only reads rows
+	 * through a cursor when the connection is not in auto-commit mode. This is the case for
+	 * iterated queries run in a Cayenne transaction, while with externally managed
+	 * transactions the whole result is still loaded into memory.
+	 *
+	 * @since 4.2
+	 */
+	@Override
+	public void enableStreaming(PreparedStatement statement, int fetchSize) throws SQLException {
+		statement.setFetchSize(fetchSize);
+
+		if (statement.getConnection().getAutoCommit()) {
+			logger.log("*** Connection is in auto-commit mode, iterated query results will not be streamed.");
+		}
+	}
+
 }
@@ -53,6 +53,14 @@ public class PostgresPkGenerator extends OraclePkGenerator {
         return "SELECT nextval('" + sequenceName + "')";
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected String selectNextValsQuery(String sequenceName, int count) {
+        return "SELECT nextval('" + sequenceName + "') FROM generate_series(1, " + count + ")";
+    }
+
     @Override
     protected String selectAllSequencesQuery() {
         return "SELECT relname FROM pg_class WHERE relkind='S'";
@@ -116,6 +116,14 @@ public class SQLServerPkGenerator extends OraclePkGenerator {
         }
     }
 
+    /**
+     * @since 4.2
+     */
+    @Override
+    protected String selectNextValsQuery(String sequenceName, int count) {
+        return null;
+    }
+
     @Override
     protected String selectAllSequencesQuery() {
         return "SELECT seq.name"
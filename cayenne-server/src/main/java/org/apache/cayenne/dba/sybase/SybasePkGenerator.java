@@ -207,4 +207,11 @@ public class SybasePkGenerator extends JdbcPkGenerator {
 		return "if exists (SELECT * FROM sysobjects WHERE name = 'auto_pk_for_table') BEGIN DROP PROCEDURE auto_pk_for_table END";
 	}
 
+	/**
+	 * @since 4.2
+	 */
+	@Override
+	protected boolean supportsPkBlocks() {
+		return false;
+	}
 }
@@ -20,33 +20,82 @@ package org.apache.cayenne.event;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.util.DaemonThreadFactory;
 import org.apache.cayenne.util.Invocation;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A default implementation of {@link EventManager}.
+ * <p>
+ * Non-blocking events are placed in a lock-free multi-producer multi-consumer queue, and
+ * dispatch threads park when the queue is empty, so posting threads never contend on a
+ * shared monitor. The queue is unbounded by default. When a capacity is set, an
+ * {@link EventQueueOverflowPolicy} defines what happens to the events posted to a full queue.
  * 
  * @since 3.1
  */
 public class DefaultEventManager implements EventManager {
 
-    private static final int DEFAULT_DISPATCH_THREAD_COUNT = 5;
+    /**
+     * @since 4.2
+     */
+    public static final int DEFAULT_DISPATCH_THREAD_COUNT = 5;
+
+    // dispatch threads wake up occasionally to check whether EM has been stopped
+    private static final long IDLE_PARK_NANOS = TimeUnit.MINUTES.toNanos(3);
+
+    // producers waiting for space in a full queue re-check it at least this often
+    private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // marks dispatch threads, which must never wait for a full queue
+    private static final ThreadLocal<Boolean> DISPATCHING = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
     // keeps weak references to subjects
     protected final Map<EventSubject, DispatchQueue> subjects;
-    protected final List<Dispatch> eventQueue;
+
+    /**
+     * @since 4.2 a lock-free queue instead of a synchronized list
+     */
+    protected final Queue<Dispatch> eventQueue;
     protected final boolean singleThread;
+    /**
+     * @deprecated since 4.2 {@link DispatchThread} is a dispatch loop run by a thread
+     *             from {@link #workerThreads}, not a Thread itself.
+     */
+    @Deprecated
     protected final List<DispatchThread> dispatchThreads;
+    /**
+     * @since 4.2 a list of threads running {@link DispatchThread} loops, which may be
+     *        virtual threads
+     */
+    protected final List<Thread> workerThreads;
 
     protected volatile boolean stopped;
 
+    private final int queueCapacity;
+    private final EventQueueOverflowPolicy overflowPolicy;
+    private final AtomicInteger queueSize;
+    private final Queue<Thread> idleDispatchThreads;
+    private final Queue<Thread> blockedProducers;
+
+    private final LongAdder dispatchCount;
+    private final LongAdder dispatchLatencyNanos;
+    private final AtomicLong maxDispatchLatencyNanos;
+    private final LongAdder rejectedCount;
+
     /**
      * Creates a multithreaded EventManager using default thread count.
      */
@@ -60,23 +109,74 @@ public class DefaultEventManager implements EventManager {
      * less.
      */
     public DefaultEventManager(int dispatchThreadCount) {
+        this(dispatchThreadCount, 0, EventQueueOverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates an EventManager starting the specified number of threads for multithreaded
+     * dispatching, with a bounded queue of non-blocking events.
+     *
+     * @param dispatchThreadCount number of dispatch threads. Zero or less creates a
+     *            single-threaded EventManager.
+     * @param queueCapacity maximum number of queued events. Zero or less means the queue is
+     *            unbounded.
+     * @param overflowPolicy what to do with the events posted when the queue is full.
+     * @since 4.2
+     */
+    public DefaultEventManager(int dispatchThreadCount, int queueCapacity, EventQueueOverflowPolicy overflowPolicy) {
+        this(dispatchThreadCount, queueCapacity, overflowPolicy, false);
+    }
+
+    /**
+     * Creates an EventManager starting the specified number of threads for multithreaded
+     * dispatching, with a bounded queue of non-blocking events.
+     *
+     * @param dispatchThreadCount number of dispatch threads. Zero or less creates a
+     *            single-threaded EventManager.
+     * @param queueCapacity maximum number of queued events. Zero or less means the queue is
+     *            unbounded.
+     * @param overflowPolicy what to do with the events posted when the queue is full.
+     * @param virtualThreads whether dispatch threads should be virtual threads, if the JVM
+     *            supports them.
+     * @since 4.2
+     */
+    public DefaultEventManager(int dispatchThreadCount, int queueCapacity, EventQueueOverflowPolicy overflowPolicy,
+            boolean virtualThreads) {
+
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy");
+        }
+
         this.subjects = Collections.synchronizedMap(new WeakHashMap<>());
-        this.eventQueue = Collections.synchronizedList(new LinkedList<>());
+        this.eventQueue = new ConcurrentLinkedQueue<>();
         this.singleThread = dispatchThreadCount <= 0;
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : 0;
+        this.overflowPolicy = overflowPolicy;
+        this.queueSize = new AtomicInteger();
+        this.idleDispatchThreads = new ConcurrentLinkedQueue<>();
+        this.blockedProducers = new ConcurrentLinkedQueue<>();
+        this.dispatchCount = new LongAdder();
+        this.dispatchLatencyNanos = new LongAdder();
+        this.maxDispatchLatencyNanos = new AtomicLong();
+        this.rejectedCount = new LongAdder();
 
         if (!singleThread) {
             dispatchThreads = new ArrayList<>(dispatchThreadCount);
+            workerThreads = new ArrayList<>(dispatchThreadCount);
 
             String prefix = "cayenne-event-";
 
             // start dispatch threads
             for (int i = 0; i < dispatchThreadCount; i++) {
-                DispatchThread thread = new DispatchThread(prefix + i);
-                dispatchThreads.add(thread);
+                DispatchThread loop = new DispatchThread();
+                Thread thread = DaemonThreadFactory.newThread(prefix + i, virtualThreads, loop);
+                dispatchThreads.add(loop);
+                workerThreads.add(thread);
                 thread.start();
             }
         } else {
             dispatchThreads = Collections.emptyList();
+            workerThreads = Collections.emptyList();
         }
     }
 
@@ -113,14 +213,87 @@ public class DefaultEventManager implements EventManager {
 
             this.stopped = true;
 
-            for (DispatchThread thread : dispatchThreads) {
+            for (Thread thread : workerThreads) {
                 thread.interrupt();
             }
 
+            workerThreads.clear();
             dispatchThreads.clear();
+
+            // release producers waiting on a full queue
+            Thread producer;
+            while ((producer = blockedProducers.poll()) != null) {
+                LockSupport.unpark(producer);
+            }
         }
     }
 
+    /**
+     * Returns the number of non-blocking events currently waiting in the dispatch queue.
+     *
+     * @since 4.2
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * Returns the maximum number of queued non-blocking events, or zero if the queue is
+     * unbounded.
+     *
+     * @since 4.2
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @since 4.2
+     */
+    public EventQueueOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of queued events taken for dispatch by the dispatch threads.
+     *
+     * @since 4.2
+     */
+    public long getDispatchCount() {
+        return dispatchCount.sum();
+    }
+
+    /**
+     * Returns the average time queued events waited in the queue before the dispatch thread
+     * picked them up.
+     *
+     * @since 4.2
+     */
+    public long getAverageDispatchLatency(TimeUnit unit) {
+        long count = dispatchCount.sum();
+        return count > 0 ? unit.convert(dispatchLatencyNanos.sum() / count, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * Returns the longest time a queued event waited in the queue before the dispatch thread
+     * picked it up.
+     *
+     * @since 4.2
+     */
+    public long getMaxDispatchLatency(TimeUnit unit) {
+        return unit.convert(maxDispatchLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full and the overflow
+     * policy is {@link EventQueueOverflowPolicy#DISCARD}.
+     *
+     * @since 4.2
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
     /**
      * Register an <code>EventListener</code> for events sent by any sender.
      * 
@@ -317,12 +490,135 @@ public class DefaultEventManager implements EventManager {
         }
 
         // add dispatch to the queue and return
-        synchronized (eventQueue) {
-            eventQueue.add(new Dispatch(event, subject));
-            eventQueue.notifyAll();
+        enqueue(new Dispatch(event, subject));
+    }
+
+    /**
+     * Adds dispatch to the queue, waking up an idle dispatch thread. If the queue is full,
+     * applies the overflow policy.
+     */
+    void enqueue(Dispatch dispatch) {
+
+        if (!reserveQueueSlot()) {
+            switch (overflowPolicy) {
+                case DISCARD:
+                    rejectedCount.increment();
+                    return;
+                case CALLER_RUNS:
+                    dispatch.fire();
+                    return;
+                case BLOCK:
+                default:
+                    // dispatch threads must never wait for the queue they are supposed to drain
+                    if (DISPATCHING.get()) {
+                        dispatch.fire();
+                        return;
+                    }
+
+                    if (!awaitQueueSlot()) {
+                        // stopped while waiting
+                        rejectedCount.increment();
+                        return;
+                    }
+            }
+        }
+
+        dispatch.enqueuedAt = System.nanoTime();
+        eventQueue.offer(dispatch);
+
+        Thread idle = idleDispatchThreads.poll();
+        if (idle != null) {
+            LockSupport.unpark(idle);
         }
     }
 
+    private boolean reserveQueueSlot() {
+        if (queueCapacity == 0) {
+            queueSize.incrementAndGet();
+            return true;
+        }
+
+        int size;
+        do {
+            size = queueSize.get();
+            if (size >= queueCapacity) {
+                return false;
+            }
+        } while (!queueSize.compareAndSet(size, size + 1));
+
+        return true;
+    }
+
+    private boolean awaitQueueSlot() {
+        Thread current = Thread.currentThread();
+
+        while (!stopped) {
+            blockedProducers.offer(current);
+
+            // re-check after registering to avoid missing a wake up
+            if (reserveQueueSlot()) {
+                blockedProducers.remove(current);
+                return true;
+            }
+
+            LockSupport.parkNanos(this, FULL_QUEUE_PARK_NANOS);
+            blockedProducers.remove(current);
+
+            if (reserveQueueSlot()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Takes the next dispatch from the queue, parking the current thread if the queue is
+     * empty. Returns null if nothing was dequeued, e.g. on timeout or shutdown.
+     */
+    Dispatch dequeue() {
+        Dispatch dispatch = eventQueue.poll();
+
+        if (dispatch == null) {
+            Thread current = Thread.currentThread();
+            idleDispatchThreads.offer(current);
+
+            // re-check after registering to avoid missing a wake up
+            dispatch = eventQueue.poll();
+            if (dispatch == null && !stopped) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+
+                // ignore interrupts, shutdown is signaled via "stopped" flag
+                Thread.interrupted();
+                dispatch = eventQueue.poll();
+            }
+
+            idleDispatchThreads.remove(current);
+        }
+
+        if (dispatch != null) {
+            queueSize.decrementAndGet();
+
+            Thread producer = blockedProducers.poll();
+            if (producer != null) {
+                LockSupport.unpark(producer);
+            }
+
+            long latency = System.nanoTime() - dispatch.enqueuedAt;
+            dispatchCount.increment();
+            dispatchLatencyNanos.add(latency);
+
+            long max;
+            while (latency > (max = maxDispatchLatencyNanos.get())) {
+                if (maxDispatchLatencyNanos.compareAndSet(max, latency)) {
+                    break;
+                }
+            }
+        }
+
+        return dispatch;
+    }
+
     private void dispatchEvent(Dispatch dispatch) {
         DispatchQueue dispatchQueue = dispatchQueueForSubject(dispatch.subject, false);
         if (dispatchQueue != null) {
@@ -347,6 +643,7 @@ public class DefaultEventManager implements EventManager {
 
         EventObject[] eventArgument;
         EventSubject subject;
+        long enqueuedAt;
 
         Dispatch(EventObject event, EventSubject subject) {
             this(new EventObject[] {event}, subject);
@@ -374,10 +671,7 @@ public class DefaultEventManager implements EventManager {
                 }
 
                 // inject single invocation dispatch into the queue
-                synchronized (eventQueue) {
-                    eventQueue.add(new InvocationDispatch(eventArgument, subject, invocation));
-                    eventQueue.notifyAll();
-                }
+                enqueue(new InvocationDispatch(eventArgument, subject, invocation));
 
                 return true;
             } else {
@@ -412,34 +706,21 @@ public class DefaultEventManager implements EventManager {
         }
     }
 
-    final class DispatchThread extends Thread {
-
-        DispatchThread(String name) {
-            super(name);
-            setDaemon(true);
-        }
+    /**
+     * A dispatch loop run by each dispatch thread.
+     */
+    final class DispatchThread implements Runnable {
 
         @Override
         public void run() {
+            DISPATCHING.set(Boolean.TRUE);
+
             while (!stopped) {
 
-                // get event from the queue, if the queue is empty, just wait
-                Dispatch dispatch = null;
-
-                synchronized (DefaultEventManager.this.eventQueue) {
-                    if (DefaultEventManager.this.eventQueue.size() > 0) {
-                        dispatch = DefaultEventManager.this.eventQueue.remove(0);
-                    } else {
-                        try {
-                            // wake up occasionally to check whether EM has been stopped
-                            DefaultEventManager.this.eventQueue.wait(3 * 60 * 1000);
-                        } catch (InterruptedException e) {
-                            // ignore interrupts...
-                        }
-                    }
-                }
+                // get event from the queue, if the queue is empty, park until
+                // a producer wakes us up
+                Dispatch dispatch = dequeue();
 
-                // dispatch outside of synchronized block
                 if (!stopped && dispatch != null) {
                     // this try/catch is needed to prevent DispatchThread
                     // from dying on dispatch errors
@@ -39,6 +39,28 @@ public class EventManagerProvider implements Provider<EventManager> {
     public EventManager get() throws ConfigurationException {
         boolean sync = properties.getBoolean(Constants.SERVER_CONTEXTS_SYNC_PROPERTY, false);
 
-        return sync ? new DefaultEventManager() : new NoopEventManager();
+        return sync ? createDefaultEventManager() : new NoopEventManager();
+    }
+
+    /**
+     * @since 4.2
+     */
+    protected DefaultEventManager createDefaultEventManager() {
+        int capacity = properties.getInt(Constants.EVENT_QUEUE_CAPACITY_PROPERTY, 0);
+        String policyName = properties.get(Constants.EVENT_QUEUE_OVERFLOW_POLICY_PROPERTY);
+
+        EventQueueOverflowPolicy policy;
+        try {
+            policy = policyName != null
+                    ? EventQueueOverflowPolicy.valueOf(policyName.trim().toUpperCase())
+                    : EventQueueOverflowPolicy.BLOCK;
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid event queue overflow policy: %s", e, policyName);
+        }
+
+        boolean virtualThreads = properties.getBoolean(Constants.VIRTUAL_THREADS_PROPERTY, false);
+
+        return new DefaultEventManager(DefaultEventManager.DEFAULT_DISPATCH_THREAD_COUNT, capacity, policy,
+                virtualThreads);
     }
 }
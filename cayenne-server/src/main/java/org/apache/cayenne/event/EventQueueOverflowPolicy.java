@@ -0,0 +1,44 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+/**
+ * Defines what {@link DefaultEventManager} does with a non-blocking event when its bounded
+ * dispatch queue is full.
+ *
+ * @since 4.2
+ */
+public enum EventQueueOverflowPolicy {
+
+    /**
+     * Posting thread waits until there is space in the queue. Dispatch threads themselves never
+     * wait, and instead deliver the event directly to avoid deadlocks.
+     */
+    BLOCK,
+
+    /**
+     * Event is dispatched synchronously in the posting thread.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Event is dropped and counted as rejected.
+     */
+    DISCARD
+}
@@ -21,6 +21,7 @@ package org.apache.cayenne.query;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectContext;
@@ -171,6 +172,33 @@ public abstract class FluentSelect<T> extends AbstractQuery implements Select<T>
         return context.batchIterator(this, size);
     }
 
+    /**
+     * Returns a stream over the query results, that are fetched lazily as the stream is
+     * consumed, similar to {@link #iterator(ObjectContext)}. The stream holds an open JDBC
+     * statement and connection until it is closed, so it must be used in a
+     * try-with-resources block.
+     *
+     * @since 4.2
+     */
+    public Stream<T> stream(ObjectContext context) {
+        return ResultIteratorStream.stream(context.iterator(this), null);
+    }
+
+    /**
+     * Returns a stream over the query results, that are fetched lazily as the stream is
+     * consumed. If "detachObjects" is true, objects that went through the stream are
+     * unregistered from the context and become TRANSIENT, so that streaming a large
+     * table doesn't grow the context. An object is detached once the stream moves past it,
+     * so it can still be used while being processed. Objects modified by the caller are
+     * not detached. The stream holds an open JDBC statement and connection until it is
+     * closed, so it must be used in a try-with-resources block.
+     *
+     * @since 4.2
+     */
+    public Stream<T> stream(ObjectContext context, boolean detachObjects) {
+        return ResultIteratorStream.stream(context.iterator(this), detachObjects ? context : null);
+    }
+
     @Override
     public SQLAction createSQLAction(SQLActionVisitor visitor) {
         return visitor.objectSelectAction(this);
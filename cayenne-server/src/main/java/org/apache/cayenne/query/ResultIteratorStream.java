@@ -0,0 +1,133 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.graph.GraphManager;
+
+/**
+ * Adapts a {@link ResultIterator} to a lazily evaluated {@link Stream} that closes the
+ * iterator when the stream is closed. Optionally detaches objects that went through the
+ * stream from their context.
+ *
+ * @since 4.2
+ */
+class ResultIteratorStream<T> implements Iterator<T> {
+
+    // number of passed objects detached from the context at once
+    static final int DETACH_BATCH_SIZE = 100;
+
+    private final ResultIterator<T> iterator;
+    private final ObjectContext context;
+    private final List<Persistent> passed;
+    private T current;
+
+    static <T> Stream<T> stream(ResultIterator<T> iterator, ObjectContext detachFrom) {
+        ResultIteratorStream<T> results = new ResultIteratorStream<>(iterator, detachFrom);
+        // rows and columns may be null, so only the order is guaranteed
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(results::close);
+    }
+
+    private ResultIteratorStream(ResultIterator<T> iterator, ObjectContext context) {
+        this.iterator = iterator;
+        this.context = context;
+        this.passed = context != null ? new ArrayList<>(DETACH_BATCH_SIZE) : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNextRow();
+    }
+
+    @Override
+    public T next() {
+        T next = iterator.nextRow();
+
+        // the last returned object may still be in use downstream, so only detach objects
+        // returned before it
+        if (context != null) {
+            pass(current);
+            current = next;
+
+            if (passed.size() >= DETACH_BATCH_SIZE) {
+                detach();
+            }
+        }
+
+        return next;
+    }
+
+    void close() {
+        try {
+            if (context != null) {
+                pass(current);
+                current = null;
+                detach();
+            }
+        } finally {
+            iterator.close();
+        }
+    }
+
+    private void pass(Object result) {
+        if (result instanceof Persistent) {
+            Persistent object = (Persistent) result;
+
+            // objects with uncommitted changes made by the caller stay in the context
+            int state = object.getPersistenceState();
+            if (state == PersistenceState.COMMITTED || state == PersistenceState.HOLLOW) {
+                passed.add(object);
+            }
+        } else if (result instanceof Object[]) {
+            for (Object column : (Object[]) result) {
+                pass(column);
+            }
+        }
+    }
+
+    private void detach() {
+        if (passed.isEmpty()) {
+            return;
+        }
+
+        if (context instanceof DataContext) {
+            ((DataContext) context).unregisterObjects(passed);
+        } else {
+            GraphManager graphManager = context.getGraphManager();
+            for (Persistent object : passed) {
+                graphManager.unregisterNode(object.getObjectId());
+            }
+        }
+
+        passed.clear();
+    }
+}
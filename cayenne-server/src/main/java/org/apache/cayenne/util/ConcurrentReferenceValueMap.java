@@ -0,0 +1,384 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe map that stores values as soft or weak references on top of another
+ * concurrent map, keeping the underlying map's eviction policy. Values cleared by the
+ * garbage collector are removed from the underlying map on subsequent access. Unlike
+ * {@link SoftValueMap} and {@link WeakValueMap}, this map can be accessed concurrently.
+ * <p>
+ * This map doesn't guarantee that a value will be there even right after put(), as GC can
+ * remove it at any time. Null keys and values are not allowed.
+ *
+ * @since 4.2
+ */
+public class ConcurrentReferenceValueMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
+
+    private static final long serialVersionUID = 4076126315712287474L;
+
+    protected final ConcurrentMap<K, Reference<V>> map;
+    protected final boolean weak;
+    protected transient ReferenceQueue<V> referenceQueue;
+
+    /**
+     * @param map  an empty map that will store value references.
+     * @param weak whether to use weak or soft references.
+     */
+    public ConcurrentReferenceValueMap(ConcurrentMap<K, Reference<V>> map, boolean weak) {
+        this.map = Objects.requireNonNull(map);
+        this.weak = weak;
+        this.referenceQueue = new ReferenceQueue<>();
+    }
+
+    /**
+     * Creates a reference to the value, that is registered with this map reference queue.
+     */
+    public Reference<V> newReference(K key, V value) {
+        return weak
+                ? new KeyedWeakReference<>(key, value, referenceQueue)
+                : new KeyedSoftReference<>(key, value, referenceQueue);
+    }
+
+    @Override
+    public int size() {
+        expungeStaleEntries();
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        expungeStaleEntries();
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Reference<V> ref = map.get(key);
+        if (ref == null) {
+            return null;
+        }
+
+        V value = ref.get();
+        if (value == null) {
+            map.remove((K) key, ref);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        expungeStaleEntries();
+        return dereference(map.put(key, newReference(key, value)));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        expungeStaleEntries();
+
+        Reference<V> newRef = newReference(key, value);
+        while (true) {
+            Reference<V> ref = map.putIfAbsent(key, newRef);
+            if (ref == null) {
+                return null;
+            }
+
+            V existing = ref.get();
+            if (existing != null) {
+                return existing;
+            }
+
+            // existing value was cleared by GC
+            if (map.replace(key, ref, newRef)) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        expungeStaleEntries();
+        return dereference(map.remove(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+
+        Reference<V> ref = map.get(key);
+        return ref != null && value.equals(ref.get()) && map.remove((K) key, ref);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+
+        Reference<V> newRef = newReference(key, value);
+        while (true) {
+            Reference<V> ref = map.get(key);
+            if (ref == null) {
+                return null;
+            }
+
+            V existing = ref.get();
+            if (existing == null) {
+                map.remove(key, ref);
+                return null;
+            }
+
+            if (map.replace(key, ref, newRef)) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+
+        Reference<V> ref = map.get(key);
+        return ref != null
+                && oldValue.equals(ref.get())
+                && map.replace(key, ref, newReference(key, newValue));
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        while (referenceQueue.poll() != null) {
+            // just purge the queue
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        expungeStaleEntries();
+        return new ReferenceEntrySet();
+    }
+
+    /**
+     * Removes entries whose values were collected by GC.
+     */
+    @SuppressWarnings("unchecked")
+    protected void expungeStaleEntries() {
+        Reference<? extends V> ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            map.remove(((KeyedReference<K>) ref).getKey(), ref);
+        }
+    }
+
+    private V dereference(Reference<V> ref) {
+        return ref != null ? ref.get() : null;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.referenceQueue = new ReferenceQueue<>();
+
+        // deserialized references are not registered with the queue, so replace them
+        for (Entry<K, Reference<V>> entry : new ArrayList<>(map.entrySet())) {
+            V value = entry.getValue().get();
+            if (value != null) {
+                map.replace(entry.getKey(), entry.getValue(), newReference(entry.getKey(), value));
+            } else {
+                map.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    interface KeyedReference<K> {
+
+        K getKey();
+    }
+
+    static class KeyedSoftReference<K, V> extends SoftReference<V> implements KeyedReference<K>, Serializable {
+
+        private static final long serialVersionUID = -6553004934427461428L;
+
+        private final K key;
+
+        KeyedSoftReference(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new SerializedReference<>(key, get(), false);
+        }
+    }
+
+    static class KeyedWeakReference<K, V> extends WeakReference<V> implements KeyedReference<K>, Serializable {
+
+        private static final long serialVersionUID = 6207815542617937431L;
+
+        private final K key;
+
+        KeyedWeakReference(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new SerializedReference<>(key, get(), true);
+        }
+    }
+
+    /**
+     * Serialized form of a value reference. References themselves can't be deserialized, so
+     * they are written as a strongly referenced value and recreated on read.
+     */
+    static class SerializedReference<K, V> implements Serializable {
+
+        private static final long serialVersionUID = 2713066435476190227L;
+
+        private final K key;
+        private final V value;
+        private final boolean weak;
+
+        SerializedReference(K key, V value, boolean weak) {
+            this.key = key;
+            this.value = value;
+            this.weak = weak;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return weak
+                    ? new KeyedWeakReference<>(key, value, null)
+                    : new KeyedSoftReference<>(key, value, null);
+        }
+    }
+
+    class ReferenceEntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentReferenceValueMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new ReferenceEntryIterator();
+        }
+    }
+
+    /**
+     * Iterator that skips values already cleared by GC.
+     */
+    class ReferenceEntryIterator implements Iterator<Entry<K, V>> {
+
+        final Iterator<Entry<K, Reference<V>>> internalIterator = map.entrySet().iterator();
+        Entry<K, V> next;
+        Entry<K, V> current;
+
+        ReferenceEntryIterator() {
+            tryAdvance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            current = next;
+            tryAdvance();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+
+            ConcurrentReferenceValueMap.this.remove(current.getKey(), current.getValue());
+            current = null;
+        }
+
+        private void tryAdvance() {
+            next = null;
+            while (internalIterator.hasNext()) {
+                Entry<K, Reference<V>> refEntry = internalIterator.next();
+                V value = refEntry.getValue().get();
+                if (value != null) {
+                    next = new SimpleEntry<K, V>(refEntry.getKey(), value) {
+
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        public V setValue(V value) {
+                            ConcurrentReferenceValueMap.this.put(getKey(), value);
+                            return super.setValue(value);
+                        }
+                    };
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A factory of daemon threads used for Cayenne background work. Creates Java virtual
+ * threads if requested and supported by the JVM (Java 21 or newer), falling back to
+ * regular daemon threads otherwise. Thread names are made of a prefix and a sequence number
+ * starting at 1.
+ *
+ * @since 4.2
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaemonThreadFactory.class);
+
+    // resolved reflectively, as Cayenne is compiled for Java versions without virtual threads
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle BUILDER_NAME;
+    private static final MethodHandle BUILDER_UNSTARTED;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle builderName = null;
+        MethodHandle builderUnstarted = null;
+
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+                    MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+            builderName = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class));
+            builderUnstarted = lookup.findVirtual(builderClass, "unstarted",
+                    MethodType.methodType(Thread.class, Runnable.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
+    private static volatile boolean fallbackLogged;
+
+    private final String namePrefix;
+    private final boolean virtual;
+    private final AtomicInteger counter;
+
+    /**
+     * Returns true if the JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an unstarted daemon thread, which is a virtual thread if "virtual" is true and
+     * the JVM supports virtual threads.
+     */
+    public static Thread newThread(String name, boolean virtual, Runnable runnable) {
+
+        if (virtual) {
+            if (isVirtualThreadSupported()) {
+                try {
+                    Object builder = OF_VIRTUAL.invoke();
+                    builder = BUILDER_NAME.invoke(builder, name);
+                    return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+                } catch (Throwable th) {
+                    LOGGER.warn("Error creating a virtual thread, using a platform thread instead", th);
+                }
+            } else if (!fallbackLogged) {
+                fallbackLogged = true;
+                LOGGER.info("Virtual threads are not supported by this JVM, using platform threads instead");
+            }
+        }
+
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public DaemonThreadFactory(String namePrefix, boolean virtual) {
+        this.namePrefix = namePrefix;
+        this.virtual = virtual;
+        this.counter = new AtomicInteger();
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        return newThread(namePrefix + counter.incrementAndGet(), virtual, runnable);
+    }
+
+    public boolean isVirtual() {
+        return virtual && isVirtualThreadSupported();
+    }
+}
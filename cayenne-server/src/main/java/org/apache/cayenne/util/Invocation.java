@@ -20,9 +20,19 @@
 
 package org.apache.cayenne.util;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.apache.cayenne.CayenneRuntimeException;
 
@@ -30,13 +40,29 @@ import org.apache.cayenne.CayenneRuntimeException;
  * Invocation represents a dynamic method invocation bound to a specific target. The
  * target is kept with a WeakReference and can therefore be reclaimed by the Garbage
  * Collector.
- * 
+ * <p>
+ * Since 4.2 the method is not called via reflection. Instead an invoker is bound once per
+ * method, either as a class generated with {@link LambdaMetafactory} (for public methods of
+ * public classes with up to one parameter), or as a {@link MethodHandle}. Invokers are cached
+ * per declaring class, so registering many listeners of the same class is cheap.
  */
 public class Invocation {
 
+    // invokers are stored with the declaring class, so that they don't prevent class unloading
+    private static final ClassValue<ConcurrentMap<Method, Invoker>> INVOKERS =
+            new ClassValue<ConcurrentMap<Method, Invoker>>() {
+
+                @Override
+                protected ConcurrentMap<Method, Invoker> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
     private WeakReference<?> target;
     private Method method;
     private Class<?>[] parameterTypes;
+    private Class<?>[] argumentTypes;
+    private Invoker invoker;
     private int hashCode;
 
     /**
@@ -105,7 +131,51 @@ public class Invocation {
         // algorithm is used to compute hashCode.
         this.hashCode = 31 * target.hashCode() + method.hashCode();
         this.parameterTypes = parameterTypes;
+        this.argumentTypes = boxedTypes(parameterTypes);
         this.target = new WeakReference<>(target);
+        this.invoker = INVOKERS.get(method.getDeclaringClass()).computeIfAbsent(method, Invocation::createInvoker);
+    }
+
+    private static Class<?>[] boxedTypes(Class<?>[] types) {
+        if (types == null) {
+            return null;
+        }
+
+        Class<?>[] boxed = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            boxed[i] = MethodType.methodType(types[i]).wrap().returnType();
+        }
+        return boxed;
+    }
+
+    static Invoker createInvoker(Method method) {
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            // should not happen, as the method was made accessible, still keep reflection as a
+            // last resort
+            return new ReflectionInvoker(method);
+        }
+
+        int parameterCount = method.getParameterCount();
+        if (parameterCount <= 1
+                && Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers())
+                && isVisible(method.getDeclaringClass())
+                && (parameterCount == 0 || isVisible(method.getParameterTypes()[0]))) {
+            try {
+                return parameterCount == 0
+                        ? new ConsumerInvoker(lookup, handle)
+                        : new BiConsumerInvoker(lookup, handle);
+            } catch (Throwable th) {
+                // e.g. declaring class is not visible from our class loader, the handle works anyway
+            }
+        }
+
+        return new MethodHandleInvoker(handle, parameterCount);
     }
 
     Method lookupMethodInHierarchy(Class<?> objectClass, String methodName, Class[] parameterTypes)
@@ -175,24 +245,51 @@ public class Invocation {
             return false;
         }
 
+        // arguments of a wrong type indicate problems with the listener, so return invalid
+        // status instead of failing inside the invoker. Primitive parameters accept the
+        // same widening conversions as Method.invoke(..), e.g. a Short passed as an int
+        if (arguments != null) {
+            Object[] converted = arguments;
+            for (int i = 0; i < arguments.length; i++) {
+                Object argument = arguments[i];
+                if (!parameterTypes[i].isPrimitive()) {
+                    if (argument != null && !parameterTypes[i].isInstance(argument)) {
+                        return false;
+                    }
+                    continue;
+                }
+
+                if (argument == null) {
+                    return false;
+                }
+
+                if (argumentTypes[i].isInstance(argument)) {
+                    continue;
+                }
+
+                Object widened = widen(argument, parameterTypes[i]);
+                if (widened == null) {
+                    return false;
+                }
+
+                if (converted == arguments) {
+                    converted = arguments.clone();
+                }
+                converted[i] = widened;
+            }
+            arguments = converted;
+        }
+
         try {
-            method.invoke(currentTarget, arguments);
+            invoker.invoke(currentTarget, arguments);
             return true;
-        } catch (InvocationTargetException ite) {
+        } catch (RuntimeException e) {
             // this is the only type of exception that can be rethrown, since
             // listener can have a valid need to respond to an event with exception,
             // and this does not indicate that it is being in invalid state
-
-            Throwable cause = ite.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new CayenneRuntimeException(cause);
-            }
-        } catch (Exception ex) {
-            // all other exceptions indicate propblems with the listener,
-            // so return invalid status
-            return false;
+            throw e;
+        } catch (Throwable th) {
+            throw new CayenneRuntimeException(th);
         }
     }
 
@@ -253,4 +350,170 @@ public class Invocation {
         return parameterTypes;
     }
 
+    /**
+     * Applies a widening primitive conversion (JLS 5.1.2) to a boxed value, returning it boxed
+     * as the wrapper of the target primitive type, or null if such conversion is not allowed.
+     */
+    static Object widen(Object value, Class<?> type) {
+        long integral;
+        if (value instanceof Character) {
+            if (type == Character.TYPE || type == Short.TYPE || type == Byte.TYPE) {
+                return null;
+            }
+            integral = (Character) value;
+        } else if (value instanceof Byte || value instanceof Short || value instanceof Integer
+                || value instanceof Long) {
+            if (type == Character.TYPE) {
+                return null;
+            }
+            integral = ((Number) value).longValue();
+        } else if (value instanceof Float) {
+            return type == Double.TYPE ? Double.valueOf((Float) value) : null;
+        } else {
+            return null;
+        }
+
+        // integral source, check that the target is not narrower than the source
+        int sourceRank = rank(value.getClass());
+        if (rank(type) < sourceRank) {
+            return null;
+        }
+
+        if (type == Short.TYPE) {
+            return (short) integral;
+        } else if (type == Integer.TYPE) {
+            return (int) integral;
+        } else if (type == Long.TYPE) {
+            return integral;
+        } else if (type == Float.TYPE) {
+            return (float) integral;
+        } else if (type == Double.TYPE) {
+            return (double) integral;
+        }
+
+        return null;
+    }
+
+    // position of a numeric type in the widening order byte < short/char < int < long < float < double
+    private static int rank(Class<?> type) {
+        if (type == Byte.class || type == Byte.TYPE) {
+            return 0;
+        } else if (type == Short.class || type == Short.TYPE || type == Character.class || type == Character.TYPE) {
+            return 1;
+        } else if (type == Integer.class || type == Integer.TYPE) {
+            return 2;
+        } else if (type == Long.class || type == Long.TYPE) {
+            return 3;
+        } else if (type == Float.class || type == Float.TYPE) {
+            return 4;
+        } else if (type == Double.class || type == Double.TYPE) {
+            return 5;
+        }
+        return -1;
+    }
+
+    // generated invoker classes resolve referenced types via our class loader, so
+    // listeners loaded by unrelated class loaders must go through a MethodHandle instead
+    private static boolean isVisible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+
+        try {
+            return Class.forName(type.getName(), false, Invocation.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * A strategy to call a listener method that is bound once per method.
+     *
+     * @since 4.2
+     */
+    interface Invoker {
+
+        void invoke(Object target, Object[] arguments) throws Throwable;
+    }
+
+    static final class ConsumerInvoker implements Invoker {
+
+        private final Consumer<Object> consumer;
+
+        @SuppressWarnings("unchecked")
+        ConsumerInvoker(MethodHandles.Lookup lookup, MethodHandle handle) throws Throwable {
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept",
+                    MethodType.methodType(Consumer.class),
+                    MethodType.methodType(void.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, handle.type().parameterType(0)));
+            this.consumer = (Consumer<Object>) site.getTarget().invoke();
+        }
+
+        @Override
+        public void invoke(Object target, Object[] arguments) {
+            consumer.accept(target);
+        }
+    }
+
+    static final class BiConsumerInvoker implements Invoker {
+
+        private final BiConsumer<Object, Object> consumer;
+
+        @SuppressWarnings("unchecked")
+        BiConsumerInvoker(MethodHandles.Lookup lookup, MethodHandle handle) throws Throwable {
+            MethodType type = handle.type();
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type.parameterType(0), type.parameterType(1).isPrimitive()
+                            ? type.wrap().parameterType(1)
+                            : type.parameterType(1)));
+            this.consumer = (BiConsumer<Object, Object>) site.getTarget().invoke();
+        }
+
+        @Override
+        public void invoke(Object target, Object[] arguments) {
+            consumer.accept(target, arguments[0]);
+        }
+    }
+
+    static final class MethodHandleInvoker implements Invoker {
+
+        private final MethodHandle handle;
+
+        MethodHandleInvoker(MethodHandle handle, int parameterCount) {
+            this.handle = handle
+                    .asSpreader(Object[].class, parameterCount)
+                    .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+        }
+
+        @Override
+        public void invoke(Object target, Object[] arguments) throws Throwable {
+            handle.invokeExact(target, arguments);
+        }
+    }
+
+    static final class ReflectionInvoker implements Invoker {
+
+        private final Method method;
+
+        ReflectionInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public void invoke(Object target, Object[] arguments) throws Throwable {
+            try {
+                method.invoke(target, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
 }
@@ -0,0 +1,604 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded concurrent map that uses the W-TinyLFU eviction policy. Compared to LRU, the
+ * policy is resistant to scans: a one-time sweep over many keys (e.g. a large report
+ * query) goes through a small admission window and can only displace frequently used
+ * entries if the newcomers are used more often than them.
+ * <p>
+ * New entries go to an LRU "window" that holds about 1% of the capacity. Entries pushed
+ * out of the window compete with the least recently used entry of the main space; the one
+ * that was accessed less often, as estimated by a count-min sketch of recent access
+ * frequencies, is evicted. The main space is a segmented LRU with "probation" and
+ * "protected" segments, the latter holding entries that were accessed more than once.
+ * <p>
+ * Reads are lock-free and only record the access in a bounded buffer that is replayed
+ * against the policy when a lock is available; under heavy contention some accesses may
+ * be dropped, which only affects eviction order. Writes update the policy under a lock.
+ * Null keys and values are not allowed.
+ *
+ * @since 4.2
+ */
+public class WindowTinyLfuMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
+
+    private static final long serialVersionUID = 5432614683740987129L;
+
+    static final int NEW = 0;
+    static final int WINDOW = 1;
+    static final int PROBATION = 2;
+    static final int PROTECTED = 3;
+    static final int DEAD = 4;
+
+    static final double WINDOW_RATIO = 0.01;
+    static final double PROTECTED_RATIO = 0.8;
+
+    // recorded reads are replayed once that many accumulate, and dropped beyond the max
+    static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+    static final int READ_BUFFER_MAX_SIZE = 256;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final BiConsumer<K, V> evictionListener;
+
+    private transient ConcurrentHashMap<K, Node<K, V>> data;
+    private transient ReentrantLock lock;
+    private transient LinkedHashSet<Node<K, V>> window;
+    private transient LinkedHashSet<Node<K, V>> probation;
+    private transient LinkedHashSet<Node<K, V>> protectedSegment;
+    private transient FrequencySketch sketch;
+    private transient ConcurrentLinkedQueue<Node<K, V>> readBuffer;
+    private transient AtomicInteger readBufferSize;
+
+    public WindowTinyLfuMap(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity         maximum number of entries in the map.
+     * @param evictionListener an optional listener called after an entry is evicted. It
+     *                         must be Serializable for the map to be serializable.
+     */
+    public WindowTinyLfuMap(int capacity, BiConsumer<K, V> evictionListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, (int) (capacity * WINDOW_RATIO));
+        this.protectedCapacity = (int) ((capacity - windowCapacity) * PROTECTED_RATIO);
+        this.evictionListener = evictionListener;
+        init();
+    }
+
+    private void init() {
+        this.data = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+        this.window = new LinkedHashSet<>();
+        this.probation = new LinkedHashSet<>();
+        this.protectedSegment = new LinkedHashSet<>();
+        this.sketch = new FrequencySketch(capacity);
+        this.readBuffer = new ConcurrentLinkedQueue<>();
+        this.readBufferSize = new AtomicInteger();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        boolean[] added = new boolean[1];
+        Object[] oldValue = new Object[1];
+
+        Node<K, V> node = data.compute(key, (k, existing) -> {
+            if (existing == null) {
+                added[0] = true;
+                return new Node<>(k, value);
+            }
+
+            oldValue[0] = existing.value;
+            if (!onlyIfAbsent) {
+                existing.value = value;
+            }
+            return existing;
+        });
+
+        if (added[0]) {
+            afterWrite(node);
+        } else {
+            afterRead(node);
+        }
+
+        return (V) oldValue[0];
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+
+        afterRemove(node);
+        return node.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+
+        AtomicReference<Node<K, V>> removed = new AtomicReference<>();
+        data.computeIfPresent((K) key, (k, existing) -> {
+            if (existing.value.equals(value)) {
+                removed.set(existing);
+                return null;
+            }
+            return existing;
+        });
+
+        if (removed.get() == null) {
+            return false;
+        }
+
+        afterRemove(removed.get());
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+
+        Object[] oldValue = new Object[1];
+        Node<K, V> node = data.computeIfPresent(key, (k, existing) -> {
+            oldValue[0] = existing.value;
+            existing.value = value;
+            return existing;
+        });
+
+        if (node != null) {
+            afterRead(node);
+        }
+        return (V) oldValue[0];
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+
+        boolean[] replaced = new boolean[1];
+        Node<K, V> node = data.computeIfPresent(key, (k, existing) -> {
+            if (existing.value.equals(oldValue)) {
+                existing.value = newValue;
+                replaced[0] = true;
+            }
+            return existing;
+        });
+
+        if (replaced[0]) {
+            afterRead(node);
+        }
+        return replaced[0];
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            data.clear();
+            kill(window);
+            kill(probation);
+            kill(protectedSegment);
+            readBuffer.clear();
+            readBufferSize.set(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void kill(Set<Node<K, V>> segment) {
+        for (Node<K, V> node : segment) {
+            node.segment = DEAD;
+        }
+        segment.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private void afterRead(Node<K, V> node) {
+        if (readBufferSize.get() < READ_BUFFER_MAX_SIZE) {
+            readBuffer.add(node);
+            if (readBufferSize.incrementAndGet() >= READ_BUFFER_DRAIN_THRESHOLD && lock.tryLock()) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node) {
+        List<Node<K, V>> evicted;
+
+        lock.lock();
+        try {
+            drainReadBuffer();
+            sketch.increment(node.key);
+
+            // skip if removed before we got here
+            if (node.segment != NEW || data.get(node.key) != node) {
+                return;
+            }
+
+            node.segment = WINDOW;
+            window.add(node);
+            evicted = evict();
+        } finally {
+            lock.unlock();
+        }
+
+        if (evictionListener != null) {
+            for (Node<K, V> e : evicted) {
+                evictionListener.accept(e.key, e.value);
+            }
+        }
+    }
+
+    private void afterRemove(Node<K, V> node) {
+        lock.lock();
+        try {
+            unlink(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                break;
+            default:
+                break;
+        }
+
+        node.segment = DEAD;
+    }
+
+    private void drainReadBuffer() {
+        Node<K, V> node;
+        while ((node = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            onAccess(node);
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                sketch.increment(node.key);
+                moveToTail(window, node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                probation.remove(node);
+                node.segment = PROTECTED;
+                protectedSegment.add(node);
+                demoteProtected();
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                moveToTail(protectedSegment, node);
+                break;
+            default:
+                // removed or not linked yet
+                break;
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedSegment.size() > protectedCapacity) {
+            Node<K, V> demoted = first(protectedSegment);
+            protectedSegment.remove(demoted);
+            demoted.segment = PROBATION;
+            probation.add(demoted);
+        }
+    }
+
+    private List<Node<K, V>> evict() {
+
+        // entries leaving the window become candidates for admission to the main space
+        Deque<Node<K, V>> candidates = new ArrayDeque<>();
+        while (window.size() > windowCapacity) {
+            Node<K, V> candidate = first(window);
+            window.remove(candidate);
+            candidate.segment = PROBATION;
+            probation.add(candidate);
+            candidates.add(candidate);
+        }
+
+        List<Node<K, V>> evicted = new ArrayList<>(2);
+        while (window.size() + probation.size() + protectedSegment.size() > capacity) {
+
+            Node<K, V> victim = !probation.isEmpty()
+                    ? first(probation)
+                    : !protectedSegment.isEmpty() ? first(protectedSegment) : first(window);
+
+            Node<K, V> candidate = candidates.pollFirst();
+            Node<K, V> loser = victim;
+            if (candidate != null && candidate != victim
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                loser = candidate;
+            }
+
+            unlink(loser);
+            if (data.remove(loser.key, loser)) {
+                evicted.add(loser);
+            }
+        }
+
+        return evicted;
+    }
+
+    private static <T> void moveToTail(LinkedHashSet<T> segment, T node) {
+        segment.remove(node);
+        segment.add(node);
+    }
+
+    private static <T> T first(Set<T> segment) {
+        return segment.iterator().next();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(data.size());
+        for (Node<K, V> node : data.values()) {
+            out.writeObject(node.key);
+            out.writeObject(node.value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    static final class Node<K, V> {
+
+        final K key;
+        volatile V value;
+
+        // guarded by the eviction lock
+        int segment;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+            this.segment = NEW;
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void clear() {
+            WindowTinyLfuMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<Node<K, V>> it = data.values().iterator();
+            return new Iterator<Entry<K, V>>() {
+
+                Node<K, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    current = it.next();
+                    return new SimpleEntry<K, V>(current.key, current.value) {
+
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        public V setValue(V value) {
+                            WindowTinyLfuMap.this.put(getKey(), value);
+                            return super.setValue(value);
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+
+                    WindowTinyLfuMap.this.remove(current.key, current.value);
+                    current = null;
+                }
+            };
+        }
+    }
+
+    /**
+     * A count-min sketch of small saturating counters that estimates how often keys
+     * were accessed recently. All counters are halved periodically, so the estimates
+     * reflect recent popularity.
+     */
+    static final class FrequencySketch {
+
+        static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+
+        static final int MAX_COUNT = 15;
+
+        final byte[][] table;
+        final int mask;
+        final int sampleSize;
+        int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 24)) - 1) << 1;
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                if (table[i][index] < MAX_COUNT) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return ((int) h) & mask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactDataRowTest {
+
+    private final DataRowColumnIndex index = new DataRowColumnIndex("A", "B", "C");
+
+    private CompactDataRow newRow() {
+        CompactDataRow row = new CompactDataRow(index);
+        row.setValueAt(0, 1);
+        row.setValueAt(1, "b");
+        row.setValueAt(2, null);
+        return row;
+    }
+
+    @Test
+    public void testMapContract() {
+        CompactDataRow row = newRow();
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("A", 1);
+        expected.put("B", "b");
+        expected.put("C", null);
+
+        assertEquals(3, row.size());
+        assertEquals(expected, row);
+        assertEquals(row, expected);
+        assertEquals(expected.hashCode(), row.hashCode());
+        assertEquals(expected.keySet(), row.keySet());
+        assertTrue(row.containsKey("C"));
+        assertTrue(row.containsValue(null));
+        assertEquals("b", row.get("B"));
+    }
+
+    @Test
+    public void testRemove() {
+        CompactDataRow row = newRow();
+
+        assertEquals("b", row.remove("B"));
+        assertEquals(2, row.size());
+        assertFalse(row.containsKey("B"));
+        assertNull(row.get("B"));
+        assertEquals("x", row.getOrDefault("B", "x"));
+
+        row.put("B", "c");
+        assertEquals(3, row.size());
+        assertEquals("c", row.get("B"));
+    }
+
+    @Test
+    public void testOverflowKeys() {
+        CompactDataRow row = newRow();
+
+        assertNull(row.put("D", 4));
+        assertEquals(4, row.size());
+        assertEquals(4, row.get("D"));
+        assertTrue(row.keySet().contains("D"));
+
+        Map<String, Object> copy = new HashMap<>(row);
+        assertEquals(copy, row);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        CompactDataRow row = newRow();
+        row.put("D", 4);
+
+        Iterator<String> it = row.keySet().iterator();
+        while (it.hasNext()) {
+            String key = it.next();
+            if ("A".equals(key) || "D".equals(key)) {
+                it.remove();
+            }
+        }
+
+        assertEquals(2, row.size());
+        assertFalse(row.containsKey("A"));
+        assertFalse(row.containsKey("D"));
+    }
+
+    @Test
+    public void testCopyOf() {
+        DataRow row = new DataRow(5);
+        row.put("A", 5);
+        row.put("C", "c");
+        row.setReplacesVersion(3);
+        row.setEntityName("E");
+
+        CompactDataRow copy = CompactDataRow.copyOf(row, index);
+        assertEquals(row, copy);
+        assertEquals(2, copy.size());
+        assertFalse(copy.containsKey("B"));
+        assertEquals(row.getVersion(), copy.getVersion());
+        assertEquals(3, copy.getReplacesVersion());
+        assertEquals("E", copy.getEntityName());
+    }
+
+    @Test
+    public void testApplyDiff() {
+        CompactDataRow row = newRow();
+
+        DataRow diff = new DataRow(2);
+        diff.put("B", "x");
+
+        DataRow merged = row.applyDiff(diff);
+        assertTrue(merged instanceof CompactDataRow);
+        assertSame(index, ((CompactDataRow) merged).getColumnIndex());
+        assertEquals("x", merged.get("B"));
+        assertEquals("b", row.get("B"));
+        assertFalse(merged.getVersion() == row.getVersion());
+    }
+
+    @Test
+    public void testClone() {
+        CompactDataRow row = newRow();
+        row.put("D", 4);
+
+        CompactDataRow clone = (CompactDataRow) row.clone();
+        assertEquals(row, clone);
+        assertEquals(4, clone.size());
+
+        clone.put("A", 2);
+        assertEquals(1, row.get("A"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CompactDataRow row = newRow();
+        row.put("D", 4);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(row);
+        }
+
+        Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+
+        assertTrue(deserialized instanceof CompactDataRow);
+        assertEquals(row, deserialized);
+        assertEquals(4, ((CompactDataRow) deserialized).size());
+    }
+}
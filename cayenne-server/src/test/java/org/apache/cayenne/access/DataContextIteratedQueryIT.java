@@ -22,6 +22,7 @@ import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
+import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.query.SelectQuery;
 import org.apache.cayenne.test.jdbc.DBHelper;
@@ -155,6 +156,31 @@ public class DataContextIteratedQueryIT extends ServerCase {
         }
     }
 
+    @Test
+    public void testIterator_Streaming() throws Exception {
+        createLargeArtistsDataSet();
+
+        JdbcAdapter adapter = (JdbcAdapter) context.getParentDataDomain()
+                .getDataNodes()
+                .iterator()
+                .next()
+                .getAdapter();
+
+        adapter.setStreamingFetchSize(3);
+        try (ResultIterator<Artist> it = context.iterator(new SelectQuery<>(Artist.class));) {
+            int count = 0;
+
+            for (Artist a : it) {
+                assertNotNull(a.getArtistName());
+                count++;
+            }
+
+            assertEquals(20, count);
+        } finally {
+            adapter.setStreamingFetchSize(0);
+        }
+    }
+
     @Test
     public void testBatchIterator() throws Exception {
         createLargeArtistsDataSet();
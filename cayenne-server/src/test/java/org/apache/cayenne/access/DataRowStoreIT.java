@@ -21,6 +21,9 @@ package org.apache.cayenne.access;
 
 import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.cache.CacheGroupStatistics;
+import org.apache.cayenne.cache.CacheStatistics;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.testdo.testmap.Artist;
@@ -123,4 +126,49 @@ public class DataRowStoreIT extends ServerCase {
         assertNotNull(cache.getCachedSnapshot(key3));
         assertNull(cache.getCachedSnapshot(key1));
     }
+
+    @Test
+    public void testStatistics() {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, String.valueOf(1));
+
+        cache = new DataRowStore(
+                "cacheXYZ",
+                new DefaultRuntimeProperties(props),
+                null);
+        CacheStatistics statistics = new CacheStatistics(
+                "test",
+                new NoopCacheStatisticsListener(),
+                cache::size,
+                cache::size);
+        cache.setStatistics(statistics);
+
+        ObjectId key1 = ObjectId.of("Artist", Artist.ARTIST_ID_PK_COLUMN, 1);
+        ObjectId key2 = ObjectId.of("Artist", Artist.ARTIST_ID_PK_COLUMN, 2);
+
+        assertNull(cache.getCachedSnapshot(key1));
+
+        cache.processSnapshotChanges(
+                this,
+                Collections.singletonMap(key1, new DataRow(1)),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+        assertNotNull(cache.getCachedSnapshot(key1));
+
+        // overflows the cache
+        cache.processSnapshotChanges(
+                this,
+                Collections.singletonMap(key2, new DataRow(1)),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+
+        CacheGroupStatistics artistStatistics = statistics.getGroupStatistics("Artist");
+        assertEquals(1, artistStatistics.getHitCount());
+        assertEquals(1, artistStatistics.getMissCount());
+        assertEquals(1, artistStatistics.getEvictionCount());
+        assertEquals(1, artistStatistics.getSize());
+        assertEquals(1, statistics.getSize());
+    }
 }
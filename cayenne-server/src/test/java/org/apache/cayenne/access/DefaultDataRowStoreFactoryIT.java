@@ -23,6 +23,9 @@ import org.apache.cayenne.access.flush.DataDomainFlushActionFactory;
 import org.apache.cayenne.access.flush.operation.DbRowOpSorter;
 import org.apache.cayenne.access.flush.DefaultDataDomainFlushActionFactory;
 import org.apache.cayenne.access.flush.operation.DefaultDbRowOpSorter;
+import org.apache.cayenne.cache.CacheStatisticsListener;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.configuration.server.ServerModule;
@@ -78,6 +81,9 @@ public class DefaultDataRowStoreFactoryIT extends ServerCase {
             binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
             binder.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+            binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+            binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
             ServerModule.setSnapshotCacheSize(binder, CACHE_SIZE);
         };
 
@@ -104,6 +110,9 @@ public class DefaultDataRowStoreFactoryIT extends ServerCase {
             binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
             binder.bind(EventBridge.class).toProvider(MockEventBridgeProvider.class);
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+            binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+            binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
             binder.bind(DataDomainFlushActionFactory.class).to(DefaultDataDomainFlushActionFactory.class);
             binder.bind(DbRowOpSorter.class).to(DefaultDbRowOpSorter.class);
             ServerModule.contributeProperties(binder);
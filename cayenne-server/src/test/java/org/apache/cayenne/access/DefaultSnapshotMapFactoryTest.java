@@ -0,0 +1,151 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.util.ConcurrentReferenceValueMap;
+import org.apache.cayenne.util.Util;
+import org.apache.cayenne.util.WindowTinyLfuMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultSnapshotMapFactoryTest {
+
+    private static DefaultSnapshotMapFactory factory(Map<String, String> properties) {
+        return new DefaultSnapshotMapFactory(new DefaultRuntimeProperties(properties));
+    }
+
+    private static DataRow row(int id) {
+        DataRow row = new DataRow(1);
+        row.put("ID", id);
+        return row;
+    }
+
+    @Test
+    public void testPerEntityLimit() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX + "Artist", "5");
+
+        AtomicInteger evicted = new AtomicInteger();
+        ConcurrentMap<ObjectId, DataRow> map = factory(properties)
+                .createSnapshotMap("test", 100, (id, row) -> evicted.incrementAndGet());
+
+        for (int i = 0; i < 50; i++) {
+            map.put(ObjectId.of("Painting", "ID", i), row(i));
+        }
+
+        // a large read of artists does not affect paintings
+        for (int i = 0; i < 200; i++) {
+            map.put(ObjectId.of("Artist", "ID", i), row(i));
+        }
+
+        assertEquals(55, map.size());
+        assertEquals(195, evicted.get());
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(map.get(ObjectId.of("Painting", "ID", i)));
+        }
+        assertNotNull(map.get(ObjectId.of("Artist", "ID", 199)));
+        assertNull(map.get(ObjectId.of("Artist", "ID", 0)));
+
+        assertEquals(55, map.keySet().size());
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testTinyLfuPolicy() {
+        Map<String, String> properties = Collections.singletonMap(
+                Constants.SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY, "tiny_lfu");
+
+        PerEntitySnapshotMap map = (PerEntitySnapshotMap) factory(properties)
+                .createSnapshotMap("test", 100, (id, row) -> {});
+
+        ObjectId id = ObjectId.of("Artist", "ID", 1);
+        assertTrue(map.partition(id) instanceof WindowTinyLfuMap);
+    }
+
+    @Test
+    public void testSoftReferences() throws Exception {
+        Map<String, String> properties = Collections.singletonMap(
+                Constants.SNAPSHOT_CACHE_REFERENCE_TYPE_PROPERTY, "SOFT");
+
+        AtomicInteger evicted = new AtomicInteger();
+        PerEntitySnapshotMap map = (PerEntitySnapshotMap) factory(properties)
+                .createSnapshotMap("test", 10, new CountingListener(evicted));
+
+        for (int i = 0; i < 20; i++) {
+            map.put(ObjectId.of("Artist", "ID", i), row(i));
+        }
+
+        assertTrue(map.partition(ObjectId.of("Artist", "ID", 1)) instanceof ConcurrentReferenceValueMap);
+        assertEquals(10, map.size());
+        assertEquals(10, evicted.get());
+        assertEquals(row(19), map.get(ObjectId.of("Artist", "ID", 19)));
+
+        PerEntitySnapshotMap clone = Util.cloneViaSerialization(map);
+        assertEquals(row(19), clone.get(ObjectId.of("Artist", "ID", 19)));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInvalidPolicy() {
+        factory(Collections.singletonMap(Constants.SNAPSHOT_CACHE_EVICTION_POLICY_PROPERTY, "MRU"))
+                .createSnapshotMap("test", 10, (id, row) -> {});
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInvalidEntityLimit() {
+        factory(Collections.singletonMap(Constants.SNAPSHOT_CACHE_ENTITY_SIZE_PROPERTY_PREFIX + "Artist", "x"))
+                .createSnapshotMap("test", 10, (id, row) -> {})
+                .put(ObjectId.of("Artist", "ID", 1), row(1));
+    }
+
+    static class CountingListener implements BiConsumer<ObjectId, DataRow>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient AtomicInteger counter;
+
+        CountingListener(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void accept(ObjectId id, DataRow row) {
+            if (counter != null) {
+                counter.incrementAndGet();
+            }
+        }
+    }
+}
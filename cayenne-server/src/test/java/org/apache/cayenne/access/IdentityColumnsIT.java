@@ -43,7 +43,10 @@ import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -120,6 +123,36 @@ public class IdentityColumnsIT extends ServerCase {
         assertEquals(name, object.getName());
     }
 
+    /**
+     * Checks that keys generated for a multi-row insert are matched to the right objects,
+     * whether the rows are inserted as a batch or one by one.
+     */
+    @Test
+    public void testNewObjects() throws Exception {
+
+        List<GeneratedColumnTestEntity> objects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            GeneratedColumnTestEntity idObject = context.newObject(GeneratedColumnTestEntity.class);
+            idObject.setName("n_" + i);
+            objects.add(idObject);
+        }
+
+        context.commitChanges();
+
+        Set<Integer> ids = new HashSet<>();
+        for (GeneratedColumnTestEntity idObject : objects) {
+            ids.add(Cayenne.intPKForObject(idObject));
+        }
+        assertEquals(10, ids.size());
+
+        context.invalidateObjects(objects);
+        for (int i = 0; i < 10; i++) {
+            int id = Cayenne.intPKForObject(objects.get(i));
+            GeneratedColumnTestEntity object = Cayenne.objectForPK(context, GeneratedColumnTestEntity.class, id);
+            assertEquals("n_" + i, object.getName());
+        }
+    }
+
     @Test
     public void testGeneratedJoinInFlattenedRelationship() throws Exception {
 
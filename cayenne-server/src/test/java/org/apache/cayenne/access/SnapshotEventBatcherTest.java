@@ -0,0 +1,112 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.BatchedSnapshotEvent;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotEventBatcherTest {
+
+    private static SnapshotEvent event(Object postedBy, int id) {
+        return new SnapshotEvent(SnapshotEventBatcherTest.class, postedBy, null,
+                Collections.singletonList(ObjectId.of("Artist", "ID", id)), null, null);
+    }
+
+    @Test
+    public void testTimeWindow() throws InterruptedException {
+        List<SnapshotEvent> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        SnapshotEventBatcher batcher = new SnapshotEventBatcher("test", this, 50, 100, e -> {
+            delivered.add(e);
+            latch.countDown();
+        }, false);
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                batcher.add(event("p" + i, i));
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, delivered.size());
+
+            BatchedSnapshotEvent batch = (BatchedSnapshotEvent) delivered.get(0);
+            assertSame(this, batch.getSource());
+            assertEquals(10, batch.getEvents().size());
+            assertEquals(10, batch.getDeletedIds().size());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxEvents() throws InterruptedException {
+        List<SnapshotEvent> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        SnapshotEventBatcher batcher = new SnapshotEventBatcher("test", this, 60000, 5, e -> {
+            delivered.add(e);
+            latch.countDown();
+        }, false);
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                batcher.add(event("p", i));
+            }
+
+            // both batches delivered without waiting for the window to expire
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(2, delivered.size());
+            assertEquals(5, ((BatchedSnapshotEvent) delivered.get(0)).getEvents().size());
+            assertEquals(5, ((BatchedSnapshotEvent) delivered.get(1)).getEvents().size());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdown() {
+        List<SnapshotEvent> delivered = new CopyOnWriteArrayList<>();
+        SnapshotEventBatcher batcher = new SnapshotEventBatcher("test", this, 60000, 100, delivered::add, false);
+
+        SnapshotEvent e1 = event("p", 1);
+        batcher.add(e1);
+        assertTrue(delivered.isEmpty());
+
+        // pending events are delivered on shutdown, and later ones are not batched
+        batcher.shutdown();
+        assertEquals(1, delivered.size());
+        assertSame(e1, delivered.get(0));
+
+        SnapshotEvent e2 = event("p", 2);
+        batcher.add(e2);
+        assertEquals(2, delivered.size());
+        assertSame(e2, delivered.get(1));
+    }
+}
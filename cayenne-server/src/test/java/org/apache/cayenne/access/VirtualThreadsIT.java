@@ -0,0 +1,106 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.apache.cayenne.util.DaemonThreadFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs many concurrent requests on virtual threads, including access to a shared paginated
+ * list, to check that they neither deadlock nor fail when carrier threads are scarce.
+ */
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class VirtualThreadsIT extends ServerCase {
+
+    private static final int REQUESTS = 10000;
+
+    @Inject
+    private ServerRuntime runtime;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    protected DBHelper dbHelper;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Virtual threads are not supported", DaemonThreadFactory.isVirtualThreadSupported());
+
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        for (int i = 1; i <= 50; i++) {
+            tArtist.insert(i, "artist" + i);
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+
+        List<Artist> pagedArtists = ObjectSelect.query(Artist.class).pageSize(5).select(context);
+
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            int request = i;
+            DaemonThreadFactory.newThread("vt-request-" + i, true, () -> {
+                try {
+                    if (request % 2 == 0) {
+                        // concurrent page resolution of a shared list
+                        assertEquals(50, pagedArtists.size());
+                        pagedArtists.get(request % 50).getArtistName();
+                    } else {
+                        ObjectContext requestContext = runtime.newContext();
+                        long count = ObjectSelect.query(Artist.class).selectCount(requestContext);
+                        assertEquals(50L, count);
+                    }
+                } catch (Throwable th) {
+                    errors.add(th);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue("Requests did not complete", done.await(2, TimeUnit.MINUTES));
+        assertTrue("Errors in requests: " + errors, errors.isEmpty());
+    }
+}
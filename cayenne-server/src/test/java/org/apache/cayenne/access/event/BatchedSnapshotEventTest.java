@@ -0,0 +1,97 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchedSnapshotEventTest {
+
+    private static final Object SOURCE = new Object();
+
+    private static DataRow diff(String column, Object value) {
+        DataRow row = new DataRow(1);
+        row.put(column, value);
+        return row;
+    }
+
+    @Test
+    public void testMerge() {
+        ObjectId id1 = ObjectId.of("Artist", "ID", 1);
+        ObjectId id2 = ObjectId.of("Artist", "ID", 2);
+
+        SnapshotEvent e1 = new SnapshotEvent(SOURCE, "a",
+                Collections.singletonMap(id1, diff("NAME", "x")),
+                Collections.singletonList(id2), null, null);
+        SnapshotEvent e2 = new SnapshotEvent(SOURCE, "b",
+                Collections.singletonMap(id1, diff("DOB", "y")),
+                Collections.singletonList(id2),
+                Collections.singletonList(id1), null);
+
+        BatchedSnapshotEvent batch = new BatchedSnapshotEvent(SOURCE, Arrays.asList(e1, e2));
+
+        assertSame(SOURCE, batch.getSource());
+        assertNull(batch.getPostedBy());
+        assertEquals(2, batch.getEvents().size());
+
+        DataRow merged = batch.getModifiedDiffs().get(id1);
+        assertEquals("x", merged.get("NAME"));
+        assertEquals("y", merged.get("DOB"));
+        assertEquals(1, batch.getDeletedIds().size());
+        assertEquals(Collections.singleton(id1), batch.getInvalidatedIds());
+        assertTrue(batch.getIndirectlyModifiedIds().isEmpty());
+    }
+
+    @Test
+    public void testExcluding() {
+        ObjectId id1 = ObjectId.of("Artist", "ID", 1);
+        ObjectId id2 = ObjectId.of("Artist", "ID", 2);
+        ObjectId id3 = ObjectId.of("Artist", "ID", 3);
+
+        SnapshotEvent e1 = new SnapshotEvent(SOURCE, "a", null, Collections.singletonList(id1), null, null);
+        SnapshotEvent e2 = new SnapshotEvent(SOURCE, "b", null, Collections.singletonList(id2), null, null);
+        SnapshotEvent e3 = new SnapshotEvent(SOURCE, "c", null, Collections.singletonList(id3), null, null);
+
+        List<SnapshotEvent> events = Arrays.asList(e1, e2, e3);
+        BatchedSnapshotEvent batch = new BatchedSnapshotEvent(SOURCE, events);
+
+        assertSame(batch, batch.excluding("x"));
+
+        SnapshotEvent withoutB = batch.excluding("b");
+        assertTrue(withoutB instanceof BatchedSnapshotEvent);
+        assertEquals(Arrays.asList(id1, id3), new ArrayList<>(withoutB.getDeletedIds()));
+
+        BatchedSnapshotEvent pair = new BatchedSnapshotEvent(SOURCE, Arrays.asList(e1, e2));
+        assertSame(e2, pair.excluding("a"));
+
+        BatchedSnapshotEvent own = new BatchedSnapshotEvent(SOURCE, Arrays.asList(e1, e1));
+        assertNull(own.excluding("a"));
+    }
+}
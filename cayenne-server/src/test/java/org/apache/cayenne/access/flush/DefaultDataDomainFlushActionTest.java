@@ -22,17 +22,29 @@ package org.apache.cayenne.access.flush;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.flush.DefaultDataDomainFlushAction;
 import org.apache.cayenne.access.flush.operation.BaseDbRowOp;
 import org.apache.cayenne.access.flush.operation.DbRowOp;
 import org.apache.cayenne.access.flush.operation.DeleteDbRowOp;
 import org.apache.cayenne.access.flush.operation.InsertDbRowOp;
 import org.apache.cayenne.access.flush.operation.UpdateDbRowOp;
+import org.apache.cayenne.log.NoopJdbcEventLogger;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.query.DeleteBatchQuery;
@@ -139,6 +151,85 @@ public class DefaultDataDomainFlushActionTest {
         assertEquals(1, delete2.getRows().size());
     }
 
+    @Test
+    public void executeQueriesInParallel() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            // each node waits for the other one, so this only completes if they run concurrently
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            AtomicInteger executed = new AtomicInteger();
+
+            Map<DataNode, List<Query>> queriesByNode = new LinkedHashMap<>();
+            queriesByNode.put(new DataNode("node1") {
+                @Override
+                public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+                    await(barrier);
+                    executed.incrementAndGet();
+                }
+            }, Collections.emptyList());
+            queriesByNode.put(new DataNode("node2") {
+                @Override
+                public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+                    await(barrier);
+                    executed.incrementAndGet();
+                }
+            }, Collections.emptyList());
+
+            DefaultDataDomainFlushAction action = new DefaultDataDomainFlushAction(
+                    null, null, NoopJdbcEventLogger.getInstance(), executor);
+            action.executeQueriesInParallel(queriesByNode);
+
+            assertEquals(2, executed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void executeQueriesInParallel_Error() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            AtomicInteger executed = new AtomicInteger();
+
+            Map<DataNode, List<Query>> queriesByNode = new LinkedHashMap<>();
+            queriesByNode.put(new DataNode("node1") {
+                @Override
+                public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+                    executed.incrementAndGet();
+                    throw new CayenneRuntimeException("node1 failure");
+                }
+            }, Collections.emptyList());
+            queriesByNode.put(new DataNode("node2") {
+                @Override
+                public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+                    executed.incrementAndGet();
+                }
+            }, Collections.emptyList());
+
+            DefaultDataDomainFlushAction action = new DefaultDataDomainFlushAction(
+                    null, null, NoopJdbcEventLogger.getInstance(), executor);
+            try {
+                action.executeQueriesInParallel(queriesByNode);
+                fail("Node exception expected");
+            } catch (CayenneRuntimeException e) {
+                assertThat(e.getMessage(), containsString("node1 failure"));
+            }
+
+            // the other node is still processed
+            assertEquals(2, executed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new CayenneRuntimeException("Nodes were not executed concurrently", e);
+        }
+    }
+
     private Persistent mockObject(ObjectId id) {
         Persistent persistent = mock(Persistent.class);
         when(persistent.getObjectId()).thenReturn(id);
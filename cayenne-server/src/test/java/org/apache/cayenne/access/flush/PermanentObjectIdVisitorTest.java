@@ -0,0 +1,84 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.flush;
+
+import java.util.Arrays;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.flush.operation.InsertDbRowOp;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.PkGenerator;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 4.2
+ */
+public class PermanentObjectIdVisitorTest {
+
+    @Test
+    public void generatePks_SameChangeId() throws Exception {
+        DbAttribute pk = new DbAttribute("id");
+        pk.setPrimaryKey(true);
+        DbEntity entity = new DbEntity("test");
+        entity.addAttribute(pk);
+
+        PkGenerator pkGenerator = mock(PkGenerator.class);
+        DbAdapter adapter = mock(DbAdapter.class);
+        when(adapter.getPkGenerator()).thenReturn(pkGenerator);
+        DataNode node = mock(DataNode.class);
+        when(node.getAdapter()).thenReturn(adapter);
+
+        EntityResolver resolver = mock(EntityResolver.class);
+        when(resolver.getDbEntity("test")).thenReturn(entity);
+        DataDomain domain = mock(DataDomain.class);
+        when(domain.getEntityResolver()).thenReturn(resolver);
+        when(domain.lookupDataNode(any())).thenReturn(node);
+
+        when(pkGenerator.generatePks(node, pk, 2)).thenReturn(Arrays.asList(1, 2));
+
+        ObjectId id1 = ObjectId.of("db:test");
+        ObjectId id2 = ObjectId.of("db:test");
+
+        PermanentObjectIdVisitor visitor = new PermanentObjectIdVisitor(domain);
+        visitor.visitInsert(new InsertDbRowOp(mock(Persistent.class), entity, id1));
+        visitor.visitInsert(new InsertDbRowOp(mock(Persistent.class), entity, id1));
+        visitor.visitInsert(new InsertDbRowOp(mock(Persistent.class), entity, id2));
+        visitor.generatePks();
+
+        // one key per change id, not per operation
+        verify(pkGenerator).generatePks(eq(node), eq(pk), eq(2));
+        assertEquals(1, id1.getReplacementIdMap().get("id"));
+        assertEquals(2, id2.getReplacementIdMap().get("id"));
+        assertTrue(id1.isReplacementIdAttached());
+    }
+}
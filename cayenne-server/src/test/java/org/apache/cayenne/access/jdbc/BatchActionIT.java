@@ -19,22 +19,37 @@
 
 package org.apache.cayenne.access.jdbc;
 
+import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.translator.batch.DefaultBatchTranslatorFactory;
+import org.apache.cayenne.access.util.DefaultOperationObserver;
 import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.Query;
 import org.apache.cayenne.testdo.testmap.Artist;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
 public class BatchActionIT extends ServerCase {
@@ -77,6 +92,48 @@ public class BatchActionIT extends ServerCase {
         assertFalse(new BatchAction(batch2, node, false).hasGeneratedKeys());
     }
 
+    @Test
+    public void testMaxBatchSize() throws Exception {
+        EntityResolver resolver = runtime.getChannel().getEntityResolver();
+
+        JdbcAdapter adapter = buildAdapter(false);
+        adapter.setSupportsBatchUpdates(true);
+
+        DataNode node = new DataNode();
+        node.setAdapter(adapter);
+        node.setEntityResolver(resolver);
+        node.setRowReaderFactory(mock(RowReaderFactory.class));
+        node.setBatchTranslatorFactory(new DefaultBatchTranslatorFactory());
+        node.setMaxBatchSize(2);
+
+        DbEntity artist = resolver.getObjEntity(Artist.class).getDbEntity();
+        InsertBatchQuery batch = new InsertBatchQuery(artist, 5);
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("ARTIST_ID", i);
+            snapshot.put("ARTIST_NAME", "a" + i);
+            batch.add(snapshot, ObjectId.of("Artist", "ARTIST_ID", i));
+        }
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1});
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        int[][] counts = new int[1][];
+        new BatchAction(batch, node, true).performAction(connection, new DefaultOperationObserver() {
+            @Override
+            public void nextBatchCount(Query query, int[] resultCount) {
+                counts[0] = resultCount;
+            }
+        });
+
+        // rows are sent in chunks, while update counts are reported for the whole batch
+        verify(statement, times(5)).addBatch();
+        verify(statement, times(3)).executeBatch();
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1}, counts[0]);
+    }
+
     JdbcAdapter buildAdapter(boolean supportGeneratedKeys) {
         JdbcAdapter adapter = objectFactory.newInstance(JdbcAdapter.class, JdbcAdapter.class.getName());
         adapter.setSupportsGeneratedKeys(supportGeneratedKeys);
@@ -0,0 +1,125 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.batch;
+
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.JdbcAdapter;
+import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.testdo.locking.SimpleLockingTestEntity;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@UseServerRuntime(CayenneProjects.LOCKING_PROJECT)
+public class MultiRowInsertBatchTranslatorIT extends ServerCase {
+
+    @Inject
+    private ServerRuntime runtime;
+
+    @Inject
+    private AdhocObjectFactory objectFactory;
+
+    @Test
+    public void testGetSql() throws Exception {
+        DbEntity entity = runtime.getDataDomain().getEntityResolver().getObjEntity(SimpleLockingTestEntity.class)
+                .getDbEntity();
+
+        DbAdapter adapter = objectFactory.newInstance(DbAdapter.class, JdbcAdapter.class.getName());
+        InsertBatchQuery insertQuery = new InsertBatchQuery(entity, 1);
+        MultiRowInsertBatchTranslator builder = new MultiRowInsertBatchTranslator(insertQuery, adapter, 3);
+
+        String prefix = "INSERT INTO " + entity.getName()
+                + " (DESCRIPTION, INT_COLUMN_NOTNULL, INT_COLUMN_NULL, LOCKING_TEST_ID, NAME) VALUES ";
+
+        assertEquals(prefix + "(?, ?, ?, ?, ?)", builder.getSql());
+        assertEquals(prefix + "(?, ?, ?, ?, ?)", builder.getSql(1));
+        assertEquals(prefix + "(?, ?, ?, ?, ?), (?, ?, ?, ?, ?)", builder.getSql(2));
+        assertEquals(prefix + "(?, ?, ?, ?, ?), (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)", builder.getSql(3));
+        assertSame(builder.getSql(3), builder.getSql(3));
+    }
+
+    @Test
+    public void testGetRowsPerStatement() throws Exception {
+        DbEntity entity = runtime.getDataDomain().getEntityResolver().getObjEntity(SimpleLockingTestEntity.class)
+                .getDbEntity();
+
+        DbAdapter adapter = objectFactory.newInstance(DbAdapter.class, JdbcAdapter.class.getName());
+        InsertBatchQuery insertQuery = new InsertBatchQuery(entity, 1);
+
+        assertEquals(50, new MultiRowInsertBatchTranslator(insertQuery, adapter, 50).getRowsPerStatement());
+
+        // 5 columns per row, so the number of rows is limited by max parameters
+        assertEquals(MultiRowInsertBatchTranslator.MAX_PARAMETERS / 5,
+                new MultiRowInsertBatchTranslator(insertQuery, adapter, 100000).getRowsPerStatement());
+    }
+
+    @Test
+    public void testUpdateBindings() throws Exception {
+        DbEntity entity = runtime.getDataDomain().getEntityResolver().getObjEntity(SimpleLockingTestEntity.class)
+                .getDbEntity();
+
+        DbAdapter adapter = objectFactory.newInstance(DbAdapter.class, JdbcAdapter.class.getName());
+        InsertBatchQuery insertQuery = new InsertBatchQuery(entity, 3);
+        for (int i = 1; i <= 3; i++) {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("LOCKING_TEST_ID", i);
+            snapshot.put("NAME", "n" + i);
+            snapshot.put("INT_COLUMN_NOTNULL", i * 10);
+            insertQuery.add(snapshot);
+        }
+
+        MultiRowInsertBatchTranslator builder = new MultiRowInsertBatchTranslator(insertQuery, adapter, 2);
+
+        DbAttributeBinding[] full = builder.updateBindings(insertQuery.getRows().subList(0, 2));
+        assertEquals(10, full.length);
+        for (int i = 0; i < full.length; i++) {
+            assertEquals(i + 1, full[i].getStatementPosition());
+        }
+        assertEquals("n1", valueOf(full, 0, "NAME"));
+        assertEquals("n2", valueOf(full, 1, "NAME"));
+
+        DbAttributeBinding[] tail = builder.updateBindings(insertQuery.getRows().subList(2, 3));
+        assertEquals(5, tail.length);
+        assertEquals("n3", valueOf(tail, 0, "NAME"));
+        assertEquals(30, valueOf(tail, 0, "INT_COLUMN_NOTNULL"));
+        assertEquals(5, tail[tail.length - 1].getStatementPosition());
+    }
+
+    private static Object valueOf(DbAttributeBinding[] bindings, int row, String column) {
+        for (int i = row * 5; i < (row + 1) * 5; i++) {
+            if (column.equals(bindings[i].getAttribute().getName())) {
+                return bindings[i].getValue();
+            }
+        }
+
+        throw new IllegalArgumentException(column);
+    }
+}
@@ -38,6 +38,8 @@ import org.apache.cayenne.access.sqlbuilder.sqltree.OpExpressionNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.SelectNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.TextNode;
 import org.apache.cayenne.access.sqlbuilder.sqltree.ValueNode;
+import org.apache.cayenne.access.types.ArrayParameter;
+import org.apache.cayenne.dba.InListStrategy;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.exp.parser.ASTAsterisk;
@@ -54,12 +56,14 @@ import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
 
 /**
  * @since 4.2
  */
 public class QualifierTranslatorTest {
 
+    private TranslatorContext context;
     private QualifierTranslator translator;
 
     @Before
@@ -103,7 +107,7 @@ public class QualifierTranslatorTest {
                         .withObjEntity(entity)
                         .build())
                 .build();
-        TranslatorContext context = new MockTranslatorContext(wrapper, resolver);
+        context = new MockTranslatorContext(wrapper, resolver);
         translator = new QualifierTranslator(context);
     }
 
@@ -472,6 +476,41 @@ public class QualifierTranslatorTest {
         assertEquals(" ( t0.a < 2 ) AND t0.b IN ( 5, 6) AND ( t0.b = 7 )", visitor.getSQLString());
     }
 
+    @Test
+    public void translateInPadded() {
+        when(context.getAdapter().getInListStrategy()).thenReturn(InListStrategy.PADDED);
+        translator = new QualifierTranslator(context);
+
+        Node in = translate("db:a in (1, 2, 3)");
+        assertThat(in, instanceOf(InNode.class));
+        assertFalse(((InNode) in).isArray());
+        assertArrayEquals(new Object[]{1, 2, 3, 3}, (Object[]) ((ValueNode) in.getChild(1)).getValue());
+
+        in = translate("db:a in (1, 2, 3, 4)");
+        assertArrayEquals(new Object[]{1, 2, 3, 4}, (Object[]) ((ValueNode) in.getChild(1)).getValue());
+
+        in = translate("db:a in (1)");
+        assertArrayEquals(new Object[]{1}, (Object[]) ((ValueNode) in.getChild(1)).getValue());
+    }
+
+    @Test
+    public void translateInArray() {
+        when(context.getAdapter().getInListStrategy()).thenReturn(InListStrategy.ARRAY);
+        translator = new QualifierTranslator(context);
+
+        Node in = translate("db:a not in (1, 2, 3)");
+        assertThat(in, instanceOf(InNode.class));
+        assertTrue(((InNode) in).isNot());
+        assertTrue(((InNode) in).isArray());
+        assertThat(in.getChild(1), instanceOf(ValueNode.class));
+        assertFalse(((ValueNode) in.getChild(1)).isArray());
+        assertArrayEquals(new Object[]{1, 2, 3}, ((ArrayParameter) ((ValueNode) in.getChild(1)).getValue()).getElements());
+
+        SQLGenerationVisitor visitor = new SQLGenerationVisitor(new StringBuilderAppendable());
+        in.visit(visitor);
+        assertEquals(" t0.a <> ALL( [1, 2, 3])", visitor.getSQLString());
+    }
+
     @Test
     public void translateOr() {
         Node or = translate("true or false");
@@ -0,0 +1,208 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.translator.select;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.ColumnSelect;
+import org.apache.cayenne.query.FluentSelect;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 4.2
+ */
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class SelectPlanCacheIT extends ServerCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private ServerRuntime runtime;
+
+    @Inject
+    private DbAdapter adapter;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private SelectPlanCache cache;
+
+    @Before
+    public void before() {
+        cache = new SelectPlanCache(10);
+    }
+
+    private SelectTranslator translator(FluentSelect<?> select) {
+        return cache.translator(select, new DefaultSelectTranslatorFactory(), adapter, context.getEntityResolver());
+    }
+
+    @Test
+    public void testReuseWithDifferentValues() throws Exception {
+        SelectTranslator t1 = translator(ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq("a1"))
+                .and(Artist.PAINTING_ARRAY.dot(Painting.ESTIMATED_PRICE).gt(new BigDecimal(10)))
+                .orderBy(Artist.ARTIST_NAME.asc()));
+        String sql1 = t1.getSql();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        SelectTranslator t2 = translator(ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq("a2"))
+                .and(Artist.PAINTING_ARRAY.dot(Painting.ESTIMATED_PRICE).gt(new BigDecimal(20)))
+                .orderBy(Artist.ARTIST_NAME.asc()));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(sql1, t2.getSql());
+        assertEquals(t1.hasJoins(), t2.hasJoins());
+        assertEquals(t1.getResultColumns().length, t2.getResultColumns().length);
+
+        DbAttributeBinding[] bindings1 = t1.getBindings();
+        DbAttributeBinding[] bindings2 = t2.getBindings();
+        assertEquals(2, bindings2.length);
+        assertEquals("a2", bindings2[0].getValue());
+        assertEquals(new BigDecimal(20), bindings2[1].getValue());
+        for (int i = 0; i < bindings2.length; i++) {
+            assertSame(bindings1[i].getAttribute(), bindings2[i].getAttribute());
+            assertSame(bindings1[i].getExtendedType(), bindings2[i].getExtendedType());
+            assertEquals(bindings1[i].getStatementPosition(), bindings2[i].getStatementPosition());
+        }
+
+        assertSame(t2.getRowDescriptor(adapter.getExtendedTypes()),
+                translator(ObjectSelect.query(Artist.class)
+                        .where(Artist.ARTIST_NAME.eq("a3"))
+                        .and(Artist.PAINTING_ARRAY.dot(Painting.ESTIMATED_PRICE).gt(new BigDecimal(30)))
+                        .orderBy(Artist.ARTIST_NAME.asc()))
+                        .getRowDescriptor(adapter.getExtendedTypes()));
+    }
+
+    @Test
+    public void testShapeDependsOnValues() throws Exception {
+        translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("a1"))).getSql();
+
+        // NULL changes the SQL
+        SelectTranslator nullTranslator = translator(ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq((String) null)));
+        assertEquals(0, cache.getHitCount());
+        nullTranslator.getSql();
+        assertEquals(0, nullTranslator.getBindings().length);
+
+        // so does the size of IN list
+        translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.in("a", "b"))).getSql();
+        SelectTranslator in3 = translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.in("c", "d", "e")));
+        assertEquals(0, cache.getHitCount());
+        in3.getSql();
+        assertEquals(3, in3.getBindings().length);
+
+        SelectTranslator in2 = translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.in("f", "g")));
+        assertEquals(1, cache.getHitCount());
+        in2.getSql();
+        assertEquals("f", in2.getBindings()[0].getValue());
+        assertEquals("g", in2.getBindings()[1].getValue());
+
+        // limit is a part of the shape too
+        translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("a1")).limit(5)).getSql();
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testStringLength() throws Exception {
+        String sql = translator(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("a1"))).getSql();
+
+        SelectTranslator longer = translator(ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq("a_much_longer_name")));
+
+        // string length is only a part of the shape if the adapter puts it in SQL
+        if (adapter.usesStringLengthInSql()) {
+            assertEquals(0, cache.getHitCount());
+            longer.getSql();
+        } else {
+            assertEquals(1, cache.getHitCount());
+            assertEquals(sql, longer.getSql());
+        }
+        assertEquals("a_much_longer_name", longer.getBindings()[0].getValue());
+    }
+
+    @Test
+    public void testColumnSelect() throws Exception {
+        ColumnSelect<String> select1 = ObjectSelect.columnQuery(Artist.class, Artist.ARTIST_NAME)
+                .where(Artist.ARTIST_NAME.like("a%"));
+        String sql = translator(select1).getSql();
+
+        ColumnSelect<String> select2 = ObjectSelect.columnQuery(Artist.class, Artist.ARTIST_NAME)
+                .where(Artist.ARTIST_NAME.like("b%"));
+        SelectTranslator translator = translator(select2);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(sql, translator.getSql());
+
+        List<Object> mapping = select2.getMetaData(context.getEntityResolver()).getResultSetMapping();
+        assertNotNull(mapping);
+        assertEquals(1, mapping.size());
+    }
+
+    @Test
+    public void testSubqueryNotCached() throws Exception {
+        ObjectSelect<Artist> select = ObjectSelect.query(Artist.class)
+                .where(ExpressionFactory.exists(ObjectSelect.query(Painting.class)
+                        .where(Painting.PAINTING_TITLE.eq("p1"))));
+        translator(select).getSql();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testSelect() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "a1");
+        tArtist.insert(2, "a2");
+
+        DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+        SelectPlanCache oldCache = node.getSelectPlanCache();
+        node.setSelectPlanCache(cache);
+        try {
+            assertEquals("a1", ObjectSelect.query(Artist.class)
+                    .where(Artist.ARTIST_NAME.eq("a1")).selectOne(context).getArtistName());
+            assertEquals("a2", ObjectSelect.query(Artist.class)
+                    .where(Artist.ARTIST_NAME.eq("a2")).selectOne(context).getArtistName());
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            node.setSelectPlanCache(oldCache);
+        }
+    }
+}
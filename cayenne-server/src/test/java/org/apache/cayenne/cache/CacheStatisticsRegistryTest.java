@@ -0,0 +1,132 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CacheStatisticsRegistryTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        CacheStatisticsRegistry registry = new CacheStatisticsRegistry(
+                new DefaultRuntimeProperties(Collections.<String, String>emptyMap()),
+                new NoopCacheStatisticsListener());
+
+        assertFalse(registry.isEnabled());
+        assertNull(registry.create("test", null, null));
+    }
+
+    @Test
+    public void testCustomListener() {
+        final AtomicInteger hits = new AtomicInteger();
+        CacheStatisticsRegistry registry = new CacheStatisticsRegistry(
+                new DefaultRuntimeProperties(Collections.<String, String>emptyMap()),
+                new CacheStatisticsListener() {
+                    @Override
+                    public void onHit(String cacheName, String group) {
+                        hits.incrementAndGet();
+                    }
+                });
+
+        assertTrue(registry.isEnabled());
+
+        CacheStatistics statistics = registry.create("test", null, null);
+        assertNotNull(statistics);
+        statistics.recordHit("g");
+        statistics.recordMiss("g");
+
+        assertEquals(1, hits.get());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(-1, statistics.getSize());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.CACHE_STATISTICS_JMX_PROPERTY, "true");
+        CacheStatisticsRegistry registry = new CacheStatisticsRegistry(
+                new DefaultRuntimeProperties(properties),
+                new NoopCacheStatisticsListener());
+
+        CacheStatistics statistics = registry.create("jmx-test", null, () -> 5);
+        statistics.recordHit("g");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = registry.objectName("jmx-test");
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "HitCount"));
+            assertEquals(5, server.getAttribute(name, "Size"));
+            assertNotNull(server.getAttribute(name, "GroupStatistics"));
+        } finally {
+            registry.shutdown();
+        }
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testJmx_TwoRegistries() throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.CACHE_STATISTICS_JMX_PROPERTY, "true");
+        CacheStatisticsRegistry registry1 = new CacheStatisticsRegistry(
+                new DefaultRuntimeProperties(properties),
+                new NoopCacheStatisticsListener());
+        CacheStatisticsRegistry registry2 = new CacheStatisticsRegistry(
+                new DefaultRuntimeProperties(properties),
+                new NoopCacheStatisticsListener());
+
+        registry1.create("jmx-test", null, () -> 1);
+        registry2.create("jmx-test", null, () -> 2);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name1 = registry1.objectName("jmx-test");
+        ObjectName name2 = registry2.objectName("jmx-test");
+        try {
+            assertNotEquals(name1, name2);
+            assertEquals(1, server.getAttribute(name1, "Size"));
+            assertEquals(2, server.getAttribute(name2, "Size"));
+
+            // shutting down one runtime leaves the other one's statistics alone
+            registry1.shutdown();
+            assertFalse(server.isRegistered(name1));
+            assertTrue(server.isRegistered(name2));
+        } finally {
+            registry1.shutdown();
+            registry2.shutdown();
+        }
+    }
+}
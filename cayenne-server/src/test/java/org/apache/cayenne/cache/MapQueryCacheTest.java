@@ -23,9 +23,21 @@ import org.apache.cayenne.util.Util;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MapQueryCacheTest {
 
@@ -47,4 +59,420 @@ public class MapQueryCacheTest {
         assertNotNull(deserialized);
         assertEquals(1, deserialized.size());
     }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+
+        final MapQueryCache cache = new MapQueryCache(50);
+        final List<Object> value = Collections.singletonList(new Object());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        MockQueryMetadata metadata = metadata("g" + (i % 3), "k" + ((i + thread) % 100));
+                        if (cache.get(metadata) == null) {
+                            cache.put(metadata, value);
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // per-group LRU bound is still enforced
+        assertTrue(cache.size() <= 3 * 50);
+
+        List<Object> other = Collections.singletonList(new Object());
+        cache.put(metadata("g1", "x"), other);
+        assertSame(other, cache.get(metadata("g1", "x")));
+    }
+
+    @Test
+    public void testConcurrentPutAndClear_Weight() throws Exception {
+
+        final MapQueryCache cache = new MapQueryCache(100);
+        cache.setWeighBySize(true);
+        cache.setMaxWeight(500);
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        cache.put(metadata("g" + (i % 3), "k" + ((i + thread) % 50)), list(i % 5));
+                    }
+                }));
+            }
+
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    if (i % 2 == 0) {
+                        cache.clear();
+                    } else {
+                        cache.removeGroup("g" + (i % 3));
+                    }
+                }
+            }));
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // entries racing with clear() must be accounted for exactly once, so removing
+        // whatever is left brings the weight back to zero
+        for (int i = 0; i < 3; i++) {
+            cache.removeGroup("g" + i);
+        }
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+
+        cache.put(metadata("g1", "x"), list(3));
+        assertEquals(4, cache.weightedSize());
+        assertNotNull(cache.get(metadata("g1", "x")));
+    }
+
+    @Test
+    public void testGet_SingleFlight() throws Exception {
+
+        final MapQueryCache cache = new MapQueryCache(5);
+        final MockQueryMetadata metadata = metadata("g", "k");
+        final List<Object> value = Collections.singletonList(new Object());
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List> first = executor.submit(() -> cache.get(metadata, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return value;
+            }));
+
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<List>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                others.add(executor.submit(() -> cache.get(metadata, () -> {
+                    loads.incrementAndGet();
+                    return value;
+                })));
+            }
+
+            // give the other threads a chance to reach the cache
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(value, first.get(5, TimeUnit.SECONDS));
+            for (Future<List> other : others) {
+                assertSame(value, other.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.loader.getInFlightCount());
+    }
+
+    @Test
+    public void testGet_SingleFlightFailure() throws Exception {
+
+        MapQueryCache cache = new MapQueryCache(5);
+        MockQueryMetadata metadata = metadata("g", "k");
+
+        try {
+            cache.get(metadata, () -> {
+                throw new IllegalStateException("test");
+            });
+            fail("Loader exception expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertEquals(0, cache.loader.getInFlightCount());
+
+        List<Object> value = Collections.singletonList(new Object());
+        assertSame(value, cache.get(metadata, () -> value));
+    }
+
+    @Test
+    public void testGet_ServeStale() throws Exception {
+
+        final MapQueryCache cache = new MapQueryCache(5, true);
+        final MockQueryMetadata metadata = metadata("g", "k");
+        final List<Object> oldValue = Collections.singletonList(new Object());
+        final List<Object> newValue = Collections.singletonList(new Object());
+
+        cache.put(metadata, oldValue);
+        cache.removeGroup("g");
+        assertEquals(0, cache.size());
+        assertNull(cache.get(metadata));
+
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List> refresh = executor.submit(() -> cache.get(metadata, () -> {
+                loading.countDown();
+                await(release);
+                return newValue;
+            }));
+
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // refresh is in progress, so the stale value is served without waiting
+            assertSame(oldValue, cache.get(metadata, () -> {
+                throw new AssertionError("Unexpected load");
+            }));
+
+            release.countDown();
+            assertSame(newValue, refresh.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertSame(newValue, cache.get(metadata));
+        assertNull(cache.getStale("g", "k"));
+    }
+
+    @Test
+    public void testRemove_ServeStaleDisabled() {
+
+        MapQueryCache cache = new MapQueryCache(5);
+        MockQueryMetadata metadata = metadata("g", "k");
+
+        cache.put(metadata, new ArrayList<>());
+        cache.remove("k");
+        cache.removeGroup("g");
+
+        assertEquals(0, cache.size());
+        assertTrue(cache.staleEntries.isEmpty());
+    }
+
+    @Test
+    public void testRemove_StaleEntriesBounded() {
+
+        MapQueryCache cache = new MapQueryCache(5, true);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(metadata("g" + i, "k" + i), list(1));
+            cache.removeGroup("g" + i);
+        }
+
+        // stale entries are bounded by the group capacity, the oldest ones are dropped
+        assertEquals(5, cache.staleEntries.size());
+        assertNull(cache.getStale("g0", "k0"));
+        assertNotNull(cache.getStale("g19", "k19"));
+    }
+
+    @Test
+    public void testWeighBySize() {
+
+        MapQueryCache cache = new MapQueryCache(10);
+        cache.setWeighBySize(true);
+
+        cache.put(metadata("g", "k1"), list(4));
+        cache.put(metadata("g", "k2"), list(4));
+        assertEquals(2, cache.size());
+        assertEquals(10, cache.weightedSize());
+
+        // exceeds group capacity, the least recently used entry is evicted
+        cache.put(metadata("g", "k3"), list(2));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(metadata("g", "k1")));
+        assertNotNull(cache.get(metadata("g", "k3")));
+
+        // a result bigger than the group capacity is not retained
+        cache.put(metadata("g", "k4"), list(20));
+        assertNull(cache.get(metadata("g", "k4")));
+    }
+
+    @Test
+    public void testMaxWeight() {
+
+        MapQueryCache cache = new MapQueryCache(100);
+        cache.setWeighBySize(true);
+        cache.setMaxWeight(20);
+
+        cache.put(metadata("g1", "k1"), list(9));
+        cache.put(metadata("g1", "k2"), list(4));
+        cache.put(metadata("g2", "k3"), list(4));
+        assertEquals(20, cache.weightedSize());
+
+        // evicted from the heaviest group
+        cache.put(metadata("g2", "k4"), list(1));
+        assertTrue(cache.weightedSize() <= 20);
+        assertNull(cache.get(metadata("g1", "k1")));
+        assertNotNull(cache.get(metadata("g1", "k2")));
+        assertNotNull(cache.get(metadata("g2", "k3")));
+        assertNotNull(cache.get(metadata("g2", "k4")));
+    }
+
+    @Test
+    public void testMaxWeight_Overweight() {
+
+        MapQueryCache cache = new MapQueryCache(100);
+        cache.setWeighBySize(true);
+        cache.setMaxWeight(10);
+
+        cache.put(metadata("g1", "k1"), list(4));
+        cache.put(metadata("g2", "k2"), list(4));
+
+        // a result heavier than the whole budget is not cached and does not flush the rest
+        cache.put(metadata("g1", "k1"), list(20));
+        assertNull(cache.get(metadata("g1", "k1")));
+        assertNotNull(cache.get(metadata("g2", "k2")));
+        assertEquals(5, cache.weightedSize());
+    }
+
+    @Test
+    public void testCacheGroups_ListValues() {
+
+        MapQueryCache cache = new MapQueryCache(10);
+        cache.setTimeToLive(1000);
+
+        List<Object> value = list(2);
+        cache.put(metadata("g", "k"), value);
+
+        // group maps keep exposing query results as lists
+        List<?> stored = cache.getCache("g").get("k");
+        assertEquals(value, stored);
+
+        cache.createIfAbsent("g").put("k2", value);
+        assertSame(value, cache.get(metadata("g", "k2")));
+    }
+
+    @Test
+    public void testMaxWeight_StaleFirst() {
+
+        MapQueryCache cache = new MapQueryCache(100, true);
+        cache.setMaxWeight(3);
+
+        cache.put(metadata("g1", "k1"), list(1));
+        cache.put(metadata("g1", "k2"), list(1));
+        cache.remove("k1");
+        cache.put(metadata("g2", "k3"), list(1));
+        assertEquals(3, cache.weightedSize());
+
+        cache.put(metadata("g2", "k4"), list(1));
+        assertEquals(3, cache.weightedSize());
+        assertTrue(cache.staleEntries.isEmpty());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+
+        MapQueryCache cache = new MapQueryCache(10);
+        cache.setTimeToLive("g1", 50);
+
+        cache.put(metadata("g1", "k1"), list(1));
+        cache.put(metadata("g2", "k2"), list(1));
+        assertNotNull(cache.get(metadata("g1", "k1")));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get(metadata("g1", "k1")));
+        assertNotNull(cache.get(metadata("g2", "k2")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testTimeToLive_Resolver() {
+
+        MapQueryCache cache = new MapQueryCache(10);
+        cache.setTimeToLive(1000);
+        cache.setTimeToLiveResolver(name -> "g1".equals(name) ? 5L : null);
+
+        assertEquals(5L, cache.getTimeToLive("g1"));
+        assertEquals(1000L, cache.getTimeToLive("g2"));
+
+        cache.setTimeToLive("g2", 0);
+        assertEquals(0L, cache.getTimeToLive("g2"));
+    }
+
+    @Test
+    public void testTimeToLive_ServeStale() throws Exception {
+
+        MapQueryCache cache = new MapQueryCache(10, true);
+        cache.setTimeToLive(1);
+
+        List<Object> value = list(1);
+        cache.put(metadata("g", "k"), value);
+        Thread.sleep(20);
+
+        assertNull(cache.get(metadata("g", "k")));
+        assertSame(value, cache.getStale("g", "k"));
+    }
+
+    @Test
+    public void testStatistics() {
+
+        MapQueryCache cache = new MapQueryCache(2);
+        CacheStatistics statistics = new CacheStatistics("test", new NoopCacheStatisticsListener(), cache::size, cache::size);
+        cache.setStatistics(statistics);
+
+        assertNull(cache.get(metadata("g", "k1")));
+        cache.get(metadata("g", "k1"), () -> list(1));
+        assertNotNull(cache.get(metadata("g", "k1")));
+        cache.put(metadata("g", "k2"), list(1));
+        cache.put(metadata("g", "k3"), list(1));
+
+        CacheGroupStatistics group = statistics.getGroupStatistics("g");
+        assertEquals(1, group.getHitCount());
+        assertEquals(2, group.getMissCount());
+        assertEquals(1, group.getLoadCount());
+        assertEquals(1, group.getEvictionCount());
+        assertEquals(2, group.getSize());
+        assertEquals(1. / 3, group.getHitRatio(), 0.0001);
+        assertEquals(2, statistics.getSize());
+    }
+
+    private static List<Object> list(int size) {
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new Object());
+        }
+        return list;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MockQueryMetadata metadata(final String group, final String key) {
+        return new MockQueryMetadata() {
+
+            @Override
+            public String getCacheKey() {
+                return key;
+            }
+
+            @Override
+            public String getCacheGroup() {
+                return group;
+            }
+        };
+    }
 }
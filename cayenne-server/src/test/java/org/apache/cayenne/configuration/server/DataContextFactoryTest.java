@@ -23,13 +23,18 @@ import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataRowStoreFactory;
 import org.apache.cayenne.access.DefaultDataRowStoreFactory;
 import org.apache.cayenne.access.DefaultObjectMapRetainStrategy;
+import org.apache.cayenne.access.DefaultSnapshotMapFactory;
 import org.apache.cayenne.access.ObjectMapRetainStrategy;
+import org.apache.cayenne.access.SnapshotMapFactory;
 import org.apache.cayenne.access.flush.DataDomainFlushActionFactory;
 import org.apache.cayenne.access.flush.operation.DbRowOpSorter;
 import org.apache.cayenne.access.flush.DefaultDataDomainFlushActionFactory;
 import org.apache.cayenne.access.flush.operation.DefaultDbRowOpSorter;
 import org.apache.cayenne.ashwood.AshwoodEntitySorter;
+import org.apache.cayenne.cache.CacheStatisticsListener;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
 import org.apache.cayenne.cache.MapQueryCache;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.DefaultObjectStoreFactory;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
@@ -80,6 +85,9 @@ public class DataContextFactoryTest {
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
             binder.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+            binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+            binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
             binder.bind(DataDomainFlushActionFactory.class).to(DefaultDataDomainFlushActionFactory.class);
             binder.bind(DbRowOpSorter.class).to(DefaultDbRowOpSorter.class);
             binder.bind(EntitySorter.class).to(AshwoodEntitySorter.class);
@@ -119,6 +127,9 @@ public class DataContextFactoryTest {
             binder.bind(TransactionManager.class).to(DefaultTransactionManager.class);
             binder.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+            binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+            binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
             binder.bind(DataDomainFlushActionFactory.class).to(DefaultDataDomainFlushActionFactory.class);
             binder.bind(DbRowOpSorter.class).to(DefaultDbRowOpSorter.class);
             binder.bind(EntitySorter.class).to(AshwoodEntitySorter.class);
@@ -30,6 +30,8 @@ import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.DataRowStoreFactory;
 import org.apache.cayenne.access.DefaultDataRowStoreFactory;
+import org.apache.cayenne.access.DefaultSnapshotMapFactory;
+import org.apache.cayenne.access.SnapshotMapFactory;
 import org.apache.cayenne.access.dbsync.DefaultSchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SkipSchemaUpdateStrategy;
@@ -44,6 +46,9 @@ import org.apache.cayenne.access.types.DefaultValueObjectTypeRegistry;
 import org.apache.cayenne.access.types.ValueObjectTypeRegistry;
 import org.apache.cayenne.annotation.PostLoad;
 import org.apache.cayenne.ashwood.AshwoodEntitySorter;
+import org.apache.cayenne.cache.CacheStatisticsListener;
+import org.apache.cayenne.cache.CacheStatisticsRegistry;
+import org.apache.cayenne.cache.NoopCacheStatisticsListener;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.ConfigurationNameMapper;
 import org.apache.cayenne.configuration.ConfigurationTree;
@@ -242,6 +247,9 @@ public class DataDomainProviderTest {
 
             binder.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
             binder.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            binder.bind(CacheStatisticsListener.class).to(NoopCacheStatisticsListener.class);
+            binder.bind(CacheStatisticsRegistry.class).to(CacheStatisticsRegistry.class);
+            binder.bind(SnapshotMapFactory.class).to(DefaultSnapshotMapFactory.class);
 
             ServerModule.contributeValueObjectTypes(binder);
             binder.bind(ValueObjectTypeRegistry.class).to(DefaultValueObjectTypeRegistry.class);
@@ -18,9 +18,13 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -94,4 +98,85 @@ public class PoolAwareConnectionTest {
 		}
 
 	}
+
+	@Test
+	public void testPrepareStatement_Cached() throws SQLException {
+		PreparedStatement firstTry = mock(PreparedStatement.class);
+		PreparedStatement secondTry = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(firstTry, secondTry);
+
+		PoolingDataSourceStatistics statistics = new PoolingDataSourceStatistics("test", parentMock,
+				new PoolingDataSourceListener() {
+				});
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null);
+		paConnection.setStatementCache(new StatementCache(2, statistics));
+
+		PreparedStatement st1 = paConnection.prepareStatement("SELECT 1");
+		assertSame(firstTry, st1.unwrap(PoolAwarePreparedStatement.class).getStatement());
+		assertSame(paConnection, st1.getConnection());
+		st1.setInt(1, 5);
+		st1.close();
+		assertTrue(st1.isClosed());
+
+		verify(firstTry, never()).close();
+		verify(firstTry).clearParameters();
+		assertEquals(1, paConnection.getStatementCache().size());
+
+		PreparedStatement st2 = paConnection.prepareStatement("SELECT 1");
+		assertNotSame(st1, st2);
+		assertSame(firstTry, st2.unwrap(PoolAwarePreparedStatement.class).getStatement());
+
+		// the same SQL prepared again while the first statement is in use
+		PreparedStatement st3 = paConnection.prepareStatement("SELECT 1");
+		assertSame(secondTry, st3.unwrap(PoolAwarePreparedStatement.class).getStatement());
+
+		st2.close();
+		st3.close();
+		verify(secondTry).close();
+		verify(connectionMock, times(2)).prepareStatement("SELECT 1");
+
+		assertEquals(1, statistics.getStatementCacheHitCount());
+		assertEquals(2, statistics.getStatementCacheMissCount());
+	}
+
+	@Test
+	public void testPrepareStatement_CachedEviction() throws SQLException {
+		PreparedStatement st1 = mock(PreparedStatement.class);
+		PreparedStatement st2 = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement("SELECT 1")).thenReturn(st1);
+		when(connectionMock.prepareStatement("SELECT 2")).thenReturn(st2);
+
+		PoolingDataSourceStatistics statistics = new PoolingDataSourceStatistics("test", parentMock,
+				new PoolingDataSourceListener() {
+				});
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null);
+		paConnection.setStatementCache(new StatementCache(1, statistics));
+
+		paConnection.prepareStatement("SELECT 1").close();
+		paConnection.prepareStatement("SELECT 2").close();
+
+		verify(st1).close();
+		verify(st2, never()).close();
+		assertEquals(1, statistics.getStatementCacheEvictionCount());
+
+		paConnection.clearStatementCache();
+		verify(st2).close();
+		assertEquals(0, paConnection.getStatementCache().size());
+	}
+
+	@Test
+	public void testPrepareStatement_CachedNotReusable() throws SQLException {
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(statement);
+
+		PoolAwareConnection paConnection = new PoolAwareConnection(parentMock, connectionMock, null);
+		paConnection.setStatementCache(new StatementCache(2, mock(PoolingDataSourceStatistics.class)));
+
+		PreparedStatement st = paConnection.prepareStatement("SELECT 1");
+		st.setCursorName("c1");
+		st.close();
+
+		verify(statement).close();
+		assertEquals(0, paConnection.getStatementCache().size());
+	}
 }
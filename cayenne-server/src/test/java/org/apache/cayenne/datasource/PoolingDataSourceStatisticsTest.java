@@ -0,0 +1,220 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PoolingDataSourceStatisticsTest {
+
+	private DataSource nonPooling;
+	private PoolingDataSourceParameters params;
+
+	@Before
+	public void before() throws SQLException {
+		nonPooling = mock(DataSource.class);
+		when(nonPooling.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		params = new PoolingDataSourceParameters();
+	}
+
+	@Test
+	public void testAcquireRelease() throws SQLException {
+
+		List<String> events = new ArrayList<>();
+		params.setMinConnections(1);
+		params.setMaxConnections(3);
+		params.setListener(new PoolingDataSourceListener() {
+
+			@Override
+			public void onAcquire(long waitNanos) {
+				events.add("acquire");
+			}
+
+			@Override
+			public void onRelease(long holdNanos) {
+				events.add("release");
+			}
+
+			@Override
+			public void onCreate() {
+				events.add("create");
+			}
+		});
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+		PoolingDataSourceStatistics statistics = ds.getStatistics();
+
+		assertEquals(1, statistics.getCreateCount());
+		assertEquals(0, statistics.getAcquireCount());
+		assertEquals(1, statistics.getIdleConnections());
+
+		Connection c1 = ds.getConnection();
+		Connection c2 = ds.getConnection();
+
+		assertEquals(2, statistics.getAcquireCount());
+		assertEquals(2, statistics.getCreateCount());
+		assertEquals(2, statistics.getActiveConnections());
+		assertEquals(0, statistics.getIdleConnections());
+		assertEquals(0, statistics.getReleaseCount());
+
+		c1.close();
+		c2.close();
+
+		assertEquals(2, statistics.getReleaseCount());
+		assertEquals(0, statistics.getActiveConnections());
+		assertEquals(2, statistics.getIdleConnections());
+
+		long acquired = 0;
+		for (Long count : statistics.getAcquireTimeHistogram().values()) {
+			acquired += count;
+		}
+		assertEquals(2, acquired);
+
+		assertEquals(
+				"[create, acquire, create, acquire, release, release]",
+				events.toString());
+	}
+
+	@Test
+	public void testAcquireTimeout() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+		params.setMaxQueueWaitTime(10);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+		ds.getConnection();
+
+		try {
+			ds.getConnection();
+			fail("Pool overflow not checked");
+		} catch (UnmanagedPoolingDataSource.ConnectionUnavailableException e) {
+			// expected
+		}
+
+		assertEquals(1, ds.getStatistics().getAcquireCount());
+		assertEquals(1, ds.getStatistics().getAcquireTimeoutCount());
+	}
+
+	@Test
+	public void testEviction() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(3);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection[] open = new Connection[3];
+		for (int i = 0; i < open.length; i++) {
+			open[i] = ds.getConnection();
+		}
+
+		for (Connection c : open) {
+			c.close();
+		}
+
+		ds.managePool();
+
+		assertEquals(1, ds.getStatistics().getEvictionCount());
+		assertEquals(1, ds.getStatistics().getCloseCount());
+		assertEquals(2, ds.getStatistics().getPoolSize());
+	}
+
+	@Test
+	public void testReset() throws SQLException {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+		ds.getConnection().close();
+
+		PoolingDataSourceStatistics statistics = ds.getStatistics();
+		assertEquals(1, statistics.getAcquireCount());
+
+		statistics.reset();
+		assertEquals(0, statistics.getAcquireCount());
+		assertEquals(0, statistics.getReleaseCount());
+		assertEquals(0, statistics.getCreateCount());
+		assertEquals(0L, statistics.getMaxHoldTime());
+	}
+
+	@Test
+	public void testJmx_SameName() {
+		params.setMinConnections(1);
+		params.setMaxConnections(1);
+		params.setJmxName("testJmx_SameName");
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		UnmanagedPoolingDataSource ds1 = new UnmanagedPoolingDataSource(nonPooling, params);
+		UnmanagedPoolingDataSource ds2 = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		ObjectName name1 = ds1.getMBeanName();
+		ObjectName name2 = ds2.getMBeanName();
+		assertNotEquals(name1, name2);
+		assertTrue(server.isRegistered(name1));
+		assertTrue(server.isRegistered(name2));
+
+		// closing one pool must leave the other one's MBean in place
+		ds1.close();
+		assertFalse(server.isRegistered(name1));
+		assertTrue(server.isRegistered(name2));
+
+		ds2.close();
+		assertFalse(server.isRegistered(name2));
+	}
+
+	@Test
+	public void testTimeHistogram() {
+		PoolingDataSourceStatistics.TimeHistogram histogram = new PoolingDataSourceStatistics.TimeHistogram();
+
+		histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(7));
+		histogram.record(TimeUnit.SECONDS.toNanos(30));
+
+		Map<String, Long> buckets = histogram.getHistogram();
+		assertEquals(Long.valueOf(2), buckets.get("<=1ms"));
+		assertEquals(Long.valueOf(0), buckets.get("<=5ms"));
+		assertEquals(Long.valueOf(1), buckets.get("<=10ms"));
+		assertEquals(Long.valueOf(1), buckets.get(">10000ms"));
+		assertEquals(PoolingDataSourceStatistics.TimeHistogram.BUCKET_BOUNDS_MS.length + 1, buckets.size());
+
+		assertEquals(4, histogram.getCount());
+		assertEquals(30000L, histogram.getMaxMillis());
+		assertTrue(histogram.getAverageMillis() > 7500);
+	}
+}
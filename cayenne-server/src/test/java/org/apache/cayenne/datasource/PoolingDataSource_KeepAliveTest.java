@@ -0,0 +1,160 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PoolingDataSource_KeepAliveTest {
+
+	private DataSource nonPooling;
+	private PoolingDataSourceParameters params;
+	private int validations;
+	private boolean valid;
+
+	@Before
+	public void before() throws SQLException {
+		nonPooling = mock(DataSource.class);
+		when(nonPooling.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+		params = new PoolingDataSourceParameters();
+		params.setMinConnections(1);
+		params.setMaxConnections(2);
+		params.setValidationQuery("SELECT 1");
+
+		validations = 0;
+		valid = true;
+	}
+
+	private UnmanagedPoolingDataSource createDataSource() {
+		return new UnmanagedPoolingDataSource(nonPooling, params) {
+
+			@Override
+			PoolAwareConnection createWrapped() throws SQLException {
+				return new PoolAwareConnection(this, createUnwrapped(), getValidationQuery()) {
+
+					@Override
+					boolean validate() {
+						validations++;
+						if (valid) {
+							touch();
+						}
+						return valid;
+					}
+				};
+			}
+		};
+	}
+
+	@Test
+	public void testGetConnection_ValidatesOnCheckout() throws SQLException {
+		UnmanagedPoolingDataSource ds = createDataSource();
+
+		// one validation of a fresh connection
+		assertEquals(1, validations);
+
+		ds.getConnection().close();
+		ds.getConnection().close();
+		assertEquals(3, validations);
+	}
+
+	@Test
+	public void testGetConnection_ValidationInterval() throws SQLException {
+		params.setValidationInterval(60000);
+		UnmanagedPoolingDataSource ds = createDataSource();
+
+		ds.getConnection().close();
+		ds.getConnection().close();
+		assertEquals(1, validations);
+	}
+
+	@Test
+	public void testKeepAlive() throws Exception {
+		params.setKeepAliveInterval(1);
+		UnmanagedPoolingDataSource ds = createDataSource();
+		assertEquals(1, ds.poolSize());
+
+		Thread.sleep(5);
+		ds.keepAlive();
+		assertEquals(2, validations);
+		assertEquals(1, ds.availableSize());
+
+		valid = false;
+		Thread.sleep(5);
+		ds.keepAlive();
+		assertEquals(3, validations);
+		assertEquals(0, ds.poolSize());
+		assertEquals(0, ds.availableSize());
+	}
+
+	@Test
+	public void testKeepAlive_RecentlyUsed() throws SQLException {
+		params.setKeepAliveInterval(60000);
+		UnmanagedPoolingDataSource ds = createDataSource();
+
+		ds.keepAlive();
+		assertEquals(1, validations);
+		assertEquals(1, ds.availableSize());
+	}
+
+	@Test
+	public void testMaxConnectionLifetime() throws Exception {
+		params.setMaxConnectionLifetime(500);
+		UnmanagedPoolingDataSource ds = createDataSource();
+
+		Connection c = ds.getConnection();
+		assertEquals(1, ds.poolSize());
+
+		Thread.sleep(600);
+
+		// an expired connection is closed instead of being returned to the pool
+		c.close();
+		assertEquals(0, ds.poolSize());
+		assertEquals(1, ds.getStatistics().getCloseCount());
+
+		// an expired idle connection is retired by the background check
+		ds.getConnection().close();
+		assertEquals(1, ds.poolSize());
+
+		Thread.sleep(600);
+		ds.keepAlive();
+		assertEquals(0, ds.poolSize());
+		assertEquals(0, ds.availableSize());
+	}
+
+	@Test
+	public void testManagerWakeTime() {
+		assertEquals(120000, ManagedPoolingDataSource.managerWakeTime(createDataSource()));
+
+		params.setKeepAliveInterval(30000);
+		assertEquals(30000, ManagedPoolingDataSource.managerWakeTime(createDataSource()));
+
+		params.setMaxConnectionLifetime(60000);
+		assertEquals(6000, ManagedPoolingDataSource.managerWakeTime(createDataSource()));
+	}
+}
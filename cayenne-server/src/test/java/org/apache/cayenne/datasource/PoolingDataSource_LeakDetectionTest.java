@@ -0,0 +1,136 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PoolingDataSource_LeakDetectionTest {
+
+	private DataSource nonPooling;
+	private PoolingDataSourceParameters params;
+	private List<Throwable> leaks;
+
+	@Before
+	public void before() throws SQLException {
+		nonPooling = mock(DataSource.class);
+		when(nonPooling.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+		leaks = new ArrayList<>();
+		params = new PoolingDataSourceParameters();
+		params.setMinConnections(1);
+		params.setMaxConnections(2);
+		params.setListener(new PoolingDataSourceListener() {
+			@Override
+			public void onLeak(long holdNanos, Throwable checkoutStack) {
+				leaks.add(checkoutStack);
+			}
+		});
+	}
+
+	@Test
+	public void testGetCheckedOutConnections() throws SQLException {
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+		assertTrue(ds.getCheckedOutConnections().isEmpty());
+
+		Connection c = ds.getConnection();
+
+		List<CheckedOutConnectionInfo> checkedOut = ds.getCheckedOutConnections();
+		assertEquals(1, checkedOut.size());
+		assertEquals(Thread.currentThread().getName(), checkedOut.get(0).getThreadName());
+		assertFalse(checkedOut.get(0).isLeakSuspected());
+
+		// leak detection is off, so no stack is captured
+		assertNull(checkedOut.get(0).getCheckoutStack());
+
+		c.close();
+		assertTrue(ds.getCheckedOutConnections().isEmpty());
+	}
+
+	@Test
+	public void testDetectLeaks() throws Exception {
+		params.setLeakDetectionThreshold(500);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		Connection c1 = ds.getConnection();
+		ds.detectLeaks();
+		assertTrue(leaks.isEmpty());
+
+		Thread.sleep(600);
+		Connection c2 = ds.getConnection();
+
+		ds.detectLeaks();
+		assertEquals(1, leaks.size());
+		assertNotNull(leaks.get(0));
+		assertEquals(1, ds.getStatistics().getLeakCount());
+
+		// a leak is reported once per checkout
+		ds.detectLeaks();
+		assertEquals(1, leaks.size());
+
+		List<CheckedOutConnectionInfo> checkedOut = ds.getCheckedOutConnections();
+		assertEquals(2, checkedOut.size());
+
+		int suspected = 0;
+		for (CheckedOutConnectionInfo info : checkedOut) {
+			assertNotNull(info.getCheckoutStack());
+			if (info.isLeakSuspected()) {
+				suspected++;
+				assertTrue(info.getHoldTime() >= 500);
+				assertTrue(info.getCheckoutStack().contains("testDetectLeaks"));
+			}
+		}
+		assertEquals(1, suspected);
+
+		c1.close();
+		c2.close();
+		ds.detectLeaks();
+		assertEquals(1, leaks.size());
+	}
+
+	@Test
+	public void testDetectLeaks_NotSampled() throws Exception {
+		params.setLeakDetectionThreshold(5);
+		params.setLeakDetectionSampleRate(0);
+		UnmanagedPoolingDataSource ds = new UnmanagedPoolingDataSource(nonPooling, params);
+
+		ds.getConnection();
+		Thread.sleep(10);
+
+		ds.detectLeaks();
+		assertEquals(1, leaks.size());
+		assertNull(leaks.get(0));
+		assertNull(ds.getCheckedOutConnections().get(0).getCheckoutStack());
+	}
+}
@@ -19,6 +19,7 @@
 package org.apache.cayenne.datasource;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.junit.Test;
@@ -38,4 +39,16 @@ public class PoolingDataSource_StaticsTest {
 
 	}
 
+	@Test
+	public void testJitterLifetime() {
+
+		for (int i = 0; i < 100; i++) {
+			long lifetime = UnmanagedPoolingDataSource.jitterLifetime(1000);
+			assertTrue(lifetime <= 1000);
+			assertTrue(lifetime >= 900);
+		}
+
+		assertEquals(1, UnmanagedPoolingDataSource.jitterLifetime(1));
+	}
+
 }
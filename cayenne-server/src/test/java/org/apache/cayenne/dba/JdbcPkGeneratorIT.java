@@ -33,7 +33,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
@@ -92,4 +94,47 @@ public class JdbcPkGeneratorIT extends ServerCase {
         assertTrue(pk instanceof Long);
         assertTrue("PK is too small: " + pk, ((Long) pk).longValue() > Integer.MAX_VALUE);
     }
+
+    @Test
+    public void testGeneratePks() throws Exception {
+
+        if (!JdbcPkGenerator.class.isAssignableFrom(adapter.getPkGenerator().getClass())
+                || !((JdbcPkGenerator) adapter.getPkGenerator()).supportsPkBlocks()) {
+            return;
+        }
+
+        DbEntity artistEntity = node.getEntityResolver().getObjEntity(Artist.class).getDbEntity();
+        DbAttribute pkAttribute = artistEntity.getAttribute(Artist.ARTIST_ID_PK_COLUMN);
+
+        JdbcPkGenerator pkGenerator = (JdbcPkGenerator) adapter.getPkGenerator();
+        pkGenerator.createAutoPk(node, Collections.singletonList(artistEntity));
+        pkGenerator.reset();
+
+        // more than the cache size, allocated as a single block
+        int count = pkGenerator.getPkCacheSize() * 3 + 1;
+        List<Object> pks = pkGenerator.generatePks(node, pkAttribute, count);
+        assertEquals(count, pks.size());
+
+        long first = ((Number) pks.get(0)).longValue();
+        for (int i = 0; i < count; i++) {
+            assertEquals(first + i, ((Number) pks.get(i)).longValue());
+        }
+
+        // the block was sized to the request, so nothing is left in the cache and the next
+        // key starts a new block right after it
+        Object next = pkGenerator.generatePk(node, pkAttribute);
+        assertEquals(first + count, ((Number) next).longValue());
+    }
+
+    @Test
+    public void testPkBlockState() {
+        JdbcPkGenerator.PkBlockState state = new JdbcPkGenerator.PkBlockState();
+
+        // blocks consumed in quick succession grow up to the max size
+        assertEquals(20, state.nextBlockSize(20, 100));
+        assertEquals(40, state.nextBlockSize(20, 100));
+        assertEquals(80, state.nextBlockSize(20, 100));
+        assertEquals(100, state.nextBlockSize(20, 100));
+        assertEquals(100, state.nextBlockSize(20, 100));
+    }
 }
@@ -28,7 +28,11 @@ import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.sql.PreparedStatement;
+
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
 public class MySQLAdapterIT extends ServerCase {
@@ -67,4 +71,15 @@ public class MySQLAdapterIT extends ServerCase {
         assertTrue(b2.indexOf("PK2") > 0);
         assertTrue(b2.indexOf("PK1") > b2.indexOf("PK2"));
     }
+
+    @Test
+    public void testEnableStreaming() throws Exception {
+        MySQLAdapter adapter = objectFactory.newInstance(
+                MySQLAdapter.class,
+                MySQLAdapter.class.getName());
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        adapter.enableStreaming(statement, 100);
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+    }
 }
@@ -73,4 +73,10 @@ public class OraclePkGeneratorIT extends ServerCase {
         customGenerator.setGeneratorName("CUSTOM_GENERATOR");
         assertEquals("pk_test_entity", pkGenerator.sequenceName(entity));
     }
+
+    @Test
+    public void testSelectNextValsQuery() throws Exception {
+        assertEquals("SELECT pk_test_entity.nextval FROM DUAL CONNECT BY LEVEL <= 5",
+                pkGenerator.selectNextValsQuery("pk_test_entity", 5));
+    }
 }
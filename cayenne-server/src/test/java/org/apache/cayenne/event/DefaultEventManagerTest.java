@@ -26,6 +26,8 @@ import org.junit.Test;
 
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -415,6 +417,104 @@ public class DefaultEventManagerTest implements EventListener {
         assertFalse(eventManager.removeListener(this));
     }
 
+    @Test
+    public void testNonBlockingEventMetrics() throws Exception {
+        DefaultEventManager manager = (DefaultEventManager) eventManager;
+        EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+        manager.addListener(this, "seeNotification", CayenneEvent.class, subject);
+
+        for (int i = 0; i < 10; i++) {
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+        }
+
+        assertReceivedEvents(10, this);
+        assertEquals(0, manager.getQueueSize());
+        assertEquals(10, manager.getDispatchCount());
+        assertEquals(0, manager.getRejectedCount());
+        assertTrue(manager.getMaxDispatchLatency(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testBoundedQueueDiscard() throws Exception {
+        DefaultEventManager manager = new DefaultEventManager(1, 1, EventQueueOverflowPolicy.DISCARD);
+        try {
+            BlockingListener listener = new BlockingListener();
+            EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+            manager.addListener(listener, "seeNotification", CayenneEvent.class, subject);
+
+            // first event occupies the only dispatch thread, second one fills the queue
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+            assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+
+            assertEquals(1, manager.getQueueSize());
+            assertEquals(1, manager.getRejectedCount());
+
+            listener.release.countDown();
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueCallerRuns() throws Exception {
+        DefaultEventManager manager = new DefaultEventManager(1, 1, EventQueueOverflowPolicy.CALLER_RUNS);
+        try {
+            BlockingListener listener = new BlockingListener();
+            EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+            manager.addListener(listener, "seeNotification", CayenneEvent.class, subject);
+
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+            assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+
+            // must be delivered in this thread
+            DefaultEventManagerTest direct = new DefaultEventManagerTest();
+            manager.addListener(direct, "seeNotification", CayenneEvent.class, subject);
+            listener.blocking = false;
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+
+            assertEquals(1, direct.numberOfReceivedEvents);
+            assertEquals(0, manager.getRejectedCount());
+
+            listener.release.countDown();
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueBlock() throws Exception {
+        DefaultEventManager manager = new DefaultEventManager(1, 1, EventQueueOverflowPolicy.BLOCK);
+        try {
+            BlockingListener listener = new BlockingListener();
+            EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+            manager.addListener(listener, "seeNotification", CayenneEvent.class, subject);
+
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+            assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+            manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+
+            CountDownLatch posted = new CountDownLatch(1);
+            Thread producer = new Thread(() -> {
+                manager.postNonBlockingEvent(new CayenneEvent(this), subject);
+                posted.countDown();
+            });
+            producer.start();
+
+            // producer must wait while the queue is full
+            assertFalse(posted.await(200, TimeUnit.MILLISECONDS));
+
+            listener.blocking = false;
+            listener.release.countDown();
+            assertTrue(posted.await(5, TimeUnit.SECONDS));
+            assertEquals(0, manager.getRejectedCount());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
     // notification method
     public void seeNotification(CayenneEvent event) {
         numberOfReceivedEvents++;
@@ -450,6 +550,21 @@ public class DefaultEventManagerTest implements EventListener {
 
 }
 
+// listener that blocks the dispatch thread until released
+class BlockingListener {
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    volatile boolean blocking = true;
+
+    public void seeNotification(CayenneEvent event) throws InterruptedException {
+        if (blocking) {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
+
 // dummy class to test for incompatible events
 class MyCayenneEvent extends CayenneEvent {
 
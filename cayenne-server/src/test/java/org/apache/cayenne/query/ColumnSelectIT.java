@@ -27,6 +27,8 @@ import java.text.DateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.Fault;
@@ -107,6 +109,18 @@ public class ColumnSelectIT extends ServerCase {
         tPaintings.insert(21, "painting21", 2, 1, 30);
     }
 
+    @Test
+    public void testStream() {
+        try (Stream<String> names = ObjectSelect.columnQuery(Artist.class, Artist.ARTIST_NAME)
+                .orderBy(Artist.ARTIST_NAME.asc())
+                .stream(context)) {
+            List<String> result = names.limit(3).collect(Collectors.toList());
+            assertEquals(3, result.size());
+            assertEquals("artist1", result.get(0));
+            assertEquals("artist10", result.get(1));
+        }
+    }
+
     @Test
     public void testSelectGroupBy() throws Exception {
         Object[] result = ObjectSelect.query(Artist.class)
@@ -0,0 +1,129 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.dba.InListStrategy;
+import org.apache.cayenne.dba.JdbcAdapter;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs IN and NOT IN queries with each of the IN list strategies. ARRAY strategy falls back to PADDED
+ * on the databases that don't support array parameters.
+ *
+ * @since 4.2
+ */
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class ObjectSelect_InListIT extends ServerCase {
+
+	@Inject
+	private DataContext context;
+
+	@Inject
+	private ServerRuntime runtime;
+
+	@Inject
+	private DBHelper dbHelper;
+
+	private JdbcAdapter adapter;
+	private InListStrategy oldStrategy;
+
+	@Before
+	public void before() throws Exception {
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+		for (int i = 1; i <= 5; i++) {
+			tArtist.insert(i, "artist" + i);
+		}
+
+		TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+		tPainting.setColumns("PAINTING_ID", "PAINTING_TITLE", "ARTIST_ID", "ESTIMATED_PRICE");
+		for (int i = 1; i <= 5; i++) {
+			tPainting.insert(i, "painting" + i, i, new BigDecimal(i + ".5"));
+		}
+
+		adapter = (JdbcAdapter) runtime.getDataDomain().getDataNodes().iterator().next().getAdapter();
+		oldStrategy = adapter.getInListStrategy();
+	}
+
+	@After
+	public void after() {
+		adapter.setInListStrategy(oldStrategy);
+	}
+
+	@Test
+	public void testExpanded() {
+		assertInQueries(InListStrategy.EXPANDED);
+	}
+
+	@Test
+	public void testPadded() {
+		assertInQueries(InListStrategy.PADDED);
+	}
+
+	@Test
+	public void testArray() {
+		assertInQueries(InListStrategy.ARRAY);
+		assertEquals(adapter.supportsArrayInList() ? InListStrategy.ARRAY : InListStrategy.PADDED,
+				adapter.getInListStrategy());
+	}
+
+	private void assertInQueries(InListStrategy strategy) {
+		adapter.setInListStrategy(strategy);
+
+		// run each query twice, the second one may reuse a cached select plan
+		for (int i = 0; i < 2; i++) {
+			assertArtists("[artist2, artist4]", Artist.ARTIST_ID_PK_PROPERTY.in(2L, 4L, 100L));
+			assertArtists("[artist1, artist3, artist5]", Artist.ARTIST_ID_PK_PROPERTY.nin(2L, 4L, 100L));
+			assertArtists("[artist1, artist3]", Artist.ARTIST_NAME.in("artist1", "artist3", "artist33333333"));
+			assertArtists("[artist5]", Artist.ARTIST_NAME.in("artist5"));
+
+			List<String> titles = ObjectSelect.columnQuery(Painting.class, Painting.PAINTING_TITLE)
+					.where(Painting.ESTIMATED_PRICE.in(new BigDecimal("2.5"), new BigDecimal("4.50")))
+					.orderBy(Painting.PAINTING_TITLE.asc())
+					.select(context);
+			assertEquals("[painting2, painting4]", titles.toString());
+		}
+	}
+
+	private void assertArtists(String expected, Expression qualifier) {
+		List<String> names = ObjectSelect.columnQuery(Artist.class, Artist.ARTIST_NAME)
+				.where(qualifier)
+				.orderBy(Artist.ARTIST_NAME.asc())
+				.select(context);
+		assertEquals(expected, names.toString());
+	}
+}
@@ -19,9 +19,12 @@
 package org.apache.cayenne.query;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataContext;
@@ -120,6 +123,31 @@ public class ObjectSelect_RunIT extends ServerCase {
 		}
 	}
 
+	@Test
+	public void test_Stream() {
+		try (Stream<Artist> stream = ObjectSelect.query(Artist.class).stream(context)) {
+			assertEquals(20, stream.filter(a -> a.getArtistName() != null).count());
+		}
+
+		assertEquals(20, context.getObjectStore().registeredObjectsCount());
+	}
+
+	@Test
+	public void test_Stream_DetachObjects() {
+		List<Artist> artists;
+		try (Stream<Artist> stream = ObjectSelect.query(Artist.class).stream(context, true)) {
+			artists = stream.limit(15).collect(Collectors.toList());
+		}
+
+		assertEquals(15, artists.size());
+		for (Artist a : artists) {
+			assertEquals(PersistenceState.TRANSIENT, a.getPersistenceState());
+			assertNotNull(a.getArtistName());
+		}
+
+		assertEquals(0, context.getObjectStore().registeredObjectsCount());
+	}
+
 	@Test
 	public void test_SelectDataRows() {
 		List<DataRow> result = ObjectSelect.dataRowQuery(Artist.class).select(context);
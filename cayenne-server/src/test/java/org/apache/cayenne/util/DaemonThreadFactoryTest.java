@@ -0,0 +1,69 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DaemonThreadFactoryTest {
+
+    @Test
+    public void testNewThread() throws Exception {
+        DaemonThreadFactory factory = new DaemonThreadFactory("test-", false);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread t1 = factory.newThread(latch::countDown);
+        Thread t2 = factory.newThread(() -> {});
+
+        assertEquals("test-1", t1.getName());
+        assertEquals("test-2", t2.getName());
+        assertTrue(t1.isDaemon());
+        assertFalse(t1.isAlive());
+        assertFalse(factory.isVirtual());
+
+        t1.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNewThread_Virtual() throws Exception {
+        DaemonThreadFactory factory = new DaemonThreadFactory("test-", true);
+        assertEquals(DaemonThreadFactory.isVirtualThreadSupported(), factory.isVirtual());
+
+        // falls back to a platform thread on JVMs without virtual threads
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread thread = factory.newThread(latch::countDown);
+
+        assertEquals("test-1", thread.getName());
+        assertTrue(thread.isDaemon());
+
+        thread.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        if (DaemonThreadFactory.isVirtualThreadSupported()) {
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        }
+    }
+}
@@ -224,7 +224,63 @@ public class InvocationTest {
 		assertFalse(inv0.fire());
 	}
 
-	
+    @Test
+	public void testFireWrongArgumentType() throws NoSuchMethodException {
+		Invocation inv1 = new Invocation(this, "myStringListenerMethod", new Class[]{String.class});
+
+		assertFalse(inv1.fire(new Object()));
+		assertTrue(inv1.fire("foo"));
+		assertEquals("foo", lastArgument);
+	}
+
+    @Test
+	public void testFirePrimitiveArgument() throws NoSuchMethodException {
+		Invocation inv1 = new Invocation(this, "myIntListenerMethod", new Class[]{Integer.TYPE});
+
+		assertTrue(inv1.fire(5));
+		assertEquals(5, lastArgument);
+		assertFalse(inv1.fire((Object) null));
+	}
+
+    @Test
+	public void testFireWidenedPrimitiveArgument() throws NoSuchMethodException {
+		Invocation inv1 = new Invocation(this, "myIntListenerMethod", new Class[]{Integer.TYPE});
+
+		assertTrue(inv1.fire((short) 5));
+		assertEquals(5, lastArgument);
+		assertTrue(inv1.fire('a'));
+		assertEquals(97, lastArgument);
+
+		// narrowing and non-numeric conversions are rejected, same as with Method.invoke(..)
+		assertFalse(inv1.fire(5L));
+		assertFalse(inv1.fire(5.0));
+		assertFalse(inv1.fire(Boolean.TRUE));
+	}
+
+    @Test
+	public void testFireNonPublicListener() throws NoSuchMethodException {
+		PrivateListener listener = new PrivateListener();
+		Invocation inv1 = new Invocation(listener, "onEvent", new Class[]{Object.class});
+
+		assertTrue(inv1.fire("foo"));
+		assertEquals("foo", listener.received);
+	}
+
+    @Test
+	public void testFireListenerException() throws NoSuchMethodException {
+		Invocation inv1 = new Invocation(this, "myFailingListenerMethod", new Class[]{Object.class});
+
+		try {
+			inv1.fire("foo");
+			fail();
+		}
+		catch (IllegalStateException ex) {
+			// expected, listener exceptions are rethrown
+		}
+	}
+
+	private Object lastArgument;
+
 	// these methods exist for the test of Invocation equality
 	public void myListenerMethod() {
 	}
@@ -232,4 +288,25 @@ public class InvocationTest {
 	public void myListenerMethod(Object o) {
 	}
 
+	public void myStringListenerMethod(String s) {
+		lastArgument = s;
+	}
+
+	public void myIntListenerMethod(int i) {
+		lastArgument = i;
+	}
+
+	public void myFailingListenerMethod(Object o) {
+		throw new IllegalStateException("failed");
+	}
+
+	private static class PrivateListener {
+
+		Object received;
+
+		private void onEvent(Object o) {
+			received = o;
+		}
+	}
+
 }
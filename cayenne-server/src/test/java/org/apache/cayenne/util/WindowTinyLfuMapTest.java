@@ -0,0 +1,184 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WindowTinyLfuMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        WindowTinyLfuMap<String, Integer> map = new WindowTinyLfuMap<>(10);
+
+        assertNull(map.put("a", 1));
+        assertEquals(Integer.valueOf(1), map.put("a", 2));
+        assertEquals(Integer.valueOf(2), map.putIfAbsent("a", 3));
+        assertEquals(Integer.valueOf(2), map.get("a"));
+
+        assertFalse(map.replace("a", 3, 4));
+        assertTrue(map.replace("a", 2, 4));
+        assertEquals(Integer.valueOf(4), map.replace("a", 5));
+        assertNull(map.replace("b", 1));
+
+        assertFalse(map.remove("a", 4));
+        assertTrue(map.remove("a", 5));
+        assertTrue(map.isEmpty());
+
+        map.put("b", 1);
+        map.put("c", 2);
+        assertEquals(2, map.entrySet().size());
+        map.keySet().remove("b");
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey("b"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put("d", 1);
+        assertEquals(Integer.valueOf(1), map.get("d"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        AtomicInteger evicted = new AtomicInteger();
+        WindowTinyLfuMap<Integer, Integer> map = new WindowTinyLfuMap<>(100, (k, v) -> evicted.incrementAndGet());
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(100, map.size());
+        assertEquals(900, evicted.get());
+    }
+
+    @Test
+    public void testScanResistance() {
+        int capacity = 100;
+        Map<Integer, Integer> lru = new ConcurrentLinkedHashMap.Builder<Integer, Integer>()
+                .maximumWeightedCapacity(capacity)
+                .build();
+        Map<Integer, Integer> tinyLfu = new WindowTinyLfuMap<>(capacity);
+
+        int lruHits = runScan(lru);
+        int tinyLfuHits = runScan(tinyLfu);
+
+        // LRU loses all of the hot entries to a scan
+        assertEquals(0, lruHits);
+        assertTrue("Too few hot entries survived the scan: " + tinyLfuHits, tinyLfuHits >= 45);
+    }
+
+    private int runScan(Map<Integer, Integer> map) {
+
+        // a working set accessed many times
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (map.get(i) == null) {
+                    map.put(i, i);
+                }
+            }
+        }
+
+        // a large one-time read
+        for (int i = 1000; i < 11000; i++) {
+            map.put(i, i);
+        }
+
+        int hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (map.containsKey(i)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        WindowTinyLfuMap<String, Integer> map = new WindowTinyLfuMap<>(10);
+        map.put("a", 1);
+        map.put("b", 2);
+
+        WindowTinyLfuMap<String, Integer> clone = Util.cloneViaSerialization(map);
+        assertEquals(2, clone.size());
+        assertEquals(Integer.valueOf(1), clone.get("a"));
+        assertEquals(Integer.valueOf(2), clone.get("b"));
+        assertEquals(10, clone.capacity());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        int capacity = 500;
+        WindowTinyLfuMap<Integer, Integer> map = new WindowTinyLfuMap<>(capacity);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20000; i++) {
+                        int key = random.nextInt(2000);
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                map.put(key, key);
+                                break;
+                            case 1:
+                                map.remove(key);
+                                break;
+                            default:
+                                Integer value = map.get(key);
+                                if (value != null) {
+                                    assertEquals(key, value.intValue());
+                                }
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(map.size() <= capacity);
+
+        // the policy should still be consistent with the data
+        for (int i = 0; i < 2000; i++) {
+            map.put(10000 + i, i);
+        }
+        assertEquals(capacity, map.size());
+    }
+}